@@ -0,0 +1,206 @@
+package rentatool.app;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the Rent-A-Tool JMH benchmarks and writes a CSV report of the results.
+ * Every matching benchmark is run twice:
+ * 1) In Throughput mode (ops/s) with JMH's GC profiler attached, reporting the
+ *    allocation rate (MB/s) and the normalized allocation per operation (B/op)
+ * 2) In SampleTime mode (us/op), reporting the p50, p90, p99 and p99.9 latencies
+ *
+ * If a baseline CSV report is passed in, each metric is compared against it and
+ * the relative change is printed to the console.
+ *
+ * Usage: BenchmarkRunner [benchmark regex] [--output report.csv] [--baseline baseline.csv] [--quick]
+ * The default output file is bench/results.csv. The --quick flag shortens warmup and
+ * measurement to a single 1 second iteration each, which is only meant for checking
+ * that the benchmarks still run.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class BenchmarkRunner {
+
+	static final String CSV_HEADER = "benchmark,params,metric,score,error,unit";
+	static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		String include = "rentatool\\.app\\.JMH.*";
+		Path output = Paths.get("bench", "results.csv");
+		Path baseline = null;
+		boolean quick = false;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--output")) {
+				output = Paths.get(args[++i]);
+			} else if (args[i].equals("--baseline")) {
+				baseline = Paths.get(args[++i]);
+			} else if (args[i].equals("--quick")) {
+				quick = true;
+			} else {
+				include = args[i];
+			}
+		}
+
+		ChainedOptionsBuilder throughput = new OptionsBuilder()
+				.include(include)
+				.mode(Mode.Throughput)
+				.timeUnit(TimeUnit.SECONDS)
+				.addProfiler(GCProfiler.class);
+		ChainedOptionsBuilder sampleTime = new OptionsBuilder()
+				.include(include)
+				.mode(Mode.SampleTime)
+				.timeUnit(TimeUnit.MICROSECONDS);
+		if (quick) {
+			for (ChainedOptionsBuilder options : List.of(throughput, sampleTime)) {
+				options.warmupIterations(1).warmupTime(TimeValue.seconds(1))
+						.measurementIterations(1).measurementTime(TimeValue.seconds(1));
+			}
+		}
+
+		Map<String, String[]> report = new LinkedHashMap<String, String[]>();
+		addThroughputRows(report, new Runner(throughput.build()).run());
+		addSampleTimeRows(report, new Runner(sampleTime.build()).run());
+		writeReport(output, report);
+		System.out.println(String.format("Benchmark report written to %s", output));
+
+		if (baseline != null) {
+			System.out.println(compare(readReport(baseline), report));
+		}
+	}
+
+	static void addThroughputRows(Map<String, String[]> report, Collection<RunResult> results) {
+		for (RunResult runResult : results) {
+			BenchmarkParams params = runResult.getParams();
+			addRow(report, params, "ops", runResult.getPrimaryResult());
+			// getSecondaryResults() is declared with the raw Result type, so its entries are only read as Result<?>
+			runResult.getSecondaryResults().forEach((label, secondary) -> {
+				if (label.endsWith("gc.alloc.rate") || label.endsWith("gc.alloc.rate.norm")) {
+					addRow(report, params, label.substring(label.indexOf("gc.")), secondary);
+				}
+			});
+		}
+	}
+
+	static void addSampleTimeRows(Map<String, String[]> report, Collection<RunResult> results) {
+		for (RunResult runResult : results) {
+			Result<?> primary = runResult.getPrimaryResult();
+			for (double percentile : PERCENTILES) {
+				String metric = String.format("p%s", percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile));
+				String[] row = {
+						runResult.getParams().getBenchmark(),
+						paramsOf(runResult.getParams()),
+						metric,
+						String.format("%.3f", primary.getStatistics().getPercentile(percentile)),
+						"",
+						primary.getScoreUnit()
+				};
+				report.put(keyOf(row), row);
+			}
+		}
+	}
+
+	static void addRow(Map<String, String[]> report, BenchmarkParams params, String metric, Result<?> result) {
+		String[] row = {
+				params.getBenchmark(),
+				paramsOf(params),
+				metric,
+				String.format("%.3f", result.getScore()),
+				Double.isNaN(result.getScoreError()) ? "" : String.format("%.3f", result.getScoreError()),
+				result.getScoreUnit()
+		};
+		report.put(keyOf(row), row);
+	}
+
+	// Benchmark parameters as "name=value" pairs separated by ';' so that they fit in one CSV column
+	static String paramsOf(BenchmarkParams params) {
+		List<String> pairs = new ArrayList<String>();
+		for (String key : params.getParamsKeys()) {
+			pairs.add(key + "=" + params.getParam(key));
+		}
+		return String.join(";", pairs);
+	}
+
+	static String keyOf(String[] row) {
+		return row[0] + "|" + row[1] + "|" + row[2];
+	}
+
+	static void writeReport(Path file, Map<String, String[]> report) throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(CSV_HEADER);
+			writer.newLine();
+			for (String[] row : report.values()) {
+				writer.write(String.join(",", row));
+				writer.newLine();
+			}
+		}
+	}
+
+	static Map<String, String[]> readReport(Path file) throws IOException {
+		Map<String, String[]> report = new LinkedHashMap<String, String[]>();
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line = reader.readLine(); // skip header
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty()) {
+					String[] row = line.split(",", -1);
+					report.put(keyOf(row), row);
+				}
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Builds a table comparing every metric found in both reports. For ops/s
+	 * a positive change is an improvement, for every other metric (latency
+	 * and allocation) a negative change is an improvement.
+	 */
+	static String compare(Map<String, String[]> baseline, Map<String, String[]> current) {
+		StringBuilder output = new StringBuilder();
+		output.append(String.format("%-70s %-18s %14s %14s %9s %s%n", "Benchmark (params)", "Metric", "Baseline", "Current", "Change", "Unit"));
+		for (Map.Entry<String, String[]> entry : current.entrySet()) {
+			String[] row = entry.getValue();
+			String[] baselineRow = baseline.get(entry.getKey());
+			if (baselineRow == null) {
+				continue;
+			}
+
+			double before = Double.parseDouble(baselineRow[3]);
+			double after = Double.parseDouble(row[3]);
+			String change = (before == 0) ? "n/a" : String.format("%+.1f%%", ((after - before) / before) * 100);
+			String name = row[0].substring(row[0].lastIndexOf('.', row[0].lastIndexOf('.') - 1) + 1);
+			if (!row[1].isEmpty()) {
+				name += " (" + row[1] + ")";
+			}
+			output.append(String.format("%-70s %-18s %14s %14s %9s %s%n", name, row[2], baselineRow[3], row[3], change, row[5]));
+		}
+		return output.toString();
+	}
+}
@@ -0,0 +1,87 @@
+package rentatool.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Type;
+
+/**
+ * Benchmarks findAvailable(Type.JACKHAMMER, Brand.RIDGID) on 1,000,000 serialized
+ * units (a third of each type, 1 in 50 jackhammers a Ridgid, every fourth unit checked
+ * out): through the AvailabilityIndex of a HashMapStorage, by filtering every tool of
+ * the same HashMapStorage (the StorageSystem default), and by scanning the columns of
+ * a ColumnarStorage.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class JMHAvailabilityIndexBenchmarks {
+
+	static final int UNITS = 1000000;
+
+	HashMapStorage hashMapStorage;
+	ColumnarStorage columnarStorage;
+
+	@Setup
+	public void setup() {
+		hashMapStorage = new HashMapStorage();
+		columnarStorage = new ColumnarStorage(UNITS);
+		List<Tool> units = new ArrayList<Tool>(UNITS);
+		for (int i = 0; i < UNITS; i++) {
+			ToolId id = ToolId.of(String.format("UNIT-%07d", i));
+			Tool unit;
+			if (i % 3 == 0) {
+				unit = new Chainsaw(id, Brand.STIHL);
+			} else if (i % 3 == 1) {
+				unit = new Ladder(id, Brand.WERNER);
+			} else {
+				unit = new Jackhammer(id, (i % 50 == 2) ? Brand.RIDGID : Brand.DEWALT);
+			}
+			unit.setCheckedOut(i % 4 == 0);
+			units.add(unit);
+		}
+		hashMapStorage.addTools(units);
+		columnarStorage.addTools(units);
+	}
+
+	@Benchmark
+	public long findAvailableIndexed() {
+		return hashMapStorage.findAvailable(Type.JACKHAMMER, Brand.RIDGID).count();
+	}
+
+	@Benchmark
+	public long findAvailableFiltered() {
+		return hashMapStorage.streamTools()
+				.filter(tool -> !tool.isCheckedOut() && tool.getType() == Type.JACKHAMMER && tool.getBrand() == Brand.RIDGID)
+				.count();
+	}
+
+	@Benchmark
+	public long findAvailableColumnar() {
+		return columnarStorage.findAvailable(Type.JACKHAMMER, Brand.RIDGID).count();
+	}
+}
@@ -0,0 +1,95 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.BatchRentalPricer;
+import rentatool.rental_items.ClosedFormChargeableDaysCalculator;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.RentalRequest;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks pricing a batch of 100,000 random RentalRequests with a
+ * BatchRentalPricer on ForkJoinPools of different sizes, against creating
+ * the RentalAgreements one at a time on a single thread. Scores are per
+ * priced request, so the two can be compared directly.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHBatchRentalPricerBenchmarks {
+
+	static final int BATCH_SIZE = 100000;
+
+	@Param({"1", "2", "4"})
+	int parallelism;
+
+	Map<Code, Tool> tools;
+	List<RentalRequest> requests;
+	ForkJoinPool pool;
+	BatchRentalPricer pricer;
+
+	@Setup
+	public void setup() {
+		tools = new HashMapStorage().getTools(Arrays.asList(Code.values()));
+		Random random = new Random(42);
+		Code[] codes = Code.values();
+		requests = new ArrayList<RentalRequest>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			requests.add(new RentalRequest(codes[random.nextInt(codes.length)], 1 + random.nextInt(30), random.nextInt(101),
+					LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3653))));
+		}
+		pool = new ForkJoinPool(parallelism);
+		pricer = new BatchRentalPricer(tools, new ClosedFormChargeableDaysCalculator(), pool);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<RentalAgreement> batchPriceAll() {
+		return pricer.priceAll(requests);
+	}
+
+	// Single-threaded baseline, so its score does not depend on the parallelism parameter
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<RentalAgreement> oneAtATime() {
+		List<RentalAgreement> agreements = new ArrayList<RentalAgreement>(BATCH_SIZE);
+		for (RentalRequest request : requests) {
+			agreements.add(new RentalAgreement(tools.get(request.getCode()), request.getRentalDays(), request.getDiscountPercent(), request.getCheckoutDate()));
+		}
+		return agreements;
+	}
+}
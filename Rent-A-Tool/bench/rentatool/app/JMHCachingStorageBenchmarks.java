@@ -0,0 +1,67 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks looking up one of the four default tools (the "hot" codes clerks
+ * type all day) in an SQLiteDB, directly and through a CachingStorage.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHCachingStorageBenchmarks {
+
+	static final Code[] CODES = Code.values();
+
+	SQLiteDB sqliteDB;
+	CachingStorage cachingStorage;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		sqliteDB = new SQLiteDB(1);
+		cachingStorage = new CachingStorage(sqliteDB);
+	}
+
+	@TearDown
+	public void tearDown() {
+		sqliteDB.closeConnection();
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public Tool getToolSQLiteDB() {
+		return sqliteDB.getTool(CODES[ThreadLocalRandom.current().nextInt(CODES.length)]);
+	}
+
+	@Benchmark
+	public Tool getToolCached() {
+		return cachingStorage.getTool(CODES[ThreadLocalRandom.current().nextInt(CODES.length)]);
+	}
+}
@@ -0,0 +1,87 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks pricing rentals through a CheckoutHttpService backed by a
+ * ConcurrentHashMapStorage: GET /quote requests sent by 4 client threads over
+ * keep-alive connections, and the JSON serialization of a RentalAgreement alone.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHCheckoutHttpServiceBenchmarks {
+
+	static final int THREADS = 4;
+	static final Code[] CODES = Code.values();
+
+	CheckoutHttpService service;
+	HttpClient client;
+	HttpRequest[] quoteRequests;
+	RentalAgreement rentalAgreement;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() throws IOException {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		ConcurrentHashMapStorage storage = new ConcurrentHashMapStorage();
+		service = new CheckoutHttpService(storage, 0).start();
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		quoteRequests = new HttpRequest[CODES.length];
+		for (int i = 0; i < CODES.length; i++) {
+			URI uri = URI.create(String.format("http://localhost:%d/quote?code=%s&rentalDays=5&discountPercent=10&checkoutDate=2015-09-03", service.getPort(), CODES[i]));
+			quoteRequests[i] = HttpRequest.newBuilder(uri).GET().build();
+		}
+		rentalAgreement = new RentalAgreement(storage.getTool(Code.JAKR), 5, 10, LocalDate.of(2015, 9, 3));
+	}
+
+	@TearDown
+	public void tearDown() {
+		service.close();
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public String quoteOverHttp() throws IOException, InterruptedException {
+		HttpRequest request = quoteRequests[ThreadLocalRandom.current().nextInt(quoteRequests.length)];
+		return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+	@Benchmark
+	public StringBuilder quoteJson() {
+		return CheckoutHttpService.appendRentalAgreement(new StringBuilder(512), rentalAgreement);
+	}
+}
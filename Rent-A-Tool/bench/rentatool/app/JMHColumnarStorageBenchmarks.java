@@ -0,0 +1,87 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+
+/**
+ * Benchmarks a ColumnarStorage and a HashMapStorage holding the same 1,000,000
+ * serialized units (every third one checked out): looking up a random unit by
+ * ToolId in each, and counting the available units of the ColumnarStorage.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class JMHColumnarStorageBenchmarks {
+
+	static final int UNITS = 1000000;
+
+	ColumnarStorage columnarStorage;
+	HashMapStorage hashMapStorage;
+	ToolId[] ids;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		columnarStorage = new ColumnarStorage(UNITS);
+		hashMapStorage = new HashMapStorage();
+		ids = new ToolId[UNITS];
+		List<Tool> units = new ArrayList<Tool>(UNITS);
+		for (int i = 0; i < UNITS; i++) {
+			ids[i] = ToolId.of(String.format("LADW-%07d", i));
+			Tool unit = new Ladder(ids[i], Brand.WERNER);
+			unit.setCheckedOut(i % 3 == 0);
+			units.add(unit);
+		}
+		columnarStorage.addTools(units);
+		hashMapStorage.addTools(units);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public Tool getToolColumnar() {
+		return columnarStorage.getTool(ids[ThreadLocalRandom.current().nextInt(UNITS)]);
+	}
+
+	@Benchmark
+	public Tool getToolHashMap() {
+		return hashMapStorage.getTool(ids[ThreadLocalRandom.current().nextInt(UNITS)]);
+	}
+
+	@Benchmark
+	public int countAvailableColumnar() {
+		return columnarStorage.countAvailable();
+	}
+}
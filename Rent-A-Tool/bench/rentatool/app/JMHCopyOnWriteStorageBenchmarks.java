@@ -0,0 +1,120 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.ImmutableTool;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Multithreaded throughput benchmarks of the two thread-safe StorageSystems:
+ * reading a tool from a ConcurrentHashMapStorage (a copy taken under a stripe
+ * lock) and from a CopyOnWriteStorage (the shared ImmutableTool itself, or a
+ * Tool converted from it), with and without a writer changing the same tools.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHCopyOnWriteStorageBenchmarks {
+
+	static final int THREADS = 8;
+	static final Code[] CODES = Code.values();
+
+	ConcurrentHashMapStorage concurrentHashMapStorage;
+	CopyOnWriteStorage copyOnWriteStorage;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		concurrentHashMapStorage = new ConcurrentHashMapStorage();
+		copyOnWriteStorage = new CopyOnWriteStorage();
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(standardOut);
+	}
+
+	static Code randomCode() {
+		return CODES[ThreadLocalRandom.current().nextInt(CODES.length)];
+	}
+
+	static float randomCharge() {
+		return ThreadLocalRandom.current().nextBoolean() ? 1.99f : 2.99f;
+	}
+
+	// Every thread only reads
+	@Benchmark
+	@Threads(THREADS)
+	public Tool readConcurrentHashMapStorage() {
+		return concurrentHashMapStorage.getTool(randomCode());
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public Tool readCopyOnWriteStorage() {
+		return copyOnWriteStorage.getTool(randomCode());
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public ImmutableTool readCopyOnWriteStorageImmutable() {
+		return copyOnWriteStorage.getImmutableTool(randomCode());
+	}
+
+	// THREADS - 1 readers share each storage with a single writer
+	@Benchmark
+	@Group("mixedConcurrentHashMapStorage")
+	@GroupThreads(THREADS - 1)
+	public Tool mixedReadConcurrentHashMapStorage() {
+		return concurrentHashMapStorage.getTool(randomCode());
+	}
+
+	@Benchmark
+	@Group("mixedConcurrentHashMapStorage")
+	@GroupThreads(1)
+	public void mixedWriteConcurrentHashMapStorage() {
+		concurrentHashMapStorage.updateTool(randomCode(), Attribute.DAILYCHARGE, randomCharge());
+	}
+
+	@Benchmark
+	@Group("mixedCopyOnWriteStorage")
+	@GroupThreads(THREADS - 1)
+	public ImmutableTool mixedReadCopyOnWriteStorage() {
+		return copyOnWriteStorage.getImmutableTool(randomCode());
+	}
+
+	@Benchmark
+	@Group("mixedCopyOnWriteStorage")
+	@GroupThreads(1)
+	public void mixedWriteCopyOnWriteStorage() {
+		copyOnWriteStorage.updateTool(randomCode(), Attribute.DAILYCHARGE, randomCharge());
+	}
+}
@@ -0,0 +1,89 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Multithreaded benchmarks of a mixed workload on a pooled SQLiteDB (with group
+ * commit enabled) shared by several threads (checkout terminals). Every operation
+ * is one terminal looking up three tools and returning a fourth one, either one
+ * call after the other ("sync"), or by submitting all four to an
+ * ExecutorAsyncStorage before waiting on any of them ("async").
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHExecutorAsyncStorageBenchmarks {
+
+	static final int THREADS = 4;
+	static final int POOL_SIZE = 8;
+	static final Code[] CODES = Code.values();
+
+	@Param({"sync", "async"})
+	String mode;
+
+	SQLiteDB storage;
+	ExecutorAsyncStorage asyncStorage;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		storage = new SQLiteDB(POOL_SIZE);
+		storage.enableGroupCommit(256, 0);
+		asyncStorage = new ExecutorAsyncStorage(storage, POOL_SIZE, 1024);
+	}
+
+	@TearDown
+	public void tearDown() {
+		asyncStorage.close();
+		storage.closeConnection();
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public Object lookupsAndReturn() {
+		int first = ThreadLocalRandom.current().nextInt(CODES.length);
+		if (mode.equals("sync")) {
+			storage.getTool(CODES[first]);
+			storage.getTool(CODES[(first + 1) % CODES.length]);
+			storage.getTool(CODES[(first + 2) % CODES.length]);
+			storage.updateTool(CODES[(first + 3) % CODES.length], Attribute.CHECKEDOUT, false);
+			return null;
+		}
+
+		return CompletableFuture.allOf(
+				asyncStorage.getTool(CODES[first]),
+				asyncStorage.getTool(CODES[(first + 1) % CODES.length]),
+				asyncStorage.getTool(CODES[(first + 2) % CODES.length]),
+				asyncStorage.updateTool(CODES[(first + 3) % CODES.length], Attribute.CHECKEDOUT, false)).join();
+	}
+}
@@ -0,0 +1,65 @@
+package rentatool.app;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a full simulated checkout through Main.runRentAToolApp:
+ * listing the available tools, answering every prompt, generating the
+ * RentalAgreement and updating the tool's checkout status.
+ *
+ * A new StorageSystem is created per invocation since the application
+ * leaves the tool checked out (and closes SQLiteDB connections) when it
+ * shuts down.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHMainBenchmarks {
+
+	// Clerk input for a single checkout: no return, JAKR for 5 days at 10% off on 9/3/15, no further tools
+	static final byte[] CHECKOUT_INPUT = "no\nJAKR\n5\n10\n9/3/15\nno\n".getBytes();
+
+	@Param({"hashMap", "sqlite"})
+	String storage;
+
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public void runRentAToolAppCheckout() {
+		StorageSystem toolStorage = storage.equals("sqlite") ? new SQLiteDB() : new HashMapStorage();
+		Main.runRentAToolApp(new ByteArrayInputStream(CHECKOUT_INPUT), toolStorage);
+	}
+}
@@ -0,0 +1,124 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.app.MappedFileStorage.SyncPolicy;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+
+/**
+ * Benchmarks a MappedFileStorage holding 250,000 serialized units: opening
+ * (and closing) the clean tool file, looking up a random unit, and checking
+ * out and returning a random unit with each SyncPolicy.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHMappedFileStorageBenchmarks {
+
+	static final int UNITS = 250000;
+
+	Path directory;
+	Path openedFile;
+	Path reopenedFile;
+	MappedFileStorage everyWriteStorage;
+	MappedFileStorage onCloseStorage;
+	ToolId[] ids;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() throws IOException {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		directory = Files.createTempDirectory("rentatool-bench");
+		openedFile = directory.resolve("opened.dat");
+		reopenedFile = directory.resolve("reopened.dat");
+
+		ids = new ToolId[UNITS];
+		List<Tool> units = new ArrayList<Tool>(UNITS);
+		for (int i = 0; i < UNITS; i++) {
+			ids[i] = ToolId.of(String.format("LADW-%07d", i));
+			units.add(new Ladder(ids[i], Brand.WERNER));
+		}
+		MappedFileStorage storage = new MappedFileStorage(openedFile, UNITS, SyncPolicy.ON_CLOSE);
+		storage.addTools(units);
+		storage.close();
+		Files.copy(openedFile, reopenedFile);
+
+		everyWriteStorage = new MappedFileStorage(openedFile, UNITS, SyncPolicy.EVERY_WRITE);
+		onCloseStorage = new MappedFileStorage(reopenedFile.resolveSibling("onclose.dat"), UNITS, SyncPolicy.ON_CLOSE);
+		onCloseStorage.addTools(units);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		everyWriteStorage.close();
+		onCloseStorage.close();
+		for (Path path : Files.newDirectoryStream(directory)) {
+			Files.delete(path);
+		}
+		Files.delete(directory);
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public int openAndClose() {
+		MappedFileStorage storage = new MappedFileStorage(reopenedFile);
+		int size = storage.size();
+		storage.close();
+		return size;
+	}
+
+	@Benchmark
+	public Tool getTool() {
+		return everyWriteStorage.getTool(ids[ThreadLocalRandom.current().nextInt(UNITS)]);
+	}
+
+	@Benchmark
+	public RentalAgreement checkoutAndReturnEveryWrite() {
+		return checkoutAndReturn(everyWriteStorage);
+	}
+
+	@Benchmark
+	public RentalAgreement checkoutAndReturnOnClose() {
+		return checkoutAndReturn(onCloseStorage);
+	}
+
+	private RentalAgreement checkoutAndReturn(MappedFileStorage storage) {
+		ToolId id = ids[ThreadLocalRandom.current().nextInt(UNITS)];
+		RentalAgreement rentalAgreement = storage.checkout(id, 5, 10, LocalDate.of(2015, 9, 3));
+		storage.updateTool(id, Attribute.CHECKEDOUT, false);
+		return rentalAgreement;
+	}
+}
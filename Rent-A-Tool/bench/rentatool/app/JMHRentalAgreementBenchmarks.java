@@ -0,0 +1,66 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.ChargeableDaysCalculator;
+import rentatool.rental_items.ClosedFormChargeableDaysCalculator;
+import rentatool.rental_items.IterativeChargeableDaysCalculator;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks RentalAgreement construction (chargeable days, charges and
+ * discount) across rental lengths ranging from a single day to ten years,
+ * for each ChargeableDaysCalculator implementation.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHRentalAgreementBenchmarks {
+
+	@Param({"1", "7", "90", "365", "3650"})
+	int rentalDays;
+
+	@Param({"closedForm", "iterative"})
+	String calculator;
+
+	Tool tool;
+	LocalDate checkoutDate;
+	ChargeableDaysCalculator chargeableDaysCalculator;
+
+	@Setup
+	public void setup() {
+		tool = new Jackhammer(Code.JAKR, Brand.RIDGID);
+		checkoutDate = LocalDate.of(2015, 7, 2);
+		chargeableDaysCalculator = calculator.equals("iterative")
+				? new IterativeChargeableDaysCalculator()
+				: new ClosedFormChargeableDaysCalculator();
+	}
+
+	@Benchmark
+	public RentalAgreement newRentalAgreement() {
+		return new RentalAgreement(tool, rentalDays, 10, checkoutDate, chargeableDaysCalculator);
+	}
+}
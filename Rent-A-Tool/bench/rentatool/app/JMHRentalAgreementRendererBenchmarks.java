@@ -0,0 +1,73 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.RentalAgreementRenderer;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks formatting a RentalAgreement: formatRentalAgreement() (a new
+ * String per agreement), and a RentalAgreementRenderer writing into a reused
+ * StringBuilder or a reused ByteBuffer. Run with the GC profiler to compare
+ * the bytes allocated per agreement.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHRentalAgreementRendererBenchmarks {
+
+	RentalAgreement rentalAgreement;
+	RentalAgreementRenderer renderer;
+	StringBuilder builder;
+	ByteBuffer buffer;
+
+	@Setup
+	public void setup() {
+		rentalAgreement = new RentalAgreement(new Jackhammer(Code.JAKR, Brand.RIDGID), 9, 25, LocalDate.of(2015, 7, 2));
+		renderer = new RentalAgreementRenderer(Locale.US);
+		builder = new StringBuilder(512);
+		buffer = ByteBuffer.allocateDirect(512);
+	}
+
+	@Benchmark
+	public String formatRentalAgreement() {
+		return rentalAgreement.formatRentalAgreement();
+	}
+
+	@Benchmark
+	public int renderToStringBuilder() throws IOException {
+		builder.setLength(0);
+		renderer.render(rentalAgreement, builder);
+		return builder.length();
+	}
+
+	@Benchmark
+	public int renderToByteBuffer() {
+		buffer.clear();
+		return renderer.render(rentalAgreement, buffer);
+	}
+}
@@ -0,0 +1,129 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+
+/**
+ * Benchmarks a RentalLedger of 100,000 serialized units: recording a checkout and
+ * the return of the same unit with the log forced to disk every 256 events and
+ * after every event, and opening (and closing) a ledger from a snapshot of the
+ * units followed by 50,000 events.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class JMHRentalLedgerBenchmarks {
+
+	static final int UNITS = 100000;
+	static final int TAIL_EVENTS = 50000;
+	static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, 9, 3);
+
+	Path directory;
+	Path reopenedDirectory;
+	RentalLedger batchedLedger;
+	RentalLedger everyEventLedger;
+	ToolId[] ids;
+	int next;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() throws IOException {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		directory = Files.createTempDirectory("rentatool-bench");
+		reopenedDirectory = directory.resolve("reopened");
+		ids = new ToolId[UNITS];
+		for (int i = 0; i < UNITS; i++) {
+			ids[i] = ToolId.of(String.format("LADW-%07d", i));
+		}
+
+		try (RentalLedger ledger = newLedger(reopenedDirectory, RentalLedger.DEFAULT_EVENTS_PER_SYNC)) {
+			ledger.snapshot();
+			for (int i = 0; i < TAIL_EVENTS; i++) {
+				recordCheckoutOrReturn(ledger, i);
+			}
+		}
+		batchedLedger = newLedger(directory.resolve("batched"), RentalLedger.DEFAULT_EVENTS_PER_SYNC);
+		everyEventLedger = newLedger(directory.resolve("everyEvent"), 1);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		batchedLedger.close();
+		everyEventLedger.close();
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+		System.setOut(standardOut);
+	}
+
+	// A ledger of the units, with a snapshot interval larger than any benchmark run
+	private RentalLedger newLedger(Path ledgerDirectory, int eventsPerSync) {
+		RentalLedger ledger = new RentalLedger(ledgerDirectory, eventsPerSync, Integer.MAX_VALUE);
+		for (ToolId id : ids) {
+			ledger.recordNewTool(new Ladder(id, Brand.WERNER));
+		}
+		ledger.sync();
+		return ledger;
+	}
+
+	// Even events check a unit out, odd events return it
+	private static boolean recordCheckoutOrReturn(RentalLedger ledger, int event) {
+		ToolId id = ToolId.of(String.format("LADW-%07d", (event >> 1) % UNITS));
+		return (event & 1) == 0 ? ledger.recordCheckout(id, 5, 10, CHECKOUT_DATE) : ledger.recordReturn(id);
+	}
+
+	@Benchmark
+	public boolean checkoutAndReturnBatched() {
+		return checkoutAndReturn(batchedLedger);
+	}
+
+	@Benchmark
+	public boolean checkoutAndReturnEveryEvent() {
+		return checkoutAndReturn(everyEventLedger);
+	}
+
+	@Benchmark
+	public long openAndClose() {
+		RentalLedger ledger = new RentalLedger(reopenedDirectory);
+		long sequence = ledger.getSequence();
+		ledger.close();
+		return sequence;
+	}
+
+	private boolean checkoutAndReturn(RentalLedger ledger) {
+		ToolId id = ids[next++ % UNITS];
+		return ledger.recordCheckout(id, 5, 10, CHECKOUT_DATE) & ledger.recordReturn(id);
+	}
+}
@@ -0,0 +1,121 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Multithreaded throughput benchmarks of one SQLiteDB shared by several threads
+ * (checkout terminals), comparing the static shared connection with a pooled
+ * SQLiteDB.
+ *
+ * The static connection is not thread-safe, so in "static" mode every operation
+ * holds one global lock, which is how the shared connection has to be used by
+ * several terminals. In "pooled" mode the SQLiteDB gets one pooled connection
+ * per benchmark thread and is called without any extra locking.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHSQLiteConnectionPoolBenchmarks {
+
+	static final int THREADS = 8;
+	static final Code[] CODES = Code.values();
+
+	@Param({"static", "pooled"})
+	String connection;
+
+	SQLiteDB storage;
+	Object lock; // null in pooled mode
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		if (connection.equals("static")) {
+			storage = new SQLiteDB();
+			lock = new Object();
+		} else {
+			storage = new SQLiteDB(THREADS);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		storage.closeConnection();
+		System.setOut(standardOut);
+	}
+
+	Tool getTool(Code code) {
+		if (lock == null) {
+			return storage.getTool(code);
+		}
+		synchronized (lock) {
+			return storage.getTool(code);
+		}
+	}
+
+	void updateTool(Code code, Attribute attribute, Object value) {
+		if (lock == null) {
+			storage.updateTool(code, attribute, value);
+			return;
+		}
+		synchronized (lock) {
+			storage.updateTool(code, attribute, value);
+		}
+	}
+
+	static Code randomCode() {
+		return CODES[ThreadLocalRandom.current().nextInt(CODES.length)];
+	}
+
+	// Every thread only reads
+	@Benchmark
+	@Threads(THREADS)
+	public Tool readOnly() {
+		return getTool(randomCode());
+	}
+
+	// THREADS - 1 readers share the database with a single writer
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(THREADS - 1)
+	public Tool mixedRead() {
+		return getTool(randomCode());
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(1)
+	public void mixedWrite() {
+		updateTool(randomCode(), Attribute.DAILYCHARGE, ThreadLocalRandom.current().nextBoolean() ? 1.99f : 2.99f);
+	}
+}
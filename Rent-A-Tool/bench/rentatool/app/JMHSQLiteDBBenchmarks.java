@@ -0,0 +1,166 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks the round trips of SQLiteDB's addTool(), removeTool(), updateTool()
+ * and getTool() with cached PreparedStatements ("cached") against the way they
+ * used to be run before the statement cache ("fresh"): a new PreparedStatement
+ * prepared and closed on every call, and a "SELECT 1 FROM tool WHERE code = ?"
+ * probe before every insert and delete.
+ *
+ * The "fresh" operations are copies of the old SQLiteDB code, run on a second
+ * connection to the same database file, so both modes pay the same commit cost.
+ * Each operation leaves the table the way it found it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHSQLiteDBBenchmarks {
+
+	@Param({"fresh", "cached"})
+	String statements;
+
+	SQLiteDB storage;
+	Connection connection; // only opened in "fresh" mode
+	Tool jackhammer;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() throws SQLException {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		storage = new SQLiteDB();
+		jackhammer = new Jackhammer(Code.JAKR, Brand.RIDGID);
+		if (statements.equals("fresh")) {
+			connection = DriverManager.getConnection(SQLiteDB.DATABASE_URL);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		if (connection != null) {
+			connection.close();
+		}
+		storage.closeConnection();
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public void removeAndAddTool() throws SQLException {
+		if (connection == null) {
+			storage.removeTool(Code.JAKR);
+			storage.addTool(jackhammer);
+		} else {
+			freshRemoveTool(Code.JAKR);
+			freshAddTool(jackhammer);
+		}
+	}
+
+	@Benchmark
+	public void updateTool() throws SQLException {
+		if (connection == null) {
+			storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, true);
+			storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+		} else {
+			freshUpdateCheckedOut(Code.JAKR, true);
+			freshUpdateCheckedOut(Code.JAKR, false);
+		}
+	}
+
+	@Benchmark
+	public Tool getTool() throws SQLException {
+		if (connection == null) {
+			return storage.getTool(Code.JAKR);
+		}
+		return freshGetTool(Code.JAKR);
+	}
+
+	// addTool() before the statement cache: probe for the code, then prepare the insert
+	void freshAddTool(Tool tool) throws SQLException {
+		PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM tool WHERE code = ?;");
+		ps.setString(1, tool.getCode().toString());
+		ResultSet resultSet = ps.executeQuery();
+		if (!resultSet.next()) {
+			ps.close();
+			ps = connection.prepareStatement("INSERT INTO tool values(?, ?, ?, ?, ?, ?, ?, ?);");
+			ps.setString(1, tool.getCode().toString());
+			ps.setString(2, tool.getType().toString());
+			ps.setString(3, tool.getBrand().toString());
+			ps.setFloat(4, tool.getDailyCharge());
+			ps.setBoolean(5, tool.isChargeOnWeekdays());
+			ps.setBoolean(6, tool.isChargeOnWeekends());
+			ps.setBoolean(7, tool.isChargeOnHolidays());
+			ps.setBoolean(8, tool.isCheckedOut());
+			ps.executeUpdate();
+		}
+		resultSet.close();
+		ps.close();
+	}
+
+	// removeTool() before the statement cache: probe for the code, then prepare the delete
+	void freshRemoveTool(Code code) throws SQLException {
+		PreparedStatement probe = connection.prepareStatement("SELECT 1 FROM tool WHERE code = ?;");
+		probe.setString(1, code.toString());
+		ResultSet resultSet = probe.executeQuery();
+		if (resultSet.next()) {
+			try (PreparedStatement ps = connection.prepareStatement("DELETE FROM tool WHERE code = ?;")) {
+				ps.setString(1, code.toString());
+				ps.executeUpdate();
+			}
+		}
+		resultSet.close();
+		probe.close();
+	}
+
+	// updateTool(code, CHECKEDOUT, value) before the statement cache
+	void freshUpdateCheckedOut(Code code, boolean checkedOut) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement("UPDATE tool SET checkedOut = ? WHERE code = ?;")) {
+			ps.setBoolean(1, checkedOut);
+			ps.setString(2, code.toString());
+			ps.executeUpdate();
+		}
+	}
+
+	// getTool() before the statement cache
+	Tool freshGetTool(Code code) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement("SELECT * FROM tool WHERE code = ?;")) {
+			ps.setString(1, code.toString());
+			try (ResultSet resultSet = ps.executeQuery()) {
+				return resultSet.next() ? SQLiteDB.toolFromResultSet(resultSet) : null;
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Multithreaded throughput benchmarks of checkouts and returns (updates of the
+ * checkedOut column) on a pooled SQLiteDB shared by several threads (checkout
+ * terminals), with every update autocommitted or with group commit enabled.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHSQLiteGroupCommitWriterBenchmarks {
+
+	static final int THREADS = 8;
+	static final Code[] CODES = Code.values();
+
+	@Param({"autocommit", "group"})
+	String commit;
+
+	SQLiteDB storage;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		storage = new SQLiteDB(THREADS);
+		if (commit.equals("group")) {
+			storage.enableGroupCommit(256, 0);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		storage.closeConnection();
+		System.setOut(standardOut);
+	}
+
+	// Every thread checks out and returns random tools
+	@Benchmark
+	@Threads(THREADS)
+	public void setCheckedOut() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		storage.updateTool(CODES[random.nextInt(CODES.length)], Attribute.CHECKEDOUT, random.nextBoolean());
+	}
+}
@@ -0,0 +1,232 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Benchmarks the CRUD operations, printStoredTools() and writeStoredTools()
+ * of the StorageSystem implementations.
+ *
+ * Each operation leaves the storage the way it found it (tools are
+ * checked out and returned, removed and added back), so every
+ * invocation measures the same amount of work.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHStorageSystemBenchmarks {
+
+	// Storage output (warnings and printStoredTools()) is discarded while benchmarking
+	static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+	static final Writer NULL_WRITER = Writer.nullWriter();
+	static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, 9, 3);
+	static final Map<Code, Object> NEW_DAILY_CHARGES = new LinkedHashMap<Code, Object>();
+	static {
+		for (Code code : Code.values()) {
+			NEW_DAILY_CHARGES.put(code, 2.49f);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class HashMapState {
+		HashMapStorage storage;
+		Tool jackhammer;
+		PrintStream standardOut;
+
+		@Setup
+		public void setup() {
+			standardOut = System.out;
+			System.setOut(NULL_OUT);
+			storage = new HashMapStorage();
+			jackhammer = new Jackhammer(Code.JAKR, Brand.RIDGID);
+		}
+
+		@TearDown
+		public void tearDown() {
+			System.setOut(standardOut);
+		}
+	}
+
+	/**
+	 * The SQLiteDB table always starts with the 4 default tools. Extra
+	 * filler rows are inserted through a second connection so that
+	 * lookups and listings run against tables of different sizes.
+	 */
+	@State(Scope.Benchmark)
+	public static class SQLiteState {
+		@Param({"4", "1000", "100000"})
+		int tableSize;
+
+		SQLiteDB storage;
+		Tool jackhammer;
+		PrintStream standardOut;
+
+		@Setup
+		public void setup() throws SQLException {
+			standardOut = System.out;
+			System.setOut(NULL_OUT);
+			storage = new SQLiteDB();
+			jackhammer = new Jackhammer(Code.JAKR, Brand.RIDGID);
+
+			try (Connection filler = DriverManager.getConnection("jdbc:sqlite:rentatool.db")) {
+				filler.setAutoCommit(false);
+				try (PreparedStatement ps = filler.prepareStatement("INSERT INTO tool values(?, 'Jackhammer', 'DeWalt', 2.99, true, false, false, false);")) {
+					for (int i = 4; i < tableSize; i++) {
+						ps.setString(1, String.format("F%07d", i));
+						ps.addBatch();
+					}
+					ps.executeBatch();
+				}
+				filler.commit();
+			}
+		}
+
+		@TearDown
+		public void tearDown() {
+			storage.closeConnection();
+			System.setOut(standardOut);
+		}
+	}
+
+	@Benchmark
+	public Tool hashMapGetTool(HashMapState state) {
+		return state.storage.getTool(Code.JAKR);
+	}
+
+	@Benchmark
+	public void hashMapUpdateTool(HashMapState state) {
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, true);
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+	}
+
+	@Benchmark
+	public void hashMapRemoveAndAddTool(HashMapState state) {
+		state.storage.removeTool(Code.JAKR);
+		state.storage.addTool(state.jackhammer);
+	}
+
+	@Benchmark
+	public RentalAgreement hashMapCheckout(HashMapState state) {
+		RentalAgreement rentalAgreement = state.storage.checkout(Code.JAKR, 5, 10, CHECKOUT_DATE);
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+		return rentalAgreement;
+	}
+
+	// Reprices every tool with one updateTool() call per tool
+	@Benchmark
+	public void hashMapRepriceOneByOne(HashMapState state) {
+		for (Map.Entry<Code, Object> entry : NEW_DAILY_CHARGES.entrySet()) {
+			state.storage.updateTool(entry.getKey(), Attribute.DAILYCHARGE, entry.getValue());
+		}
+	}
+	
+	@Benchmark
+	public void hashMapRepriceBulk(HashMapState state) {
+		state.storage.updateTools(Attribute.DAILYCHARGE, NEW_DAILY_CHARGES);
+	}
+
+	@Benchmark
+	public void hashMapPrintStoredTools(HashMapState state) {
+		state.storage.printStoredTools();
+	}
+
+	@Benchmark
+	public int hashMapWriteStoredTools(HashMapState state) throws IOException {
+		return state.storage.writeStoredTools(NULL_WRITER);
+	}
+
+	@Benchmark
+	public Tool sqliteGetTool(SQLiteState state) {
+		return state.storage.getTool(Code.JAKR);
+	}
+
+	@Benchmark
+	public void sqliteUpdateTool(SQLiteState state) {
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, true);
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+	}
+
+	@Benchmark
+	public void sqliteRemoveAndAddTool(SQLiteState state) {
+		state.storage.removeTool(Code.JAKR);
+		state.storage.addTool(state.jackhammer);
+	}
+
+	@Benchmark
+	public RentalAgreement sqliteCheckout(SQLiteState state) {
+		RentalAgreement rentalAgreement = state.storage.checkout(Code.JAKR, 5, 10, CHECKOUT_DATE);
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+		return rentalAgreement;
+	}
+
+	// The checkout sequence Main used before CrudOps.checkout(): check availability, read again to price, then update
+	@Benchmark
+	public RentalAgreement sqliteReadThenUpdateCheckout(SQLiteState state) {
+		RentalAgreement rentalAgreement = null;
+		if (!state.storage.getTool(Code.JAKR).isCheckedOut()) {
+			rentalAgreement = new RentalAgreement(state.storage.getTool(Code.JAKR), 5, 10, CHECKOUT_DATE);
+			state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, true);
+		}
+		state.storage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+		return rentalAgreement;
+	}
+
+	// Reprices every tool with one updateTool() call (and so one transaction) per tool
+	@Benchmark
+	public void sqliteRepriceOneByOne(SQLiteState state) {
+		for (Map.Entry<Code, Object> entry : NEW_DAILY_CHARGES.entrySet()) {
+			state.storage.updateTool(entry.getKey(), Attribute.DAILYCHARGE, entry.getValue());
+		}
+	}
+	
+	// Reprices every tool with one JDBC batch in one transaction
+	@Benchmark
+	public void sqliteRepriceBulk(SQLiteState state) {
+		state.storage.updateTools(Attribute.DAILYCHARGE, NEW_DAILY_CHARGES);
+	}
+
+	@Benchmark
+	public void sqlitePrintStoredTools(SQLiteState state) {
+		state.storage.printStoredTools();
+	}
+
+	@Benchmark
+	public int sqliteWriteStoredTools(SQLiteState state) throws IOException {
+		return state.storage.writeStoredTools(NULL_WRITER);
+	}
+}
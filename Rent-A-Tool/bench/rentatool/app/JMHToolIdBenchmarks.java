@@ -0,0 +1,87 @@
+package rentatool.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+
+/**
+ * Benchmarks looking up one of 100,000 serialized units in a HashMapStorage
+ * by ToolId, against a HashMap keyed by the units' String names (a fresh
+ * String per lookup, as it would be read from a request).
+ *
+ * @author CSGarcia1191
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMHToolIdBenchmarks {
+
+	static final int UNITS = 100000;
+
+	HashMapStorage storage;
+	Map<String, Tool> byName;
+	ToolId[] ids;
+	String[] names;
+	PrintStream standardOut;
+
+	@Setup
+	public void setup() {
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		storage = new HashMapStorage();
+		byName = new HashMap<String, Tool>();
+		ids = new ToolId[UNITS];
+		names = new String[UNITS];
+		List<Tool> units = new ArrayList<Tool>(UNITS);
+		for (int i = 0; i < UNITS; i++) {
+			names[i] = String.format("JAKR-%06d", i);
+			ids[i] = ToolId.of(names[i]);
+			Tool unit = new Jackhammer(ids[i], Brand.RIDGID);
+			units.add(unit);
+			byName.put(names[i], unit);
+		}
+		storage.addTools(units);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public Tool getToolById() {
+		return storage.getTool(ids[ThreadLocalRandom.current().nextInt(UNITS)]);
+	}
+
+	@Benchmark
+	public Tool getByStringName() {
+		// new String() so the String's hash code is not cached, like a name parsed from a request
+		return byName.get(new String(names[ThreadLocalRandom.current().nextInt(UNITS)]));
+	}
+}
@@ -0,0 +1,92 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * The asynchronous counterpart of the StorageSystem (CrudOps) operations. Every
+ * operation returns as soon as it has been submitted, with a CompletableFuture
+ * completed with the result the synchronous operation would have returned, so a
+ * terminal thread is never blocked by a slow storage system (e.g. an SQLiteDB
+ * waiting for its commit to be written to disk). Several lookups and updates can
+ * be submitted before waiting on any of them, or chained with thenCompose().
+ *
+ * The operations keep the semantics (and warning messages) of the synchronous
+ * ones: e.g. the future of getTool() is completed with null if the tool is not
+ * found, the future of checkout() with null if the tool is already checked
+ * out, and the future of returnTool() with false if the tool was not checked
+ * out. An exception thrown by the synchronous operation (e.g. an
+ * InvalidCheckoutArgumentException) completes the future exceptionally.
+ *
+ * Operations submitted without waiting on each other may run in any order. A
+ * caller that needs an operation to see the result of another must wait for
+ * (or chain on) the first future.
+ *
+ * Use of(storage, executor) or ExecutorAsyncStorage to run a blocking
+ * StorageSystem on an executor.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public interface AsyncStorageSystem {
+
+	public CompletableFuture<Void> addTool(Tool tool); // create
+	public CompletableFuture<Tool> getTool(ToolId id); // read
+	public CompletableFuture<Void> updateTool(ToolId id, Attribute attr, Object value); // update
+	public CompletableFuture<Void> removeTool(ToolId id); // delete
+	public CompletableFuture<RentalAgreement> checkout(ToolId id, int rentalDays, int discountPercent, LocalDate checkoutDate); // atomic read + update
+	public CompletableFuture<Boolean> returnTool(ToolId id); // atomic read + update, see CrudOps.returnTool()
+
+	// bulk read: the Tools that were found, in the order of the passed-in codes
+	public CompletableFuture<Map<ToolId, Tool>> getToolsById(Collection<ToolId> ids);
+
+	// The same operations keyed by a Code, which is an alias of its ToolId
+	public default CompletableFuture<Tool> getTool(Code code) {
+		return getTool(ToolId.of(code));
+	}
+
+	public default CompletableFuture<Void> updateTool(Code code, Attribute attr, Object value) {
+		return updateTool(ToolId.of(code), attr, value);
+	}
+
+	public default CompletableFuture<Void> removeTool(Code code) {
+		return removeTool(ToolId.of(code));
+	}
+
+	public default CompletableFuture<RentalAgreement> checkout(Code code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		return checkout(ToolId.of(code), rentalDays, discountPercent, checkoutDate);
+	}
+
+	public default CompletableFuture<Boolean> returnTool(Code code) {
+		return returnTool(ToolId.of(code));
+	}
+
+	public default CompletableFuture<Map<Code, Tool>> getTools(Collection<Code> codes) {
+		return getToolsById(CrudOps.toToolIds(codes)).thenApply(tools -> {
+			Map<Code, Tool> toolsByCode = new LinkedHashMap<Code, Tool>();
+			tools.forEach((id, tool) -> toolsByCode.put(id.getCode(), tool));
+			return toolsByCode;
+		});
+	}
+
+	/**
+	 * Runs the operations of the passed-in StorageSystem on the passed-in executor
+	 * (e.g. a fixed thread pool, or a virtual thread per task executor on a JDK
+	 * that has them). The StorageSystem must be thread-safe unless the executor
+	 * runs one task at a time. See ExecutorAsyncStorage.
+	 */
+	public static AsyncStorageSystem of(StorageSystem storage, Executor executor) {
+		return new ExecutorAsyncStorage(storage, executor);
+	}
+
+}
@@ -0,0 +1,163 @@
+package rentatool.app;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Type;
+
+/**
+ * Secondary indexes of a storage system's tools by type, brand and availability,
+ * used to answer findAvailable() without reading the tools that do not match.
+ *
+ * Every index is a bitset (long[]) with one bit per ToolId int value (ToolIds are
+ * numbered densely in the order they are created): one bitset of stored tools, one
+ * of checked out tools, one per Type and one per Brand. The available tools of a
+ * type and brand are found by intersecting the bitsets 64 ToolIds at a time
+ * (type & brand & ~checkedOut), so a query over a million tools reads about 47,000
+ * longs and never touches a Tool that does not match.
+ *
+ * The owner of the index has to keep it up to date on every change to a stored
+ * tool's code, type, brand or checkedOut status. Like HashMapStorage, an
+ * AvailabilityIndex is not thread-safe.
+ *
+ * @author CSGarcia1191
+ *
+ */
+final class AvailabilityIndex {
+
+	private static final Type[] TYPES = Type.values();
+	private static final Brand[] BRANDS = Brand.values();
+
+	private long[] stored;
+	private long[] checkedOut;
+	private final long[][] byType;
+	private final long[][] byBrand;
+
+	AvailabilityIndex() {
+		stored = new long[1];
+		checkedOut = new long[1];
+		byType = new long[TYPES.length][1];
+		byBrand = new long[BRANDS.length][1];
+	}
+
+	// Indexes a newly stored tool
+	void add(Tool tool) {
+		int id = tool.getId().intValue();
+		ensureCapacity(id);
+		setBit(stored, id, true);
+		setBit(checkedOut, id, tool.isCheckedOut());
+		setType(tool.getId(), tool.getType());
+		setBrand(tool.getId(), tool.getBrand());
+	}
+
+	// Removes a tool that is no longer stored from every index
+	void remove(ToolId id) {
+		int value = id.intValue();
+		if ((value >>> 6) >= stored.length) {
+			return;
+		}
+		setBit(stored, value, false);
+		setBit(checkedOut, value, false);
+		for (long[] bits : byType) {
+			setBit(bits, value, false);
+		}
+		for (long[] bits : byBrand) {
+			setBit(bits, value, false);
+		}
+	}
+
+	void setType(ToolId id, Type type) {
+		for (int i = 0; i < TYPES.length; i++) {
+			setBit(byType[i], id.intValue(), TYPES[i] == type);
+		}
+	}
+
+	void setBrand(ToolId id, Brand brand) {
+		for (int i = 0; i < BRANDS.length; i++) {
+			setBit(byBrand[i], id.intValue(), BRANDS[i] == brand);
+		}
+	}
+
+	void setCheckedOut(ToolId id, boolean value) {
+		setBit(checkedOut, id.intValue(), value);
+	}
+
+	/**
+	 * Returns the int values of the ToolIds of the stored tools that are not checked
+	 * out, of the passed-in type and brand (null matches every type or brand), in
+	 * ascending order. The bitsets are intersected lazily, one word at a time, as the
+	 * stream is consumed.
+	 */
+	IntStream findAvailable(Type type, Brand brand) {
+		long[] candidates = (type != null) ? byType[type.ordinal()] : stored;
+		long[] brandBits = (brand != null) ? byBrand[brand.ordinal()] : null;
+		return StreamSupport.intStream(new AvailableIds(candidates, brandBits, checkedOut), false);
+	}
+
+	// Grows every bitset to hold the bit of the passed-in ToolId int value
+	private void ensureCapacity(int id) {
+		int words = (id >>> 6) + 1;
+		if (words <= stored.length) {
+			return;
+		}
+
+		words = Math.max(words, stored.length + (stored.length >>> 1));
+		stored = Arrays.copyOf(stored, words);
+		checkedOut = Arrays.copyOf(checkedOut, words);
+		for (int i = 0; i < byType.length; i++) {
+			byType[i] = Arrays.copyOf(byType[i], words);
+		}
+		for (int i = 0; i < byBrand.length; i++) {
+			byBrand[i] = Arrays.copyOf(byBrand[i], words);
+		}
+	}
+
+	private static void setBit(long[] bits, int id, boolean value) {
+		if (value) {
+			bits[id >>> 6] |= (1L << id);
+		} else {
+			bits[id >>> 6] &= ~(1L << id);
+		}
+	}
+
+	// Walks the set bits of candidates & brandBits & ~checkedOut, computing one word at a time
+	private static final class AvailableIds extends Spliterators.AbstractIntSpliterator {
+
+		private final long[] candidates;
+		private final long[] brandBits;
+		private final long[] checkedOut;
+		private int wordIndex = -1;
+		private long word;
+
+		AvailableIds(long[] candidates, long[] brandBits, long[] checkedOut) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.candidates = candidates;
+			this.brandBits = brandBits;
+			this.checkedOut = checkedOut;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			while (word == 0) {
+				if (++wordIndex >= candidates.length) {
+					return false;
+				}
+				word = candidates[wordIndex] & ~checkedOut[wordIndex];
+				if (brandBits != null) {
+					word &= brandBits[wordIndex];
+				}
+			}
+			int bit = Long.numberOfTrailingZeros(word);
+			word &= word - 1; // clears the lowest set bit
+			action.accept((wordIndex << 6) + bit);
+			return true;
+		}
+	}
+}
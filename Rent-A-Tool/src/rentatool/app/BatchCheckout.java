@@ -0,0 +1,414 @@
+package rentatool.app;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.RentalAgreementRenderer;
+import rentatool.rental_items.ToolId;
+
+/**
+ * Runs a file of rental records through a StorageSystem without any prompts
+ * (e.g. to import a day's worth of phone reservations). This is the
+ * non-interactive counterpart of Main.runRentAToolApp() and is started with
+ * the "--batch <file>" command line argument.
+ *
+ * The records are streamed from the input one line at a time, so the whole
+ * file is never held in memory. Every line is either a CSV record or a JSON
+ * object (JSON Lines), and both formats can be mixed in the same file:
+ *
+ *   code,rentalDays,discountPercent,checkoutDate
+ *   JAKR,5,10,9/3/15
+ *   return,JAKR
+ *   {"code": "LADW", "rentalDays": 3, "discountPercent": 0, "checkoutDate": "7/2/20"}
+ *   {"action": "return", "code": "LADW"}
+ *
+ * A record checks a tool out unless its action is "return". Checkout dates use
+ * the same M/d/yy format as the interactive application, and ISO dates
+ * (yyyy-MM-dd) are also accepted. A CSV header line, blank lines and lines
+ * starting with '#' are skipped.
+ *
+ * Every Rental Agreement is written to the output through a buffered writer.
+ * A record that can not be processed does not stop the batch; a line
+ * describing the failure is written to the output in place of its Rental
+ * Agreement. Nothing is printed to the console per record, apart from any
+ * warning message printed by the StorageSystem itself.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class BatchCheckout {
+
+	// Size of the output buffer, in chars
+	static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+	static final DateTimeFormatter CHECKOUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("M/d/yy");
+
+	private final StorageSystem storage;
+
+	/**
+	 * @param storage The StorageSystem the records are run against
+	 */
+	public BatchCheckout(StorageSystem storage) {
+		this.storage = storage;
+	}
+
+	/**
+	 * Runs every record of the input file and writes the Rental Agreements to the output file.
+	 * The output file is created, or replaced if it already exists.
+	 *
+	 * @param input Path of the CSV or JSON Lines file to read the records from
+	 * @param output Path of the file to write the Rental Agreements to
+	 * @return the Summary of the batch
+	 * @throws IOException if the input can not be read or the output can not be written
+	 */
+	public Summary run(Path input, Path output) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+				BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE)) {
+			return run(reader, writer);
+		}
+	}
+
+	/**
+	 * Runs every record read from the reader and writes the Rental Agreements to the writer.
+	 * The writer is flushed, but neither the reader nor the writer are closed.
+	 *
+	 * @param reader The reader to read the records from
+	 * @param writer The writer to write the Rental Agreements to. It should be buffered.
+	 * @return the Summary of the batch
+	 * @throws IOException if the reader or the writer fail
+	 */
+	public Summary run(BufferedReader reader, Writer writer) throws IOException {
+		Summary summary = new Summary();
+		RentalAgreementRenderer renderer = new RentalAgreementRenderer(); // renders the Rental Agreements straight into the writer
+		long start = System.nanoTime();
+
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#") || isCsvHeader(line)) {
+				continue;
+			}
+
+			summary.records++;
+			try {
+				Record record = line.startsWith("{") ? parseJsonRecord(line) : parseCsvRecord(line);
+				ToolId id = storage.findToolId(record.code); // null if no tool has this code
+				if (record.isReturn) {
+					if (id == null || !storage.returnTool(id)) { // unknown code, or a tool that was not checked out
+						summary.failures++;
+						writer.write(String.format("Record %d: Tool %s could not be returned.\n\n", lineNumber, record.code));
+						continue;
+					}
+					summary.returns++;
+					writer.write(String.format("Record %d: Tool %s has been returned.\n\n", lineNumber, record.code));
+					continue;
+				}
+
+				RentalAgreement rentalAgreement = (id == null) ? null : storage.checkout(id, record.rentalDays, record.discountPercent, record.checkoutDate);
+				if (rentalAgreement == null) {
+					summary.failures++;
+					writer.write(String.format("Record %d: Tool %s could not be checked out.\n\n", lineNumber, record.code));
+					continue;
+				}
+
+				summary.checkouts++;
+				renderer.render(rentalAgreement, writer);
+				writer.write("\n\n");
+			} catch (IllegalArgumentException | InvalidCheckoutArgumentException e) { // Unparsable record, or a checkout argument out of range
+				summary.failures++;
+				writer.write(String.format("Record %d: %s\n\n", lineNumber, e.getMessage()));
+			}
+		}
+
+		writer.flush();
+		summary.elapsedNanos = System.nanoTime() - start;
+		return summary;
+	}
+
+	// The first column of a CSV header is the "code" or "action" column name
+	private static boolean isCsvHeader(String line) {
+		String first = line.split(",", 2)[0].trim();
+		return first.equalsIgnoreCase("code") || first.equalsIgnoreCase("action");
+	}
+
+	/**
+	 * Parses a CSV record. The columns are "code,rentalDays,discountPercent,checkoutDate",
+	 * optionally preceded by an "action" column holding "checkout" or "return".
+	 * A return only needs the tool code.
+	 */
+	static Record parseCsvRecord(String line) {
+		String[] columns = line.split(",", -1);
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = unquote(columns[i].trim());
+		}
+
+		int first = 0;
+		boolean isReturn = false;
+		if (columns[0].equalsIgnoreCase("return") || columns[0].equalsIgnoreCase("checkout")) {
+			isReturn = columns[0].equalsIgnoreCase("return");
+			first = 1;
+		}
+
+		if (isReturn) {
+			if (columns.length <= first) {
+				throw new IllegalArgumentException("A return record needs a tool code.");
+			}
+			return Record.toReturn(parseCode(columns[first]));
+		}
+
+		if (columns.length - first != 4) {
+			throw new IllegalArgumentException("A checkout record needs exactly 4 columns: code,rentalDays,discountPercent,checkoutDate.");
+		}
+		return Record.toCheckout(parseCode(columns[first]), parseWholeNumber("rentalDays", columns[first + 1]),
+				parseWholeNumber("discountPercent", columns[first + 2]), parseCheckoutDate(columns[first + 3]));
+	}
+
+	/**
+	 * Parses a JSON Lines record. The object has the fields "code", "rentalDays",
+	 * "discountPercent" and "checkoutDate", and an optional "action" field holding
+	 * "checkout" or "return". A return only needs the "code" field.
+	 */
+	static Record parseJsonRecord(String line) {
+		Map<String, String> fields = parseFlatJsonObject(line);
+		String action = fields.getOrDefault("action", "checkout");
+		if (!action.equalsIgnoreCase("checkout") && !action.equalsIgnoreCase("return")) {
+			throw new IllegalArgumentException(String.format("Unknown action \"%s\". The action must be either checkout or return.", action));
+		}
+
+		String code = parseCode(requiredField(fields, "code"));
+		if (action.equalsIgnoreCase("return")) {
+			return Record.toReturn(code);
+		}
+		return Record.toCheckout(code, parseWholeNumber("rentalDays", requiredField(fields, "rentalDays")),
+				parseWholeNumber("discountPercent", requiredField(fields, "discountPercent")),
+				parseCheckoutDate(requiredField(fields, "checkoutDate")));
+	}
+
+	private static String requiredField(Map<String, String> fields, String name) {
+		String value = fields.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException(String.format("The record is missing the \"%s\" field.", name));
+		}
+		return value;
+	}
+
+	// Returns the normalized tool code. It is only turned into a ToolId against the storage, so unknown codes never create one.
+	private static String parseCode(String codeStr) {
+		String code = ToolId.normalize(codeStr);
+		if (code == null) {
+			throw new IllegalArgumentException("The record is missing the tool code.");
+		}
+		return code;
+	}
+
+	private static int parseWholeNumber(String name, String value) {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("%s needs to be a whole number, but was \"%s\".", name, value));
+		}
+	}
+
+	// Accepts the M/d/yy format used by the interactive application, and ISO dates (yyyy-MM-dd)
+	private static LocalDate parseCheckoutDate(String value) {
+		String date = value.trim();
+		try {
+			return date.indexOf('-') >= 0 ? LocalDate.parse(date) : LocalDate.parse(date, CHECKOUT_DATE_FORMATTER);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException(String.format("\"%s\" is not a valid checkout date. Dates follow the format MM/dd/yy.", value));
+		}
+	}
+
+	private static String unquote(String column) {
+		if (column.length() >= 2 && column.startsWith("\"") && column.endsWith("\"")) {
+			return column.substring(1, column.length() - 1).replace("\"\"", "\"");
+		}
+		return column;
+	}
+
+	/**
+	 * Parses a JSON object whose values are all strings, numbers, booleans or null
+	 * (no nested objects or arrays), which is all a rental record needs.
+	 * Every value is returned as its String representation.
+	 *
+	 * @throws IllegalArgumentException if the line is not such an object
+	 */
+	static Map<String, String> parseFlatJsonObject(String line) {
+		Map<String, String> fields = new HashMap<String, String>();
+		int[] position = {skipWhitespace(line, 0)};
+		expect(line, position, '{');
+		if (peek(line, position) == '}') {
+			position[0]++;
+		} else {
+			while (true) {
+				String name = parseJsonString(line, position);
+				expect(line, position, ':');
+				String value = peek(line, position) == '"' ? parseJsonString(line, position) : parseJsonLiteral(line, position);
+				fields.put(name, value);
+
+				char next = peek(line, position);
+				position[0]++;
+				if (next == '}') {
+					break;
+				} else if (next != ',') {
+					throw new IllegalArgumentException("The record is not a valid JSON object.");
+				}
+			}
+		}
+
+		if (skipWhitespace(line, position[0]) != line.length()) {
+			throw new IllegalArgumentException("The record is not a valid JSON object.");
+		}
+		return fields;
+	}
+
+	private static int skipWhitespace(String line, int position) {
+		while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	// Returns the next non-whitespace character without consuming it
+	private static char peek(String line, int[] position) {
+		position[0] = skipWhitespace(line, position[0]);
+		if (position[0] >= line.length()) {
+			throw new IllegalArgumentException("The record is not a valid JSON object.");
+		}
+		return line.charAt(position[0]);
+	}
+
+	private static void expect(String line, int[] position, char expected) {
+		if (peek(line, position) != expected) {
+			throw new IllegalArgumentException("The record is not a valid JSON object.");
+		}
+		position[0]++;
+	}
+
+	private static String parseJsonString(String line, int[] position) {
+		expect(line, position, '"');
+		StringBuilder value = new StringBuilder();
+		int i = position[0];
+		while (i < line.length()) {
+			char c = line.charAt(i++);
+			if (c == '"') {
+				position[0] = i;
+				return value.toString();
+			} else if (c != '\\') {
+				value.append(c);
+			} else if (i < line.length()) {
+				char escaped = line.charAt(i++);
+				switch (escaped) {
+				case 'n': value.append('\n'); break;
+				case 't': value.append('\t'); break;
+				case 'r': value.append('\r'); break;
+				case 'b': value.append('\b'); break;
+				case 'f': value.append('\f'); break;
+				case 'u':
+					if (i + 4 > line.length()) {
+						throw new IllegalArgumentException("The record is not a valid JSON object.");
+					}
+					try {
+						value.append((char) Integer.parseInt(line.substring(i, i + 4), 16));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("The record is not a valid JSON object.");
+					}
+					i += 4;
+					break;
+				default: value.append(escaped); // \" \\ and \/
+				}
+			}
+		}
+		throw new IllegalArgumentException("The record is not a valid JSON object.");
+	}
+
+	// Numbers, true, false and null
+	private static String parseJsonLiteral(String line, int[] position) {
+		int start = skipWhitespace(line, position[0]);
+		int end = start;
+		while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != '}' && !Character.isWhitespace(line.charAt(end))) {
+			end++;
+		}
+		if (end == start) {
+			throw new IllegalArgumentException("The record is not a valid JSON object.");
+		}
+		position[0] = end;
+		return line.substring(start, end);
+	}
+
+	// A parsed rental record: either a checkout or a return of the tool with the given (normalized) code
+	static final class Record {
+		final boolean isReturn;
+		final String code;
+		final int rentalDays;
+		final int discountPercent;
+		final LocalDate checkoutDate;
+
+		private Record(boolean isReturn, String code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+			this.isReturn = isReturn;
+			this.code = code;
+			this.rentalDays = rentalDays;
+			this.discountPercent = discountPercent;
+			this.checkoutDate = checkoutDate;
+		}
+
+		static Record toCheckout(String code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+			return new Record(false, code, rentalDays, discountPercent, checkoutDate);
+		}
+
+		static Record toReturn(String code) {
+			return new Record(true, code, 0, 0, null);
+		}
+	}
+
+	/**
+	 * The number of records a batch processed, and how long it took.
+	 */
+	public static final class Summary {
+		private int records, checkouts, returns, failures;
+		private long elapsedNanos;
+
+		public int getRecords() {
+			return records;
+		}
+
+		public int getCheckouts() {
+			return checkouts;
+		}
+
+		public int getReturns() {
+			return returns;
+		}
+
+		public int getFailures() {
+			return failures;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public double getRecordsPerSecond() {
+			return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Processed %d records (%d checkouts, %d returns, %d failed) in %.3f seconds (%.0f records/s).",
+					records, checkouts, returns, failures, elapsedNanos / 1e9, getRecordsPerSecond());
+		}
+	}
+}
@@ -0,0 +1,291 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * A StorageSystem that keeps the most recently retrieved Tools of another StorageSystem
+ * (e.g. an SQLiteDB) in memory, so the codes clerks type over and over again are not
+ * queried and rebuilt on every getTool() call.
+ *
+ * 1) The cache holds at most maxEntries Tools. When it is full, the least recently
+ *    retrieved Tool is evicted (LRU order, kept by an access-ordered LinkedHashMap).
+ * 2) Every write (addTool, updateTool, removeTool, checkout, returnTool and the bulk operations) is
+ *    passed straight through to the wrapped StorageSystem, and the cached Tools it may
+ *    have changed are then invalidated. The next getTool() reads them again.
+ * 3) A Tool read from the wrapped StorageSystem is only cached if no invalidation happened
+ *    while it was being read, so a read racing a write can never cache the old Tool.
+ * 4) getTool() returns a copy of the cached Tool, so changes made to the returned Tool
+ *    are not saved (as for the other StorageSystems, use updateTool() instead).
+ *
+ * The hit, miss and eviction counts are available through getStats().
+ *
+ * Note: Every write must go through the CachingStorage. Changes made directly to the
+ * wrapped StorageSystem (or to its database by another process) are not seen until the
+ * Tool is evicted or clear() is called. A CachingStorage is thread-safe as long as the
+ * wrapped StorageSystem is.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class CachingStorage implements StorageSystem {
+
+	static final int DEFAULT_MAX_ENTRIES = 1024;
+
+	private final StorageSystem storage;
+	private final int maxEntries;
+	private final LinkedHashMap<ToolId, Tool> cache;
+
+	// Guarded by cache
+	private long invalidations;
+	private long hits, misses, evictions;
+
+	/**
+	 * This constructor wraps the passed-in StorageSystem with a cache of
+	 * the default size (1024 Tools).
+	 *
+	 * @param storage The StorageSystem to cache the Tools of
+	 */
+	public CachingStorage(StorageSystem storage) {
+		this(storage, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * This constructor wraps the passed-in StorageSystem with a cache of at
+	 * most maxEntries Tools.
+	 *
+	 * @param storage The StorageSystem to cache the Tools of
+	 * @param maxEntries The maximum number of cached Tools (at least 1)
+	 * @throws IllegalArgumentException if the StorageSystem is null or maxEntries is less than 1
+	 */
+	public CachingStorage(StorageSystem storage, int maxEntries) {
+		if (storage == null) {
+			throw new IllegalArgumentException("The StorageSystem to cache must not be null.");
+		}
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException(String.format("The cache must hold at least 1 Tool, but maxEntries was %d.", maxEntries));
+		}
+
+		this.storage = storage;
+		this.maxEntries = maxEntries;
+		cache = new LinkedHashMap<ToolId, Tool>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ToolId, Tool> eldest) {
+				if (size() > CachingStorage.this.maxEntries) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	// The wrapped StorageSystem
+	public StorageSystem getStorage() {
+		return storage;
+	}
+
+	@Override
+	public void addTool(Tool tool) {
+		storage.addTool(tool);
+		if (tool != null) {
+			invalidate(tool.getId());
+		}
+	}
+
+	@Override
+	public void addTools(Collection<? extends Tool> tools) {
+		storage.addTools(tools);
+		if (tools != null) {
+			synchronized (cache) {
+				for (Tool tool : tools) {
+					if (tool != null) {
+						cache.remove(tool.getId());
+					}
+				}
+				invalidations++;
+			}
+		}
+	}
+
+	@Override
+	public ToolId findToolId(String code) {
+		return storage.findToolId(code);
+	}
+
+	/**
+	 * Returns a copy of the cached Tool associated with the passed-in code. On a
+	 * cache miss, the Tool is retrieved from the wrapped StorageSystem (which
+	 * prints its own warning messages if the code is null or not found) and cached.
+	 */
+	@Override
+	public Tool getTool(ToolId code) {
+		if (code == null) {
+			return storage.getTool(code);
+		}
+
+		long seenInvalidations;
+		synchronized (cache) {
+			Tool cached = cache.get(code);
+			if (cached != null) {
+				hits++;
+				return Tool.copyOf(cached);
+			}
+			misses++;
+			seenInvalidations = invalidations;
+		}
+
+		Tool tool = storage.getTool(code);
+		if (tool != null) {
+			synchronized (cache) {
+				if (invalidations == seenInvalidations) {
+					cache.put(code, Tool.copyOf(tool));
+				}
+			}
+		}
+		return tool;
+	}
+
+	@Override
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
+		storage.updateTool(code, attribute, value);
+		invalidate(code);
+		if (Attribute.CODE.equals(attribute)) {
+			invalidate(HashMapStorage.toolIdOf(value));
+		}
+	}
+
+	@Override
+	public void updateToolsById(Attribute attribute, Map<ToolId, ?> values) {
+		storage.updateToolsById(attribute, values);
+		if (values != null) {
+			synchronized (cache) {
+				for (Map.Entry<ToolId, ?> entry : values.entrySet()) {
+					cache.remove(entry.getKey());
+					if (Attribute.CODE.equals(attribute)) {
+						cache.remove(HashMapStorage.toolIdOf(entry.getValue()));
+					}
+				}
+				invalidations++;
+			}
+		}
+	}
+
+	@Override
+	public void removeTool(ToolId code) {
+		storage.removeTool(code);
+		invalidate(code);
+	}
+
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		try {
+			return storage.checkout(code, rentalDays, discountPercent, checkoutDate);
+		} finally {
+			invalidate(code);
+		}
+	}
+
+	@Override
+	public boolean returnTool(ToolId code) {
+		try {
+			return storage.returnTool(code);
+		} finally {
+			invalidate(code);
+		}
+	}
+
+	@Override
+	public void printStoredTools() {
+		storage.printStoredTools();
+	}
+
+	// Listings are streamed straight from the wrapped StorageSystem and do not go through the cache
+	@Override
+	public Stream<Tool> streamTools() {
+		return storage.streamTools();
+	}
+
+	// Availability queries are answered by the wrapped StorageSystem (and its indexes) and do not go through the cache
+	@Override
+	public Stream<Tool> findAvailable(Type type, Brand brand) {
+		return storage.findAvailable(type, brand);
+	}
+
+	// Drops every cached Tool. The statistics are kept.
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			invalidations++;
+		}
+	}
+
+	// Number of cached Tools
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	public Stats getStats() {
+		synchronized (cache) {
+			return new Stats(hits, misses, evictions);
+		}
+	}
+
+	private void invalidate(ToolId code) {
+		if (code == null) {
+			return;
+		}
+		synchronized (cache) {
+			cache.remove(code);
+			invalidations++;
+		}
+	}
+
+	/**
+	 * The number of getTool() calls served from the cache (hits) and from the
+	 * wrapped StorageSystem (misses), and the number of Tools evicted to make
+	 * room for others, since the CachingStorage was created.
+	 */
+	public static final class Stats {
+		private final long hits, misses, evictions;
+
+		Stats(long hits, long misses, long evictions) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		public double getHitRate() {
+			return (hits + misses) == 0 ? 0 : (double) hits / (hits + misses);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions", hits, misses, getHitRate() * 100, evictions);
+		}
+	}
+}
@@ -0,0 +1,437 @@
+package rentatool.app;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+
+/**
+ * An embedded HTTP service (the JDK's HttpServer) that lets a point-of-sale front end
+ * list tools, price rentals, check tools out and return them, backed by any
+ * thread-safe StorageSystem (e.g. a pooled SQLiteDB or a ConcurrentHashMapStorage).
+ * Every response is a JSON document written by hand, field by field, without reflection.
+ *
+ * Endpoints (the parameters are passed in the query string):
+ * 1) GET  /tools                 lists every stored tool, in code order (streamed as a chunked body)
+ * 2) GET  /tools/{code}          returns one tool
+ * 3) GET  /quote?code=&rentalDays=&discountPercent=&checkoutDate=
+ *                                returns the RentalAgreement of a rental without reserving the tool
+ * 4) POST /checkout?code=&rentalDays=&discountPercent=&checkoutDate=
+ *                                checks the tool out and returns its RentalAgreement
+ * 5) POST /return?code=          returns a checked out tool
+ *
+ * The checkoutDate is either an ISO date (2020-07-02) or uses the console's M/d/yy
+ * format (7/2/20). Errors are answered with {"error": "..."} and the status 400
+ * (invalid parameters), 404 (unknown tool or path), 405 (wrong method) or 409 (the tool
+ * is already checked out, or is not checked out when it is returned).
+ *
+ * The service only listens on the loopback address. By default, requests are handled
+ * by a bounded pool of daemon threads (one per processor, times two); another executor
+ * (e.g. a virtual thread per task executor on a JDK that has them) can be passed in.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class CheckoutHttpService implements AutoCloseable {
+
+	static final int BACKLOG = 1024;
+	static final int QUEUE_CAPACITY = 4096;
+	static final DateTimeFormatter CONSOLE_DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yy");
+	static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+	static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	// The HttpServer sends the headers and the body of a response in separate writes. With Nagle's
+	// algorithm, the body then waits for the client's delayed ACK of the headers (about 40 ms), so
+	// TCP_NODELAY is enabled unless it was configured explicitly. The property is read once, when
+	// the first HttpServer is created.
+	static {
+		if (System.getProperty(NODELAY_PROPERTY) == null) {
+			System.setProperty(NODELAY_PROPERTY, "true");
+		}
+	}
+
+	private final StorageSystem storage;
+	private final HttpServer server;
+	private final ExecutorService ownedExecutor; // null if the executor is owned by the caller
+
+	/**
+	 * Creates a service for the passed-in StorageSystem listening on the passed-in
+	 * port of the loopback address, handling requests on its own bounded thread pool.
+	 *
+	 * @param storage The thread-safe StorageSystem to serve
+	 * @param port The port to listen on, or 0 to pick a free port
+	 * @throws IOException if the port could not be bound
+	 */
+	public CheckoutHttpService(StorageSystem storage, int port) throws IOException {
+		this(storage, port, newRequestExecutor(), true);
+	}
+
+	/**
+	 * Creates a service for the passed-in StorageSystem listening on the passed-in
+	 * port of the loopback address, handling requests on the passed-in executor,
+	 * which is not shut down by close().
+	 *
+	 * @param storage The thread-safe StorageSystem to serve
+	 * @param port The port to listen on, or 0 to pick a free port
+	 * @param executor The executor to handle requests on
+	 * @throws IOException if the port could not be bound
+	 */
+	public CheckoutHttpService(StorageSystem storage, int port, Executor executor) throws IOException {
+		this(storage, port, executor, false);
+	}
+
+	private CheckoutHttpService(StorageSystem storage, int port, Executor executor, boolean ownsExecutor) throws IOException {
+		if (storage == null || executor == null) {
+			throw new IllegalArgumentException("The StorageSystem and the request executor of the service must not be null.");
+		}
+
+		this.storage = storage;
+		this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+		server.setExecutor(executor);
+		server.createContext("/tools", exchange -> handle(exchange, "GET", this::tools));
+		server.createContext("/quote", exchange -> handle(exchange, "GET", this::quote));
+		server.createContext("/checkout", exchange -> handle(exchange, "POST", this::checkout));
+		server.createContext("/return", exchange -> handle(exchange, "POST", this::returnTool));
+	}
+
+	// Two daemon threads per processor and a bounded queue of requests. When the queue is full,
+	// the server's dispatcher thread handles the request itself, which stops it accepting more.
+	private static ExecutorService newRequestExecutor() {
+		int threads = Runtime.getRuntime().availableProcessors() * 2;
+		AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), runnable -> {
+			Thread thread = new Thread(runnable, "rentatool-http-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	// Starts handling requests on a background thread
+	public CheckoutHttpService start() {
+		server.start();
+		return this;
+	}
+
+	// The port the service listens on
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops the service, waiting up to one second for the requests being handled
+	 * to finish. The StorageSystem is not closed.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdown();
+		}
+	}
+
+	// The response of an endpoint: an HTTP status code and a JSON body
+	static final class Response {
+		// Returned by the endpoints that have already sent their response themselves
+		static final Response SENT = new Response(200, null);
+
+		final int status;
+		final CharSequence json;
+
+		Response(int status, CharSequence json) {
+			this.status = status;
+			this.json = json;
+		}
+
+		static Response error(int status, String message) {
+			StringBuilder json = new StringBuilder(message.length() + 16);
+			json.append("{\"error\":");
+			appendString(json, message);
+			return new Response(status, json.append('}'));
+		}
+	}
+
+	@FunctionalInterface
+	interface Endpoint {
+		Response handle(HttpExchange exchange, Map<String, String> parameters) throws IOException;
+	}
+
+	private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+		Response response;
+		try {
+			if (!exchange.getRequestMethod().equals(method)) {
+				response = Response.error(405, String.format("%s only accepts %s requests.", exchange.getHttpContext().getPath(), method));
+			} else {
+				response = endpoint.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+			}
+		} catch (RuntimeException e) {
+			if (exchange.getResponseCode() != -1) {
+				// Part of the body was already sent, so the connection is dropped instead
+				throw e;
+			}
+			response = Response.error(500, "There was an unexpected issue with the system.");
+		}
+		if (response == Response.SENT) {
+			return;
+		}
+
+		byte[] body = response.json.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+		exchange.sendResponseHeaders(response.status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	// GET /tools and GET /tools/{code}
+	private Response tools(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		if (path.equals("/tools") || path.equals("/tools/")) {
+			listTools(exchange);
+			return Response.SENT;
+		}
+
+		ToolId id = storage.findToolId(path.substring("/tools/".length())); // null if no tool has this code
+		Tool tool = (id == null) ? null : storage.getTool(id);
+		if (tool == null) {
+			return Response.error(404, "Could not find tool associated with this code.");
+		}
+		return new Response(200, appendTool(new StringBuilder(256), tool));
+	}
+
+	// Writes every stored tool to a chunked response body while the storage's cursor is open,
+	// so the list is never held in memory as a whole. The writer is only closed (which ends
+	// the chunked body) once the list is complete: if reading it fails, the exception drops
+	// the connection instead, and the client can not mistake a partial list for a whole one.
+	private void listTools(HttpExchange exchange) throws IOException {
+		try (Stream<Tool> stored = storage.streamTools()) {
+			exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, 0);
+			Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+			StringBuilder json = new StringBuilder(256); // reused for every tool
+			out.write('[');
+			for (Iterator<Tool> tools = stored.iterator(); tools.hasNext();) {
+				json.setLength(0);
+				appendTool(json, tools.next());
+				out.append(json);
+				if (tools.hasNext()) {
+					out.write(',');
+				}
+			}
+			out.write(']');
+			out.close();
+		}
+	}
+
+	// GET /quote: prices the rental without reserving the tool
+	private Response quote(HttpExchange exchange, Map<String, String> parameters) {
+		RentalRequest request = RentalRequest.parse(parameters, storage);
+		if (request.error != null) {
+			return Response.error(400, request.error);
+		}
+
+		Tool tool = (request.id == null) ? null : storage.getTool(request.id);
+		if (tool == null) {
+			return Response.error(404, "Could not find tool associated with this code.");
+		}
+		try {
+			RentalAgreement rentalAgreement = new RentalAgreement(tool, request.rentalDays, request.discountPercent, request.checkoutDate);
+			return new Response(200, appendRentalAgreement(new StringBuilder(512), rentalAgreement));
+		} catch (InvalidCheckoutArgumentException e) {
+			return Response.error(400, e.getMessage());
+		}
+	}
+
+	// POST /checkout: reserves the tool and returns its RentalAgreement
+	private Response checkout(HttpExchange exchange, Map<String, String> parameters) {
+		RentalRequest request = RentalRequest.parse(parameters, storage);
+		if (request.error != null) {
+			return Response.error(400, request.error);
+		}
+		if (request.id == null) {
+			return Response.error(404, "Could not find tool associated with this code.");
+		}
+
+		try {
+			RentalAgreement rentalAgreement = storage.checkout(request.id, request.rentalDays, request.discountPercent, request.checkoutDate);
+			if (rentalAgreement != null) {
+				return new Response(200, appendRentalAgreement(new StringBuilder(512), rentalAgreement));
+			}
+		} catch (InvalidCheckoutArgumentException e) {
+			return Response.error(400, e.getMessage());
+		}
+
+		// checkout() returns null for unknown codes and for tools that are already checked out
+		if (storage.getTool(request.id) == null) {
+			return Response.error(404, "Could not find tool associated with this code.");
+		}
+		return Response.error(409, "Sorry, that tool is currently checked out. Please try another code.");
+	}
+
+	// POST /return: returns a checked out tool
+	private Response returnTool(HttpExchange exchange, Map<String, String> parameters) {
+		if (ToolId.normalize(parameters.get("code")) == null) {
+			return Response.error(400, "A tool code must be passed in.");
+		}
+		ToolId id = storage.findToolId(parameters.get("code"));
+		if (id == null) {
+			return Response.error(404, "Could not find tool associated with this code.");
+		}
+
+		// returnTool() is atomic, so two clerks returning the same tool can not both succeed
+		if (!storage.returnTool(id)) {
+			if (storage.getTool(id) == null) {
+				return Response.error(404, "Could not find tool associated with this code.");
+			}
+			return Response.error(409, "That tool is not checked out.");
+		}
+
+		StringBuilder json = new StringBuilder(64).append("{\"code\":");
+		appendString(json, id.getName());
+		return new Response(200, json.append(",\"checkedOut\":false}"));
+	}
+
+	// The parameters of a quote or a checkout, or the reason they are invalid
+	static final class RentalRequest {
+		ToolId id;
+		int rentalDays, discountPercent;
+		LocalDate checkoutDate;
+		String error;
+
+		// The ToolId is looked up in the storage, so it is null (and no ToolId is created) if no tool has the code
+		static RentalRequest parse(Map<String, String> parameters, CrudOps storage) {
+			RentalRequest request = new RentalRequest();
+			String code = parameters.get("code");
+			if (ToolId.normalize(code) == null) {
+				request.error = "A tool code must be passed in.";
+				return request;
+			}
+			request.id = storage.findToolId(code);
+			try {
+				request.rentalDays = Integer.parseInt(parameters.getOrDefault("rentalDays", ""));
+				request.discountPercent = Integer.parseInt(parameters.getOrDefault("discountPercent", "0"));
+			} catch (NumberFormatException e) {
+				request.error = "The rentalDays and discountPercent must be whole numbers.";
+				return request;
+			}
+			request.checkoutDate = parseDate(parameters.get("checkoutDate"));
+			if (request.checkoutDate == null) {
+				request.error = "Please provide a valid checkoutDate following the format yyyy-MM-dd or MM/dd/yy.";
+			}
+			return request;
+		}
+	}
+
+	// Parses an ISO date (2020-07-02) or a console date (7/2/20), or returns null if it is neither
+	static LocalDate parseDate(String date) {
+		if (date == null) {
+			return null;
+		}
+		try {
+			return (date.indexOf('/') >= 0) ? LocalDate.parse(date, CONSOLE_DATE_FORMAT) : LocalDate.parse(date);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	// Decodes an application/x-www-form-urlencoded query string
+	static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return parameters;
+		}
+
+		int start = 0;
+		while (start <= rawQuery.length()) {
+			int end = rawQuery.indexOf('&', start);
+			if (end < 0) {
+				end = rawQuery.length();
+			}
+			int equals = rawQuery.indexOf('=', start);
+			if (equals > start && equals < end) {
+				parameters.put(URLDecoder.decode(rawQuery.substring(start, equals), StandardCharsets.UTF_8),
+						URLDecoder.decode(rawQuery.substring(equals + 1, end), StandardCharsets.UTF_8));
+			}
+			start = end + 1;
+		}
+		return parameters;
+	}
+
+	// Appends the passed-in Tool as a JSON object
+	static StringBuilder appendTool(StringBuilder json, Tool tool) {
+		json.append("{\"code\":");
+		appendString(json, tool.getId().getName());
+		json.append(",\"type\":");
+		appendString(json, tool.getType().toString());
+		json.append(",\"brand\":");
+		appendString(json, tool.getBrand().toString());
+		json.append(",\"dailyCharge\":").append(tool.getDailyCharge());
+		json.append(",\"chargeOnWeekdays\":").append(tool.isChargeOnWeekdays());
+		json.append(",\"chargeOnWeekends\":").append(tool.isChargeOnWeekends());
+		json.append(",\"chargeOnHolidays\":").append(tool.isChargeOnHolidays());
+		json.append(",\"checkedOut\":").append(tool.isCheckedOut());
+		return json.append('}');
+	}
+
+	// Appends the passed-in RentalAgreement as a JSON object (dates in ISO format)
+	static StringBuilder appendRentalAgreement(StringBuilder json, RentalAgreement rentalAgreement) {
+		json.append("{\"code\":");
+		appendString(json, rentalAgreement.getId().getName());
+		json.append(",\"type\":");
+		appendString(json, rentalAgreement.getType().toString());
+		json.append(",\"brand\":");
+		appendString(json, rentalAgreement.getBrand().toString());
+		json.append(",\"rentalDays\":").append(rentalAgreement.getRentalDays());
+		json.append(",\"checkoutDate\":\"").append(rentalAgreement.getCheckoutDate()).append('"');
+		json.append(",\"dueDate\":\"").append(rentalAgreement.getDueDate()).append('"');
+		json.append(",\"dailyRentalCharge\":").append(rentalAgreement.getDailyRentalCharge());
+		json.append(",\"chargeDays\":").append(rentalAgreement.getTotalChargeableDays());
+		json.append(",\"preDiscountCharge\":").append(rentalAgreement.getPreDiscountCharge().toPlainString());
+		json.append(",\"discountPercent\":").append(rentalAgreement.getDiscountPercent());
+		json.append(",\"discountAmount\":").append(rentalAgreement.getDiscountAmount().toPlainString());
+		json.append(",\"finalCharge\":").append(rentalAgreement.getFinalCharge().toPlainString());
+		return json.append('}');
+	}
+
+	// Appends the passed-in String as a JSON string, escaping quotes, backslashes and control characters
+	static void appendString(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < 0x20) {
+				json.append("\\u00");
+				json.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+			} else {
+				json.append(c);
+			}
+		}
+		json.append('"');
+	}
+}
@@ -0,0 +1,257 @@
+package rentatool.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates many clerks using a CheckoutServer at the same time, and reports the
+ * latency percentiles of their checkouts.
+ *
+ * Every clerk connects its own terminal and repeatedly checks out a serialized Werner
+ * ladder (clerk 1 uses LADW-000001, clerk 2 uses LADW-000002, ...) and returns it. The
+ * server's StorageSystem must therefore hold at least one ladder per clerk (see
+ * CheckoutServer.serializedLadders() and the "--server <port> --units <count>" mode of
+ * Main). The latency of a checkout is measured from the moment the clerk sends the
+ * checkout date (the last answer of a checkout) until the server asks whether to
+ * process another tool, which includes reserving the tool and sending the Rental Agreement.
+ *
+ * Usage: --port <port> [--clerks <count>] [--checkouts <count per clerk>]
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class CheckoutLoadGenerator {
+
+	static final int DEFAULT_CLERKS = 200;
+	static final int DEFAULT_CHECKOUTS = 20;
+	static final int READ_TIMEOUT_MILLIS = 30_000;
+
+	static final String RETURN_PROMPT = "Would you like to return a tool? (Yes/No): ";
+	static final String CODE_PROMPT = "Tool code: ";
+	static final String DAYS_PROMPT = "Rental day count: ";
+	static final String DISCOUNT_PROMPT = "Discount percent (do not include '%' symbol): ";
+	static final String DATE_PROMPT = "Checkout date (MM/dd/yy): ";
+	static final String ANOTHER_PROMPT = "Would you like to process another tool? (Yes/No): ";
+	static final String CHECKED_OUT = "Tool was successfully checked out!";
+	static final String RETURNED = "Thank you. Tool has been returned!";
+	static final String TRY_ANOTHER_CODE = "Please try another code.";
+
+	public static void main(String[] args) {
+		int port = -1;
+		int clerks = DEFAULT_CLERKS;
+		int checkouts = DEFAULT_CHECKOUTS;
+		try {
+			for (int i = 0; i < args.length; i += 2) {
+				if (args[i].equals("--port")) {
+					port = Integer.parseInt(args[i + 1]);
+				} else if (args[i].equals("--clerks")) {
+					clerks = Integer.parseInt(args[i + 1]);
+				} else if (args[i].equals("--checkouts")) {
+					checkouts = Integer.parseInt(args[i + 1]);
+				} else {
+					port = -1;
+					break;
+				}
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			port = -1;
+		}
+		if (port < 1 || clerks < 1 || checkouts < 1) {
+			System.out.println("Usage: --port <port> [--clerks <count>] [--checkouts <count per clerk>]");
+			return;
+		}
+
+		System.out.println(run(port, clerks, checkouts));
+	}
+
+	/**
+	 * Runs the passed-in number of clerks against the CheckoutServer listening on the
+	 * passed-in port of the loopback address, each on its own thread, and waits for all
+	 * of them to finish. A clerk whose terminal fails (e.g. its ladder was not found, or
+	 * the server did not answer within 30 seconds) stops and is counted as failed.
+	 *
+	 * @param port The port of the CheckoutServer
+	 * @param clerks The number of clerks connected at the same time
+	 * @param checkoutsPerClerk The number of checkouts (and returns) made by every clerk
+	 * @return the Report of the run
+	 */
+	public static Report run(int port, int clerks, int checkoutsPerClerk) {
+		long[][] latencies = new long[clerks][];
+		AtomicInteger failedClerks = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>(clerks);
+		for (int c = 0; c < clerks; c++) {
+			int clerk = c;
+			Thread thread = new Thread(() -> {
+				long[] clerkLatencies = new long[checkoutsPerClerk];
+				int completed = 0;
+				try (Terminal terminal = new Terminal(port)) {
+					start.await();
+					String code = String.format("LADW-%06d", clerk + 1);
+					while (completed < checkoutsPerClerk) {
+						clerkLatencies[completed] = terminal.checkoutAndReturn(code);
+						completed++;
+					}
+				} catch (IOException | RuntimeException e) {
+					failedClerks.incrementAndGet();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				latencies[clerk] = Arrays.copyOf(clerkLatencies, completed);
+			}, "rentatool-clerk-" + (c + 1));
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+		}
+
+		long startNanos = System.nanoTime();
+		start.countDown();
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+
+		return new Report(clerks, failedClerks.get(), elapsedNanos, Arrays.stream(latencies).filter(l -> l != null).flatMapToLong(Arrays::stream).sorted().toArray());
+	}
+
+	// One clerk's connection to the server, driving the checkout prompts
+	static final class Terminal implements AutoCloseable {
+		private final Socket socket;
+		private final BufferedReader in;
+		private final PrintStream out;
+		private final StringBuilder received = new StringBuilder();
+
+		Terminal(int port) throws IOException {
+			socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			socket.setTcpNoDelay(true);
+			socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+			in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Checks out the tool with the passed-in code, then returns it.
+		 *
+		 * @return the latency of the checkout in nanoseconds
+		 */
+		long checkoutAndReturn(String code) throws IOException {
+			answer(RETURN_PROMPT, "n");
+			answer(CODE_PROMPT, code);
+			answer(DAYS_PROMPT, "3");
+			answer(DISCOUNT_PROMPT, "10");
+			expect(DATE_PROMPT);
+			long sent = System.nanoTime();
+			out.println("7/2/20");
+			String agreement = expect(ANOTHER_PROMPT);
+			long latency = System.nanoTime() - sent;
+			if (!agreement.contains(CHECKED_OUT)) {
+				throw new IllegalStateException(String.format("The tool %s was not checked out: %s", code, agreement));
+			}
+
+			out.println("y");
+			answer(RETURN_PROMPT, "y");
+			answer(CODE_PROMPT, code);
+			expect(RETURNED);
+			return latency;
+		}
+
+		private void answer(String prompt, String answer) throws IOException {
+			expect(prompt);
+			out.println(answer);
+		}
+
+		/**
+		 * Reads until the passed-in text is received, and returns everything received before it.
+		 * Throws an IllegalStateException if the server rejected the tool code instead.
+		 */
+		private String expect(String text) throws IOException {
+			char[] buffer = new char[4096];
+			int index;
+			while ((index = received.indexOf(text)) < 0) {
+				if (received.indexOf(TRY_ANOTHER_CODE) >= 0) {
+					throw new IllegalStateException(String.format("The tool code was rejected: %s", received));
+				}
+				int read = in.read(buffer);
+				if (read < 0) {
+					throw new IOException(String.format("The server disconnected while \"%s\" was expected.", text));
+				}
+				received.append(buffer, 0, read);
+			}
+			String before = received.substring(0, index);
+			received.delete(0, index + text.length());
+			return before;
+		}
+
+		@Override
+		public void close() throws IOException {
+			socket.close();
+		}
+	}
+
+	/**
+	 * The number of clerks and checkouts of a run, and the latency percentiles
+	 * of its checkouts.
+	 */
+	public static final class Report {
+		private final int clerks, failedClerks;
+		private final long elapsedNanos;
+		private final long[] sortedLatencies;
+
+		Report(int clerks, int failedClerks, long elapsedNanos, long[] sortedLatencies) {
+			this.clerks = clerks;
+			this.failedClerks = failedClerks;
+			this.elapsedNanos = elapsedNanos;
+			this.sortedLatencies = sortedLatencies;
+		}
+
+		public int getClerks() {
+			return clerks;
+		}
+
+		public int getFailedClerks() {
+			return failedClerks;
+		}
+
+		public int getCheckouts() {
+			return sortedLatencies.length;
+		}
+
+		public double getCheckoutsPerSecond() {
+			return elapsedNanos == 0 ? 0 : sortedLatencies.length / (elapsedNanos / 1e9);
+		}
+
+		/**
+		 * Returns the checkout latency in milliseconds below which the passed-in
+		 * fraction of the checkouts completed (e.g. 0.99 for the p99 latency).
+		 */
+		public double getLatencyMillis(double percentile) {
+			if (sortedLatencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+			return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d clerks (%d failed) completed %d checkouts in %.2f s (%.0f checkouts/s). Checkout latency: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+					clerks, failedClerks, getCheckouts(), elapsedNanos / 1e9, getCheckoutsPerSecond(),
+					getLatencyMillis(0.50), getLatencyMillis(0.90), getLatencyMillis(0.99), getLatencyMillis(1.0));
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package rentatool.app;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+
+/**
+ * Serves the Rent-A-Tool checkout to many terminals at once over local TCP sockets.
+ * Every terminal that connects (e.g. with telnet or CheckoutLoadGenerator) gets its
+ * own session running the same prompts as the console application (see
+ * Main.runCheckoutSession()) on its own thread, and every session shares one
+ * StorageSystem, which must therefore be thread-safe (e.g. a pooled SQLiteDB or a
+ * ConcurrentHashMapStorage).
+ *
+ * 1) The server only listens on the loopback address. Port 0 picks a free port,
+ *    which getPort() returns once the server is started.
+ * 2) By default, every session runs on a new daemon thread of a cached thread pool.
+ *    Another ExecutorService (e.g. a virtual thread per task executor on a JDK that
+ *    has them) can be passed in instead.
+ * 3) A session ends when the clerk has no more tools to process, when the clerk
+ *    enters an invalid number of rental days or discount percent (as the console
+ *    application does), or when the terminal disconnects. The StorageSystem is never
+ *    closed by a session.
+ * 4) The output of a session is buffered, and only flushed when the session waits
+ *    for the clerk's input (or ends), so a prompt is sent in a single write.
+ *
+ * close() stops accepting terminals and disconnects the ones still connected.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class CheckoutServer implements AutoCloseable {
+
+	static final int BACKLOG = 1024;
+
+	private final StorageSystem storage;
+	private final ExecutorService sessionExecutor;
+	private final boolean ownsExecutor;
+	private final ServerSocket serverSocket;
+	private final Set<Socket> terminals = ConcurrentHashMap.newKeySet();
+	private final AtomicLong sessions = new AtomicLong();
+	private Thread acceptThread;
+
+	/**
+	 * Creates a server for the passed-in StorageSystem listening on the passed-in port
+	 * of the loopback address. Every session runs on its own new thread.
+	 *
+	 * @param storage The thread-safe StorageSystem shared by every session
+	 * @param port The port to listen on, or 0 to pick a free port
+	 * @throws IOException if the port could not be bound
+	 */
+	public CheckoutServer(StorageSystem storage, int port) throws IOException {
+		this(storage, port, newSessionExecutor(), true);
+	}
+
+	/**
+	 * Creates a server for the passed-in StorageSystem listening on the passed-in port
+	 * of the loopback address, running every session on the passed-in executor, which
+	 * is not shut down by close().
+	 *
+	 * @param storage The thread-safe StorageSystem shared by every session
+	 * @param port The port to listen on, or 0 to pick a free port
+	 * @param sessionExecutor The executor to run the sessions on
+	 * @throws IOException if the port could not be bound
+	 */
+	public CheckoutServer(StorageSystem storage, int port, ExecutorService sessionExecutor) throws IOException {
+		this(storage, port, sessionExecutor, false);
+	}
+
+	private CheckoutServer(StorageSystem storage, int port, ExecutorService sessionExecutor, boolean ownsExecutor) throws IOException {
+		if (storage == null || sessionExecutor == null) {
+			throw new IllegalArgumentException("The StorageSystem and the session executor of the server must not be null.");
+		}
+
+		this.storage = storage;
+		this.sessionExecutor = sessionExecutor;
+		this.ownsExecutor = ownsExecutor;
+		this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+	}
+
+	// A cached thread pool of daemon threads, one per connected terminal
+	private static ExecutorService newSessionExecutor() {
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "rentatool-terminal-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the passed-in number of serialized Werner ladders (LADW-000001, LADW-000002, ...),
+	 * so that many clerks can check out tools without competing for the four default tools.
+	 */
+	public static List<Tool> serializedLadders(int count) {
+		List<Tool> ladders = new ArrayList<Tool>(count);
+		for (int i = 1; i <= count; i++) {
+			ladders.add(new Ladder(ToolId.of(String.format("LADW-%06d", i)), Brand.WERNER));
+		}
+		return ladders;
+	}
+
+	// Starts accepting terminals on a background thread
+	public synchronized CheckoutServer start() {
+		if (acceptThread == null) {
+			acceptThread = new Thread(this::acceptTerminals, "rentatool-checkout-server");
+			acceptThread.setDaemon(true);
+			acceptThread.start();
+		}
+		return this;
+	}
+
+	// The port the server listens on
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	// Number of sessions started since the server was started
+	public long getSessionCount() {
+		return sessions.get();
+	}
+
+	// Number of terminals currently connected
+	public int getConnectedTerminals() {
+		return terminals.size();
+	}
+
+	public boolean isClosed() {
+		return serverSocket.isClosed();
+	}
+
+	/**
+	 * Stops accepting terminals and disconnects the terminals that are still connected.
+	 * The shared StorageSystem is not closed.
+	 */
+	@Override
+	public void close() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			System.out.println("Could not close the checkout server socket.");
+		}
+		for (Socket terminal : terminals) {
+			closeQuietly(terminal);
+		}
+
+		if (ownsExecutor) {
+			sessionExecutor.shutdown();
+			try {
+				sessionExecutor.awaitTermination(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void acceptTerminals() {
+		while (!serverSocket.isClosed()) {
+			Socket terminal;
+			try {
+				terminal = serverSocket.accept();
+			} catch (IOException e) {
+				if (!serverSocket.isClosed()) {
+					System.out.println(String.format("The checkout server could not accept a terminal: %s", e));
+				}
+				continue;
+			}
+
+			terminals.add(terminal);
+			sessions.incrementAndGet();
+			try {
+				sessionExecutor.execute(() -> runSession(terminal));
+			} catch (RuntimeException e) { // the executor was shut down
+				terminals.remove(terminal);
+				closeQuietly(terminal);
+			}
+		}
+	}
+
+	// Runs the checkout prompts for the passed-in terminal until its session ends
+	private void runSession(Socket terminal) {
+		try {
+			terminal.setTcpNoDelay(true);
+			PrintStream out = new PrintStream(new BufferedOutputStream(terminal.getOutputStream()), false, StandardCharsets.UTF_8);
+			Scanner scanner = new Scanner(new FlushingInputStream(terminal.getInputStream(), out), StandardCharsets.UTF_8);
+			try {
+				Main.runCheckoutSession(scanner, out, storage);
+				out.println("Thank you for using the Rent-A-Tool Checkout application!");
+			} catch (InvalidCheckoutArgumentException | NoSuchElementException e) {
+				// The clerk entered an invalid argument (the message was already sent), or disconnected
+			} finally {
+				out.flush();
+			}
+		} catch (SocketException e) {
+			// The terminal was disconnected (or the server closed)
+		} catch (IOException | RuntimeException e) {
+			System.out.println(String.format("A terminal session ended unexpectedly: %s", e));
+		} finally {
+			terminals.remove(terminal);
+			closeQuietly(terminal);
+		}
+	}
+
+	private static void closeQuietly(Socket terminal) {
+		try {
+			terminal.close();
+		} catch (IOException e) {
+			// Nothing left to do with this terminal
+		}
+	}
+
+	// Flushes the session's output before every read, so each prompt is sent before waiting for the clerk's answer
+	private static final class FlushingInputStream extends FilterInputStream {
+		private final OutputStream out;
+
+		FlushingInputStream(InputStream in, OutputStream out) {
+			super(in);
+			this.out = out;
+		}
+
+		@Override
+		public int read() throws IOException {
+			out.flush();
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			out.flush();
+			return super.read(b, off, len);
+		}
+	}
+}
@@ -0,0 +1,528 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * A StorageSystem for large inventories (e.g. a million serialized units) that keeps
+ * every tool attribute column-wise in primitive arrays instead of one Tool object per tool:
+ *
+ * 1) Each tool is a "row" in the range [0, size). The row of a ToolId is found through an
+ *    open-addressing hash table of ints (ToolId int value -> row), stored as a single long[]
+ *    with linear probing, so a lookup touches one or two adjacent longs.
+ * 2) The type and brand of a row are stored as enum ordinal bytes, and the Tool class it was
+ *    added as (Chainsaw, Ladder or Jackhammer) as a third byte.
+ * 3) The daily charge is stored in a float[] column.
+ * 4) The checkedOut and chargeOnWeekdays/Weekends/Holidays flags are each a bitset (long[]),
+ *    one bit per row, so scanning every tool's availability reads 8 bytes per 64 tools.
+ *
+ * No Tool objects are kept. getTool() materializes a new Tool from the columns of its row
+ * on every call, so changes made to the returned Tool are not saved. Use updateTool() to
+ * change a stored Tool.
+ *
+ * Removing a tool moves the last row into the removed row, so the rows always stay dense.
+ *
+ * Note: Only Chainsaw, Ladder and Jackhammer instances can be stored. Like HashMapStorage, ColumnarStorage
+ * is not thread-safe.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class ColumnarStorage implements StorageSystem {
+
+	static final int DEFAULT_CAPACITY = 16;
+
+	private static final Type[] TYPES = Type.values();
+	private static final Brand[] BRANDS = Brand.values();
+
+	// Open-addressing table. An empty slot is 0, otherwise ((ToolId int value + 1) << 32) | row.
+	private long[] slots;
+	private int slotMask;
+	private int slotShift;
+
+	// Columns, indexed by row
+	private int[] ids;
+	private byte[] toolClasses;
+	private byte[] types;
+	private byte[] brands;
+	private float[] dailyCharges;
+	private long[] checkedOut;
+	private long[] chargeOnWeekdays;
+	private long[] chargeOnWeekends;
+	private long[] chargeOnHolidays;
+	private int size;
+
+	/**
+	 * This constructor initializes a new storage system with the four default tools.
+	 */
+	public ColumnarStorage() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * This constructor initializes a new storage system with the four default tools,
+	 * presized to hold the passed-in number of tools without growing.
+	 *
+	 * @param expectedTools The number of tools the storage is expected to hold
+	 */
+	public ColumnarStorage(int expectedTools) {
+		allocateRows(Math.max(DEFAULT_CAPACITY, expectedTools));
+		allocateSlots(Math.max(DEFAULT_CAPACITY, expectedTools));
+
+		addTool(new Chainsaw(Code.CHNS, Brand.STIHL));
+		addTool(new Ladder(Code.LADW, Brand.WERNER));
+		addTool(new Jackhammer(Code.JAKD, Brand.DEWALT));
+		addTool(new Jackhammer(Code.JAKR, Brand.RIDGID));
+	}
+
+	/**
+	 * Adds the passed-in Tool object to the storage system as a new row. If the Tool
+	 * is null, the storage already contains the Tool, or the Tool is not a Chainsaw,
+	 * Ladder or Jackhammer, a warning message is displayed on the console and the
+	 * method exits.
+	 */
+	@Override
+	public void addTool(Tool tool) {
+		if (tool == null) {
+			System.out.println("The passed-in Tool object was null. No tool was added to the storage system.");
+			return;
+		}
+
+		byte toolClass = Tool.classCodeOf(tool);
+		if (toolClass < 0) {
+			System.out.println(String.format("A tool of class %s can not be stored. No tool was added to the storage system.", tool.getClass().getSimpleName()));
+			return;
+		}
+
+		if (findSlot(tool.getId().intValue()) >= 0) {
+			System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
+			return;
+		}
+
+		// All pre-conditions met, adding Tool to the storage system
+		if (size == ids.length) {
+			growRows(size + 1);
+		}
+		int row = size++;
+		ids[row] = tool.getId().intValue();
+		toolClasses[row] = toolClass;
+		types[row] = (byte) tool.getType().ordinal();
+		brands[row] = (byte) tool.getBrand().ordinal();
+		dailyCharges[row] = tool.getDailyCharge();
+		setBit(checkedOut, row, tool.isCheckedOut());
+		setBit(chargeOnWeekdays, row, tool.isChargeOnWeekdays());
+		setBit(chargeOnWeekends, row, tool.isChargeOnWeekends());
+		setBit(chargeOnHolidays, row, tool.isChargeOnHolidays());
+		insertSlot(ids[row], row);
+	}
+
+	/**
+	 * Adds every passed-in Tool object to the storage system, with the
+	 * same checks and warning messages as addTool(). The columns and the
+	 * hash table are grown once to fit all of the new Tools.
+	 */
+	@Override
+	public void addTools(Collection<? extends Tool> tools) {
+		if (tools == null) {
+			System.out.println("The passed-in collection of Tools was null. No tools were added.");
+			return;
+		}
+
+		growRows(size + tools.size());
+		for (Tool tool : tools) {
+			addTool(tool);
+		}
+	}
+
+	/**
+	 * Materializes a new Tool from the row associated with the passed-in code.
+	 * If the code is null or the storage does not contain the code, a warning
+	 * message is displayed on the console and the method returns null.
+	 *
+	 * Note: Changes made to the returned Tool are not saved. Use
+	 * updateTool() to change a stored Tool.
+	 */
+	@Override
+	public Tool getTool(ToolId code) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No Tool could be retrieved.");
+			return null;
+		}
+
+		int row = rowOf(code);
+		if (row < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to return.", code));
+			return null;
+		}
+
+		return materialize(row);
+	}
+
+	/**
+	 * Removes the row associated with the passed-in code from the storage
+	 * system, moving the last row in its place. If the code is null or the
+	 * storage does not contain the code, a warning message is displayed on
+	 * the console and the method exits.
+	 */
+	@Override
+	public void removeTool(ToolId code) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was removed from the storage system.");
+			return;
+		}
+
+		int slot = findSlot(code.intValue());
+		if (slot < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to remove.", code));
+			return;
+		}
+
+		// All pre-conditions met, removing Tool from the storage system
+		int row = rowAt(slot);
+		deleteSlot(slot);
+		int last = --size;
+		if (row != last) {
+			ids[row] = ids[last];
+			toolClasses[row] = toolClasses[last];
+			types[row] = types[last];
+			brands[row] = brands[last];
+			dailyCharges[row] = dailyCharges[last];
+			setBit(checkedOut, row, getBit(checkedOut, last));
+			setBit(chargeOnWeekdays, row, getBit(chargeOnWeekdays, last));
+			setBit(chargeOnWeekends, row, getBit(chargeOnWeekends, last));
+			setBit(chargeOnHolidays, row, getBit(chargeOnHolidays, last));
+			int movedSlot = findSlot(ids[row]);
+			slots[movedSlot] = slotValue(ids[row], row);
+		}
+		setBit(checkedOut, last, false);
+		setBit(chargeOnWeekdays, last, false);
+		setBit(chargeOnWeekends, last, false);
+		setBit(chargeOnHolidays, last, false);
+	}
+
+	/**
+	 * Update the row in the storage system that matches the passed-in code.
+	 * Follows the same pre-conditions and warning messages as
+	 * HashMapStorage.updateTool(). The passed-in attribute is written
+	 * straight into its column.
+	 */
+	@Override
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
+		if (code == null || attribute == null || value == null) {
+			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+			return;
+		}
+
+		int slot = findSlot(code.intValue());
+		if (slot < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to update.", code));
+			return;
+		}
+		int row = rowAt(slot);
+
+		if (attribute.equals(Attribute.CODE)) {
+			ToolId newCode = HashMapStorage.toolIdOf(value);
+			if (newCode != null && findSlot(newCode.intValue()) < 0) {
+				deleteSlot(slot);
+				ids[row] = newCode.intValue();
+				insertSlot(ids[row], row);
+			} else {
+				System.out.println("Invalid Code value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.TYPE)) {
+			if (value instanceof Type) {
+				types[row] = (byte) ((Type) value).ordinal();
+			} else {
+				System.out.println("Invalid Type value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.BRAND)) {
+			if (value instanceof Brand) {
+				brands[row] = (byte) ((Brand) value).ordinal();
+			} else {
+				System.out.println("Invalid Brand value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.DAILYCHARGE)) {
+			if (value instanceof Float) {
+				dailyCharges[row] = (float) value;
+			} else {
+				System.out.println("Invalid Float value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.CHARGEONWEEKDAYS)) {
+			if (value instanceof Boolean) {
+				setBit(chargeOnWeekdays, row, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.CHARGEONWEEKENDS)) {
+			if (value instanceof Boolean) {
+				setBit(chargeOnWeekends, row, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.CHARGEONHOLIDAYS)) {
+			if (value instanceof Boolean) {
+				setBit(chargeOnHolidays, row, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+			}
+		} else if (attribute.equals(Attribute.CHECKEDOUT)) {
+			if (value instanceof Boolean) {
+				setBit(checkedOut, row, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+			}
+		} else {
+			System.out.println("Invalid Attribute passed in. Not updating tool.");
+		}
+	}
+
+	/**
+	 * Checks out the row associated with the passed-in code and returns its
+	 * RentalAgreement. The availability check and the checkedOut update are a
+	 * compare-and-set of the row's checkedOut bit, with no other storage
+	 * operation in between. The RentalAgreement is generated before the bit is
+	 * set, so invalid arguments throw an InvalidCheckoutArgumentException and
+	 * leave the Tool available.
+	 *
+	 * If the code is null, the storage does not contain the code, or the Tool
+	 * is already checked out, a warning message is displayed on the console
+	 * and the method returns null.
+	 */
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was checked out.");
+			return null;
+		}
+
+		int row = rowOf(code);
+		if (row < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to check out.", code));
+			return null;
+		}
+
+		if (getBit(checkedOut, row)) {
+			System.out.println(String.format("The tool with code %s is already checked out.", code));
+			return null;
+		}
+
+		RentalAgreement rentalAgreement = new RentalAgreement(materialize(row), rentalDays, discountPercent, checkoutDate);
+		setBit(checkedOut, row, true);
+		return rentalAgreement;
+	}
+
+	// Number of stored tools
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Counts the tools that are not checked out by scanning the checkedOut bitset
+	 * 64 rows at a time, without materializing any Tool.
+	 *
+	 * @return the number of available tools
+	 */
+	public int countAvailable() {
+		int fullWords = size >>> 6;
+		int checkedOutCount = 0;
+		for (int i = 0; i < fullWords; i++) {
+			checkedOutCount += Long.bitCount(checkedOut[i]);
+		}
+		if ((size & 63) != 0) {
+			checkedOutCount += Long.bitCount(checkedOut[fullWords] & ((1L << (size & 63)) - 1));
+		}
+		return size - checkedOutCount;
+	}
+
+	/**
+	 * Returns the stored tools in code order. The ToolIds of the rows are sorted
+	 * up front, and each Tool is materialized from its row as the stream reaches
+	 * it. Tools removed while the stream is being consumed are skipped.
+	 */
+	@Override
+	public Stream<Tool> streamTools() {
+		ToolId[] codes = new ToolId[size];
+		for (int row = 0; row < size; row++) {
+			codes[row] = ToolId.fromInt(ids[row]);
+		}
+		Arrays.sort(codes);
+		return Arrays.stream(codes).mapToInt(this::rowOf).filter(row -> row >= 0).mapToObj(this::materialize);
+	}
+
+	/**
+	 * Returns the available tools of the passed-in type and brand (null matches every
+	 * type or brand) in row order. The checkedOut bitset and the type and brand byte
+	 * columns are scanned without materializing any Tool, and only the matching rows
+	 * are materialized as the stream reaches them.
+	 */
+	@Override
+	public Stream<Tool> findAvailable(Type type, Brand brand) {
+		int typeOrdinal = (type != null) ? type.ordinal() : -1;
+		int brandOrdinal = (brand != null) ? brand.ordinal() : -1;
+		return IntStream.range(0, size)
+				.filter(row -> row < size && !getBit(checkedOut, row)
+						&& (typeOrdinal < 0 || types[row] == typeOrdinal)
+						&& (brandOrdinal < 0 || brands[row] == brandOrdinal))
+				.mapToObj(this::materialize);
+	}
+
+	/**
+	 * Prints out a String representation of all the rows in the storage system,
+	 * in the same format as HashMapStorage.printStoredTools().
+	 */
+	@Override
+	public void printStoredTools() {
+		if (ToolListing.print(streamTools()) > 0) {
+			System.out.println();
+		} else {
+			System.out.println("There is no valid storage system to print.");
+		}
+	}
+
+	// Creates a new Tool of the row's class from the row's columns
+	private Tool materialize(int row) {
+		ToolId id = ToolId.fromInt(ids[row]);
+		Brand brand = BRANDS[brands[row]];
+		float dailyCharge = dailyCharges[row];
+		boolean weekdays = getBit(chargeOnWeekdays, row);
+		boolean weekends = getBit(chargeOnWeekends, row);
+		boolean holidays = getBit(chargeOnHolidays, row);
+		boolean isCheckedOut = getBit(checkedOut, row);
+		return Tool.newTool(toolClasses[row], id, TYPES[types[row]], brand, dailyCharge, weekdays, weekends, holidays, isCheckedOut);
+	}
+
+	private static boolean getBit(long[] bits, int row) {
+		return (bits[row >>> 6] & (1L << row)) != 0;
+	}
+
+	private static void setBit(long[] bits, int row, boolean value) {
+		if (value) {
+			bits[row >>> 6] |= (1L << row);
+		} else {
+			bits[row >>> 6] &= ~(1L << row);
+		}
+	}
+
+	private void allocateRows(int capacity) {
+		ids = new int[capacity];
+		toolClasses = new byte[capacity];
+		types = new byte[capacity];
+		brands = new byte[capacity];
+		dailyCharges = new float[capacity];
+		checkedOut = new long[(capacity + 63) >>> 6];
+		chargeOnWeekdays = new long[checkedOut.length];
+		chargeOnWeekends = new long[checkedOut.length];
+		chargeOnHolidays = new long[checkedOut.length];
+	}
+
+	// Grows every column (and the hash table) to hold at least minCapacity rows
+	private void growRows(int minCapacity) {
+		if (minCapacity <= ids.length) {
+			return;
+		}
+
+		int capacity = Math.max(minCapacity, ids.length + (ids.length >>> 1));
+		ids = Arrays.copyOf(ids, capacity);
+		toolClasses = Arrays.copyOf(toolClasses, capacity);
+		types = Arrays.copyOf(types, capacity);
+		brands = Arrays.copyOf(brands, capacity);
+		dailyCharges = Arrays.copyOf(dailyCharges, capacity);
+		int words = (capacity + 63) >>> 6;
+		checkedOut = Arrays.copyOf(checkedOut, words);
+		chargeOnWeekdays = Arrays.copyOf(chargeOnWeekdays, words);
+		chargeOnWeekends = Arrays.copyOf(chargeOnWeekends, words);
+		chargeOnHolidays = Arrays.copyOf(chargeOnHolidays, words);
+
+		if (capacity > maxRowsFor(slots.length)) {
+			long[] oldSlots = slots;
+			allocateSlots(capacity);
+			for (long slot : oldSlots) {
+				if (slot != 0) {
+					insertSlot(keyOf(slot), (int) slot);
+				}
+			}
+		}
+	}
+
+	// Allocates an empty hash table that holds at least the passed-in number of rows
+	private void allocateSlots(int rows) {
+		int length = Integer.highestOneBit(Math.max(2, rows + (rows / 3)) - 1) << 1;
+		slots = new long[length];
+		slotMask = length - 1;
+		slotShift = Integer.numberOfLeadingZeros(slotMask);
+	}
+
+	// The hash table is kept at most 3/4 full
+	private static int maxRowsFor(int slotCount) {
+		return slotCount - (slotCount >>> 2);
+	}
+
+	private static long slotValue(int key, int row) {
+		return ((long) (key + 1) << 32) | (row & 0xFFFFFFFFL);
+	}
+
+	private static int keyOf(long slot) {
+		return (int) (slot >>> 32) - 1;
+	}
+
+	private int rowAt(int slot) {
+		return (int) slots[slot];
+	}
+
+	// Home slot of a key (Fibonacci hashing, since ToolId int values are sequential)
+	private int homeOf(int key) {
+		return (key * 0x9E3779B9) >>> slotShift;
+	}
+
+	private int rowOf(ToolId code) {
+		int slot = findSlot(code.intValue());
+		return (slot < 0) ? -1 : rowAt(slot);
+	}
+
+	// Index of the slot holding the passed-in key, or -1 if the key is not stored
+	private int findSlot(int key) {
+		long tag = (long) (key + 1) << 32;
+		for (int i = homeOf(key);; i = (i + 1) & slotMask) {
+			long slot = slots[i];
+			if (slot == 0) {
+				return -1;
+			}
+			if ((slot & 0xFFFFFFFF00000000L) == tag) {
+				return i;
+			}
+		}
+	}
+
+	private void insertSlot(int key, int row) {
+		int i = homeOf(key);
+		while (slots[i] != 0) {
+			i = (i + 1) & slotMask;
+		}
+		slots[i] = slotValue(key, row);
+	}
+
+	// Empties a slot, shifting back the later slots of its probe sequence so that no tombstones are needed
+	private void deleteSlot(int hole) {
+		for (int i = (hole + 1) & slotMask; slots[i] != 0; i = (i + 1) & slotMask) {
+			int home = homeOf(keyOf(slots[i]));
+			// The slot can fill the hole unless its home lies cyclically in (hole, i]
+			boolean homeAfterHole = (i > hole) ? (home > hole && home <= i) : (home > hole || home <= i);
+			if (!homeAfterHole) {
+				slots[hole] = slots[i];
+				hole = i;
+			}
+		}
+		slots[hole] = 0;
+	}
+}
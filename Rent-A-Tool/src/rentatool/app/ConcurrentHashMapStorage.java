@@ -0,0 +1,416 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * A thread-safe implementation of the StorageSystem interface that can be shared
+ * by several checkout terminals at once. Tools are stored in a
+ * ConcurrentHashMap<ToolId, Tool>, and every change to a stored Tool happens while
+ * holding the lock "stripe" its ToolId maps to. Operations on Tools that map to
+ * different stripes never wait on each other.
+ *
+ * Why a Tool can never be rented twice:
+ * 1) The stored Tool objects are never handed out. getTool() returns a copy that
+ *    is taken while holding the Tool's stripe lock, so callers cannot change the
+ *    stored checkedOut flag without going through this class.
+ * 2) Every write to a stored Tool (checkoutTool, returnTool, updateTool) and
+ *    every insert/removal of a ToolId holds the stripe lock of that ToolId.
+ * 3) checkoutTool() and checkout() read and set the checkedOut flag within a single lock
+ *    acquisition (a compare-and-set from false to true). Two threads checking
+ *    out the same Tool are serialized by the lock, so only the first one sees
+ *    false and succeeds. The Tool only becomes available again once returnTool()
+ *    (or updateTool with CHECKEDOUT = false) sets the flag back to false.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class ConcurrentHashMapStorage implements StorageSystem {
+
+	// Default number of lock stripes. Must be a power of two.
+	static final int DEFAULT_STRIPES = 16;
+
+	// Storage system for ConcurrentHashMapStorage instances
+	private final ConcurrentHashMap<ToolId, Tool> storage;
+	private final ReentrantLock[] stripes;
+
+	/**
+	 * This constructor initializes a new storage system with the default
+	 * number of lock stripes and the four default tools.
+	 */
+	public ConcurrentHashMapStorage() {
+		this(DEFAULT_STRIPES);
+	}
+
+	/**
+	 * This constructor initializes a new storage system with the four default
+	 * tools and at least the given number of lock stripes (rounded up to
+	 * the next power of two).
+	 *
+	 * @param concurrencyLevel The expected number of terminals updating tools at the same time
+	 */
+	public ConcurrentHashMapStorage(int concurrencyLevel) {
+		int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+		stripes = new ReentrantLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+
+		storage = new ConcurrentHashMap<ToolId, Tool>();
+		storage.put(ToolId.of(Code.CHNS), new Chainsaw(Code.CHNS, Brand.STIHL));
+		storage.put(ToolId.of(Code.LADW), new Ladder(Code.LADW, Brand.WERNER));
+		storage.put(ToolId.of(Code.JAKD), new Jackhammer(Code.JAKD, Brand.DEWALT));
+		storage.put(ToolId.of(Code.JAKR), new Jackhammer(Code.JAKR, Brand.RIDGID));
+	}
+
+	/**
+	 * Atomically marks the Tool associated with the passed-in code as checked
+	 * out, if it is currently available.
+	 *
+	 * @param code The code of the Tool to check out
+	 * @return true if the Tool was available and is now checked out. false if the
+	 * Tool does not exist or was already checked out.
+	 */
+	public boolean checkoutTool(ToolId code) {
+		return compareAndSetCheckedOut(code, false, true);
+	}
+
+	// Same as checkoutTool(ToolId), for the ToolId alias of the passed-in Code
+	public boolean checkoutTool(Code code) {
+		return checkoutTool(ToolId.of(code));
+	}
+
+	/**
+	 * Atomically marks the Tool associated with the passed-in code as returned,
+	 * if it is currently checked out.
+	 *
+	 * @param code The code of the Tool to return
+	 * @return true if the Tool was checked out and is now available. false if the
+	 * Tool does not exist or was not checked out.
+	 */
+	@Override
+	public boolean returnTool(ToolId code) {
+		return compareAndSetCheckedOut(code, true, false);
+	}
+
+	// Same as returnTool(ToolId), for the ToolId alias of the passed-in Code
+	@Override
+	public boolean returnTool(Code code) {
+		return returnTool(ToolId.of(code));
+	}
+
+	/**
+	 * Checks out the Tool associated with the passed-in code and returns its
+	 * RentalAgreement, all while holding the Tool's stripe lock. The
+	 * RentalAgreement is generated (from a copy of the Tool) before the Tool is
+	 * marked as checked out, so invalid arguments throw an
+	 * InvalidCheckoutArgumentException and leave the Tool available.
+	 * 
+	 * If the code is null, the storage does not contain the code, or the Tool
+	 * is already checked out, a warning message is displayed on the console
+	 * and the method returns null.
+	 */
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was checked out.");
+			return null;
+		}
+
+		ReentrantLock lock = stripeOf(code);
+		lock.lock();
+		try {
+			Tool tool = storage.get(code);
+			if (tool == null) {
+				System.out.println(String.format("No Tool with code %s was found. Nothing to check out.", code));
+				return null;
+			}
+
+			if (tool.isCheckedOut()) {
+				System.out.println(String.format("The tool with code %s is already checked out.", code));
+				return null;
+			}
+
+			RentalAgreement rentalAgreement = new RentalAgreement(Tool.copyOf(tool), rentalDays, discountPercent, checkoutDate);
+			tool.setCheckedOut(true);
+			return rentalAgreement;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean compareAndSetCheckedOut(ToolId code, boolean expected, boolean newValue) {
+		if (code == null) {
+			return false;
+		}
+
+		ReentrantLock lock = stripeOf(code);
+		lock.lock();
+		try {
+			Tool tool = storage.get(code);
+			if (tool == null || tool.isCheckedOut() != expected) {
+				return false;
+			}
+
+			tool.setCheckedOut(newValue);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds the passed-in Tool object to the storage system, unless a Tool
+	 * with the same code is already stored. The storage keeps its own
+	 * copy of the Tool. If the Tool is null or the storage already
+	 * contains the Tool, a warning message is displayed on the console
+	 * and the method exits.
+	 */
+	@Override
+	public void addTool(Tool tool) {
+		if (tool == null) {
+			System.out.println("The passed-in Tool object was null. No tool was added to the storage system.");
+			return;
+		}
+
+		ReentrantLock lock = stripeOf(tool.getId());
+		lock.lock();
+		try {
+			if (storage.putIfAbsent(tool.getId(), Tool.copyOf(tool)) != null) {
+				System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieves a copy of the Tool associated with the passed-in code
+	 * from the storage system. If the code is null or the storage does
+	 * not contain the code, a warning message is displayed on the
+	 * console and the method returns null.
+	 *
+	 * Note: Changes made to the returned Tool are not saved. Use
+	 * updateTool() to change a stored Tool.
+	 */
+	@Override
+	public Tool getTool(ToolId code) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No Tool could be retrieved.");
+			return null;
+		}
+
+		Tool tool;
+		ReentrantLock lock = stripeOf(code);
+		lock.lock();
+		try {
+			tool = storage.get(code);
+			tool = (tool == null) ? null : Tool.copyOf(tool);
+		} finally {
+			lock.unlock();
+		}
+
+		if (tool == null) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to return.", code));
+		}
+
+		return tool;
+	}
+
+	/**
+	 * Removes the Tool associated with the passed-in code from the
+	 * storage system. If the code is null or the storage does not
+	 * contain the code, a warning message is displayed on the
+	 * console and the method exits.
+	 */
+	@Override
+	public void removeTool(ToolId code) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was removed from the storage system.");
+			return;
+		}
+
+		Tool removed;
+		ReentrantLock lock = stripeOf(code);
+		lock.lock();
+		try {
+			removed = storage.remove(code);
+		} finally {
+			lock.unlock();
+		}
+
+		if (removed == null) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to remove.", code));
+		}
+	}
+
+	/**
+	 * Update the Tool in the storage system that matches the passed-in code.
+	 * Follows the same pre-conditions as HashMapStorage.updateTool(). The
+	 * update happens while holding the Tool's stripe lock. A CODE update
+	 * holds the stripe locks of both the old and the new code, taken in
+	 * stripe order so that two opposite CODE updates cannot deadlock.
+	 */
+	@Override
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
+		if (code == null || attribute == null || value == null) {
+			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+			return;
+		}
+
+		if (attribute.equals(Attribute.CODE)) {
+			ToolId newCode = HashMapStorage.toolIdOf(value);
+			if (newCode == null) {
+				System.out.println("Invalid Code value passed in. Not updating tool.");
+				return;
+			}
+			updateCode(code, newCode);
+			return;
+		}
+
+		ReentrantLock lock = stripeOf(code);
+		lock.lock();
+		try {
+			Tool tool = storage.get(code);
+			if (tool == null) {
+				System.out.println(String.format("No Tool with code %s was found. Nothing to update.", code));
+				return;
+			}
+
+			if (attribute.equals(Attribute.TYPE)) {
+				if (value instanceof Type) {
+					tool.setType((Type) value);
+				} else {
+					System.out.println("Invalid Type value passed in. Not updating tool.");
+				}
+			} else if (attribute.equals(Attribute.BRAND)) {
+				if (value instanceof Brand) {
+					tool.setBrand((Brand) value);
+				} else {
+					System.out.println("Invalid Brand value passed in. Not updating tool.");
+				}
+			} else if (attribute.equals(Attribute.DAILYCHARGE)) {
+				if (value instanceof Float) {
+					tool.setDailyCharge((float) value);
+				} else {
+					System.out.println("Invalid Float value passed in. Not updating tool.");
+				}
+			} else if (attribute.equals(Attribute.CHARGEONWEEKDAYS)) {
+				if (value instanceof Boolean) {
+					tool.setChargeOnWeekdays((boolean) value);
+				} else {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				}
+			} else if (attribute.equals(Attribute.CHARGEONWEEKENDS)) {
+				if (value instanceof Boolean) {
+					tool.setChargeOnWeekends((boolean) value);
+				} else {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				}
+			} else if (attribute.equals(Attribute.CHARGEONHOLIDAYS)) {
+				if (value instanceof Boolean) {
+					tool.setChargeOnHolidays((boolean) value);
+				} else {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				}
+			} else if (attribute.equals(Attribute.CHECKEDOUT)) {
+				if (value instanceof Boolean) {
+					tool.setCheckedOut((boolean) value);
+				} else {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				}
+			} else {
+				System.out.println("Invalid Attribute passed in. Not updating tool.");
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void updateCode(ToolId code, ToolId newCode) {
+		ReentrantLock first = stripeOf(code);
+		ReentrantLock second = stripeOf(newCode);
+		if (stripeIndexOf(newCode) < stripeIndexOf(code)) {
+			first = second;
+			second = stripeOf(code);
+		}
+
+		first.lock();
+		second.lock();
+		try {
+			Tool tool = storage.get(code);
+			if (tool == null) {
+				System.out.println(String.format("No Tool with code %s was found. Nothing to update.", code));
+			} else if (storage.containsKey(newCode)) {
+				System.out.println("Invalid Code value passed in. Not updating tool.");
+			} else {
+				tool.setId(newCode);
+				storage.put(newCode, tool);
+				storage.remove(code);
+			}
+		} finally {
+			second.unlock();
+			first.unlock();
+		}
+	}
+
+	/**
+	 * Returns copies of the stored Tools in code order. The ToolIds stored when
+	 * the method is called are sorted up front, and each Tool is then copied under
+	 * its stripe lock as the stream reaches it, so every Tool is consistent, but
+	 * the listing as a whole is not a single point-in-time snapshot. Tools removed
+	 * in the meantime are skipped.
+	 */
+	@Override
+	public Stream<Tool> streamTools() {
+		ToolId[] codes = storage.keySet().toArray(new ToolId[0]);
+		Arrays.sort(codes);
+		return Arrays.stream(codes).map(this::copyOfStored).filter(Objects::nonNull);
+	}
+
+	// A copy of the stored Tool taken under its stripe lock, or null if it is not stored
+	private Tool copyOfStored(ToolId code) {
+		ReentrantLock lock = stripeOf(code);
+		lock.lock();
+		try {
+			Tool tool = storage.get(code);
+			return (tool == null) ? null : Tool.copyOf(tool);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Prints out a String representation of all the entries in the storage system,
+	 * in code order (see streamTools()).
+	 */
+	@Override
+	public void printStoredTools() {
+		if (ToolListing.print(streamTools()) > 0) {
+			System.out.println();
+		} else {
+			System.out.println("There is no valid storage system to print.");
+		}
+	}
+
+	private int stripeIndexOf(ToolId code) {
+		int hash = code.hashCode();
+		return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+	}
+
+	private ReentrantLock stripeOf(ToolId code) {
+		return stripes[stripeIndexOf(code)];
+	}
+}
@@ -0,0 +1,414 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.ImmutableTool;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * A thread-safe StorageSystem that stores ImmutableTools and publishes every change
+ * by swapping the stored reference, instead of changing a stored Tool in place.
+ *
+ * 1) Tools are stored in a ConcurrentHashMap<ToolId, ImmutableTool>. A stored
+ *    ImmutableTool never changes, so reads (getImmutableTool, streamImmutableTools)
+ *    take no lock and return the stored instance itself, with no copy. A reader
+ *    always sees a whole tool, as it was before or after a write, never half of one.
+ * 2) A write reads the current ImmutableTool, builds the new one with a withX()
+ *    method and publishes it with a compare-and-set (ConcurrentHashMap.replace(key,
+ *    current, next)). If another write published a different tool in between, the
+ *    compare-and-set fails and the write is retried on the new tool, so no update
+ *    is ever lost.
+ * 3) checkout() and checkoutTool() only succeed if their compare-and-set replaced an
+ *    available tool with the same tool checked out, so a tool can never be rented twice.
+ * 4) A rename is the only write that changes two codes, so it can not be a single
+ *    compare-and-set. Writes share a ReadWriteLock: the other writes hold its read
+ *    lock (so they still run in parallel), while a rename holds its write lock, so no
+ *    other write runs while the tool is published under its new code and its old code
+ *    is removed. A reader takes no lock and may find the tool under both codes for a
+ *    moment, but it can not be checked out or changed under either code until the
+ *    rename is done.
+ *
+ * getTool() and streamTools() still return mutable Tools, converted from the stored
+ * ImmutableTools, so changes made to them are not saved (use updateTool() instead).
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class CopyOnWriteStorage implements StorageSystem {
+
+	// Storage system for CopyOnWriteStorage instances
+	private final ConcurrentHashMap<ToolId, ImmutableTool> storage;
+
+	// Read lock held by every write but renames, write lock held by renames (reads take no lock)
+	private final ReentrantReadWriteLock renameLock = new ReentrantReadWriteLock();
+
+	/**
+	 * This constructor initializes a new storage system with the four default tools.
+	 */
+	public CopyOnWriteStorage() {
+		storage = new ConcurrentHashMap<ToolId, ImmutableTool>();
+		storage.put(ToolId.of(Code.CHNS), ImmutableTool.of(new Chainsaw(Code.CHNS, Brand.STIHL)));
+		storage.put(ToolId.of(Code.LADW), ImmutableTool.of(new Ladder(Code.LADW, Brand.WERNER)));
+		storage.put(ToolId.of(Code.JAKD), ImmutableTool.of(new Jackhammer(Code.JAKD, Brand.DEWALT)));
+		storage.put(ToolId.of(Code.JAKR), ImmutableTool.of(new Jackhammer(Code.JAKR, Brand.RIDGID)));
+	}
+
+	/**
+	 * Atomically marks the Tool associated with the passed-in code as checked
+	 * out, if it is currently available.
+	 *
+	 * @param code The code of the Tool to check out
+	 * @return true if the Tool was available and is now checked out. false if the
+	 * Tool does not exist or was already checked out.
+	 */
+	public boolean checkoutTool(ToolId code) {
+		return compareAndSetCheckedOut(code, false, true);
+	}
+
+	// Same as checkoutTool(ToolId), for the ToolId alias of the passed-in Code
+	public boolean checkoutTool(Code code) {
+		return checkoutTool(ToolId.of(code));
+	}
+
+	/**
+	 * Atomically marks the Tool associated with the passed-in code as returned,
+	 * if it is currently checked out.
+	 *
+	 * @param code The code of the Tool to return
+	 * @return true if the Tool was checked out and is now available. false if the
+	 * Tool does not exist or was not checked out.
+	 */
+	@Override
+	public boolean returnTool(ToolId code) {
+		return compareAndSetCheckedOut(code, true, false);
+	}
+
+	// Same as returnTool(ToolId), for the ToolId alias of the passed-in Code
+	@Override
+	public boolean returnTool(Code code) {
+		return returnTool(ToolId.of(code));
+	}
+
+	private boolean compareAndSetCheckedOut(ToolId code, boolean expected, boolean newValue) {
+		if (code == null) {
+			return false;
+		}
+
+		renameLock.readLock().lock();
+		try {
+			while (true) {
+				ImmutableTool tool = storage.get(code);
+				if (tool == null || tool.isCheckedOut() != expected) {
+					return false;
+				}
+				if (storage.replace(code, tool, tool.withCheckedOut(newValue))) {
+					return true;
+				}
+			}
+		} finally {
+			renameLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds the passed-in Tool object to the storage system as an ImmutableTool,
+	 * unless a Tool with the same code is already stored. If the Tool is null, the
+	 * storage already contains the Tool, or the Tool is not a Chainsaw, Ladder or
+	 * Jackhammer, a warning message is displayed on the console and the method exits.
+	 */
+	@Override
+	public void addTool(Tool tool) {
+		if (tool == null) {
+			System.out.println("The passed-in Tool object was null. No tool was added to the storage system.");
+			return;
+		}
+
+		if (Tool.classCodeOf(tool) < 0) {
+			System.out.println(String.format("A tool of class %s can not be stored. No tool was added to the storage system.", tool.getClass().getSimpleName()));
+			return;
+		}
+
+		renameLock.readLock().lock();
+		try {
+			if (storage.putIfAbsent(tool.getId(), ImmutableTool.of(tool)) != null) {
+				System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
+			}
+		} finally {
+			renameLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the stored ImmutableTool associated with the passed-in code, without
+	 * taking any lock or making any copy. If the code is null or the storage does
+	 * not contain the code, a warning message is displayed on the console and the
+	 * method returns null.
+	 */
+	public ImmutableTool getImmutableTool(ToolId code) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No Tool could be retrieved.");
+			return null;
+		}
+
+		ImmutableTool tool = storage.get(code);
+		if (tool == null) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to return.", code));
+		}
+		return tool;
+	}
+
+	// Same as getImmutableTool(ToolId), for the ToolId alias of the passed-in Code
+	public ImmutableTool getImmutableTool(Code code) {
+		return getImmutableTool(ToolId.of(code));
+	}
+
+	/**
+	 * Retrieves a new Tool with the properties of the ImmutableTool associated with
+	 * the passed-in code. Follows the same warning messages as getImmutableTool().
+	 *
+	 * Note: Changes made to the returned Tool are not saved. Use
+	 * updateTool() to change a stored Tool.
+	 */
+	@Override
+	public Tool getTool(ToolId code) {
+		ImmutableTool tool = getImmutableTool(code);
+		return (tool == null) ? null : tool.toTool();
+	}
+
+	/**
+	 * Removes the Tool associated with the passed-in code from the
+	 * storage system. If the code is null or the storage does not
+	 * contain the code, a warning message is displayed on the
+	 * console and the method exits.
+	 */
+	@Override
+	public void removeTool(ToolId code) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was removed from the storage system.");
+			return;
+		}
+
+		renameLock.readLock().lock();
+		try {
+			if (storage.remove(code) == null) {
+				System.out.println(String.format("No Tool with code %s was found. Nothing to remove.", code));
+			}
+		} finally {
+			renameLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Update the Tool in the storage system that matches the passed-in code.
+	 * Follows the same pre-conditions and warning messages as
+	 * HashMapStorage.updateTool(). The updated ImmutableTool is published with a
+	 * compare-and-set, which is retried if the stored tool changed in the meantime.
+	 */
+	@Override
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
+		if (code == null || attribute == null || value == null) {
+			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+			return;
+		}
+
+		if (attribute.equals(Attribute.CODE)) {
+			ToolId newCode = HashMapStorage.toolIdOf(value);
+			if (newCode == null) {
+				System.out.println("Invalid Code value passed in. Not updating tool.");
+				return;
+			}
+			updateCode(code, newCode);
+			return;
+		}
+
+		renameLock.readLock().lock();
+		try {
+			updateProperty(code, attribute, value);
+		} finally {
+			renameLock.readLock().unlock();
+		}
+	}
+
+	// Publishes the tool with the passed-in property changed, retrying until its compare-and-set succeeds
+	private void updateProperty(ToolId code, Attribute attribute, Object value) {
+		while (true) {
+			ImmutableTool tool = storage.get(code);
+			if (tool == null) {
+				System.out.println(String.format("No Tool with code %s was found. Nothing to update.", code));
+				return;
+			}
+
+			ImmutableTool updated;
+			if (attribute.equals(Attribute.TYPE)) {
+				if (!(value instanceof Type)) {
+					System.out.println("Invalid Type value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withType((Type) value);
+			} else if (attribute.equals(Attribute.BRAND)) {
+				if (!(value instanceof Brand)) {
+					System.out.println("Invalid Brand value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withBrand((Brand) value);
+			} else if (attribute.equals(Attribute.DAILYCHARGE)) {
+				if (!(value instanceof Float)) {
+					System.out.println("Invalid Float value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withDailyCharge((float) value);
+			} else if (attribute.equals(Attribute.CHARGEONWEEKDAYS)) {
+				if (!(value instanceof Boolean)) {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withChargeOnWeekdays((boolean) value);
+			} else if (attribute.equals(Attribute.CHARGEONWEEKENDS)) {
+				if (!(value instanceof Boolean)) {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withChargeOnWeekends((boolean) value);
+			} else if (attribute.equals(Attribute.CHARGEONHOLIDAYS)) {
+				if (!(value instanceof Boolean)) {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withChargeOnHolidays((boolean) value);
+			} else if (attribute.equals(Attribute.CHECKEDOUT)) {
+				if (!(value instanceof Boolean)) {
+					System.out.println("Invalid Boolean value passed in. Not updating tool.");
+					return;
+				}
+				updated = tool.withCheckedOut((boolean) value);
+			} else {
+				System.out.println("Invalid Attribute passed in. Not updating tool.");
+				return;
+			}
+
+			if (updated == tool || storage.replace(code, tool, updated)) {
+				return;
+			}
+		}
+	}
+
+	// Publishes the tool under its new code, then removes the old code. No other write runs in between.
+	private void updateCode(ToolId code, ToolId newCode) {
+		renameLock.writeLock().lock();
+		try {
+			ImmutableTool tool = storage.get(code);
+			if (tool == null) {
+				System.out.println(String.format("No Tool with code %s was found. Nothing to update.", code));
+				return;
+			}
+			if (code.equals(newCode) || storage.putIfAbsent(newCode, tool.withId(newCode)) != null) {
+				System.out.println("Invalid Code value passed in. Not updating tool.");
+				return;
+			}
+			storage.remove(code);
+		} finally {
+			renameLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks out the Tool associated with the passed-in code and returns its
+	 * RentalAgreement. The RentalAgreement is generated before the checked out
+	 * tool is published, so invalid arguments throw an
+	 * InvalidCheckoutArgumentException and leave the Tool available. If the
+	 * stored tool changed while the RentalAgreement was being generated, the
+	 * checkout is retried on the new tool.
+	 *
+	 * If the code is null, the storage does not contain the code, or the Tool
+	 * is already checked out, a warning message is displayed on the console
+	 * and the method returns null.
+	 */
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was checked out.");
+			return null;
+		}
+
+		renameLock.readLock().lock();
+		try {
+			while (true) {
+				ImmutableTool tool = storage.get(code);
+				if (tool == null) {
+					System.out.println(String.format("No Tool with code %s was found. Nothing to check out.", code));
+					return null;
+				}
+				if (tool.isCheckedOut()) {
+					System.out.println(String.format("The tool with code %s is already checked out.", code));
+					return null;
+				}
+
+				RentalAgreement rentalAgreement = new RentalAgreement(tool.toTool(), rentalDays, discountPercent, checkoutDate);
+				if (storage.replace(code, tool, tool.withCheckedOut(true))) {
+					return rentalAgreement;
+				}
+			}
+		} finally {
+			renameLock.readLock().unlock();
+		}
+	}
+
+	// Number of stored tools
+	public int size() {
+		return storage.size();
+	}
+
+	/**
+	 * Returns the stored ImmutableTools in code order, without any copy. The ToolIds
+	 * stored when the method is called are sorted up front, and every ImmutableTool is
+	 * read as the stream reaches it. Tools removed in the meantime are skipped.
+	 */
+	public Stream<ImmutableTool> streamImmutableTools() {
+		ToolId[] codes = storage.keySet().toArray(new ToolId[0]);
+		Arrays.sort(codes);
+		return Arrays.stream(codes).map(storage::get).filter(Objects::nonNull);
+	}
+
+	/**
+	 * Returns new Tools converted from the stored ImmutableTools, in code order
+	 * (see streamImmutableTools()).
+	 */
+	@Override
+	public Stream<Tool> streamTools() {
+		return streamImmutableTools().map(ImmutableTool::toTool);
+	}
+
+	// Only the matching ImmutableTools are converted to Tools
+	@Override
+	public Stream<Tool> findAvailable(Type type, Brand brand) {
+		return storage.values().stream()
+				.filter(tool -> !tool.isCheckedOut()
+						&& (type == null || tool.getType() == type)
+						&& (brand == null || tool.getBrand() == brand))
+				.map(ImmutableTool::toTool);
+	}
+
+	/**
+	 * Prints out a String representation of all the entries in the storage system,
+	 * in code order (see streamTools()).
+	 */
+	@Override
+	public void printStoredTools() {
+		if (ToolListing.print(streamTools()) > 0) {
+			System.out.println();
+		} else {
+			System.out.println("There is no valid storage system to print.");
+		}
+	}
+}
@@ -1,6 +1,15 @@
 package rentatool.app;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import rentatool.rental_items.RentalAgreement;
 import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.Attribute;
 import rentatool.rental_items.ToolEnums.Code;
 
@@ -19,6 +28,31 @@ import rentatool.rental_items.ToolEnums.Code;
  * this interface is initialized and passed into the application. This
  * instance (current default is SQLiteDB instance) is the storage that
  * gets used during program execution.
+ * 
+ * The checkout operation reserves a tool and generates its RentalAgreement
+ * in a single atomic step. It returns null (and the tool stays untouched)
+ * if the tool does not exist or is already checked out, so two terminals
+ * can never check out the same tool.
+ * 
+ * The returnTool operation is its counterpart: it marks a checked out tool
+ * as available and tells the caller whether it did, so two terminals
+ * returning the same tool can not both succeed. By default it reads the
+ * tool and then updates it, which is only atomic if nothing else writes
+ * to the storage at the same time. Storage systems that are shared by
+ * several terminals override it with a single atomic step.
+ * 
+ * Tools are identified by their ToolId. The operations that take a
+ * ToolEnums.Code are kept for the four Code tools and simply use the
+ * Code's ToolId alias, so both always find the same tool. Codes entered
+ * by a clerk or a remote client are turned into ToolIds by findToolId,
+ * which never creates a ToolId for a code no tool is stored under.
+ * 
+ * The bulk operations (addTools, getToolsById, updateToolsById) apply a
+ * single operation to many tools in one call. getTools and updateTools are
+ * the same operations keyed by Codes. By default they simply call the
+ * single-tool operation once per tool, and print the same warning messages.
+ * Storage systems override them when they can do the whole batch at once
+ * (e.g. SQLiteDB runs a whole batch as one JDBC batch in one transaction).
  *  
  * @author CSGarcia1191
  *
@@ -26,8 +60,137 @@ import rentatool.rental_items.ToolEnums.Code;
 public interface CrudOps {
 	
 	public void addTool(Tool tool); // create
-	public Tool getTool(Code code); // read
-	public void updateTool(Code code, Attribute attr, Object value); // update
-	public void removeTool(Code code); // delete
+	public Tool getTool(ToolId id); // read
+	public void updateTool(ToolId id, Attribute attr, Object value); // update
+	public void removeTool(ToolId id); // delete
+	public RentalAgreement checkout(ToolId id, int rentalDays, int discountPercent, LocalDate checkoutDate); // atomic read + update
+	
+	/**
+	 * Marks the Tool associated with the passed-in code as available, if it is checked out.
+	 * 
+	 * @param id The code of the Tool to return
+	 * @return true if the Tool was checked out and is now available. false if the code is
+	 * null, the Tool does not exist or was not checked out (the Tool is not changed).
+	 */
+	public default boolean returnTool(ToolId id) {
+		Tool tool = getTool(id);
+		if (tool == null || !tool.isCheckedOut()) {
+			return false;
+		}
+		
+		updateTool(id, Attribute.CHECKEDOUT, false);
+		return true;
+	}
+	
+	/**
+	 * Returns the ToolId of the Tool stored under the passed-in code, without creating
+	 * a ToolId for an unknown code (see ToolId.find()). By default only the ToolIds that
+	 * already exist are found, which covers every storage system that creates the ToolIds
+	 * of its Tools when they are added or loaded. Storage systems that can hold Tools
+	 * whose ToolIds have not been created yet (e.g. a persistent SQLiteDB) override it.
+	 * 
+	 * @param code The code to look up, e.g. as typed by a clerk
+	 * @return the ToolId of the code, or null if the code is null, blank or unknown. A
+	 * non-null ToolId does not guarantee that a Tool is currently stored under it.
+	 */
+	public default ToolId findToolId(String code) {
+		return ToolId.find(code);
+	}
+	
+	// The same operations keyed by a Code, which is an alias of its ToolId
+	public default Tool getTool(Code code) {
+		return getTool(ToolId.of(code));
+	}
+	
+	public default void updateTool(Code code, Attribute attr, Object value) {
+		updateTool(ToolId.of(code), attr, value);
+	}
+	
+	public default void removeTool(Code code) {
+		removeTool(ToolId.of(code));
+	}
+	
+	public default RentalAgreement checkout(Code code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		return checkout(ToolId.of(code), rentalDays, discountPercent, checkoutDate);
+	}
+	
+	public default boolean returnTool(Code code) {
+		return returnTool(ToolId.of(code));
+	}
+	
+	// bulk create
+	public default void addTools(Collection<? extends Tool> tools) {
+		if (tools == null) {
+			System.out.println("The passed-in collection of Tools was null. No tools were added.");
+			return;
+		}
+		
+		for (Tool tool : tools) {
+			addTool(tool);
+		}
+	}
+	
+	// bulk read: the Tools that were found, in the order of the passed-in codes
+	public default Map<ToolId, Tool> getToolsById(Collection<ToolId> ids) {
+		Map<ToolId, Tool> tools = new LinkedHashMap<ToolId, Tool>();
+		if (ids == null) {
+			System.out.println("The passed-in collection of Codes was null. No Tools could be retrieved.");
+			return tools;
+		}
+		
+		for (ToolId id : ids) {
+			Tool tool = getTool(id);
+			if (tool != null) {
+				tools.put(id, tool);
+			}
+		}
+		return tools;
+	}
+	
+	// bulk update: sets the passed-in attribute of every Tool code in the map to the mapped value
+	public default void updateToolsById(Attribute attr, Map<ToolId, ?> values) {
+		if (attr == null || values == null) {
+			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+			return;
+		}
+		
+		for (Map.Entry<ToolId, ?> entry : values.entrySet()) {
+			updateTool(entry.getKey(), attr, entry.getValue());
+		}
+	}
+	
+	// The bulk operations keyed by Codes, which are aliases of their ToolIds. They can not be overloads of
+	// the ToolId operations, since Collection<Code> and Collection<ToolId> are the same type once erased.
+	public default Map<Code, Tool> getTools(Collection<Code> codes) {
+		Map<Code, Tool> tools = new LinkedHashMap<Code, Tool>();
+		for (Map.Entry<ToolId, Tool> entry : getToolsById(toToolIds(codes)).entrySet()) {
+			tools.put(entry.getKey().getCode(), entry.getValue());
+		}
+		return tools;
+	}
+	
+	public default void updateTools(Attribute attr, Map<Code, ?> values) {
+		Map<ToolId, Object> valuesById = null;
+		if (values != null) {
+			valuesById = new LinkedHashMap<ToolId, Object>();
+			for (Map.Entry<Code, ?> entry : values.entrySet()) {
+				valuesById.put(ToolId.of(entry.getKey()), entry.getValue());
+			}
+		}
+		updateToolsById(attr, valuesById);
+	}
+	
+	// The ToolId aliases of the passed-in Codes, in the same order (null stays null)
+	public static List<ToolId> toToolIds(Collection<Code> codes) {
+		if (codes == null) {
+			return null;
+		}
+		
+		List<ToolId> ids = new ArrayList<ToolId>(codes.size());
+		for (Code code : codes) {
+			ids.add(ToolId.of(code));
+		}
+		return ids;
+	}
 	
 }
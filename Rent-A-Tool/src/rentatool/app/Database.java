@@ -18,6 +18,7 @@ abstract class Database implements StorageSystem {
 	// security. Only child classes should
 	// be able to invoke these methods.
 	abstract void createTable();
+	abstract void migrateTable();
 	abstract void deleteTable();
 	abstract void closeConnection();
 	
@@ -0,0 +1,35 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Forces the entries of a directory to disk, so that files created in it and
+ * files atomically moved into it survive a crash. Used by the storage systems
+ * that keep their data in files (MappedFileStorage and RentalLedger).
+ *
+ * @author CSGarcia1191
+ *
+ */
+final class DirectorySync {
+
+	private DirectorySync() {
+	}
+
+	/**
+	 * Forces the entries of the passed-in directory to disk. Not every platform can
+	 * open a directory, so failures are ignored: creating or moving a file is still
+	 * atomic there, only its durability is not guaranteed.
+	 *
+	 * @param directory The directory to force to disk
+	 */
+	static void force(Path directory) {
+		try (FileChannel directoryChannel = FileChannel.open(directory.toAbsolutePath(), StandardOpenOption.READ)) {
+			directoryChannel.force(true);
+		} catch (IOException e) {
+			// Ignored, see above
+		}
+	}
+}
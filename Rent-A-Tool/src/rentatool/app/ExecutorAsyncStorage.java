@@ -0,0 +1,170 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+
+/**
+ * An AsyncStorageSystem that runs the blocking operations of a StorageSystem on
+ * an executor, so the thread that submits them (e.g. a checkout terminal) can
+ * keep going while they run, and several of them can be in flight at once.
+ *
+ * 1) ExecutorAsyncStorage(storage, threads, queueCapacity) creates its own bounded
+ *    executor: a fixed pool of daemon threads and a queue of at most queueCapacity
+ *    waiting operations. When the queue is full, the returned future is completed
+ *    exceptionally with a RejectedExecutionException instead of blocking the caller,
+ *    so a slow storage system can not pile up an unbounded backlog of operations.
+ * 2) ExecutorAsyncStorage(storage, executor) runs the operations on an executor
+ *    owned by the caller (e.g. a virtual thread per task executor on a JDK that has
+ *    them), which close() does not shut down.
+ *
+ * With more than one thread, operations run concurrently, so the StorageSystem must
+ * be thread-safe (e.g. a ConcurrentHashMapStorage or a pooled SQLiteDB). With a
+ * single thread, any StorageSystem can be used, and the operations run one at a
+ * time in the order they were submitted.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class ExecutorAsyncStorage implements AsyncStorageSystem, AutoCloseable {
+
+	private final StorageSystem storage;
+	private final Executor executor;
+	private final ExecutorService ownedExecutor; // null if the executor is owned by the caller
+
+	/**
+	 * This constructor runs the operations of the passed-in StorageSystem on a
+	 * new bounded executor, which is shut down by close().
+	 *
+	 * @param storage The StorageSystem to run the operations of
+	 * @param threads The number of threads running operations (at least 1)
+	 * @param queueCapacity The maximum number of operations waiting for a thread (at least 1)
+	 * @throws IllegalArgumentException if the StorageSystem is null, or threads or queueCapacity is less than 1
+	 */
+	public ExecutorAsyncStorage(StorageSystem storage, int threads, int queueCapacity) {
+		if (storage == null) {
+			throw new IllegalArgumentException("The StorageSystem to run asynchronously must not be null.");
+		}
+		if (threads < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException(String.format("The number of threads and the queue capacity must be at least 1, but were %d and %d.", threads, queueCapacity));
+		}
+
+		AtomicInteger threadCount = new AtomicInteger();
+		this.storage = storage;
+		this.ownedExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+			Thread thread = new Thread(runnable, "rentatool-async-storage-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor = ownedExecutor;
+	}
+
+	/**
+	 * This constructor runs the operations of the passed-in StorageSystem on the
+	 * passed-in executor, which is not shut down by close().
+	 *
+	 * @param storage The StorageSystem to run the operations of
+	 * @param executor The executor to run the operations on
+	 * @throws IllegalArgumentException if the StorageSystem or the executor is null
+	 */
+	public ExecutorAsyncStorage(StorageSystem storage, Executor executor) {
+		if (storage == null || executor == null) {
+			throw new IllegalArgumentException("The StorageSystem to run asynchronously and its executor must not be null.");
+		}
+
+		this.storage = storage;
+		this.executor = executor;
+		this.ownedExecutor = null;
+	}
+
+	// The wrapped StorageSystem
+	public StorageSystem getStorage() {
+		return storage;
+	}
+
+	@Override
+	public CompletableFuture<Void> addTool(Tool tool) {
+		return run(() -> {
+			storage.addTool(tool);
+			return null;
+		});
+	}
+
+	@Override
+	public CompletableFuture<Tool> getTool(ToolId id) {
+		return run(() -> storage.getTool(id));
+	}
+
+	@Override
+	public CompletableFuture<Void> updateTool(ToolId id, Attribute attr, Object value) {
+		return run(() -> {
+			storage.updateTool(id, attr, value);
+			return null;
+		});
+	}
+
+	@Override
+	public CompletableFuture<Void> removeTool(ToolId id) {
+		return run(() -> {
+			storage.removeTool(id);
+			return null;
+		});
+	}
+
+	@Override
+	public CompletableFuture<RentalAgreement> checkout(ToolId id, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		return run(() -> storage.checkout(id, rentalDays, discountPercent, checkoutDate));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> returnTool(ToolId id) {
+		return run(() -> storage.returnTool(id));
+	}
+
+	@Override
+	public CompletableFuture<Map<ToolId, Tool>> getToolsById(Collection<ToolId> ids) {
+		return run(() -> storage.getToolsById(ids));
+	}
+
+	/**
+	 * Stops accepting operations and waits for the submitted ones to finish, if the
+	 * executor was created by this ExecutorAsyncStorage. The wrapped StorageSystem
+	 * (e.g. the connection of an SQLiteDB) is not closed.
+	 */
+	@Override
+	public void close() {
+		if (ownedExecutor == null) {
+			return;
+		}
+
+		ownedExecutor.shutdown();
+		try {
+			ownedExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Submits the operation to the executor. A rejected operation fails its future instead of throwing.
+	private <T> CompletableFuture<T> run(Supplier<T> operation) {
+		try {
+			return CompletableFuture.supplyAsync(operation, executor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+}
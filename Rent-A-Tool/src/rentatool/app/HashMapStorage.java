@@ -1,43 +1,68 @@
 package rentatool.app;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import rentatool.rental_items.Chainsaw;
 import rentatool.rental_items.Jackhammer;
 import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
 import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.*;
 
 /**
- * This is an implementation of the CrudOps interface using a HashMap<Code, Tool>
+ * This is an implementation of the CrudOps interface using a HashMap<ToolId, Tool>
  * data structure as the application's tool storage system. This implementation
  * was designed to demonstrate that Rent-A-Tool storage systems can range
  * from databases (default SQLite) to data structures, so long as they implement
  * the different CRUD operations defined in the CrudOps interface.
  * 
+ * Tools are listed in code order through a sorted index of the stored ToolIds.
+ * The index is only rebuilt (sorted) by the first listing after a tool has
+ * been added, removed or renamed, so adding tools does not pay for it.
+ * 
+ * findAvailable() is answered from an AvailabilityIndex (bitsets of the stored
+ * ToolIds by type, by brand and by checkedOut status) that every operation of
+ * the storage system keeps up to date. Changes made directly to a retrieved Tool
+ * (instead of through updateTool()) are not seen by the index.
+ * 
  * @author CSGarcia1191
  *
  */
 public class HashMapStorage implements StorageSystem {
 
 	// Storage system for HashMapStorage instances
-	private HashMap<Code, Tool> storage;
+	private HashMap<ToolId, Tool> storage;
+	
+	// Stored ToolIds in code order, or null if a tool was added, removed or renamed since it was sorted
+	private ToolId[] sortedIndex;
+	
+	// Stored ToolIds by type, brand and checkedOut status
+	private final AvailabilityIndex availabilityIndex = new AvailabilityIndex();
 	
 	/**
 	 * This constructor initializes a new storage system defined as a
-	 * HashMap<Code, Tool> data structure. Similar to the SQLiteDB
-	 * database, this StorageSystem has Tool codes as "primary" keys.
-	 * These keys are then mapped to Tool objects.
+	 * HashMap<ToolId, Tool> data structure. Similar to the SQLiteDB
+	 * database, this StorageSystem has ToolIds as "primary" keys.
+	 * These keys are then mapped to Tool objects. ToolIds hash to
+	 * their int value, so lookups never hash the tool's name.
 	 */
 	public HashMapStorage() {
-		storage =  new HashMap<Code, Tool>();
-		storage.put(Code.CHNS, new Chainsaw(Code.CHNS, Brand.STIHL));
-		storage.put(Code.LADW, new Ladder(Code.LADW, Brand.WERNER));
-		storage.put(Code.JAKD, new Jackhammer(Code.JAKD, Brand.DEWALT));
-		storage.put(Code.JAKR, new Jackhammer(Code.JAKR, Brand.RIDGID));
+		storage =  new HashMap<ToolId, Tool>();
+		storage.put(ToolId.of(Code.CHNS), new Chainsaw(Code.CHNS, Brand.STIHL));
+		storage.put(ToolId.of(Code.LADW), new Ladder(Code.LADW, Brand.WERNER));
+		storage.put(ToolId.of(Code.JAKD), new Jackhammer(Code.JAKD, Brand.DEWALT));
+		storage.put(ToolId.of(Code.JAKR), new Jackhammer(Code.JAKR, Brand.RIDGID));
+		for (Tool tool : storage.values()) {
+			availabilityIndex.add(tool);
+		}
 	}
 
 	/**
@@ -55,13 +80,52 @@ public class HashMapStorage implements StorageSystem {
 			return;
 		}
 		
-		if (storage.containsKey(tool.getCode())) {
-			System.out.println(String.format("A tool with code %s already exists.", tool.getCode()));
+		if (storage.containsKey(tool.getId())) {
+			System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
 			return;
 		}
 		
 		// All pre-conditions met, adding Tool to the storage system
-		storage.put(tool.getCode(), tool);
+		storage.put(tool.getId(), tool);
+		availabilityIndex.add(tool);
+		sortedIndex = null;
+	}
+
+	/**
+	 * Adds every passed-in Tool object to the storage system, with the
+	 * same checks and warning messages as addTool(). If the storage
+	 * system would have to grow more than once to fit the new Tools,
+	 * it is first copied into a HashMap presized for all of them.
+	 */
+	@Override
+	public void addTools(Collection<? extends Tool> tools) {
+		if (tools == null) {
+			System.out.println("The passed-in collection of Tools was null. No tools were added.");
+			return;
+		}
+		
+		int expectedSize = storage.size() + tools.size();
+		if (tools.size() > storage.size()) {
+			HashMap<ToolId, Tool> presizedStorage = new HashMap<ToolId, Tool>(capacityFor(expectedSize));
+			presizedStorage.putAll(storage);
+			storage = presizedStorage;
+		}
+		
+		for (Tool tool : tools) {
+			if (tool == null) {
+				System.out.println("The passed-in Tool object was null. No tool was added to the storage system.");
+			} else if (storage.putIfAbsent(tool.getId(), tool) != null) {
+				System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
+			} else {
+				availabilityIndex.add(tool);
+			}
+		}
+		sortedIndex = null;
+	}
+	
+	// Initial HashMap capacity that holds the passed-in number of entries without resizing
+	private static int capacityFor(int expectedSize) {
+		return (int) (expectedSize / 0.75f) + 1;
 	}
 
 	/**
@@ -75,7 +139,7 @@ public class HashMapStorage implements StorageSystem {
 	 * method returns null.
 	 */
 	@Override
-	public Tool getTool(Code code) {
+	public Tool getTool(ToolId code) {
 		if (code == null) {
 			System.out.println("The passed-in Code was null. No Tool could be retrieved.");
 			return null;
@@ -90,6 +154,29 @@ public class HashMapStorage implements StorageSystem {
 		return storage.get(code);
 	}
 
+	/**
+	 * Retrieves the Tools associated with the passed-in codes, with the same
+	 * checks and warning messages as getTool(). The returned map is presized
+	 * for all of the codes and keeps them in the order they were passed in.
+	 * Codes with no associated Tool are left out of the map.
+	 */
+	@Override
+	public Map<ToolId, Tool> getToolsById(Collection<ToolId> codes) {
+		if (codes == null) {
+			System.out.println("The passed-in collection of Codes was null. No Tools could be retrieved.");
+			return new LinkedHashMap<ToolId, Tool>();
+		}
+		
+		Map<ToolId, Tool> tools = new LinkedHashMap<ToolId, Tool>(capacityFor(codes.size()));
+		for (ToolId code : codes) {
+			Tool tool = getTool(code);
+			if (tool != null) {
+				tools.put(code, tool);
+			}
+		}
+		return tools;
+	}
+
 	/**
 	 * Removes the Tool associated with the passed-in code
 	 * from the storage system. First, the method checks
@@ -101,7 +188,7 @@ public class HashMapStorage implements StorageSystem {
 	 * console and the method exits.
 	 */
 	@Override
-	public void removeTool(Code code) {
+	public void removeTool(ToolId code) {
 		if (code == null) {
 			System.out.println("The passed-in Code was null. No tool was removed from the storage system.");
 			return;
@@ -114,6 +201,8 @@ public class HashMapStorage implements StorageSystem {
 		
 		// All pre-conditions met, removing Tool from the storage system
 		storage.remove(code);
+		availabilityIndex.remove(code);
+		sortedIndex = null;
 	}
 
 	/**
@@ -133,7 +222,7 @@ public class HashMapStorage implements StorageSystem {
 	 * then no update occurs and a warning message is displayed on the console.
 	 */
 	@Override
-	public void updateTool(Code code, Attribute attribute, Object value) {
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
 		if (code == null || attribute == null || value == null) {
 			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
 			return;
@@ -160,10 +249,14 @@ public class HashMapStorage implements StorageSystem {
 			// Tool Code should not be able to get updated unless a future developer
 			// has manually added a new Code to the ToolEnums file and has yet to
 			// assign it any tool in storage.
-			if (value instanceof Code && !storage.containsKey(value)) {
-				tool.setCode((Code) value);
-				storage.put((Code) value, tool);
+			ToolId newCode = toolIdOf(value);
+			if (newCode != null && !storage.containsKey(newCode)) {
+				tool.setId(newCode);
+				storage.put(newCode, tool);
 				storage.remove(code); // Remove old tool entry reference from the storage
+				availabilityIndex.remove(code);
+				availabilityIndex.add(tool);
+				sortedIndex = null;
 			} else {
 				System.out.println("Invalid Code value passed in. Not updating tool.");
 			}
@@ -171,6 +264,7 @@ public class HashMapStorage implements StorageSystem {
 			if (value instanceof Type) {
 				tool.setType((Type) value);
 				storage.put(code, tool);
+				availabilityIndex.setType(code, (Type) value);
 			} else {
 				System.out.println("Invalid Type value passed in. Not updating tool.");
 			}
@@ -178,6 +272,7 @@ public class HashMapStorage implements StorageSystem {
 			if (value instanceof Brand) {
 				tool.setBrand((Brand) value);
 				storage.put(code, tool);
+				availabilityIndex.setBrand(code, (Brand) value);
 			} else {
 				System.out.println("Invalid Brand value passed in. Not updating tool.");
 			}
@@ -213,6 +308,7 @@ public class HashMapStorage implements StorageSystem {
 			if (value instanceof Boolean) {
 				tool.setCheckedOut((boolean) value);
 				storage.put(code, tool);
+				availabilityIndex.setCheckedOut(code, (boolean) value);
 			} else {
 				System.out.println("Invalid Boolean value passed in. Not updating tool.");
 			}
@@ -222,30 +318,93 @@ public class HashMapStorage implements StorageSystem {
 		}
 	}
 
+	// The ToolId a CODE update renames a Tool to: either a ToolId or a Code (alias of its ToolId). null for any other value.
+	static ToolId toolIdOf(Object value) {
+		if (value instanceof ToolId) {
+			return (ToolId) value;
+		}
+		return (value instanceof Code) ? ToolId.of((Code) value) : null;
+	}
+
 	/**
-	 * Prints out a String representation of all the entries in the storage system.
-	 * The entries are looped through and printed out one by one.
+	 * Checks out the Tool associated with the passed-in code and returns its
+	 * RentalAgreement. The availability check and the checkedOut update happen
+	 * in this one call with no other storage operation in between (a
+	 * compare-and-set of checkedOut from false to true). The RentalAgreement is
+	 * generated before the Tool is marked as checked out, so invalid arguments
+	 * throw an InvalidCheckoutArgumentException and leave the Tool available.
+	 * 
+	 * If the code is null, the storage does not contain the code, or the Tool
+	 * is already checked out, a warning message is displayed on the console
+	 * and the method returns null.
+	 * 
+	 * Note: HashMapStorage is not thread-safe. Use ConcurrentHashMapStorage when
+	 * several terminals share one storage system.
+	 */
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was checked out.");
+			return null;
+		}
+		
+		Tool tool = storage.get(code);
+		if (tool == null) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to check out.", code));
+			return null;
+		}
+		
+		if (tool.isCheckedOut()) {
+			System.out.println(String.format("The tool with code %s is already checked out.", code));
+			return null;
+		}
+		
+		RentalAgreement rentalAgreement = new RentalAgreement(tool, rentalDays, discountPercent, checkoutDate);
+		tool.setCheckedOut(true);
+		availabilityIndex.setCheckedOut(code, true);
+		return rentalAgreement;
+	}
+
+	/**
+	 * Returns the stored Tools in code order by walking the sorted index of the
+	 * stored ToolIds. The index is sorted again first if a tool was added,
+	 * removed or renamed since the last listing. Tools removed while the stream
+	 * is being consumed are skipped.
+	 */
+	@Override
+	public Stream<Tool> streamTools() {
+		return Arrays.stream(sortedIndex()).map(storage::get).filter(Objects::nonNull);
+	}
+	
+	/**
+	 * Returns the available tools of the passed-in type and brand (null matches every
+	 * type or brand) by intersecting the bitsets of the AvailabilityIndex, in the order
+	 * their ToolIds were created. Only the Tools that match are read from the HashMap.
+	 */
+	@Override
+	public Stream<Tool> findAvailable(Type type, Brand brand) {
+		return availabilityIndex.findAvailable(type, brand).mapToObj(id -> storage.get(ToolId.fromInt(id))).filter(Objects::nonNull);
+	}
+	
+	// The stored ToolIds in code order, sorting them first if the index is out of date
+	private ToolId[] sortedIndex() {
+		ToolId[] index = sortedIndex;
+		if (index == null) {
+			index = storage.keySet().toArray(new ToolId[0]);
+			Arrays.sort(index);
+			sortedIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Prints out a String representation of all the entries in the storage system,
+	 * in code order. The entries are streamed and printed out one by one.
 	 */
 	@Override
 	public void printStoredTools() {
-		if (!storage.isEmpty()) {
-			ArrayList<String> toolsList = new ArrayList<String>();
-			Tool currentTool;
-			for (Map.Entry<Code, Tool> entry : storage.entrySet()) {
-				currentTool = entry.getValue();
-				toolsList.add(String.format("Code: %s, Type: %s, Brand: %s\nDaily Charge: $%,.2f\nCharge On Weekdays: %s\nCharge on Weekends: %s\nCharge on Holidays: %s\nChecked Out: %s\n\n",
-						entry.getKey(),
-						currentTool.getType(),
-						currentTool.getBrand(),
-						currentTool.getDailyCharge(),
-						currentTool.isChargeOnWeekdays() ? "Yes" : "No",
-						currentTool.isChargeOnWeekends() ? "Yes" : "No",
-						currentTool.isChargeOnHolidays() ? "Yes" : "No",
-						currentTool.isCheckedOut() ? "Yes" : "No"));
-			}
-			
-			Collections.sort(toolsList);
-			System.out.println(String.join("", toolsList));
+		if (ToolListing.print(streamTools()) > 0) {
+			System.out.println();
 		} else {
 			System.out.println("There is no valid storage system to print.");
 		}
@@ -0,0 +1,218 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the batch checkout mode of the
+ * Rent-A-Tool application (the BatchCheckout class and
+ * Main.runBatchCheckout()). Every batch is run against a new
+ * HashMapStorage, and the Rental Agreements written by the batch are
+ * compared against the Rental Agreements of the same checkouts.
+ *
+ * The TestSuite will use a @BeforeEach annotation to reassign standard
+ * output to a test output stream, and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("BatchCheckout Tests")
+class JUnitBatchCheckoutTests {
+
+	HashMapStorage storage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepStorageAndSystemOut() {
+		storage = new HashMapStorage();
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	// Runs the records through a new BatchCheckout and returns everything it wrote
+	String runBatch(String records, BatchCheckout.Summary[] summary) throws IOException {
+		StringWriter output = new StringWriter();
+		summary[0] = new BatchCheckout(storage).run(new BufferedReader(new StringReader(records)), output);
+		return output.toString();
+	}
+
+	// The Rental Agreement a HashMapStorage with the default tools generates for the same checkout
+	static String expectedAgreement(Code code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		RentalAgreement rentalAgreement = new HashMapStorage().checkout(code, rentalDays, discountPercent, checkoutDate);
+		return rentalAgreement.formatRentalAgreement();
+	}
+
+	@Nested
+	@DisplayName("Record Format Tests")
+	class RecordFormatTests {
+		@Test
+		@DisplayName("CSV Records")
+		void csvRecords() throws IOException {
+			BatchCheckout.Summary[] summary = new BatchCheckout.Summary[1];
+			String output = runBatch("code,rentalDays,discountPercent,checkoutDate\n"
+					+ "LADW,3,10,7/2/20\n"
+					+ "\n"
+					+ "# a comment\n"
+					+ "checkout,CHNS,5,25,2015-07-02\n", summary);
+
+			assertEquals(2, summary[0].getRecords());
+			assertEquals(2, summary[0].getCheckouts());
+			assertEquals(0, summary[0].getFailures());
+			assertTrue(output.contains(expectedAgreement(Code.LADW, 3, 10, LocalDate.of(2020, 7, 2))));
+			assertTrue(output.contains(expectedAgreement(Code.CHNS, 5, 25, LocalDate.of(2015, 7, 2))));
+			assertTrue(storage.getTool(Code.LADW).isCheckedOut());
+			assertTrue(storage.getTool(Code.CHNS).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("JSON Lines Records")
+		void jsonLinesRecords() throws IOException {
+			BatchCheckout.Summary[] summary = new BatchCheckout.Summary[1];
+			String output = runBatch("{\"code\": \"JAKD\", \"rentalDays\": 6, \"discountPercent\": 0, \"checkoutDate\": \"9/3/15\"}\n"
+					+ "{\"action\":\"checkout\",\"checkoutDate\":\"7\\/2\\/15\",\"discountPercent\":50,\"rentalDays\":9,\"code\":\"jakr\"}\n", summary);
+
+			assertEquals(2, summary[0].getCheckouts());
+			assertTrue(output.contains(expectedAgreement(Code.JAKD, 6, 0, LocalDate.of(2015, 9, 3))));
+			assertTrue(output.contains(expectedAgreement(Code.JAKR, 9, 50, LocalDate.of(2015, 7, 2))));
+		}
+
+		@Test
+		@DisplayName("Returns")
+		void returns() throws IOException {
+			BatchCheckout.Summary[] summary = new BatchCheckout.Summary[1];
+			String output = runBatch("LADW,3,10,7/2/20\n"
+					+ "return,LADW\n"
+					+ "{\"action\": \"return\", \"code\": \"LADW\"}\n"
+					+ "LADW,4,0,7/2/20\n", summary);
+
+			assertEquals(4, summary[0].getRecords());
+			assertEquals(2, summary[0].getCheckouts());
+			assertEquals(1, summary[0].getReturns());
+			assertEquals(1, summary[0].getFailures());
+			assertTrue(output.contains("Record 2: Tool LADW has been returned."));
+			assertTrue(output.contains("Record 3: Tool LADW could not be returned."));
+			assertTrue(output.contains(expectedAgreement(Code.LADW, 4, 0, LocalDate.of(2020, 7, 2))));
+		}
+
+		@Test
+		@DisplayName("Failed Returns")
+		void failedReturns() throws IOException {
+			BatchCheckout.Summary[] summary = new BatchCheckout.Summary[1];
+			storage.removeTool(Code.JAKD);
+			String output = runBatch("return,JAKD\n"
+					+ "return,CHNS\n", summary);
+
+			assertEquals(0, summary[0].getReturns());
+			assertEquals(2, summary[0].getFailures());
+			assertTrue(output.contains("Record 1: Tool JAKD could not be returned."));
+			assertTrue(output.contains("Record 2: Tool CHNS could not be returned."));
+			assertFalse(storage.getTool(Code.CHNS).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Flat JSON Object Parsing")
+		void flatJsonObjectParsing() {
+			Map<String, String> fields = BatchCheckout.parseFlatJsonObject(" { \"a\" : \"x\\\"y\\u0041\" , \"b\":-12,\"c\":true , \"d\":null} ");
+			assertEquals("x\"yA", fields.get("a"));
+			assertEquals("-12", fields.get("b"));
+			assertEquals("true", fields.get("c"));
+			assertEquals("null", fields.get("d"));
+			assertTrue(BatchCheckout.parseFlatJsonObject("{}").isEmpty());
+
+			assertThrows(IllegalArgumentException.class, () -> BatchCheckout.parseFlatJsonObject("{\"a\": 1"));
+			assertThrows(IllegalArgumentException.class, () -> BatchCheckout.parseFlatJsonObject("{\"a\" 1}"));
+			assertThrows(IllegalArgumentException.class, () -> BatchCheckout.parseFlatJsonObject("{\"a\": \"1}"));
+			assertThrows(IllegalArgumentException.class, () -> BatchCheckout.parseFlatJsonObject("{\"a\": 1} x"));
+		}
+	}
+
+	@Nested
+	@DisplayName("Invalid Record Tests")
+	class InvalidRecordTests {
+		@Test
+		@DisplayName("Invalid Records Do Not Stop The Batch")
+		void invalidRecordsDoNotStopTheBatch() throws IOException {
+			BatchCheckout.Summary[] summary = new BatchCheckout.Summary[1];
+			String output = runBatch("ABCD,3,10,7/2/20\n"
+					+ "LADW,three,10,7/2/20\n"
+					+ "LADW,3,101,7/2/20\n"
+					+ "LADW,3,10,13/2/20\n"
+					+ "LADW,3,10\n"
+					+ "{\"code\": \"LADW\", \"rentalDays\": 3}\n"
+					+ "{\"code\": \"LADW\"\n"
+					+ "LADW,3,10,7/2/20\n"
+					+ "LADW,3,10,7/2/20\n", summary);
+
+			assertEquals(9, summary[0].getRecords());
+			assertEquals(1, summary[0].getCheckouts());
+			assertEquals(8, summary[0].getFailures());
+			assertTrue(output.contains("Record 1: Tool ABCD could not be checked out."));
+			assertTrue(output.contains("Record 2: rentalDays needs to be a whole number, but was \"three\"."));
+			assertTrue(output.contains("Record 3: An invalid argument was passed into the RentalAgreement constructor."));
+			assertTrue(output.contains("Record 4: \"13/2/20\" is not a valid checkout date. Dates follow the format MM/dd/yy."));
+			assertTrue(output.contains("Record 5: A checkout record needs exactly 4 columns: code,rentalDays,discountPercent,checkoutDate."));
+			assertTrue(output.contains("Record 6: The record is missing the \"discountPercent\" field."));
+			assertTrue(output.contains("Record 7: The record is not a valid JSON object."));
+			assertTrue(output.contains("Record 9: Tool LADW could not be checked out."));
+		}
+	}
+
+	@Nested
+	@DisplayName("Batch Mode Tests")
+	class BatchModeTests {
+		@Test
+		@DisplayName("Agreements Written To Output File")
+		void agreementsWrittenToOutputFile(@TempDir Path directory) throws IOException {
+			Path input = directory.resolve("reservations.csv");
+			Path output = directory.resolve("agreements.txt");
+			Files.write(input, "code,rentalDays,discountPercent,checkoutDate\nJAKR,5,10,9/3/15\nCHNS,5,25,7/2/15\n".getBytes(StandardCharsets.UTF_8));
+
+			BatchCheckout.Summary summary = Main.runBatchCheckout(input, output, storage);
+
+			assertEquals(2, summary.getCheckouts());
+			String agreements = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+			assertEquals(expectedAgreement(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3)) + "\n\n"
+					+ expectedAgreement(Code.CHNS, 5, 25, LocalDate.of(2015, 7, 2)) + "\n\n", agreements);
+
+			// Only the summary is printed, none of the Rental Agreements
+			String console = outputTestStream.toString();
+			assertFalse(console.contains("Tool code:"));
+			assertTrue(console.contains("Processed 2 records (2 checkouts, 0 returns, 0 failed)"));
+			assertTrue(console.contains("records/s"));
+		}
+
+		@Test
+		@DisplayName("Missing Input File")
+		void missingInputFile(@TempDir Path directory) {
+			assertNull(Main.runBatchCheckout(directory.resolve("missing.csv"), directory.resolve("agreements.txt"), storage));
+			assertTrue(outputTestStream.toString().contains("The batch could not be processed"));
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.BatchRentalPricer;
+import rentatool.rental_items.ClosedFormChargeableDaysCalculator;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.RentalRequest;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the BatchRentalPricer class. Batches
+ * are priced against the default tools of a HashMapStorage, and every
+ * RentalAgreement of a batch is compared against a RentalAgreement created
+ * one at a time with the same arguments.
+ *
+ * The TestSuite will use a @BeforeEach annotation to reassign standard
+ * output to a test output stream, and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("BatchRentalPricer Tests")
+class JUnitBatchRentalPricerTests {
+
+	static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, 9, 3);
+
+	HashMapStorage storage;
+	Map<Code, Tool> tools;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepToolsAndSystemOut() {
+		storage = new HashMapStorage();
+		tools = storage.getTools(Arrays.asList(Code.values()));
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	// Random requests for every Code, 1 to 60 rental days, 0 to 100 percent off, checked out from 2015 to 2024
+	static List<RentalRequest> randomRequests(int count, long seed) {
+		Random random = new Random(seed);
+		Code[] codes = Code.values();
+		List<RentalRequest> requests = new ArrayList<RentalRequest>(count);
+		for (int i = 0; i < count; i++) {
+			requests.add(new RentalRequest(codes[random.nextInt(codes.length)], 1 + random.nextInt(60), random.nextInt(101),
+					LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3653))));
+		}
+		return requests;
+	}
+
+	void assertSameAsSequential(List<RentalRequest> requests, List<RentalAgreement> agreements) {
+		assertEquals(requests.size(), agreements.size());
+		for (int i = 0; i < requests.size(); i++) {
+			RentalRequest request = requests.get(i);
+			RentalAgreement expected = new RentalAgreement(tools.get(request.getCode()), request.getRentalDays(), request.getDiscountPercent(), request.getCheckoutDate());
+			RentalAgreement actual = agreements.get(i);
+			String message = String.format("Request %d: %s", i, request);
+			assertEquals(expected.getCode(), actual.getCode(), message);
+			assertEquals(expected.getCheckoutDate(), actual.getCheckoutDate(), message);
+			assertEquals(expected.getDueDate(), actual.getDueDate(), message);
+			assertEquals(expected.getTotalChargeableDays(), actual.getTotalChargeableDays(), message);
+			assertEquals(expected.getPreDiscountCharge(), actual.getPreDiscountCharge(), message);
+			assertEquals(expected.getDiscountAmount(), actual.getDiscountAmount(), message);
+			assertEquals(expected.getFinalCharge(), actual.getFinalCharge(), message);
+		}
+	}
+
+	@Nested
+	@DisplayName("Pricing Tests")
+	class PricingTests {
+		@Test
+		@DisplayName("Matches Sequential Pricing In Input Order")
+		void matchesSequentialPricing() {
+			List<RentalRequest> requests = randomRequests(50000, 9);
+			assertSameAsSequential(requests, new BatchRentalPricer(tools).priceAll(requests));
+		}
+
+		@Test
+		@DisplayName("Stream Of Requests")
+		void streamOfRequests() {
+			List<RentalRequest> requests = randomRequests(5000, 11);
+			assertSameAsSequential(requests, new BatchRentalPricer(tools).priceAll(requests.stream()));
+		}
+
+		@Test
+		@DisplayName("Custom Calculator And Pool")
+		void customCalculatorAndPool() {
+			ForkJoinPool pool = new ForkJoinPool(4);
+			try {
+				List<RentalRequest> requests = randomRequests(5000, 13);
+				BatchRentalPricer pricer = new BatchRentalPricer(tools, new ClosedFormChargeableDaysCalculator(), pool);
+				assertSameAsSequential(requests, pricer.priceAll(requests));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		@Test
+		@DisplayName("One Snapshot Per Code")
+		void oneSnapshotPerCode() {
+			BatchRentalPricer pricer = new BatchRentalPricer(tools);
+
+			// Changes made to the storage after the pricer was created are not seen by the pricer
+			storage.updateTool(Code.JAKR, Attribute.DAILYCHARGE, 100f);
+			List<RentalAgreement> agreements = pricer.priceAll(Arrays.asList(
+					new RentalRequest(Code.JAKR, 5, 0, CHECKOUT_DATE),
+					new RentalRequest(Code.JAKR, 9, 10, CHECKOUT_DATE)));
+
+			assertSame(agreements.get(0).getTool(), agreements.get(1).getTool());
+			assertNotSame(tools.get(Code.JAKR), agreements.get(0).getTool());
+			assertEquals(2.99f, agreements.get(0).getDailyRentalCharge());
+		}
+
+		@Test
+		@DisplayName("Serialized Units")
+		void serializedUnits() {
+			List<ToolId> ids = new ArrayList<ToolId>();
+			for (int i = 1; i <= 100; i++) {
+				ids.add(ToolId.of(String.format("JAKR-%06d", i)));
+				storage.addTool(new Jackhammer(ids.get(i - 1), Brand.RIDGID, 0.05f * i));
+			}
+			BatchRentalPricer pricer = new BatchRentalPricer(storage.getToolsById(ids).values());
+
+			List<RentalRequest> requests = new ArrayList<RentalRequest>();
+			for (ToolId id : ids) {
+				requests.add(new RentalRequest(id, 5, 10, CHECKOUT_DATE));
+			}
+			List<RentalAgreement> agreements = pricer.priceAll(requests);
+			for (int i = 0; i < ids.size(); i++) {
+				RentalAgreement expected = new RentalAgreement(storage.getTool(ids.get(i)), 5, 10, CHECKOUT_DATE);
+				assertEquals(expected.formatRentalAgreement(), agreements.get(i).formatRentalAgreement());
+			}
+			assertEquals("", outputTestStream.toString().trim());
+		}
+
+		@Test
+		@DisplayName("Empty Batch")
+		void emptyBatch() {
+			assertTrue(new BatchRentalPricer(tools).priceAll(new ArrayList<RentalRequest>()).isEmpty());
+		}
+	}
+
+	@Nested
+	@DisplayName("Invalid Request Tests")
+	class InvalidRequestTests {
+		@Test
+		@DisplayName("Invalid Requests Are Skipped")
+		void invalidRequestsAreSkipped() {
+			storage.removeTool(Code.LADW);
+			BatchRentalPricer pricer = new BatchRentalPricer(storage.getTools(Arrays.asList(Code.CHNS, Code.JAKD, Code.JAKR)));
+			outputTestStream.reset();
+
+			List<RentalAgreement> agreements = pricer.priceAll(Arrays.asList(
+					new RentalRequest(Code.CHNS, 5, 0, CHECKOUT_DATE),
+					null,
+					new RentalRequest(Code.LADW, 5, 0, CHECKOUT_DATE),
+					new RentalRequest(Code.JAKD, 5, 101, CHECKOUT_DATE),
+					new RentalRequest(Code.JAKR, 5, 0, CHECKOUT_DATE)));
+
+			assertNotNull(agreements.get(0));
+			assertNull(agreements.get(1));
+			assertNull(agreements.get(2));
+			assertNull(agreements.get(3));
+			assertNotNull(agreements.get(4));
+			String output = outputTestStream.toString();
+			assertTrue(output.contains("Rental request 1 was null. It was not priced."));
+			assertTrue(output.contains("No Tool with code LADW was found for rental request 2. It was not priced."));
+			assertTrue(output.contains("Rental request 3 (JAKD for 5 days at 101% off on 2015-09-03) has an invalid argument. It was not priced."));
+		}
+
+		@Test
+		@DisplayName("Unpriceable Tool Does Not Abort The Batch")
+		void unpriceableToolDoesNotAbortTheBatch() {
+			storage.updateTool(Code.LADW, Attribute.DAILYCHARGE, Float.NaN);
+			BatchRentalPricer pricer = new BatchRentalPricer(storage.getTools(Arrays.asList(Code.values())));
+			outputTestStream.reset();
+
+			List<RentalRequest> requests = randomRequests(5000, 7);
+			List<RentalAgreement> agreements = pricer.priceAll(requests);
+			for (int i = 0; i < requests.size(); i++) {
+				assertEquals(requests.get(i).getCode() != Code.LADW, agreements.get(i) != null);
+			}
+			assertTrue(outputTestStream.toString().contains("failed with java.lang.NumberFormatException"));
+		}
+
+		@Test
+		@DisplayName("Null Arguments")
+		void nullArguments() {
+			BatchRentalPricer pricer = new BatchRentalPricer((Map<Code, Tool>) null);
+			assertEquals("The passed-in collection of Tools was null. There are no tools to price.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+
+			new BatchRentalPricer((Collection<Tool>) null);
+			assertEquals("The passed-in collection of Tools was null. There are no tools to price.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+
+			assertTrue(pricer.priceAll((List<RentalRequest>) null).isEmpty());
+			assertEquals("The passed-in RentalRequests were null. Nothing to price.", outputTestStream.toString().trim());
+
+			assertThrows(InvalidCheckoutArgumentException.class, () -> new BatchRentalPricer(tools, null, ForkJoinPool.commonPool()));
+			assertThrows(InvalidCheckoutArgumentException.class, () -> new BatchRentalPricer(tools, new ClosedFormChargeableDaysCalculator(), null));
+		}
+	}
+}
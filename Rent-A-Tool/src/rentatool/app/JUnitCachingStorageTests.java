@@ -0,0 +1,217 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the CachingStorage class: serving repeated
+ * lookups from the cache, invalidating cached Tools on every write, LRU eviction
+ * and the hit/miss/eviction statistics. The wrapped StorageSystem is a
+ * HashMapStorage that counts how many times its getTool() method is called.
+ *
+ * The TestSuite will use a @BeforeEach annotation to create a new
+ * CachingStorage and reassign standard output to a test output stream,
+ * and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("CachingStorage Tests")
+class JUnitCachingStorageTests {
+
+	// A HashMapStorage that counts its getTool() calls
+	static class CountingStorage extends HashMapStorage {
+		int reads;
+
+		@Override
+		public Tool getTool(ToolId code) {
+			reads++;
+			return super.getTool(code);
+		}
+	}
+
+	CountingStorage countingStorage;
+	CachingStorage storage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepStorageAndSystemOut() {
+		countingStorage = new CountingStorage();
+		storage = new CachingStorage(countingStorage, 3);
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	@Test
+	@DisplayName("Invalid Constructor Arguments")
+	void invalidConstructorArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new CachingStorage(null));
+		assertThrows(IllegalArgumentException.class, () -> new CachingStorage(new HashMapStorage(), 0));
+	}
+
+	@Nested
+	@DisplayName("Read Tests")
+	class ReadTests {
+		@Test
+		@DisplayName("Repeated Lookups Are Cached")
+		void repeatedLookupsAreCached() {
+			for (int i = 0; i < 5; i++) {
+				assertEquals(countingStorage.getTool(Code.JAKR), storage.getTool(Code.JAKR));
+			}
+			assertEquals(5 + 1, countingStorage.reads); // 5 direct reads and 1 cache miss
+			assertEquals(4, storage.getStats().getHits());
+			assertEquals(1, storage.getStats().getMisses());
+			assertEquals("4 hits, 1 misses (80.0% hit rate), 0 evictions", storage.getStats().toString());
+		}
+
+		@Test
+		@DisplayName("Returned Tools Are Copies")
+		void returnedToolsAreCopies() {
+			Tool tool = storage.getTool(Code.LADW);
+			tool.setCheckedOut(true);
+			assertNotSame(tool, storage.getTool(Code.LADW));
+			assertFalse(storage.getTool(Code.LADW).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Missing Tools Are Not Cached")
+		void missingToolsAreNotCached() {
+			assertNull(storage.getTool(ToolId.of("CHNS-404")));
+			assertNull(storage.getTool(ToolId.of("CHNS-404")));
+			assertNull(storage.getTool((Code) null));
+			assertEquals("No Tool with code CHNS-404 was found. Nothing to return.\n"
+					+ "No Tool with code CHNS-404 was found. Nothing to return.\n"
+					+ "The passed-in Code was null. No Tool could be retrieved.", outputTestStream.toString().trim().replace("\r", ""));
+			assertEquals(0, storage.size());
+			assertEquals(2, storage.getStats().getMisses());
+		}
+
+		@Test
+		@DisplayName("Least Recently Used Tool Is Evicted")
+		void leastRecentlyUsedToolIsEvicted() {
+			storage.getTool(Code.CHNS);
+			storage.getTool(Code.LADW);
+			storage.getTool(Code.JAKD);
+			storage.getTool(Code.CHNS); // LADW is now the least recently used
+			storage.getTool(Code.JAKR);
+			assertEquals(3, storage.size());
+			assertEquals(1, storage.getStats().getEvictions());
+
+			int reads = countingStorage.reads;
+			storage.getTool(Code.CHNS);
+			storage.getTool(Code.JAKD);
+			assertEquals(reads, countingStorage.reads);
+			storage.getTool(Code.LADW);
+			assertEquals(reads + 1, countingStorage.reads);
+		}
+	}
+
+	@Nested
+	@DisplayName("Write-Through Tests")
+	class WriteThroughTests {
+		@Test
+		@DisplayName("Updates Are Never Stale")
+		void updatesAreNeverStale() {
+			storage.getTool(Code.CHNS);
+			storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 9.99f);
+			assertEquals(9.99f, storage.getTool(Code.CHNS).getDailyCharge());
+			assertEquals(9.99f, countingStorage.getTool(Code.CHNS).getDailyCharge());
+
+			storage.checkout(Code.CHNS, 3, 0, LocalDate.of(2020, 7, 2));
+			assertTrue(storage.getTool(Code.CHNS).isCheckedOut());
+
+			storage.updateTool(Code.CHNS, Attribute.CODE, ToolId.of("CHNS-000001"));
+			assertNull(storage.getTool(Code.CHNS));
+			assertTrue(storage.getTool(ToolId.of("CHNS-000001")).isCheckedOut());
+
+			storage.removeTool(ToolId.of("CHNS-000001"));
+			assertNull(storage.getTool(ToolId.of("CHNS-000001")));
+			storage.addTool(new Ladder(ToolId.of("CHNS-000001"), Brand.WERNER));
+			assertEquals(new Ladder(ToolId.of("CHNS-000001"), Brand.WERNER), storage.getTool(ToolId.of("CHNS-000001")));
+		}
+
+		@Test
+		@DisplayName("Bulk Writes Invalidate")
+		void bulkWritesInvalidate() {
+			storage.getTool(Code.CHNS);
+			storage.getTool(Code.LADW);
+			Map<Code, Boolean> values = new LinkedHashMap<Code, Boolean>();
+			values.put(Code.CHNS, true);
+			values.put(Code.LADW, true);
+			storage.updateTools(Attribute.CHECKEDOUT, values);
+			assertTrue(storage.getTool(Code.CHNS).isCheckedOut());
+			assertTrue(storage.getTool(Code.LADW).isCheckedOut());
+
+			storage.removeTool(Code.JAKD);
+			storage.getTool(Code.JAKR);
+			storage.addTools(Arrays.asList(new Ladder(Code.JAKD, Brand.WERNER)));
+			assertEquals(new Ladder(Code.JAKD, Brand.WERNER), storage.getTool(Code.JAKD));
+		}
+
+		@Test
+		@DisplayName("Write During A Read Is Not Overwritten")
+		void writeDuringAReadIsNotOverwritten() {
+			// The wrapped StorageSystem is updated while it is reading the Tool, as another terminal would
+			CachingStorage[] racingStorage = new CachingStorage[1];
+			HashMapStorage slowStorage = new HashMapStorage() {
+				boolean raced;
+
+				@Override
+				public Tool getTool(ToolId code) {
+					Tool tool = Tool.copyOf(super.getTool(code)); // HashMapStorage returns its stored Tool
+					if (!raced) {
+						raced = true;
+						racingStorage[0].updateTool(code, Attribute.CHECKEDOUT, true);
+					}
+					return tool;
+				}
+			};
+			racingStorage[0] = new CachingStorage(slowStorage);
+
+			assertFalse(racingStorage[0].getTool(Code.JAKR).isCheckedOut()); // read before the write
+			assertTrue(racingStorage[0].getTool(Code.JAKR).isCheckedOut());
+			assertEquals(2, racingStorage[0].getStats().getMisses());
+		}
+
+		@Test
+		@DisplayName("Wraps An SQLiteDB")
+		void wrapsAnSQLiteDB() {
+			SQLiteDB sqliteDB = new SQLiteDB(2);
+			try {
+				CachingStorage cachedDB = new CachingStorage(sqliteDB);
+				assertEquals(sqliteDB.getTool(Code.LADW), cachedDB.getTool(Code.LADW));
+				cachedDB.getTool(Code.LADW);
+				assertNotNull(cachedDB.checkout(Code.LADW, 3, 0, LocalDate.of(2020, 7, 2)));
+				assertTrue(cachedDB.getTool(Code.LADW).isCheckedOut());
+				assertEquals("1 hits, 2 misses (33.3% hit rate), 0 evictions", cachedDB.getStats().toString());
+			} finally {
+				sqliteDB.closeConnection();
+			}
+		}
+	}
+}
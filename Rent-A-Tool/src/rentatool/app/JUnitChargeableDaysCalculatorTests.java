@@ -0,0 +1,104 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import rentatool.rental_items.ChargeableDaysCalculator;
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.ClosedFormChargeableDaysCalculator;
+import rentatool.rental_items.IterativeChargeableDaysCalculator;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains differential tests between the two
+ * ChargeableDaysCalculator implementations. The original
+ * IterativeChargeableDaysCalculator is treated as the source of
+ * truth and the ClosedFormChargeableDaysCalculator (the default
+ * used by RentalAgreement) must return the same number of
+ * chargeable days for every input.
+ *
+ * Each parameterized test runs one combination of the Tool's
+ * chargeOnWeekdays, chargeOnWeekends and chargeOnHolidays flags,
+ * encoded as the 3 lowest bits of the test parameter.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("ChargeableDaysCalculator Tests")
+class JUnitChargeableDaysCalculatorTests {
+	static ChargeableDaysCalculator iterative;
+	static ChargeableDaysCalculator closedForm;
+
+	// Every checkout date in this 30 year window is tested against every rental length up to MAX_RENTAL_DAYS
+	static final LocalDate WINDOW_START = LocalDate.of(2000, 1, 1);
+	static final LocalDate WINDOW_END = LocalDate.of(2029, 12, 31);
+	static final int MAX_RENTAL_DAYS = 400;
+
+	@BeforeAll
+	static void initCalculators() {
+		iterative = new IterativeChargeableDaysCalculator();
+		closedForm = new ClosedFormChargeableDaysCalculator();
+	}
+
+	// Creates a Tool whose chargeable day flags are taken from the 3 lowest bits of flags
+	static Tool toolWithFlags(int flags) {
+		return new Chainsaw(Code.CHNS, Brand.STIHL, 1.49f, (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, false);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7})
+	@DisplayName("Every Checkout Date And Rental Length In 30 Year Window")
+	void exhaustiveThirtyYearWindow(int flags) {
+		Tool tool = toolWithFlags(flags);
+		for (LocalDate checkoutDate = WINDOW_START; !checkoutDate.isAfter(WINDOW_END); checkoutDate = checkoutDate.plusDays(1)) {
+			for (int rentalDays = 1; rentalDays <= MAX_RENTAL_DAYS; rentalDays++) {
+				int expected = iterative.calculateChargeableDays(tool, checkoutDate, rentalDays);
+				int actual = closedForm.calculateChargeableDays(tool, checkoutDate, rentalDays);
+				if (expected != actual) {
+					fail(String.format("Flags %d, checkout %s, %d rental days: expected %d but was %d",
+							flags, checkoutDate, rentalDays, expected, actual));
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7})
+	@DisplayName("Multi-Year Rentals Across Centuries")
+	void multiYearRentalsAcrossCenturies(int flags) {
+		// Sparse sample covering leap year century rules and dates before the epoch
+		Tool tool = toolWithFlags(flags);
+		for (LocalDate checkoutDate = LocalDate.of(1600, 1, 1); checkoutDate.getYear() < 2400; checkoutDate = checkoutDate.plusDays(97)) {
+			for (int rentalDays = 1; rentalDays <= 20000; rentalDays += 53) {
+				assertEquals(iterative.calculateChargeableDays(tool, checkoutDate, rentalDays),
+						closedForm.calculateChargeableDays(tool, checkoutDate, rentalDays),
+						String.format("Flags %d, checkout %s, %d rental days", flags, checkoutDate, rentalDays));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Constructor Uses Passed-In Calculator")
+	void constructorUsesPassedInCalculator() {
+		RentalAgreement ra = new RentalAgreement(toolWithFlags(7), 10, 0, WINDOW_START, (tool, checkoutDate, rentalDays) -> 3);
+		assertEquals(3, ra.getTotalChargeableDays());
+		assertEquals(3, ra.calculateChargeableDays());
+	}
+
+	@Test
+	@DisplayName("Null Calculator Arg")
+	void nullCalculatorArg() {
+		assertThrows(InvalidCheckoutArgumentException.class,
+				() -> new RentalAgreement(toolWithFlags(7), 10, 0, WINDOW_START, null));
+	}
+}
@@ -0,0 +1,340 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the CheckoutHttpService class: the JSON
+ * documents returned by its endpoints, the status codes of invalid requests,
+ * and concurrent checkouts and returns of one tool over HTTP.
+ *
+ * The TestSuite will use a @BeforeEach annotation to start a CheckoutHttpService
+ * backed by a ConcurrentHashMapStorage and reassign standard output to a test
+ * output stream, and an @AfterEach to close the service and restore standard output.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("CheckoutHttpService Tests")
+class JUnitCheckoutHttpServiceTests {
+
+	static final String JAKR_JSON = "{\"code\":\"JAKR\",\"type\":\"Jackhammer\",\"brand\":\"Ridgid\",\"dailyCharge\":2.99,"
+			+ "\"chargeOnWeekdays\":true,\"chargeOnWeekends\":false,\"chargeOnHolidays\":false,\"checkedOut\":false}";
+	static final String LADW_QUOTE_JSON = "{\"code\":\"LADW\",\"type\":\"Ladder\",\"brand\":\"Werner\",\"rentalDays\":3,"
+			+ "\"checkoutDate\":\"2020-07-02\",\"dueDate\":\"2020-07-05\",\"dailyRentalCharge\":1.99,\"chargeDays\":2,"
+			+ "\"preDiscountCharge\":3.98,\"discountPercent\":10,\"discountAmount\":0.40,\"finalCharge\":3.58}";
+
+	ConcurrentHashMapStorage storage;
+	CheckoutHttpService service;
+	HttpClient client = HttpClient.newHttpClient();
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void startServiceAndPrepSystemOut() throws IOException {
+		System.setOut(new PrintStream(outputTestStream));
+		storage = new ConcurrentHashMapStorage();
+		service = new CheckoutHttpService(storage, 0).start();
+	}
+
+	@AfterEach
+	void closeServiceAndRestoreSystemOut() {
+		service.close();
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	HttpResponse<String> send(String method, String pathAndQuery) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(String.format("http://localhost:%d%s", service.getPort(), pathAndQuery)))
+				.method(method, HttpRequest.BodyPublishers.noBody())
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Test
+	@DisplayName("Invalid Constructor Arguments")
+	void invalidConstructorArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new CheckoutHttpService(null, 0));
+		assertThrows(IllegalArgumentException.class, () -> new CheckoutHttpService(storage, 0, null));
+	}
+
+	@Nested
+	@DisplayName("Tool Tests")
+	class ToolTests {
+		@Test
+		@DisplayName("List Tools")
+		void listTools() throws Exception {
+			HttpResponse<String> response = send("GET", "/tools");
+			assertEquals(200, response.statusCode());
+			assertEquals(CheckoutHttpService.JSON_CONTENT_TYPE, response.headers().firstValue("Content-Type").orElse(null));
+			assertTrue(response.body().startsWith("[{\"code\":\"CHNS\","));
+			assertTrue(response.body().contains("," + JAKR_JSON + ",{\"code\":\"LADW\",")); // in code order
+
+			// Every stored tool is listed, not only the four Code tools
+			storage.addTool(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER));
+			assertTrue(send("GET", "/tools").body().contains(",{\"code\":\"LADW-000001\","));
+		}
+
+		@Test
+		@DisplayName("Tool List Is Streamed")
+		void toolListIsStreamed() throws Exception {
+			for (int i = 1; i <= 5000; i++) {
+				storage.addTool(new Ladder(ToolId.of(String.format("LADW-%06d", i)), Brand.WERNER));
+			}
+
+			HttpResponse<String> response = send("GET", "/tools");
+			assertEquals(200, response.statusCode());
+			assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null));
+			assertTrue(response.headers().firstValue("Content-Length").isEmpty());
+			assertTrue(response.body().startsWith("[{\"code\":\"CHNS\","));
+			assertTrue(response.body().endsWith("{\"code\":\"LADW-005000\",\"type\":\"Ladder\",\"brand\":\"Werner\",\"dailyCharge\":1.99,\"chargeOnWeekdays\":true,\"chargeOnWeekends\":true,\"chargeOnHolidays\":false,\"checkedOut\":false}]"));
+			assertEquals(5004, response.body().split("\\{\"code\":", -1).length - 1);
+		}
+
+		@Test
+		@DisplayName("Failed Tool List Drops The Connection")
+		void failedToolListDropsTheConnection() throws Exception {
+			service.close();
+			service = new CheckoutHttpService(new ConcurrentHashMapStorage() {
+				@Override
+				public Stream<Tool> streamTools() {
+					return super.streamTools().peek(tool -> {
+						if (tool.getId().getName().equals("LADW")) {
+							throw new IllegalStateException("The table could not be read.");
+						}
+					});
+				}
+			}, 0).start();
+
+			// The headers were already sent, so a complete looking partial list must not be
+			assertThrows(IOException.class, () -> send("GET", "/tools"));
+			assertEquals(JAKR_JSON, send("GET", "/tools/JAKR").body());
+		}
+
+		@Test
+		@DisplayName("Get Tool")
+		void getTool() throws Exception {
+			HttpResponse<String> response = send("GET", "/tools/jakr");
+			assertEquals(200, response.statusCode());
+			assertEquals(JAKR_JSON, response.body());
+
+			response = send("GET", "/tools/JAKR-404");
+			assertEquals(404, response.statusCode());
+			assertEquals("{\"error\":\"Could not find tool associated with this code.\"}", response.body());
+		}
+
+		@Test
+		@DisplayName("Unknown Codes Create No ToolIds")
+		void unknownCodesCreateNoToolIds() throws Exception {
+			int count = ToolId.count();
+			for (int i = 0; i < 16; i++) {
+				String code = String.format("UNKNOWN-%06d", i);
+				assertEquals(404, send("GET", "/tools/" + code).statusCode());
+				assertEquals(404, send("GET", "/quote?code=" + code + "&rentalDays=3&checkoutDate=2020-07-02").statusCode());
+				assertEquals(404, send("POST", "/checkout?code=" + code + "&rentalDays=3&checkoutDate=2020-07-02").statusCode());
+				assertEquals(404, send("POST", "/return?code=" + code).statusCode());
+			}
+			assertEquals(count, ToolId.count());
+			assertNull(ToolId.find("UNKNOWN-000000"));
+		}
+
+		@Test
+		@DisplayName("Method Not Allowed")
+		void methodNotAllowed() throws Exception {
+			HttpResponse<String> response = send("DELETE", "/tools/JAKR");
+			assertEquals(405, response.statusCode());
+			assertEquals("{\"error\":\"/tools only accepts GET requests.\"}", response.body());
+			assertEquals(405, send("GET", "/checkout?code=JAKR&rentalDays=3&checkoutDate=7/2/20").statusCode());
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+		}
+	}
+
+	@Nested
+	@DisplayName("Quote Tests")
+	class QuoteTests {
+		@Test
+		@DisplayName("Quote Does Not Reserve")
+		void quoteDoesNotReserve() throws Exception {
+			HttpResponse<String> response = send("GET", "/quote?code=LADW&rentalDays=3&discountPercent=10&checkoutDate=2020-07-02");
+			assertEquals(200, response.statusCode());
+			assertEquals(LADW_QUOTE_JSON, response.body());
+			assertEquals(LADW_QUOTE_JSON, send("GET", "/quote?code=LADW&rentalDays=3&discountPercent=10&checkoutDate=7%2F2%2F20").body());
+			assertFalse(storage.getTool(Code.LADW).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Invalid Quotes")
+		void invalidQuotes() throws Exception {
+			HttpResponse<String> response = send("GET", "/quote?rentalDays=3&checkoutDate=2020-07-02");
+			assertEquals(400, response.statusCode());
+			assertEquals("{\"error\":\"A tool code must be passed in.\"}", response.body());
+
+			response = send("GET", "/quote?code=LADW&rentalDays=three&checkoutDate=2020-07-02");
+			assertEquals("{\"error\":\"The rentalDays and discountPercent must be whole numbers.\"}", response.body());
+
+			response = send("GET", "/quote?code=LADW&rentalDays=3&checkoutDate=2020-13-02");
+			assertEquals("{\"error\":\"Please provide a valid checkoutDate following the format yyyy-MM-dd or MM/dd/yy.\"}", response.body());
+
+			response = send("GET", "/quote?code=LADW&rentalDays=3&discountPercent=101&checkoutDate=2020-07-02");
+			assertEquals(400, response.statusCode());
+			assertEquals("{\"error\":\"An invalid argument was passed into the RentalAgreement constructor.\"}", response.body());
+
+			assertEquals(404, send("GET", "/quote?code=LADW-404&rentalDays=3&checkoutDate=2020-07-02").statusCode());
+		}
+	}
+
+	@Nested
+	@DisplayName("Checkout And Return Tests")
+	class CheckoutAndReturnTests {
+		@Test
+		@DisplayName("Checkout And Return")
+		void checkoutAndReturn() throws Exception {
+			HttpResponse<String> response = send("POST", "/checkout?code=LADW&rentalDays=3&discountPercent=10&checkoutDate=2020-07-02");
+			assertEquals(200, response.statusCode());
+			assertEquals(LADW_QUOTE_JSON, response.body());
+			assertTrue(storage.getTool(Code.LADW).isCheckedOut());
+
+			response = send("POST", "/checkout?code=LADW&rentalDays=3&discountPercent=10&checkoutDate=2020-07-02");
+			assertEquals(409, response.statusCode());
+			assertEquals("{\"error\":\"Sorry, that tool is currently checked out. Please try another code.\"}", response.body());
+
+			response = send("POST", "/return?code=LADW");
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"code\":\"LADW\",\"checkedOut\":false}", response.body());
+			assertFalse(storage.getTool(Code.LADW).isCheckedOut());
+
+			response = send("POST", "/return?code=LADW");
+			assertEquals(409, response.statusCode());
+			assertEquals("{\"error\":\"That tool is not checked out.\"}", response.body());
+		}
+
+		@Test
+		@DisplayName("Invalid Checkouts And Returns")
+		void invalidCheckoutsAndReturns() throws Exception {
+			assertEquals(404, send("POST", "/checkout?code=CHNS-404&rentalDays=3&checkoutDate=2020-07-02").statusCode());
+			assertEquals(400, send("POST", "/checkout?code=CHNS&rentalDays=0&checkoutDate=2020-07-02").statusCode());
+			assertFalse(storage.getTool(Code.CHNS).isCheckedOut());
+			assertEquals(400, send("POST", "/return").statusCode());
+			assertEquals(404, send("POST", "/return?code=CHNS-404").statusCode());
+		}
+
+		@Test
+		@DisplayName("Concurrent Checkouts Of One Tool")
+		void concurrentCheckoutsOfOneTool() throws Exception {
+			ExecutorService executor = Executors.newFixedThreadPool(16);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<Integer>> statuses = new ArrayList<Future<Integer>>();
+				for (int i = 0; i < 16; i++) {
+					statuses.add(executor.submit(() -> {
+						start.await();
+						return send("POST", "/checkout?code=JAKD&rentalDays=5&checkoutDate=2015-09-03").statusCode();
+					}));
+				}
+				start.countDown();
+
+				int checkedOut = 0, conflicts = 0;
+				for (Future<Integer> status : statuses) {
+					int code = status.get(30, TimeUnit.SECONDS);
+					checkedOut += (code == 200) ? 1 : 0;
+					conflicts += (code == 409) ? 1 : 0;
+				}
+				assertEquals(1, checkedOut);
+				assertEquals(15, conflicts);
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		@Test
+		@DisplayName("Concurrent Returns Of One Tool")
+		void concurrentReturnsOfOneTool() throws Exception {
+			storage.updateTool(Code.JAKD, Attribute.CHECKEDOUT, true);
+			ExecutorService executor = Executors.newFixedThreadPool(16);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<Integer>> statuses = new ArrayList<Future<Integer>>();
+				for (int i = 0; i < 16; i++) {
+					statuses.add(executor.submit(() -> {
+						start.await();
+						return send("POST", "/return?code=JAKD").statusCode();
+					}));
+				}
+				start.countDown();
+
+				int returned = 0, conflicts = 0;
+				for (Future<Integer> status : statuses) {
+					int code = status.get(30, TimeUnit.SECONDS);
+					returned += (code == 200) ? 1 : 0;
+					conflicts += (code == 409) ? 1 : 0;
+				}
+				assertEquals(1, returned);
+				assertEquals(15, conflicts);
+				assertFalse(storage.getTool(Code.JAKD).isCheckedOut());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	@Nested
+	@DisplayName("JSON And Query Tests")
+	class JsonAndQueryTests {
+		@Test
+		@DisplayName("Strings Are Escaped")
+		void stringsAreEscaped() {
+			StringBuilder json = new StringBuilder();
+			CheckoutHttpService.appendString(json, "a \"quoted\" \\ path\n\u0001");
+			assertEquals("\"a \\\"quoted\\\" \\\\ path\\u000a\\u0001\"", json.toString());
+		}
+
+		@Test
+		@DisplayName("Query Is Decoded")
+		void queryIsDecoded() {
+			Map<String, String> parameters = CheckoutHttpService.parseQuery("code=ladw-000001&checkoutDate=7%2F2%2F20&note=two+words&empty=&=ignored&flag");
+			assertEquals("ladw-000001", parameters.get("code"));
+			assertEquals("7/2/20", parameters.get("checkoutDate"));
+			assertEquals("two words", parameters.get("note"));
+			assertEquals("", parameters.get("empty"));
+			assertEquals(4, parameters.size());
+			assertEquals("LADW-000001", ToolId.normalize(parameters.get("code")));
+		}
+
+		@Test
+		@DisplayName("HTTP Mode Usage")
+		void httpModeUsage() {
+			Main.main(new String[] { "--http" });
+			Main.main(new String[] { "--http", "port" });
+			assertEquals("Usage: --http <port>\nUsage: --http <port>", outputTestStream.toString().trim().replace("\r", ""));
+		}
+	}
+}
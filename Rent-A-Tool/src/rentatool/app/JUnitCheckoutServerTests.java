@@ -0,0 +1,287 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the CheckoutServer class and the
+ * CheckoutLoadGenerator that drives it: running the checkout prompts for
+ * terminals connected over local TCP sockets, sharing one StorageSystem
+ * between many concurrent sessions, and ending sessions and the server.
+ *
+ * The TestSuite will use a @BeforeEach annotation to start a CheckoutServer
+ * backed by a ConcurrentHashMapStorage holding 100 serialized ladders and
+ * reassign standard output to a test output stream, and an @AfterEach to
+ * close the server and restore standard output.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("CheckoutServer Tests")
+class JUnitCheckoutServerTests {
+
+	static final int UNITS = 100;
+
+	ConcurrentHashMapStorage storage;
+	CheckoutServer server;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void startServerAndPrepSystemOut() throws IOException {
+		System.setOut(new PrintStream(outputTestStream));
+		storage = new ConcurrentHashMapStorage();
+		storage.addTools(CheckoutServer.serializedLadders(UNITS));
+		server = new CheckoutServer(storage, 0).start();
+	}
+
+	@AfterEach
+	void closeServerAndRestoreSystemOut() {
+		server.close();
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	// Reads everything the server sends until it disconnects the terminal
+	static String readUntilDisconnected(Socket socket) throws IOException {
+		return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+	}
+
+	// Sends the whole input of a session, then returns everything the server sent until the session ended
+	static String runSession(int port, String input) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			socket.getOutputStream().write(input.getBytes(StandardCharsets.UTF_8));
+			socket.shutdownOutput(); // the session ends once it has read all of the input
+			return readUntilDisconnected(socket);
+		}
+	}
+
+	@Test
+	@DisplayName("Invalid Constructor Arguments")
+	void invalidConstructorArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new CheckoutServer(null, 0));
+	}
+
+	@Test
+	@DisplayName("Serialized Ladders")
+	void serializedLadders() {
+		assertEquals(UNITS, CheckoutServer.serializedLadders(UNITS).size());
+		assertTrue(storage.getTool(ToolId.of("LADW-000100")) instanceof Ladder);
+		assertNull(storage.getTool(ToolId.of("LADW-000101")));
+	}
+
+	@Nested
+	@DisplayName("Session Tests")
+	class SessionTests {
+		@Test
+		@DisplayName("Checkout And Return")
+		void checkoutAndReturn() throws IOException {
+			try (CheckoutLoadGenerator.Terminal terminal = new CheckoutLoadGenerator.Terminal(server.getPort())) {
+				assertTrue(terminal.checkoutAndReturn("LADW-000001") > 0);
+				assertFalse(storage.getTool(ToolId.of("LADW-000001")).isCheckedOut());
+				assertTrue(terminal.checkoutAndReturn("LADW-000001") > 0);
+			}
+			assertEquals(1, server.getSessionCount());
+		}
+
+		@Test
+		@DisplayName("Full Session Transcript")
+		void fullSessionTranscript() throws IOException {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+				socket.getOutputStream().write("n\nJAKR\n4\n50\n7/2/20\nn\n".getBytes(StandardCharsets.UTF_8));
+				String transcript = readUntilDisconnected(socket);
+				assertTrue(transcript.startsWith("----------------------------    Rent-A-Tool Checkout   ------------------------------"));
+				assertTrue(transcript.contains("Tool was successfully checked out! Generating the rental agreement..."));
+				assertTrue(transcript.contains("Tool code: JAKR\nTool type: Jackhammer\nTool brand: Ridgid\nRental days: 4\n"));
+				assertTrue(transcript.endsWith("Thank you for using the Rent-A-Tool Checkout application!\n"));
+			}
+			assertTrue(storage.getTool(Code.JAKR).isCheckedOut());
+			assertEquals("", outputTestStream.toString().trim()); // nothing was printed on the server's console
+		}
+
+		@Test
+		@DisplayName("Only Checked Out Tools Are Returned")
+		void onlyCheckedOutToolsAreReturned() throws IOException {
+			RentalAgreement rentalAgreement = storage.checkout(Code.JAKD, 3, 0, LocalDate.of(2020, 7, 2));
+			assertNotNull(rentalAgreement);
+
+			String transcript = runSession(server.getPort(), "y\nJAKR\nJAKD\n");
+			assertTrue(transcript.contains("Tool code: That tool is not checked out. Please try another code.\nTool code: Thank you. Tool has been returned!"));
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+			assertFalse(storage.getTool(Code.JAKD).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Invalid Rental Days End The Session")
+		void invalidRentalDaysEndTheSession() throws IOException {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+				socket.getOutputStream().write("n\nCHNS\n0\n".getBytes(StandardCharsets.UTF_8));
+				String transcript = readUntilDisconnected(socket);
+				assertTrue(transcript.endsWith("Number of rental days must be greater than 0. Please restart the application and try again.\n\n"));
+			}
+			assertFalse(storage.getTool(Code.CHNS).isCheckedOut());
+
+			// The server keeps serving other terminals
+			try (CheckoutLoadGenerator.Terminal terminal = new CheckoutLoadGenerator.Terminal(server.getPort())) {
+				assertTrue(terminal.checkoutAndReturn("LADW-000002") > 0);
+			}
+		}
+
+		@Test
+		@DisplayName("Disconnected Terminal")
+		void disconnectedTerminal() throws Exception {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+				socket.getOutputStream().write("n\nLADW-000003\n".getBytes(StandardCharsets.UTF_8));
+				InputStream in = socket.getInputStream();
+				String received = "";
+				while (!received.contains("Rental day count: ")) {
+					byte[] buffer = new byte[1024];
+					int read = in.read(buffer);
+					assertTrue(read > 0);
+					received += new String(buffer, 0, read, StandardCharsets.UTF_8);
+				}
+			}
+
+			for (int i = 0; i < 100 && server.getConnectedTerminals() > 0; i++) {
+				Thread.sleep(20);
+			}
+			assertEquals(0, server.getConnectedTerminals());
+			assertFalse(storage.getTool(ToolId.of("LADW-000003")).isCheckedOut());
+			assertFalse(outputTestStream.toString().contains("ended unexpectedly"));
+		}
+	}
+
+	@Nested
+	@DisplayName("Concurrent Session Tests")
+	class ConcurrentSessionTests {
+		@Test
+		@DisplayName("Load Generator")
+		void loadGenerator() {
+			CheckoutLoadGenerator.Report report = CheckoutLoadGenerator.run(server.getPort(), UNITS, 5);
+			assertEquals(UNITS, report.getClerks());
+			assertEquals(0, report.getFailedClerks());
+			assertEquals(UNITS * 5, report.getCheckouts());
+			assertTrue(report.getLatencyMillis(0.5) <= report.getLatencyMillis(0.99));
+			assertTrue(report.toString().startsWith(String.format("%d clerks (0 failed) completed %d checkouts in ", UNITS, UNITS * 5)));
+			assertEquals(UNITS, server.getSessionCount());
+			for (Tool ladder : CheckoutServer.serializedLadders(UNITS)) {
+				assertFalse(storage.getTool(ladder.getId()).isCheckedOut());
+			}
+		}
+
+		@Test
+		@DisplayName("Return And Checkout Of One Unit At Once")
+		void returnAndCheckoutOfOneUnitAtOnce() throws Exception {
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				for (int i = 1; i <= 40; i++) {
+					String code = String.format("LADW-%06d", i);
+					CountDownLatch start = new CountDownLatch(1);
+					// One terminal "returns" the available unit while another checks it out
+					Future<String> returning = executor.submit(() -> {
+						start.await();
+						return runSession(server.getPort(), "y\n" + code + "\n");
+					});
+					Future<String> checkingOut = executor.submit(() -> {
+						start.await();
+						return runSession(server.getPort(), "n\n" + code + "\n3\n10\n7/2/20\nn\n");
+					});
+					start.countDown();
+
+					boolean returned = returning.get(30, TimeUnit.SECONDS).contains("Tool has been returned!");
+					assertTrue(checkingOut.get(30, TimeUnit.SECONDS).contains("Tool was successfully checked out!"));
+
+					// A return only succeeds after the checkout, and then it is the return that is kept
+					assertEquals(!returned, storage.getTool(ToolId.of(code)).isCheckedOut(), code);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		@Test
+		@DisplayName("Missing Units Fail Their Clerks")
+		void missingUnitsFailTheirClerks() {
+			storage.removeTool(ToolId.of("LADW-000002"));
+			CheckoutLoadGenerator.Report report = CheckoutLoadGenerator.run(server.getPort(), 3, 2);
+			assertEquals(1, report.getFailedClerks());
+			assertEquals(4, report.getCheckouts());
+		}
+
+		@Test
+		@DisplayName("Caller-Owned Executor")
+		void callerOwnedExecutor() throws IOException {
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			try {
+				CheckoutServer pooledServer = new CheckoutServer(storage, 0, executor).start();
+				try {
+					assertEquals(0, CheckoutLoadGenerator.run(pooledServer.getPort(), 4, 3).getFailedClerks());
+				} finally {
+					pooledServer.close();
+				}
+				assertTrue(pooledServer.isClosed());
+				assertFalse(executor.isShutdown());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	@Nested
+	@DisplayName("Close Tests")
+	class CloseTests {
+		@Test
+		@DisplayName("Close Disconnects Terminals")
+		void closeDisconnectsTerminals() throws Exception {
+			try (CheckoutLoadGenerator.Terminal terminal = new CheckoutLoadGenerator.Terminal(server.getPort())) {
+				assertTrue(terminal.checkoutAndReturn("LADW-000004") > 0);
+				assertEquals(1, server.getConnectedTerminals());
+				server.close();
+				assertTrue(server.isClosed());
+				assertThrows(IOException.class, () -> terminal.checkoutAndReturn("LADW-000004")); // disconnected while waiting for the next prompt
+			}
+		}
+
+		@Test
+		@DisplayName("Server Mode Usage")
+		void serverModeUsage() {
+			Main.main(new String[] { "--server", "abc" });
+			Main.main(new String[] { "--server", "0", "--units" });
+			assertEquals("Usage: --server <port> [--units <count>]\nUsage: --server <port> [--units <count>]", outputTestStream.toString().trim().replace("\r", ""));
+		}
+
+		@Test
+		@DisplayName("Load Generator Usage")
+		void loadGeneratorUsage() {
+			CheckoutLoadGenerator.main(new String[] { "--clerks", "10" });
+			CheckoutLoadGenerator.main(new String[] { "--port", "80", "--clerks" });
+			assertEquals("Usage: --port <port> [--clerks <count>] [--checkouts <count per clerk>]\nUsage: --port <port> [--clerks <count>] [--checkouts <count per clerk>]",
+					outputTestStream.toString().trim().replace("\r", ""));
+		}
+	}
+}
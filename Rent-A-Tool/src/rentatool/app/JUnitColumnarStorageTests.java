@@ -0,0 +1,321 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+import rentatool.rental_items.ToolEnums.Type;
+
+/**
+ * This TestSuite contains tests for the ColumnarStorage class. Besides the
+ * CRUD operations on the default tools, a randomized differential test runs
+ * the same operations on a ColumnarStorage and a HashMapStorage and checks
+ * that both always hold the same tools.
+ *
+ * The TestSuite will use a @BeforeEach annotation to create a new
+ * ColumnarStorage and reassign standard output to a test output stream,
+ * and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("ColumnarStorage Tests")
+class JUnitColumnarStorageTests {
+
+	ColumnarStorage storage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepStorageAndSystemOut() {
+		storage = new ColumnarStorage();
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	static Tool unit(int serial) {
+		ToolId id = ToolId.of(String.format("COL-%07d", serial));
+		if (serial % 3 == 0) {
+			return new Chainsaw(id, Brand.STIHL, 1.49f + (serial % 50) / 100f);
+		} else if (serial % 3 == 1) {
+			return new Ladder(id, Brand.WERNER);
+		}
+		return new Jackhammer(id, Brand.values()[serial % Brand.values().length], 2.99f, true, serial % 2 == 0, false, serial % 5 == 0);
+	}
+
+	@Test
+	@DisplayName("Default Storage Created")
+	void defaultStorageCreated() {
+		HashMapStorage hashMapStorage = new HashMapStorage();
+		for (Code code : Code.values()) {
+			assertEquals(hashMapStorage.getTool(code), storage.getTool(code));
+		}
+		assertEquals(4, storage.size());
+		assertEquals(4, storage.countAvailable());
+	}
+
+	@Nested
+	@DisplayName("CRUD Tests")
+	class CrudTests {
+		@Test
+		@DisplayName("Null Arguments")
+		void nullArguments() {
+			storage.addTool(null);
+			assertNull(storage.getTool((Code) null));
+			storage.removeTool((Code) null);
+			storage.updateTool((Code) null, Attribute.CHECKEDOUT, true);
+			assertNull(storage.checkout((Code) null, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("The passed-in Tool object was null. No tool was added to the storage system.\n"
+					+ "The passed-in Code was null. No Tool could be retrieved.\n"
+					+ "The passed-in Code was null. No tool was removed from the storage system.\n"
+					+ "A passed-in parameter was null. Please pass in non-null parameters.\n"
+					+ "The passed-in Code was null. No tool was checked out.", outputTestStream.toString().trim().replace("\r", ""));
+		}
+
+		@Test
+		@DisplayName("Existent And Non-Existent Tools")
+		void existentAndNonExistentTools() {
+			storage.addTool(new Chainsaw(Code.CHNS, Brand.STIHL));
+			assertEquals("A tool with code CHNS already exists.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+
+			storage.removeTool(Code.LADW);
+			assertNull(storage.getTool(Code.LADW));
+			storage.removeTool(Code.LADW);
+			storage.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+			assertNull(storage.checkout(Code.LADW, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("No Tool with code LADW was found. Nothing to return.\n"
+					+ "No Tool with code LADW was found. Nothing to remove.\n"
+					+ "No Tool with code LADW was found. Nothing to update.\n"
+					+ "No Tool with code LADW was found. Nothing to check out.", outputTestStream.toString().trim().replace("\r", ""));
+		}
+
+		@Test
+		@DisplayName("Returned Tools Are Not Stored")
+		void returnedToolsAreNotStored() {
+			Tool tool = storage.getTool(Code.JAKR);
+			tool.setCheckedOut(true);
+			assertNotSame(tool, storage.getTool(Code.JAKR));
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Update Every Attribute")
+		void updateEveryAttribute() {
+			storage.updateTool(Code.CHNS, Attribute.TYPE, Type.LADDER);
+			storage.updateTool(Code.CHNS, Attribute.BRAND, Brand.RIDGID);
+			storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 12.34f);
+			storage.updateTool(Code.CHNS, Attribute.CHARGEONWEEKDAYS, false);
+			storage.updateTool(Code.CHNS, Attribute.CHARGEONWEEKENDS, true);
+			storage.updateTool(Code.CHNS, Attribute.CHARGEONHOLIDAYS, false);
+			storage.updateTool(Code.CHNS, Attribute.CHECKEDOUT, true);
+			storage.updateTool(Code.CHNS, Attribute.CODE, ToolId.of("CHNS-0001"));
+
+			Tool expected = new Chainsaw(ToolId.of("CHNS-0001"), Brand.RIDGID, 12.34f, false, true, false, true);
+			expected.setType(Type.LADDER);
+			assertEquals(expected, storage.getTool(ToolId.of("CHNS-0001")));
+			assertNull(storage.getTool(Code.CHNS));
+			assertEquals(3, storage.countAvailable());
+		}
+
+		@Test
+		@DisplayName("Invalid Updates")
+		void invalidUpdates() {
+			storage.updateTool(Code.CHNS, Attribute.CODE, Code.JAKR);
+			storage.updateTool(Code.CHNS, Attribute.TYPE, Brand.STIHL);
+			storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 1.0);
+			storage.updateTool(Code.CHNS, Attribute.CHECKEDOUT, "true");
+			assertEquals("Invalid Code value passed in. Not updating tool.\n"
+					+ "Invalid Type value passed in. Not updating tool.\n"
+					+ "Invalid Float value passed in. Not updating tool.\n"
+					+ "Invalid Boolean value passed in. Not updating tool.", outputTestStream.toString().trim().replace("\r", ""));
+			assertEquals(new Chainsaw(Code.CHNS, Brand.STIHL), storage.getTool(Code.CHNS));
+		}
+
+		@Test
+		@DisplayName("Daily Charge Stored Exactly")
+		void dailyChargeStoredExactly() {
+			storage.updateTool(Code.JAKD, Attribute.DAILYCHARGE, 1.49f + 0.18f);
+			assertEquals(1.49f + 0.18f, storage.getTool(Code.JAKD).getDailyCharge());
+		}
+
+		@Test
+		@DisplayName("Removal Moves The Last Row")
+		void removalMovesTheLastRow() {
+			storage.removeTool(Code.CHNS); // the first row, replaced by the last one (JAKR)
+			assertEquals(3, storage.size());
+			assertNull(storage.getTool(Code.CHNS));
+			assertEquals(new Jackhammer(Code.JAKR, Brand.RIDGID), storage.getTool(Code.JAKR));
+			assertEquals(new Ladder(Code.LADW, Brand.WERNER), storage.getTool(Code.LADW));
+		}
+	}
+
+	@Nested
+	@DisplayName("Checkout Tests")
+	class CheckoutTests {
+		@Test
+		@DisplayName("Checkout Happy Path")
+		void checkoutHappyPath() {
+			RentalAgreement rentalAgreement = storage.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2));
+			RentalAgreement expected = new HashMapStorage().checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2));
+			assertEquals(expected.formatRentalAgreement(), rentalAgreement.formatRentalAgreement());
+			assertTrue(storage.getTool(Code.JAKR).isCheckedOut());
+			assertEquals(3, storage.countAvailable());
+
+			assertNull(storage.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2)));
+			assertEquals("The tool with code JAKR is already checked out.", outputTestStream.toString().trim());
+		}
+
+		@Test
+		@DisplayName("Invalid Arguments Leave Tool Available")
+		void invalidArgumentsLeaveToolAvailable() {
+			assertThrows(InvalidCheckoutArgumentException.class, () -> storage.checkout(Code.JAKR, 5, 101, LocalDate.of(2015, 9, 3)));
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+		}
+	}
+
+	@Nested
+	@DisplayName("Large Inventory Tests")
+	class LargeInventoryTests {
+		@Test
+		@DisplayName("Same Tools As HashMapStorage")
+		void sameToolsAsHashMapStorage() {
+			HashMapStorage expected = new HashMapStorage();
+			List<Tool> units = new ArrayList<Tool>();
+			for (int serial = 0; serial < 20000; serial++) {
+				units.add(unit(serial));
+			}
+			storage.addTools(units);
+			for (Tool unit : units) {
+				expected.addTool(Tool.copyOf(unit)); // HashMapStorage keeps the passed-in Tools and changes them on updates
+			}
+
+			// Random removals, re-adds, renames, checkouts and returns
+			Random random = new Random(7);
+			for (int i = 0; i < 50000; i++) {
+				Tool tool = units.get(random.nextInt(units.size()));
+				ToolId id = tool.getId();
+				switch (random.nextInt(5)) {
+				case 0:
+					storage.removeTool(id);
+					expected.removeTool(id);
+					break;
+				case 1:
+					storage.addTool(Tool.copyOf(tool));
+					expected.addTool(Tool.copyOf(tool));
+					break;
+				case 2:
+					boolean isCheckedOut = random.nextBoolean();
+					storage.updateTool(id, Attribute.CHECKEDOUT, isCheckedOut);
+					expected.updateTool(id, Attribute.CHECKEDOUT, isCheckedOut);
+					break;
+				case 3:
+					RentalAgreement actualAgreement = storage.checkout(id, 5, 10, LocalDate.of(2015, 9, 3));
+					RentalAgreement expectedAgreement = expected.checkout(id, 5, 10, LocalDate.of(2015, 9, 3));
+					assertEquals(expectedAgreement == null, actualAgreement == null);
+					break;
+				default:
+					ToolId newId = ToolId.of(id.getName() + "-R");
+					storage.updateTool(id, Attribute.CODE, newId);
+					expected.updateTool(id, Attribute.CODE, newId);
+					storage.removeTool(newId);
+					expected.removeTool(newId);
+				}
+			}
+
+			int available = 0;
+			for (Tool unit : units) {
+				Tool expectedTool = expected.getTool(unit.getId());
+				assertEquals(expectedTool, storage.getTool(unit.getId()));
+				if (expectedTool != null && !expectedTool.isCheckedOut()) {
+					available++;
+				}
+			}
+			for (Code code : Code.values()) {
+				available += expected.getTool(code).isCheckedOut() ? 0 : 1;
+			}
+			assertEquals(available, storage.countAvailable());
+		}
+
+		@Test
+		@DisplayName("Print Matches HashMapStorage")
+		void printMatchesHashMapStorage() {
+			HashMapStorage expected = new HashMapStorage();
+			for (int serial = 0; serial < 100; serial++) {
+				storage.addTool(unit(serial));
+				expected.addTool(unit(serial));
+			}
+			storage.updateTool(Code.CHNS, Attribute.TYPE, Type.LADDER);
+			expected.updateTool(Code.CHNS, Attribute.TYPE, Type.LADDER);
+			outputTestStream.reset();
+
+			expected.printStoredTools();
+			String expectedOutput = outputTestStream.toString();
+			outputTestStream.reset();
+			storage.printStoredTools();
+			assertEquals(expectedOutput, outputTestStream.toString());
+		}
+
+		@Test
+		@DisplayName("Find Available Matches HashMapStorage")
+		void findAvailableMatchesHashMapStorage() {
+			HashMapStorage expected = new HashMapStorage();
+			Random random = new Random(23);
+			for (int serial = 0; serial < 20000; serial++) {
+				Tool unit = unit(serial);
+				unit.setCheckedOut(random.nextInt(3) == 0);
+				storage.addTool(Tool.copyOf(unit));
+				expected.addTool(Tool.copyOf(unit));
+			}
+			for (int i = 0; i < 2000; i++) {
+				ToolId id = unit(random.nextInt(20000)).getId();
+				Type type = Type.values()[random.nextInt(Type.values().length)];
+				storage.updateTool(id, Attribute.TYPE, type);
+				expected.updateTool(id, Attribute.TYPE, type);
+				ToolId removed = unit(random.nextInt(20000)).getId();
+				storage.removeTool(removed);
+				expected.removeTool(removed);
+			}
+
+			for (Type type : new Type[] { null, Type.CHAINSAW, Type.LADDER, Type.JACKHAMMER }) {
+				for (Brand brand : new Brand[] { null, Brand.STIHL, Brand.WERNER, Brand.DEWALT, Brand.RIDGID }) {
+					assertEquals(availableTools(expected, type, brand), availableTools(storage, type, brand));
+				}
+			}
+		}
+
+		// The available tools of the passed-in type and brand, sorted by code
+		private List<Tool> availableTools(StorageSystem storageSystem, Type type, Brand brand) {
+			try (Stream<Tool> tools = storageSystem.findAvailable(type, brand)) {
+				return tools.sorted((first, second) -> first.getId().compareTo(second.getId())).collect(Collectors.toList());
+			}
+		}
+	}
+}
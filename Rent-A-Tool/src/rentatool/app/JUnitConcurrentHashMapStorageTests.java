@@ -0,0 +1,236 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the ConcurrentHashMapStorage class.
+ * The single-threaded behavior is shared with HashMapStorage, so only the
+ * differences are tested here. The nested "Stress Tests" class hammers one
+ * shared storage from many threads and checks that no Tool is ever rented
+ * by two threads at once.
+ *
+ * The TestSuite will use a @BeforeEach annotation to initialize a new
+ * StorageSystem instance per test case and to reassign standard output
+ * to a test output stream, and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("ConcurrentHashMapStorage Tests")
+class JUnitConcurrentHashMapStorageTests {
+
+	static final int THREADS = 48;
+	static final int OPERATIONS_PER_THREAD = 20000;
+
+	ConcurrentHashMapStorage storage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepStorageAndSystemOut() {
+		storage = new ConcurrentHashMapStorage();
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	@Nested
+	@DisplayName("Single Thread Tests")
+	class SingleThreadTests {
+		@Test
+		@DisplayName("Default Storage Created")
+		void defaultStorageCreated() {
+			for (Code code : Code.values()) {
+				assertNotNull(storage.getTool(code));
+			}
+		}
+
+		@Test
+		@DisplayName("Checkout And Return")
+		void checkoutAndReturn() {
+			assertTrue(storage.checkoutTool(Code.JAKR));
+			assertTrue(storage.getTool(Code.JAKR).isCheckedOut());
+			assertFalse(storage.checkoutTool(Code.JAKR));
+			assertTrue(storage.returnTool(Code.JAKR));
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+			assertFalse(storage.returnTool(Code.JAKR));
+		}
+
+		@Test
+		@DisplayName("Checkout Missing Tool")
+		void checkoutMissingTool() {
+			storage.removeTool(Code.LADW);
+			assertFalse(storage.checkoutTool(Code.LADW));
+			assertFalse(storage.checkoutTool((Code) null));
+		}
+
+		@Test
+		@DisplayName("Returned Tool Is A Copy")
+		void returnedToolIsACopy() {
+			Tool tool = storage.getTool(Code.CHNS);
+			tool.setCheckedOut(true);
+			assertFalse(storage.getTool(Code.CHNS).isCheckedOut());
+			assertEquals(tool.getClass(), storage.getTool(Code.CHNS).getClass());
+		}
+
+		@Test
+		@DisplayName("Add Existing Tool")
+		void addExistingTool() {
+			storage.addTool(new Jackhammer(Code.JAKD, Brand.RIDGID));
+			assertEquals("A tool with code JAKD already exists.", outputTestStream.toString().trim());
+			assertEquals(Brand.DEWALT, storage.getTool(Code.JAKD).getBrand());
+		}
+
+		@Test
+		@DisplayName("Update Code")
+		void updateCode() {
+			storage.removeTool(Code.JAKR);
+			storage.updateTool(Code.JAKD, Attribute.CODE, Code.JAKR);
+			assertNotNull(storage.getTool(Code.JAKR));
+			outputTestStream.reset();
+			assertNull(storage.getTool(Code.JAKD));
+			assertEquals("No Tool with code JAKD was found. Nothing to return.", outputTestStream.toString().trim());
+		}
+
+		@Test
+		@DisplayName("Update Checked Out")
+		void updateCheckedOut() {
+			storage.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+			assertFalse(storage.checkoutTool(Code.LADW));
+			storage.updateTool(Code.LADW, Attribute.CHECKEDOUT, false);
+			assertTrue(storage.checkoutTool(Code.LADW));
+		}
+	}
+
+	@Nested
+	@DisplayName("Stress Tests")
+	class StressTests {
+		// Runs the task on THREADS threads that all start at the same moment, and returns their results
+		<T> List<T> runConcurrently(Callable<T> task) throws Exception {
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<T>> futures = new ArrayList<Future<T>>();
+				for (int i = 0; i < THREADS; i++) {
+					futures.add(executor.submit(() -> {
+						start.await();
+						return task.call();
+					}));
+				}
+				start.countDown();
+
+				List<T> results = new ArrayList<T>();
+				for (Future<T> future : futures) {
+					results.add(future.get(60, TimeUnit.SECONDS));
+				}
+				return results;
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		@Test
+		@DisplayName("No Tool Is Rented Twice")
+		void noToolIsRentedTwice() throws Exception {
+			Code[] codes = Code.values();
+			AtomicIntegerArray renters = new AtomicIntegerArray(codes.length); // threads currently holding each tool
+			AtomicInteger doubleRentals = new AtomicInteger();
+
+			List<Integer> checkouts = runConcurrently(() -> {
+				int successfulCheckouts = 0;
+				for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+					int index = ThreadLocalRandom.current().nextInt(codes.length);
+					if (storage.checkoutTool(codes[index])) {
+						successfulCheckouts++;
+						if (renters.incrementAndGet(index) != 1) {
+							doubleRentals.incrementAndGet();
+						}
+						renters.decrementAndGet(index);
+						assertTrue(storage.returnTool(codes[index]), "Only the renter should be able to return the tool");
+					}
+				}
+				return successfulCheckouts;
+			});
+
+			assertEquals(0, doubleRentals.get());
+			assertTrue(checkouts.stream().mapToInt(Integer::intValue).sum() > 0);
+			for (Code code : codes) {
+				assertFalse(storage.getTool(code).isCheckedOut());
+			}
+		}
+
+		@Test
+		@DisplayName("Exactly One Checkout Wins")
+		void exactlyOneCheckoutWins() throws Exception {
+			for (int round = 0; round < 200; round++) {
+				List<Boolean> results = runConcurrently(() -> storage.checkoutTool(Code.CHNS));
+				assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+				assertTrue(storage.returnTool(Code.CHNS));
+			}
+		}
+
+		@Test
+		@DisplayName("Exactly One Rental Agreement Per Tool")
+		void exactlyOneRentalAgreementPerTool() throws Exception {
+			for (int round = 0; round < 200; round++) {
+				List<RentalAgreement> results = runConcurrently(() -> storage.checkout(Code.JAKD, 5, 0, LocalDate.of(2015, 9, 3)));
+				assertEquals(1, results.stream().filter(Objects::nonNull).count());
+				assertTrue(storage.returnTool(Code.JAKD));
+			}
+		}
+
+		@Test
+		@DisplayName("Concurrent Add And Remove")
+		void concurrentAddAndRemove() throws Exception {
+			Tool jackhammer = new Jackhammer(Code.JAKR, Brand.RIDGID);
+			runConcurrently(() -> {
+				for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+					storage.removeTool(Code.JAKR);
+					storage.addTool(jackhammer);
+					storage.checkoutTool(Code.JAKR);
+				}
+				return null;
+			});
+
+			// Whatever the interleaving, the storage must still hold a consistent JAKR tool or none at all
+			Tool tool = storage.getTool(Code.JAKR);
+			if (tool != null) {
+				assertEquals(Code.JAKR, tool.getCode());
+				assertEquals(Brand.RIDGID, tool.getBrand());
+			}
+		}
+	}
+}
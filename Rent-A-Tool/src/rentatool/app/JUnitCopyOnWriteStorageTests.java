@@ -0,0 +1,411 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.ImmutableTool;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+import rentatool.rental_items.ToolEnums.Type;
+
+/**
+ * This TestSuite contains tests for the ImmutableTool and CopyOnWriteStorage classes.
+ * The single-threaded behavior of CopyOnWriteStorage is shared with HashMapStorage, so
+ * the nested "Single Thread Tests" class compares the two. The nested "Stress Tests"
+ * class hammers one shared storage from many threads and checks that no Tool is ever
+ * rented twice and that no reader ever sees half of an update.
+ *
+ * The TestSuite will use a @BeforeEach annotation to initialize a new
+ * StorageSystem instance per test case and to reassign standard output
+ * to a test output stream, and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("CopyOnWriteStorage Tests")
+class JUnitCopyOnWriteStorageTests {
+
+	static final int THREADS = 48;
+	static final int OPERATIONS_PER_THREAD = 20000;
+
+	CopyOnWriteStorage storage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepStorageAndSystemOut() {
+		storage = new CopyOnWriteStorage();
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	@Nested
+	@DisplayName("ImmutableTool Tests")
+	class ImmutableToolTests {
+		@Test
+		@DisplayName("Round Trip")
+		void roundTrip() {
+			Tool[] tools = {
+					new Chainsaw(Code.CHNS, Brand.STIHL),
+					new Ladder(Code.LADW, Brand.WERNER, 2.5f, false, true, false, true),
+					new Jackhammer(ToolId.of("JAKX-000042"), Brand.RIDGID, 3.99f, true, false, true, false)
+			};
+			for (Tool tool : tools) {
+				ImmutableTool immutableTool = ImmutableTool.of(tool);
+				assertEquals(tool, immutableTool.toTool());
+				assertEquals(tool.toString(), immutableTool.toString());
+				assertSame(tool.getId(), immutableTool.getId());
+				assertEquals(tool.getCode(), immutableTool.getCode());
+			}
+		}
+
+		@Test
+		@DisplayName("Updated Type Keeps The Tool Class")
+		void updatedTypeKeepsTheToolClass() {
+			ImmutableTool ladder = ImmutableTool.of(new Ladder(Code.LADW, Brand.WERNER)).withType(Type.JACKHAMMER);
+			Tool tool = ladder.toTool();
+			assertEquals(Ladder.class, tool.getClass());
+			assertEquals(Type.JACKHAMMER, tool.getType());
+		}
+
+		@Test
+		@DisplayName("With Methods Return New Tools")
+		void withMethodsReturnNewTools() {
+			ImmutableTool chainsaw = ImmutableTool.of(new Chainsaw(Code.CHNS, Brand.STIHL));
+			ImmutableTool updated = chainsaw.withBrand(Brand.RIDGID).withDailyCharge(9.5f)
+					.withChargeOnWeekdays(false).withChargeOnHolidays(true).withCheckedOut(true);
+
+			assertEquals(Brand.STIHL, chainsaw.getBrand());
+			assertFalse(chainsaw.isCheckedOut());
+			assertEquals(Brand.RIDGID, updated.getBrand());
+			assertEquals(Type.CHAINSAW, updated.getType());
+			assertEquals(9.5f, updated.getDailyCharge());
+			assertFalse(updated.isChargeOnWeekdays());
+			assertEquals(chainsaw.isChargeOnWeekends(), updated.isChargeOnWeekends());
+			assertTrue(updated.isChargeOnHolidays());
+			assertTrue(updated.isCheckedOut());
+			assertEquals(updated, ImmutableTool.of(updated.toTool()));
+		}
+
+		@Test
+		@DisplayName("Unchanged Values Return The Same Tool")
+		void unchangedValuesReturnTheSameTool() {
+			ImmutableTool jackhammer = ImmutableTool.of(new Jackhammer(Code.JAKD, Brand.DEWALT));
+			assertSame(jackhammer, jackhammer.withId(ToolId.of(Code.JAKD)));
+			assertSame(jackhammer, jackhammer.withType(Type.JACKHAMMER));
+			assertSame(jackhammer, jackhammer.withBrand(Brand.DEWALT));
+			assertSame(jackhammer, jackhammer.withDailyCharge(jackhammer.getDailyCharge()));
+			assertSame(jackhammer, jackhammer.withCheckedOut(false));
+			assertNotSame(jackhammer, jackhammer.withCheckedOut(true));
+		}
+
+		@Test
+		@DisplayName("Equality")
+		void equality() {
+			ImmutableTool jakd = ImmutableTool.of(new Jackhammer(Code.JAKD, Brand.DEWALT));
+			assertEquals(jakd, ImmutableTool.of(new Jackhammer(Code.JAKD, Brand.DEWALT)));
+			assertEquals(jakd.hashCode(), ImmutableTool.of(new Jackhammer(Code.JAKD, Brand.DEWALT)).hashCode());
+			assertNotEquals(jakd, jakd.withId(ToolId.of(Code.JAKR)));
+			assertNotEquals(jakd, ImmutableTool.of(new Ladder(Code.JAKD, Brand.DEWALT)).withType(Type.JACKHAMMER));
+		}
+
+		@Test
+		@DisplayName("Other Tool Classes Are Rejected")
+		void otherToolClassesAreRejected() {
+			class RopeLadder extends Tool {
+				RopeLadder() {
+					super(ToolId.of("LADW-000001"), Type.LADDER, Brand.WERNER, 1.99f, true, true, false, false);
+				}
+			}
+			Tool tool = new RopeLadder();
+			assertThrows(IllegalArgumentException.class, () -> ImmutableTool.of(tool));
+			storage.addTool(tool);
+			assertEquals(4, storage.size());
+			assertEquals("A tool of class RopeLadder can not be stored. No tool was added to the storage system.", outputTestStream.toString().trim());
+		}
+	}
+
+	@Nested
+	@DisplayName("Single Thread Tests")
+	class SingleThreadTests {
+		// Applies the same calls to a HashMapStorage and checks that both storages print the same warnings and hold the same tools
+		void assertSameAsHashMapStorage(Consumer<StorageSystem> calls) {
+			calls.accept(storage);
+			String warnings = outputTestStream.toString();
+			outputTestStream.reset();
+
+			HashMapStorage expected = new HashMapStorage();
+			calls.accept(expected);
+			assertEquals(outputTestStream.toString(), warnings);
+			assertEquals(expected.streamTools().collect(Collectors.toList()), storage.streamTools().collect(Collectors.toList()));
+		}
+
+		@Test
+		@DisplayName("Default Storage Created")
+		void defaultStorageCreated() {
+			assertSameAsHashMapStorage(storage -> {});
+			assertEquals(4, storage.size());
+		}
+
+		@Test
+		@DisplayName("Same As HashMapStorage")
+		void sameAsHashMapStorage() {
+			assertSameAsHashMapStorage(storage -> {
+				storage.addTool(new Ladder(Code.LADW, Brand.RIDGID));
+				storage.addTool(null);
+				storage.addTool(new Ladder(ToolId.of("LADX-000001"), Brand.RIDGID, 1.5f));
+				storage.updateTool(Code.CHNS, Attribute.BRAND, Brand.RIDGID);
+				storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 4.25f);
+				storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 4);
+				storage.updateTool(Code.LADW, Attribute.TYPE, Type.JACKHAMMER);
+				storage.updateTool(Code.LADW, Attribute.CHARGEONWEEKENDS, false);
+				storage.updateTool(Code.JAKD, Attribute.CHARGEONHOLIDAYS, true);
+				storage.updateTool(Code.JAKD, Attribute.CHARGEONWEEKDAYS, "No");
+				storage.updateTool(Code.JAKR, Attribute.CODE, Code.JAKD);
+				storage.updateTool(Code.JAKR, Attribute.CODE, Code.JAKR);
+				storage.updateTool(Code.JAKR, Attribute.CODE, "JAKR-000007");
+				storage.updateTool(Code.JAKR, Attribute.BRAND, Brand.STIHL);
+				storage.updateTool(Code.CHNS, null, Brand.STIHL);
+				storage.removeTool(Code.LADW);
+				storage.removeTool(Code.LADW);
+				storage.checkout(Code.JAKD, 5, 10, LocalDate.of(2015, 9, 3));
+				storage.checkout(Code.JAKD, 5, 10, LocalDate.of(2015, 9, 3));
+				storage.checkout(Code.LADW, 5, 10, LocalDate.of(2015, 9, 3));
+				storage.getTool(Code.LADW);
+			});
+		}
+
+		@Test
+		@DisplayName("Stored Tool Is Shared And Never Changed")
+		void storedToolIsSharedAndNeverChanged() {
+			ImmutableTool chainsaw = storage.getImmutableTool(Code.CHNS);
+			assertSame(chainsaw, storage.getImmutableTool(Code.CHNS));
+			assertSame(chainsaw, storage.streamImmutableTools().filter(tool -> tool.getCode() == Code.CHNS).findFirst().get());
+
+			storage.updateTool(Code.CHNS, Attribute.BRAND, Brand.DEWALT);
+			assertTrue(storage.checkoutTool(Code.CHNS));
+			assertEquals(Brand.STIHL, chainsaw.getBrand());
+			assertFalse(chainsaw.isCheckedOut());
+			assertEquals(Brand.DEWALT, storage.getImmutableTool(Code.CHNS).getBrand());
+			assertTrue(storage.getImmutableTool(Code.CHNS).isCheckedOut());
+
+			storage.updateTool(Code.LADW, Attribute.BRAND, Brand.WERNER); // unchanged: the stored tool is kept
+			ImmutableTool ladder = storage.getImmutableTool(Code.LADW);
+			storage.updateTool(Code.LADW, Attribute.BRAND, Brand.WERNER);
+			assertSame(ladder, storage.getImmutableTool(Code.LADW));
+		}
+
+		@Test
+		@DisplayName("Returned Tool Is A Copy")
+		void returnedToolIsACopy() {
+			Tool tool = storage.getTool(Code.CHNS);
+			tool.setCheckedOut(true);
+			assertFalse(storage.getTool(Code.CHNS).isCheckedOut());
+			assertEquals(Chainsaw.class, storage.getTool(Code.CHNS).getClass());
+		}
+
+		@Test
+		@DisplayName("Checkout And Return")
+		void checkoutAndReturn() {
+			assertTrue(storage.checkoutTool(Code.JAKR));
+			assertTrue(storage.getTool(Code.JAKR).isCheckedOut());
+			assertFalse(storage.checkoutTool(Code.JAKR));
+			assertTrue(storage.returnTool(Code.JAKR));
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+			assertFalse(storage.returnTool(Code.JAKR));
+			assertFalse(storage.checkoutTool((Code) null));
+		}
+
+		@Test
+		@DisplayName("Find Available")
+		void findAvailable() {
+			storage.checkoutTool(Code.JAKD);
+			List<Code> available = storage.findAvailable(Type.JACKHAMMER, null).map(Tool::getCode).collect(Collectors.toList());
+			assertEquals(List.of(Code.JAKR), available);
+			assertEquals(3, storage.findAvailable(null, null).count());
+		}
+
+		@Test
+		@DisplayName("Get Null Immutable Tool")
+		void getNullImmutableTool() {
+			assertNull(storage.getImmutableTool((ToolId) null));
+			assertEquals("The passed-in Code was null. No Tool could be retrieved.", outputTestStream.toString().trim());
+		}
+	}
+
+	@Nested
+	@DisplayName("Stress Tests")
+	class StressTests {
+		// Runs the task on THREADS threads that all start at the same moment, and returns their results
+		<T> List<T> runConcurrently(Callable<T> task) throws Exception {
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<T>> futures = new ArrayList<Future<T>>();
+				for (int i = 0; i < THREADS; i++) {
+					futures.add(executor.submit(() -> {
+						start.await();
+						return task.call();
+					}));
+				}
+				start.countDown();
+
+				List<T> results = new ArrayList<T>();
+				for (Future<T> future : futures) {
+					results.add(future.get(60, TimeUnit.SECONDS));
+				}
+				return results;
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		@Test
+		@DisplayName("Exactly One Checkout Wins")
+		void exactlyOneCheckoutWins() throws Exception {
+			for (int round = 0; round < 200; round++) {
+				List<Boolean> results = runConcurrently(() -> storage.checkoutTool(Code.CHNS));
+				assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+				assertTrue(storage.returnTool(Code.CHNS));
+			}
+		}
+
+		@Test
+		@DisplayName("Exactly One Rental Agreement Per Tool")
+		void exactlyOneRentalAgreementPerTool() throws Exception {
+			for (int round = 0; round < 200; round++) {
+				List<RentalAgreement> results = runConcurrently(() -> storage.checkout(Code.JAKD, 5, 0, LocalDate.of(2015, 9, 3)));
+				assertEquals(1, results.stream().filter(Objects::nonNull).count());
+				assertTrue(storage.returnTool(Code.JAKD));
+			}
+		}
+
+		@Test
+		@DisplayName("No Update Is Lost")
+		void noUpdateIsLost() throws Exception {
+			// Every thread flips its own flag back and forth while the others change the other properties of the same tool
+			runConcurrently(() -> {
+				for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+					storage.updateTool(Code.LADW, Attribute.CHARGEONHOLIDAYS, true);
+					storage.updateTool(Code.LADW, Attribute.DAILYCHARGE, 7.5f);
+					storage.checkoutTool(Code.LADW);
+					storage.updateTool(Code.LADW, Attribute.BRAND, Brand.RIDGID);
+					storage.returnTool(Code.LADW);
+				}
+				return null;
+			});
+
+			ImmutableTool ladder = storage.getImmutableTool(Code.LADW);
+			assertTrue(ladder.isChargeOnHolidays());
+			assertEquals(7.5f, ladder.getDailyCharge());
+			assertEquals(Brand.RIDGID, ladder.getBrand());
+			assertFalse(ladder.isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Renames Never Duplicate A Tool")
+		void renamesNeverDuplicateATool() throws Exception {
+			// Half of the threads rename one unit back and forth, the other half rent it under either code and return it
+			ToolId first = ToolId.of("LADW-000001"), second = ToolId.of("LADW-000002");
+			storage.addTool(new Ladder(first, Brand.WERNER));
+			AtomicInteger threads = new AtomicInteger();
+			AtomicInteger renters = new AtomicInteger();
+			List<Integer> doubleRentals = runConcurrently(() -> {
+				boolean renamer = threads.incrementAndGet() % 2 == 0;
+				int rentedTwice = 0;
+				for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+					if (renamer) {
+						storage.updateTool(first, Attribute.CODE, second);
+						storage.updateTool(second, Attribute.CODE, first);
+					} else if (storage.checkoutTool((i % 2 == 0) ? first : second)) {
+						rentedTwice += (renters.incrementAndGet() > 1) ? 1 : 0;
+						renters.decrementAndGet();
+						while (!storage.returnTool(first) && !storage.returnTool(second)) {
+							Thread.yield(); // the unit is being renamed
+						}
+					}
+				}
+				return rentedTwice;
+			});
+			assertEquals(0, doubleRentals.stream().mapToInt(Integer::intValue).sum());
+			assertEquals(5, storage.size()); // the unit is stored under one code only
+		}
+
+		@Test
+		@DisplayName("No Torn Reads")
+		void noTornReads() throws Exception {
+			// Writers switch JAKR between two consistent states, and readers must only ever see one of them
+			ImmutableTool first = storage.getImmutableTool(Code.JAKR);
+			ImmutableTool second = first.withBrand(Brand.DEWALT).withDailyCharge(5.5f).withChargeOnWeekends(true);
+			AtomicBoolean writing = new AtomicBoolean(true);
+			ExecutorService writers = Executors.newFixedThreadPool(2);
+			try {
+				for (int w = 0; w < 2; w++) {
+					writers.submit(() -> {
+						while (writing.get()) {
+							storage.updateTool(Code.JAKR, Attribute.BRAND, Brand.DEWALT);
+							storage.updateTool(Code.JAKR, Attribute.DAILYCHARGE, 5.5f);
+							storage.updateTool(Code.JAKR, Attribute.CHARGEONWEEKENDS, true);
+							storage.updateTool(Code.JAKR, Attribute.BRAND, Brand.RIDGID);
+							storage.updateTool(Code.JAKR, Attribute.DAILYCHARGE, first.getDailyCharge());
+							storage.updateTool(Code.JAKR, Attribute.CHARGEONWEEKENDS, false);
+						}
+					});
+				}
+
+				List<Integer> torn = runConcurrently(() -> {
+					int tornReads = 0;
+					for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+						ImmutableTool tool = storage.getImmutableTool(Code.JAKR);
+						// Each property must be one of the two values the writers set, and must not change while it is read
+						if (tool.getBrand() != tool.getBrand() || tool.getDailyCharge() != tool.getDailyCharge()
+								|| (tool.getBrand() != first.getBrand() && tool.getBrand() != second.getBrand())
+								|| (tool.getDailyCharge() != first.getDailyCharge() && tool.getDailyCharge() != second.getDailyCharge())) {
+							tornReads++;
+						}
+					}
+					return tornReads;
+				});
+				assertEquals(0, torn.stream().mapToInt(Integer::intValue).sum());
+			} finally {
+				writing.set(false);
+				writers.shutdown();
+				assertTrue(writers.awaitTermination(60, TimeUnit.SECONDS));
+			}
+		}
+	}
+}
@@ -0,0 +1,316 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the AsyncStorageSystem interface and its
+ * ExecutorAsyncStorage adapter: completing futures with the results of the
+ * synchronous operations, pipelining several operations at once, the bounded
+ * queue of waiting operations and closing the adapter.
+ *
+ * The TestSuite will use a @BeforeEach annotation to reassign standard output
+ * to a test output stream, and an @AfterEach to close the adapter and restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("ExecutorAsyncStorage Tests")
+class JUnitExecutorAsyncStorageTests {
+
+	// A ConcurrentHashMapStorage whose getTool() waits until the latch is opened
+	static class BlockingStorage extends ConcurrentHashMapStorage {
+		final CountDownLatch latch;
+
+		BlockingStorage(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Tool getTool(ToolId code) {
+			latch.countDown();
+			try {
+				if (!latch.await(10, TimeUnit.SECONDS)) {
+					throw new IllegalStateException("The latch was not opened.");
+				}
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			return super.getTool(code);
+		}
+	}
+
+	ExecutorAsyncStorage asyncStorage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepSystemOut() {
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void closeStorageAndRestoreSystemOut() {
+		if (asyncStorage != null) {
+			asyncStorage.close();
+		}
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	@Test
+	@DisplayName("Invalid Constructor Arguments")
+	void invalidConstructorArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new ExecutorAsyncStorage(null, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ExecutorAsyncStorage(new HashMapStorage(), 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ExecutorAsyncStorage(new HashMapStorage(), 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ExecutorAsyncStorage(new HashMapStorage(), null));
+	}
+
+	@Nested
+	@DisplayName("Operation Tests")
+	class OperationTests {
+		HashMapStorage storage;
+
+		@BeforeEach
+		void createAsyncStorage() {
+			storage = new HashMapStorage();
+			asyncStorage = new ExecutorAsyncStorage(storage, 1, 128);
+		}
+
+		@Test
+		@DisplayName("Results Match The StorageSystem")
+		void resultsMatchTheStorageSystem() {
+			assertEquals(storage.getTool(Code.JAKR), asyncStorage.getTool(Code.JAKR).join());
+			assertNull(asyncStorage.getTool(ToolId.of("JAKR-404")).join());
+
+			asyncStorage.addTool(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER)).join();
+			assertEquals(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER), storage.getTool(ToolId.of("LADW-000001")));
+
+			asyncStorage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 9.99f).join();
+			assertEquals(9.99f, storage.getTool(Code.CHNS).getDailyCharge());
+
+			asyncStorage.removeTool(Code.JAKD).join();
+			assertNull(storage.getTool(Code.JAKD));
+
+			Map<Code, Tool> tools = asyncStorage.getTools(Arrays.asList(Code.CHNS, Code.LADW)).join();
+			assertEquals(Arrays.asList(Code.CHNS, Code.LADW), new ArrayList<Code>(tools.keySet()));
+		}
+
+		@Test
+		@DisplayName("Checkout")
+		void checkout() {
+			RentalAgreement rentalAgreement = asyncStorage.checkout(Code.LADW, 3, 10, LocalDate.of(2020, 7, 2)).join();
+			assertNotNull(rentalAgreement);
+			assertTrue(storage.getTool(Code.LADW).isCheckedOut());
+			assertNull(asyncStorage.checkout(Code.LADW, 3, 10, LocalDate.of(2020, 7, 2)).join()); // already checked out
+		}
+
+		@Test
+		@DisplayName("Return Tool")
+		void returnTool() {
+			assertFalse(asyncStorage.returnTool(Code.LADW).join()); // not checked out
+			assertFalse(asyncStorage.returnTool(ToolId.of("LADW-404")).join());
+			asyncStorage.checkout(Code.LADW, 3, 10, LocalDate.of(2020, 7, 2)).join();
+			assertTrue(asyncStorage.returnTool(Code.LADW).join());
+			assertFalse(storage.getTool(Code.LADW).isCheckedOut());
+			assertFalse(asyncStorage.returnTool(Code.LADW).join()); // already returned
+		}
+
+		@Test
+		@DisplayName("Exceptions Complete The Future")
+		void exceptionsCompleteTheFuture() {
+			CompletableFuture<RentalAgreement> future = asyncStorage.checkout(Code.JAKR, 0, 10, LocalDate.of(2020, 7, 2));
+			CompletionException e = assertThrows(CompletionException.class, future::join);
+			assertTrue(e.getCause() instanceof InvalidCheckoutArgumentException);
+			assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Warning Messages Are Kept")
+		void warningMessagesAreKept() {
+			assertNull(asyncStorage.getTool((Code) null).join());
+			assertEquals("The passed-in Code was null. No Tool could be retrieved.", outputTestStream.toString().trim());
+		}
+
+		@Test
+		@DisplayName("Single Thread Keeps Submission Order")
+		void singleThreadKeepsSubmissionOrder() {
+			List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(asyncStorage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, (float) i));
+			}
+			CompletableFuture<Tool> tool = asyncStorage.getTool(Code.CHNS);
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+			assertEquals(99f, tool.join().getDailyCharge());
+		}
+	}
+
+	@Nested
+	@DisplayName("Pipelining Tests")
+	class PipeliningTests {
+		@Test
+		@DisplayName("Caller Is Not Blocked")
+		void callerIsNotBlocked() {
+			CountDownLatch latch = new CountDownLatch(2);
+			asyncStorage = new ExecutorAsyncStorage(new BlockingStorage(latch), 2, 8);
+			CompletableFuture<Tool> first = asyncStorage.getTool(Code.CHNS);
+			assertFalse(first.isDone()); // waits for a second lookup that has not been submitted yet
+			CompletableFuture<Tool> second = asyncStorage.getTool(Code.LADW);
+			assertNotNull(first.join());
+			assertNotNull(second.join());
+		}
+
+		@Test
+		@DisplayName("Lookups Run Concurrently")
+		void lookupsRunConcurrently() {
+			// Every lookup only returns once all 4 of them are in flight
+			asyncStorage = new ExecutorAsyncStorage(new BlockingStorage(new CountDownLatch(4)), 4, 8);
+			List<CompletableFuture<Tool>> futures = new ArrayList<CompletableFuture<Tool>>();
+			for (Code code : Code.values()) {
+				futures.add(asyncStorage.getTool(code));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				assertEquals(Code.values()[i], futures.get(i).join().getCode());
+			}
+		}
+
+		@Test
+		@DisplayName("Chained Operations")
+		void chainedOperations() {
+			asyncStorage = new ExecutorAsyncStorage(new ConcurrentHashMapStorage(), 4, 8);
+			Tool returned = asyncStorage.checkout(Code.JAKD, 5, 0, LocalDate.of(2015, 9, 3))
+					.thenCompose(rentalAgreement -> asyncStorage.updateTool(Code.JAKD, Attribute.CHECKEDOUT, false))
+					.thenCompose(ignored -> asyncStorage.getTool(Code.JAKD))
+					.join();
+			assertFalse(returned.isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Concurrent Returns Of One Tool")
+		void concurrentReturnsOfOneTool() {
+			ConcurrentHashMapStorage storage = new ConcurrentHashMapStorage();
+			asyncStorage = new ExecutorAsyncStorage(storage, 8, 64);
+			for (int round = 0; round < 50; round++) {
+				assertNotNull(asyncStorage.checkout(Code.JAKR, 5, 0, LocalDate.of(2015, 9, 3)).join());
+				List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+				for (int i = 0; i < 8; i++) {
+					futures.add(asyncStorage.returnTool(Code.JAKR));
+				}
+				int returns = 0;
+				for (CompletableFuture<Boolean> future : futures) {
+					returns += future.join() ? 1 : 0;
+				}
+				assertEquals(1, returns);
+				assertFalse(storage.getTool(Code.JAKR).isCheckedOut());
+			}
+		}
+
+		@Test
+		@DisplayName("Pooled SQLiteDB With Group Commit")
+		void pooledSQLiteDBWithGroupCommit() {
+			SQLiteDB sqliteDB = new SQLiteDB(4);
+			try {
+				sqliteDB.enableGroupCommit(64, 0);
+				asyncStorage = new ExecutorAsyncStorage(sqliteDB, 8, 128);
+				List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+				for (int i = 0; i < 40; i++) {
+					futures.add(asyncStorage.updateTool(Code.values()[i % 4], Attribute.CHECKEDOUT, true));
+					futures.add(asyncStorage.getTool(Code.values()[i % 4]));
+				}
+				CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+				for (Code code : Code.values()) {
+					assertTrue(sqliteDB.getTool(code).isCheckedOut());
+				}
+				assertEquals(40, sqliteDB.getGroupCommitWriter().getUpdateCount());
+				assertFalse(outputTestStream.toString().contains("There was an issue"));
+			} finally {
+				asyncStorage.close();
+				sqliteDB.closeConnection();
+			}
+		}
+	}
+
+	@Nested
+	@DisplayName("Executor Tests")
+	class ExecutorTests {
+		@Test
+		@DisplayName("Full Queue Rejects Operations")
+		void fullQueueRejectsOperations() {
+			CountDownLatch latch = new CountDownLatch(2);
+			asyncStorage = new ExecutorAsyncStorage(new BlockingStorage(latch), 1, 1);
+			CompletableFuture<Tool> running = asyncStorage.getTool(Code.CHNS);
+			CompletableFuture<Tool> queued = asyncStorage.getTool(Code.LADW);
+			CompletableFuture<Tool> rejected = asyncStorage.getTool(Code.JAKD);
+
+			CompletionException e = assertThrows(CompletionException.class, rejected::join);
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+			latch.countDown(); // opens the latch of the running lookup
+			assertNotNull(running.join());
+			assertNotNull(queued.join());
+		}
+
+		@Test
+		@DisplayName("Close Finishes Submitted Operations")
+		void closeFinishesSubmittedOperations() {
+			HashMapStorage storage = new HashMapStorage();
+			asyncStorage = new ExecutorAsyncStorage(storage, 1, 128);
+			List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+			for (Code code : Code.values()) {
+				futures.add(asyncStorage.updateTool(code, Attribute.CHECKEDOUT, true));
+			}
+			asyncStorage.close();
+			for (CompletableFuture<Void> future : futures) {
+				assertTrue(future.isDone());
+			}
+			for (Code code : Code.values()) {
+				assertTrue(storage.getTool(code).isCheckedOut());
+			}
+			CompletionException e = assertThrows(CompletionException.class, () -> asyncStorage.getTool(Code.CHNS).join());
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+
+		@Test
+		@DisplayName("Caller-Owned Executor")
+		void callerOwnedExecutor() {
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				asyncStorage = (ExecutorAsyncStorage) AsyncStorageSystem.of(new ConcurrentHashMapStorage(), executor);
+				assertNotNull(asyncStorage.getTool(Code.JAKR).join());
+				asyncStorage.close();
+				assertFalse(executor.isShutdown());
+				assertNotNull(asyncStorage.getTool(Code.JAKR).join());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+}
@@ -4,7 +4,18 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,9 +24,12 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import rentatool.app.HashMapStorage;
+import rentatool.rental_items.Chainsaw;
 import rentatool.rental_items.Jackhammer;
 import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
 import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.Attribute;
 import rentatool.rental_items.ToolEnums.Brand;
 import rentatool.rental_items.ToolEnums.Code;
@@ -120,7 +134,7 @@ class JUnitHashMapStorageTests {
 		@Test
 		@DisplayName("Null Tool Code")
 		void getNullTool() {
-			assertNull(myHashMapStorage.getTool(null));
+			assertNull(myHashMapStorage.getTool((Code) null));
 			assertEquals("The passed-in Code was null. No Tool could be retrieved.", outputTestStream.toString().trim());
 		}
 		
@@ -149,6 +163,168 @@ class JUnitHashMapStorageTests {
 		}
 	}
 	
+	@Nested
+	@DisplayName("Checkout Tests")
+	class CheckoutTests {
+		// method signature: checkout(Code code, int rentalDays, int discountPercent, LocalDate checkoutDate)
+		
+		@Test
+		@DisplayName("Null Tool Code")
+		void checkoutNullTool() {
+			assertNull(myHashMapStorage.checkout((Code) null, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("The passed-in Code was null. No tool was checked out.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Non-Existent Tool")
+		void checkoutNonExistentTool() {
+			// Assume that the removal of default Tool with code JAKR was successful. If not, then skip this test.
+			myHashMapStorage.removeTool(Code.JAKR);
+			assumeTrue(myHashMapStorage.getTool(Code.JAKR) == null);
+			outputTestStream.reset();
+			
+			// Run assertions
+			assertNull(myHashMapStorage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("No Tool with code JAKR was found. Nothing to check out.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Already Checked Out Tool")
+		void checkoutCheckedOutTool() {
+			// Assume that the Tool with code LADW was checked out. If not, then skip this test.
+			myHashMapStorage.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+			assumeTrue(myHashMapStorage.getTool(Code.LADW).isCheckedOut());
+			
+			// Run assertions
+			assertNull(myHashMapStorage.checkout(Code.LADW, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("The tool with code LADW is already checked out.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Invalid Arguments Leave Tool Available")
+		void checkoutInvalidArguments() {
+			assertThrows(InvalidCheckoutArgumentException.class,
+					() -> myHashMapStorage.checkout(Code.JAKR, 5, 101, LocalDate.of(2015, 9, 3)));
+			assertFalse(myHashMapStorage.getTool(Code.JAKR).isCheckedOut());
+		}
+		
+		@Test
+		@DisplayName("Checkout Happy Path")
+		void checkoutHappyPath() {
+			RentalAgreement rentalAgreement = myHashMapStorage.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2));
+			assertNotNull(rentalAgreement);
+			assertEquals(Code.JAKR, rentalAgreement.getCode());
+			assertEquals(5, rentalAgreement.getTotalChargeableDays());
+			assertEquals("14.95", rentalAgreement.getFinalCharge().toString());
+			assertTrue(myHashMapStorage.getTool(Code.JAKR).isCheckedOut());
+			
+			// A second checkout of the same tool must fail until it is returned
+			assertNull(myHashMapStorage.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2)));
+			myHashMapStorage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+			assertNotNull(myHashMapStorage.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2)));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Bulk Operation Tests")
+	class BulkOperationTests {
+		// method signatures: addTools(Collection<? extends Tool> tools), getToolsById(Collection<ToolId> ids),
+		// updateToolsById(Attribute attribute, Map<ToolId, ?> values), and getTools()/updateTools() keyed by Codes
+		
+		@Test
+		@DisplayName("Null Collections")
+		void nullCollections() {
+			myHashMapStorage.addTools(null);
+			assertEquals("The passed-in collection of Tools was null. No tools were added.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+			
+			assertTrue(myHashMapStorage.getTools(null).isEmpty());
+			assertEquals("The passed-in collection of Codes was null. No Tools could be retrieved.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+			
+			myHashMapStorage.updateTools(Attribute.CHECKEDOUT, null);
+			assertEquals("A passed-in parameter was null. Please pass in non-null parameters.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Add Tools")
+		void addTools() {
+			// Assume the removal of the default JAKR and LADW tools was successful. If not, then skip this test.
+			myHashMapStorage.removeTool(Code.JAKR);
+			myHashMapStorage.removeTool(Code.LADW);
+			assumeTrue(myHashMapStorage.getTool(Code.JAKR) == null);
+			assumeTrue(myHashMapStorage.getTool(Code.LADW) == null);
+			outputTestStream.reset();
+			
+			// Run assertions. The existing CHNS tool and the null Tool are skipped, the others are added.
+			myHashMapStorage.addTools(Arrays.asList(new Jackhammer(Code.JAKR, Brand.DEWALT), null, new Chainsaw(Code.CHNS, Brand.WERNER), new Ladder(Code.LADW, Brand.RIDGID)));
+			assertEquals("The passed-in Tool object was null. No tool was added to the storage system.\nA tool with code CHNS already exists.",
+					outputTestStream.toString().trim().replace("\r\n", "\n"));
+			assertEquals(Brand.DEWALT, myHashMapStorage.getTool(Code.JAKR).getBrand());
+			assertEquals(Brand.RIDGID, myHashMapStorage.getTool(Code.LADW).getBrand());
+			assertEquals(Brand.STIHL, myHashMapStorage.getTool(Code.CHNS).getBrand());
+		}
+		
+		@Test
+		@DisplayName("Get Tools")
+		void getTools() {
+			// Assume the removal of the default JAKD tool was successful. If not, then skip this test.
+			myHashMapStorage.removeTool(Code.JAKD);
+			assumeTrue(myHashMapStorage.getTool(Code.JAKD) == null);
+			
+			// Run assertions. The tools are returned in the order of the passed-in codes, without the missing JAKD tool.
+			Map<Code, Tool> tools = myHashMapStorage.getTools(Arrays.asList(Code.LADW, Code.JAKD, Code.CHNS));
+			assertEquals(Arrays.asList(Code.LADW, Code.CHNS), new ArrayList<Code>(tools.keySet()));
+			assertEquals(Type.LADDER, tools.get(Code.LADW).getType());
+			assertEquals(Type.CHAINSAW, tools.get(Code.CHNS).getType());
+		}
+		
+		@Test
+		@DisplayName("Update Tools")
+		void updateTools() {
+			Map<Code, Object> dailyCharges = new LinkedHashMap<Code, Object>();
+			dailyCharges.put(Code.CHNS, 1.59f);
+			dailyCharges.put(Code.JAKD, "InvalidFloatTest");
+			dailyCharges.put(Code.JAKR, 3.49f);
+			myHashMapStorage.updateTools(Attribute.DAILYCHARGE, dailyCharges);
+			
+			// Run assertions. The invalid value is skipped, the others are updated.
+			assertEquals("Invalid Float value passed in. Not updating tool.", outputTestStream.toString().trim());
+			assertEquals(1.59f, myHashMapStorage.getTool(Code.CHNS).getDailyCharge());
+			assertEquals(2.99f, myHashMapStorage.getTool(Code.JAKD).getDailyCharge());
+			assertEquals(3.49f, myHashMapStorage.getTool(Code.JAKR).getDailyCharge());
+		}
+		
+		@Test
+		@DisplayName("Bulk Operations On Serialized Units")
+		void bulkOperationsOnSerializedUnits() {
+			List<ToolId> ids = new ArrayList<ToolId>();
+			for (int i = 1; i <= 3; i++) {
+				ids.add(ToolId.of(String.format("LADW-%06d", i)));
+				myHashMapStorage.addTool(new Ladder(ids.get(i - 1), Brand.WERNER, 1.99f, true, true, false, true));
+			}
+			ids.add(ToolId.of(Code.CHNS));
+			
+			// Run assertions. Every serialized unit is found, repriced and returned in one call each.
+			Map<ToolId, Tool> tools = myHashMapStorage.getToolsById(ids);
+			assertEquals(ids, new ArrayList<ToolId>(tools.keySet()));
+			
+			Map<ToolId, Object> dailyCharges = new LinkedHashMap<ToolId, Object>();
+			Map<ToolId, Object> returns = new LinkedHashMap<ToolId, Object>();
+			for (ToolId id : ids.subList(0, 3)) {
+				dailyCharges.put(id, 2.49f);
+				returns.put(id, false);
+			}
+			myHashMapStorage.updateToolsById(Attribute.DAILYCHARGE, dailyCharges);
+			myHashMapStorage.updateToolsById(Attribute.CHECKEDOUT, returns);
+			for (ToolId id : ids.subList(0, 3)) {
+				assertEquals(2.49f, myHashMapStorage.getTool(id).getDailyCharge());
+				assertFalse(myHashMapStorage.getTool(id).isCheckedOut());
+			}
+			assertEquals("", outputTestStream.toString().trim());
+		}
+	}
+	
 	@Nested
 	@DisplayName("Remove Tool Tests")
 	class RemoveToolTests {
@@ -157,7 +333,7 @@ class JUnitHashMapStorageTests {
 		@Test
 		@DisplayName("Null Tool Code")
 		void removeNullTool() {
-			myHashMapStorage.removeTool(null);
+			myHashMapStorage.removeTool((Code) null);
 			assertEquals("The passed-in Code was null. No tool was removed from the storage system.", outputTestStream.toString().trim());
 		}
 		
@@ -196,14 +372,14 @@ class JUnitHashMapStorageTests {
 		@Test
 		@DisplayName("All Null Arguments Update")
 		void updateWithAllNullArgs() {
-			myHashMapStorage.updateTool(null, null, null);
+			myHashMapStorage.updateTool((Code) null, null, null);
 			assertEquals("A passed-in parameter was null. Please pass in non-null parameters.", outputTestStream.toString().trim());
 		}
 		
 		@Test
 		@DisplayName("Some Null Arguments Update")
 		void updateWithSomeNullArgs() {
-			myHashMapStorage.updateTool(null, Attribute.CODE, null);
+			myHashMapStorage.updateTool((Code) null, Attribute.CODE, null);
 			assertEquals("A passed-in parameter was null. Please pass in non-null parameters.", outputTestStream.toString().trim());
 		}
 		
@@ -479,4 +655,169 @@ class JUnitHashMapStorageTests {
 			assertEquals("There is no valid storage system to print.", outputTestStream.toString().trim());
 		}
 	}
+	
+	@Nested
+	@DisplayName("Stream Tools Tests")
+	class StreamToolsTests {
+		// method signatures: streamTools(), writeStoredTools(Writer)
+		
+		// The codes of the streamed tools, in the order they were streamed
+		private List<String> streamedCodes() {
+			try (Stream<Tool> tools = myHashMapStorage.streamTools()) {
+				return tools.map(tool -> tool.getId().getName()).collect(Collectors.toList());
+			}
+		}
+		
+		@Test
+		@DisplayName("Default Tools In Code Order")
+		void defaultToolsInCodeOrder() {
+			assertEquals(Arrays.asList("CHNS", "JAKD", "JAKR", "LADW"), streamedCodes());
+		}
+		
+		@Test
+		@DisplayName("Index Follows Adds, Removals And Renames")
+		void indexFollowsAddsRemovalsAndRenames() {
+			assumeTrue(streamedCodes().size() == 4); // sorts the index once before it is changed
+			myHashMapStorage.addTool(new Ladder(ToolId.of("LADW-000002"), Brand.WERNER));
+			myHashMapStorage.addTools(Arrays.asList(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER), new Chainsaw(ToolId.of("AAAA-000001"), Brand.STIHL)));
+			myHashMapStorage.removeTool(Code.JAKD);
+			myHashMapStorage.updateTool(ToolId.of("LADW-000002"), Attribute.CODE, ToolId.of("BBBB-000001"));
+			
+			assertEquals(Arrays.asList("AAAA-000001", "BBBB-000001", "CHNS", "JAKR", "LADW", "LADW-000001"), streamedCodes());
+		}
+		
+		@Test
+		@DisplayName("Streams The Stored Tools")
+		void streamsTheStoredTools() {
+			try (Stream<Tool> tools = myHashMapStorage.streamTools()) {
+				Tool chainsaw = tools.findFirst().get();
+				assertSame(myHashMapStorage.getTool(Code.CHNS), chainsaw);
+			}
+		}
+		
+		@Test
+		@DisplayName("Writes The Printed Listing")
+		void writesThePrintedListing() throws IOException {
+			myHashMapStorage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			myHashMapStorage.printStoredTools();
+			
+			StringWriter writer = new StringWriter();
+			assertEquals(4, myHashMapStorage.writeStoredTools(writer));
+			assertEquals(outputTestStream.toString().trim(), writer.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Empty Storage")
+		void emptyStorage() throws IOException {
+			for (Code code : Code.values()) {
+				myHashMapStorage.removeTool(code);
+			}
+			
+			StringWriter writer = new StringWriter();
+			assertEquals(0, myHashMapStorage.writeStoredTools(writer));
+			assertEquals("", writer.toString());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Find Available Tests")
+	class FindAvailableTests {
+		// method signature: findAvailable(Type, Brand)
+		
+		// The sorted codes of the available tools of the passed-in type and brand
+		private List<String> availableCodes(Type type, Brand brand) {
+			try (Stream<Tool> tools = myHashMapStorage.findAvailable(type, brand)) {
+				return tools.map(tool -> tool.getId().getName()).sorted().collect(Collectors.toList());
+			}
+		}
+		
+		// The same codes found by filtering every stored tool
+		private List<String> filteredCodes(Type type, Brand brand) {
+			try (Stream<Tool> tools = myHashMapStorage.streamTools()) {
+				return tools.filter(tool -> !tool.isCheckedOut() && (type == null || tool.getType() == type) && (brand == null || tool.getBrand() == brand))
+						.map(tool -> tool.getId().getName()).sorted().collect(Collectors.toList());
+			}
+		}
+		
+		@Test
+		@DisplayName("Default Tools")
+		void defaultTools() {
+			assertEquals(Arrays.asList("JAKD", "JAKR"), availableCodes(Type.JACKHAMMER, null));
+			assertEquals(Arrays.asList("JAKR"), availableCodes(Type.JACKHAMMER, Brand.RIDGID));
+			assertEquals(Arrays.asList("LADW"), availableCodes(null, Brand.WERNER));
+			assertEquals(Arrays.asList("CHNS", "JAKD", "JAKR", "LADW"), availableCodes(null, null));
+			assertEquals(Arrays.asList(), availableCodes(Type.LADDER, Brand.STIHL));
+		}
+		
+		@Test
+		@DisplayName("Index Follows Checkouts And Returns")
+		void indexFollowsCheckoutsAndReturns() {
+			myHashMapStorage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			assertEquals(Arrays.asList("JAKD"), availableCodes(Type.JACKHAMMER, null));
+			
+			myHashMapStorage.updateTool(Code.JAKD, Attribute.CHECKEDOUT, true);
+			assertEquals(Arrays.asList(), availableCodes(Type.JACKHAMMER, null));
+			
+			myHashMapStorage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+			assertEquals(Arrays.asList("JAKR"), availableCodes(Type.JACKHAMMER, null));
+		}
+		
+		@Test
+		@DisplayName("Index Follows Adds, Updates, Removals And Renames")
+		void indexFollowsAddsUpdatesRemovalsAndRenames() {
+			myHashMapStorage.addTool(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER));
+			Ladder checkedOutLadder = new Ladder(ToolId.of("LADW-000002"), Brand.WERNER);
+			checkedOutLadder.setCheckedOut(true);
+			myHashMapStorage.addTools(Arrays.asList(checkedOutLadder, new Ladder(ToolId.of("LADW-000003"), Brand.WERNER)));
+			myHashMapStorage.updateTool(Code.CHNS, Attribute.TYPE, Type.LADDER);
+			myHashMapStorage.updateTool(Code.LADW, Attribute.BRAND, Brand.STIHL);
+			myHashMapStorage.removeTool(ToolId.of("LADW-000003"));
+			myHashMapStorage.updateTool(ToolId.of("LADW-000001"), Attribute.CODE, ToolId.of("LADW-000004"));
+			
+			assertEquals(Arrays.asList("CHNS", "LADW", "LADW-000004"), availableCodes(Type.LADDER, null));
+			assertEquals(Arrays.asList("CHNS", "LADW"), availableCodes(Type.LADDER, Brand.STIHL));
+			assertEquals(Arrays.asList("LADW-000004"), availableCodes(null, Brand.WERNER));
+		}
+		
+		@Test
+		@DisplayName("Matches Filtering Every Tool")
+		void matchesFilteringEveryTool() {
+			Random random = new Random(23);
+			Type[] types = Type.values();
+			Brand[] brands = Brand.values();
+			List<Tool> units = new ArrayList<Tool>();
+			for (int i = 0; i < 20000; i++) {
+				Tool unit = new Ladder(ToolId.of(String.format("UNIT-%06d", i)), brands[random.nextInt(brands.length)]);
+				unit.setType(types[random.nextInt(types.length)]);
+				unit.setCheckedOut(random.nextInt(3) == 0);
+				units.add(unit);
+			}
+			myHashMapStorage.addTools(units);
+			for (int i = 0; i < 5000; i++) {
+				ToolId id = ToolId.of(String.format("UNIT-%06d", random.nextInt(20000)));
+				switch (random.nextInt(5)) {
+				case 0:
+					myHashMapStorage.checkout(id, 3, 0, LocalDate.of(2015, 9, 3));
+					break;
+				case 1:
+					myHashMapStorage.updateTool(id, Attribute.CHECKEDOUT, false);
+					break;
+				case 2:
+					myHashMapStorage.updateTool(id, Attribute.TYPE, types[random.nextInt(types.length)]);
+					break;
+				case 3:
+					myHashMapStorage.updateTool(id, Attribute.BRAND, brands[random.nextInt(brands.length)]);
+					break;
+				default:
+					myHashMapStorage.removeTool(id);
+				}
+			}
+			
+			for (Type type : new Type[] { null, Type.CHAINSAW, Type.LADDER, Type.JACKHAMMER }) {
+				for (Brand brand : new Brand[] { null, Brand.STIHL, Brand.WERNER, Brand.DEWALT, Brand.RIDGID }) {
+					assertEquals(filteredCodes(type, brand), availableCodes(type, brand));
+				}
+			}
+		}
+	}
 }
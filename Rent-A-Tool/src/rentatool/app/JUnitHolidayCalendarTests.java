@@ -0,0 +1,149 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rentatool.rental_items.ClosedFormChargeableDaysCalculator;
+import rentatool.rental_items.HolidayCalendar;
+import rentatool.rental_items.IterativeChargeableDaysCalculator;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the HolidayCalendar class. There
+ * is 1 nested class for the standard holidays and 1 nested class
+ * for calendars loaded from a holiday config file.
+ *
+ * The config file tests use JUnit's @TempDir to write a config
+ * file per test case.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("HolidayCalendar Tests")
+class JUnitHolidayCalendarTests {
+	HolidayCalendar calendar;
+
+	@Nested
+	@DisplayName("Standard Holidays")
+	class StandardHolidays {
+		@BeforeEach
+		void initCalendar() {
+			calendar = new HolidayCalendar();
+		}
+
+		@Test
+		@DisplayName("Observed Holidays Match RentalAgreement")
+		void observedHolidaysMatchRentalAgreement() {
+			for (int year = 1900; year <= 2100; year++) {
+				long[] holidays = calendar.getObservedHolidays(year);
+				assertEquals(2, holidays.length);
+				assertEquals(IterativeChargeableDaysCalculator.calculateObservedHolidayDate(Month.JULY, year).toEpochDay(), holidays[0]);
+				assertEquals(IterativeChargeableDaysCalculator.calculateObservedHolidayDate(Month.SEPTEMBER, year).toEpochDay(), holidays[1]);
+			}
+		}
+
+		@Test
+		@DisplayName("Count Is Start Exclusive And End Inclusive")
+		void countIsStartExclusiveEndInclusive() {
+			long july4th2022 = LocalDate.of(2022, 7, 4).toEpochDay(); // Monday
+			assertEquals(0, calendar.countHolidays(july4th2022, july4th2022 + 7));
+			assertEquals(1, calendar.countHolidays(july4th2022 - 1, july4th2022));
+			assertEquals(0, calendar.countHolidays(july4th2022 - 7, july4th2022 - 1));
+			assertEquals(0, calendar.countHolidays(july4th2022, july4th2022));
+		}
+
+		@Test
+		@DisplayName("Count Across Many Years")
+		void countAcrossManyYears() {
+			// 2 holidays per year for 1000 full years, requested in both directions from an already cached range
+			assertEquals(2, calendar.countHolidays(LocalDate.of(2021, 12, 31).toEpochDay(), LocalDate.of(2022, 12, 31).toEpochDay()));
+			assertEquals(2000, calendar.countHolidays(LocalDate.of(1499, 12, 31).toEpochDay(), LocalDate.of(2499, 12, 31).toEpochDay()));
+			assertEquals(20, calendar.countHolidays(LocalDate.of(3000, 1, 1).toEpochDay(), LocalDate.of(3010, 1, 1).toEpochDay()));
+		}
+	}
+
+	@Nested
+	@DisplayName("Config File Holidays")
+	class ConfigFileHolidays {
+		@TempDir
+		Path tempDir;
+
+		HolidayCalendar loadConfig(String... lines) throws IOException {
+			Path configFile = tempDir.resolve("holidays.txt");
+			Files.write(configFile, String.join("\n", lines).getBytes());
+			return HolidayCalendar.load(configFile);
+		}
+
+		@Test
+		@DisplayName("Annual Holiday Added")
+		void annualHolidayAdded() throws IOException {
+			calendar = loadConfig("# Christmas", "12-25");
+			long[] holidays = calendar.getObservedHolidays(2023);
+			assertEquals(3, holidays.length);
+			assertEquals(LocalDate.of(2023, 12, 25).toEpochDay(), holidays[2]);
+		}
+
+		@Test
+		@DisplayName("Weekend Holidays Are Observed On Weekdays")
+		void weekendHolidaysObservedOnWeekdays() throws IOException {
+			// 01/01/22 is a Saturday, so it is observed on Friday 12/31/21
+			calendar = loadConfig("01-01", "2023-06-18");
+			assertEquals(LocalDate.of(2021, 12, 31).toEpochDay(), calendar.getObservedHolidays(2021)[3]);
+			assertEquals(2, calendar.getObservedHolidays(2022).length); // Jan 1st of 2023 is a Sunday, observed Monday 01/02/23
+			// 06/18/23 is a Sunday, so it is observed on Monday 06/19/23
+			long[] holidays2023 = calendar.getObservedHolidays(2023);
+			assertEquals(4, holidays2023.length);
+			assertEquals(LocalDate.of(2023, 6, 19).toEpochDay(), holidays2023[1]);
+		}
+
+		@Test
+		@DisplayName("Duplicate Holidays Counted Once")
+		void duplicateHolidaysCountedOnce() throws IOException {
+			// Observed July 4th of 2020 is Friday 07/03/20
+			calendar = loadConfig("07-04", "2020-07-03");
+			assertEquals(2, calendar.getObservedHolidays(2020).length);
+		}
+
+		@Test
+		@DisplayName("Invalid Lines Skipped")
+		void invalidLinesSkipped() throws IOException {
+			PrintStream standardOutStream = System.out;
+			ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+			System.setOut(new PrintStream(outputTestStream));
+			try {
+				calendar = loadConfig("13-40", "", "12-25");
+			} finally {
+				System.setOut(new PrintStream(standardOutStream));
+			}
+
+			assertEquals("Could not parse holiday \"13-40\" on line 1. Skipping it.", outputTestStream.toString().trim());
+			assertEquals(3, calendar.getObservedHolidays(2023).length);
+		}
+
+		@Test
+		@DisplayName("Used By RentalAgreement")
+		void usedByRentalAgreement() throws IOException {
+			calendar = loadConfig("12-25");
+			// Wed 12/20/23 due Wed 12/27/23, Monday 12/25/23 is a holiday
+			RentalAgreement ra = new RentalAgreement(new Jackhammer(Code.JAKD, Brand.DEWALT), 7, 0, LocalDate.of(2023, 12, 20),
+					new ClosedFormChargeableDaysCalculator(calendar));
+			assertEquals(4, ra.getTotalChargeableDays());
+		}
+	}
+}
@@ -0,0 +1,382 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rentatool.app.MappedFileStorage.SyncPolicy;
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+import rentatool.rental_items.ToolEnums.Type;
+
+/**
+ * This TestSuite contains tests for the MappedFileStorage class: the CRUD
+ * operations, persisting tools across reopened files, and recovering files
+ * that were not closed. A crash is simulated by copying the tool file while
+ * its MappedFileStorage is still open (the copy is "dirty"), and a torn write
+ * by overwriting bytes of the copy.
+ *
+ * The TestSuite will use a @BeforeEach annotation to open a new tool file in
+ * a temporary directory and reassign standard output to a test output stream,
+ * and an @AfterEach to close the file and restore standard output.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("MappedFileStorage Tests")
+class JUnitMappedFileStorageTests {
+
+	@TempDir
+	Path directory;
+
+	Path file;
+	MappedFileStorage storage;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepStorageAndSystemOut() {
+		file = directory.resolve("tools.dat");
+		storage = new MappedFileStorage(file);
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void closeStorageAndRestoreSystemOut() {
+		if (!storage.isClosed()) {
+			storage.close();
+		}
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	static Tool unit(int serial) {
+		ToolId id = ToolId.of(String.format("MAP-%07d", serial));
+		if (serial % 3 == 0) {
+			return new Chainsaw(id, Brand.STIHL, 1.49f + (serial % 50) / 100f);
+		} else if (serial % 3 == 1) {
+			return new Ladder(id, Brand.WERNER);
+		}
+		return new Jackhammer(id, Brand.values()[serial % Brand.values().length], 2.99f, true, serial % 2 == 0, false, serial % 5 == 0);
+	}
+
+	// Copies the open tool file, as it would be found on disk after a crash
+	Path crashCopy() throws IOException {
+		Path copy = directory.resolve("crashed.dat");
+		Files.copy(file, copy);
+		return copy;
+	}
+
+	// Overwrites the byte at the passed-in offset of the passed-in file
+	static void corrupt(Path path, long offset) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+			raf.seek(offset);
+			int value = raf.read();
+			raf.seek(offset);
+			raf.write(value ^ 0x5A);
+		}
+	}
+
+	// Offset of the record holding the passed-in tool, found by scanning the file
+	static long recordOffset(Path path, String name) throws IOException {
+		byte[] bytes = Files.readAllBytes(path);
+		byte[] nameBytes = name.getBytes();
+		for (int offset = MappedFileStorage.DATA_OFFSET; offset < bytes.length; offset += MappedFileStorage.RECORD_SIZE) {
+			if (bytes[offset] == MappedFileStorage.USED && bytes[offset + 5] == nameBytes.length
+					&& new String(bytes, offset + 20, nameBytes.length).equals(name)) {
+				return offset;
+			}
+		}
+		return -1;
+	}
+
+	@Test
+	@DisplayName("Default Storage Created")
+	void defaultStorageCreated() {
+		HashMapStorage hashMapStorage = new HashMapStorage();
+		for (Code code : Code.values()) {
+			assertEquals(hashMapStorage.getTool(code), storage.getTool(code));
+		}
+		assertEquals(4, storage.size());
+		assertFalse(storage.wasRecovered());
+		assertEquals(MappedFileStorage.DATA_OFFSET + (long) storage.capacity() * MappedFileStorage.RECORD_SIZE, file.toFile().length());
+	}
+
+	@Nested
+	@DisplayName("CRUD Tests")
+	class CrudTests {
+		@Test
+		@DisplayName("Null Arguments")
+		void nullArguments() {
+			storage.addTool(null);
+			assertNull(storage.getTool((Code) null));
+			storage.removeTool((Code) null);
+			storage.updateTool((Code) null, Attribute.CHECKEDOUT, true);
+			assertNull(storage.checkout((Code) null, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("The passed-in Tool object was null. No tool was added to the storage system.\n"
+					+ "The passed-in Code was null. No Tool could be retrieved.\n"
+					+ "The passed-in Code was null. No tool was removed from the storage system.\n"
+					+ "A passed-in parameter was null. Please pass in non-null parameters.\n"
+					+ "The passed-in Code was null. No tool was checked out.", outputTestStream.toString().trim().replace("\r", ""));
+		}
+
+		@Test
+		@DisplayName("Existent And Non-Existent Tools")
+		void existentAndNonExistentTools() {
+			storage.addTool(new Chainsaw(Code.CHNS, Brand.STIHL));
+			storage.addTool(new Ladder(ToolId.of("LADW-" + "0".repeat(MappedFileStorage.MAX_NAME_BYTES)), Brand.WERNER));
+			storage.removeTool(Code.LADW);
+			assertNull(storage.getTool(Code.LADW));
+			storage.removeTool(Code.LADW);
+			storage.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+			assertNull(storage.checkout(Code.LADW, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("A tool with code CHNS already exists.\n"
+					+ "The code LADW-" + "0".repeat(MappedFileStorage.MAX_NAME_BYTES) + " is longer than 44 bytes. No tool was added to the storage system.\n"
+					+ "No Tool with code LADW was found. Nothing to return.\n"
+					+ "No Tool with code LADW was found. Nothing to remove.\n"
+					+ "No Tool with code LADW was found. Nothing to update.\n"
+					+ "No Tool with code LADW was found. Nothing to check out.", outputTestStream.toString().trim().replace("\r", ""));
+			assertEquals(3, storage.size());
+		}
+
+		@Test
+		@DisplayName("Update Every Attribute")
+		void updateEveryAttribute() {
+			storage.updateTool(Code.CHNS, Attribute.TYPE, Type.LADDER);
+			storage.updateTool(Code.CHNS, Attribute.BRAND, Brand.RIDGID);
+			storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 12.34f);
+			storage.updateTool(Code.CHNS, Attribute.CHARGEONWEEKDAYS, false);
+			storage.updateTool(Code.CHNS, Attribute.CHARGEONWEEKENDS, true);
+			storage.updateTool(Code.CHNS, Attribute.CHARGEONHOLIDAYS, false);
+			storage.updateTool(Code.CHNS, Attribute.CHECKEDOUT, true);
+			storage.updateTool(Code.CHNS, Attribute.CODE, ToolId.of("CHNS-0001"));
+
+			Tool expected = new Chainsaw(ToolId.of("CHNS-0001"), Brand.RIDGID, 12.34f, false, true, false, true);
+			expected.setType(Type.LADDER);
+			assertEquals(expected, storage.getTool(ToolId.of("CHNS-0001")));
+			assertNull(storage.getTool(Code.CHNS));
+			assertEquals(4, storage.size());
+		}
+
+		@Test
+		@DisplayName("Invalid Updates")
+		void invalidUpdates() {
+			storage.updateTool(Code.CHNS, Attribute.CODE, Code.JAKR);
+			storage.updateTool(Code.CHNS, Attribute.TYPE, Brand.STIHL);
+			storage.updateTool(Code.CHNS, Attribute.BRAND, Type.CHAINSAW);
+			storage.updateTool(Code.CHNS, Attribute.DAILYCHARGE, 1.99);
+			storage.updateTool(Code.CHNS, Attribute.CHECKEDOUT, "true");
+			assertEquals("Invalid Code value passed in. Not updating tool.\n"
+					+ "Invalid Type value passed in. Not updating tool.\n"
+					+ "Invalid Brand value passed in. Not updating tool.\n"
+					+ "Invalid Float value passed in. Not updating tool.\n"
+					+ "Invalid Boolean value passed in. Not updating tool.", outputTestStream.toString().trim().replace("\r", ""));
+			assertEquals(new Chainsaw(Code.CHNS, Brand.STIHL), storage.getTool(Code.CHNS));
+		}
+
+		@Test
+		@DisplayName("Checkout Once")
+		void checkoutOnce() {
+			RentalAgreement rentalAgreement = storage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			assertNotNull(rentalAgreement);
+			assertTrue(storage.getTool(Code.JAKR).isCheckedOut());
+			assertNull(storage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("The tool with code JAKR is already checked out.", outputTestStream.toString().trim());
+			assertThrows(InvalidCheckoutArgumentException.class, () -> storage.checkout(Code.LADW, 0, 10, LocalDate.of(2015, 9, 3)));
+			assertFalse(storage.getTool(Code.LADW).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Closed File")
+		void closedFile() {
+			storage.close();
+			assertNull(storage.getTool(Code.CHNS));
+			storage.close();
+			assertEquals("The tool file " + file + " is closed. Please open a new MappedFileStorage.\n"
+					+ "The tool file " + file + " is already closed!", outputTestStream.toString().trim().replace("\r", ""));
+		}
+	}
+
+	@Nested
+	@DisplayName("Persistence Tests")
+	class PersistenceTests {
+		@Test
+		@DisplayName("Tools Persist Across Reopens")
+		void toolsPersistAcrossReopens() {
+			HashMapStorage expected = new HashMapStorage();
+			List<Tool> units = new ArrayList<Tool>();
+			for (int serial = 0; serial < 5000; serial++) {
+				units.add(unit(serial));
+			}
+			storage.addTools(units);
+			for (Tool unit : units) {
+				expected.addTool(Tool.copyOf(unit));
+			}
+
+			// Random removals, re-adds, renames and checkouts, reopening the file every 1000 operations
+			Random random = new Random(11);
+			for (int i = 0; i < 10000; i++) {
+				Tool tool = units.get(random.nextInt(units.size()));
+				ToolId id = tool.getId();
+				switch (random.nextInt(4)) {
+				case 0:
+					storage.removeTool(id);
+					expected.removeTool(id);
+					break;
+				case 1:
+					storage.addTool(Tool.copyOf(tool));
+					expected.addTool(Tool.copyOf(tool));
+					break;
+				case 2:
+					RentalAgreement actualAgreement = storage.checkout(id, 5, 10, LocalDate.of(2015, 9, 3));
+					RentalAgreement expectedAgreement = expected.checkout(id, 5, 10, LocalDate.of(2015, 9, 3));
+					assertEquals(expectedAgreement == null, actualAgreement == null);
+					break;
+				default:
+					ToolId newId = ToolId.of(id.getName() + "-R");
+					storage.updateTool(id, Attribute.CODE, newId);
+					expected.updateTool(id, Attribute.CODE, newId);
+					storage.removeTool(newId);
+					expected.removeTool(newId);
+				}
+				if (i % 1000 == 999) {
+					storage.close();
+					storage = new MappedFileStorage(file);
+					assertFalse(storage.wasRecovered());
+				}
+			}
+
+			int expectedSize = Code.values().length;
+			for (Tool unit : units) {
+				Tool expectedTool = expected.getTool(unit.getId());
+				assertEquals(expectedTool, storage.getTool(unit.getId()));
+				expectedSize += (expectedTool == null) ? 0 : 1;
+			}
+			assertEquals(expectedSize, storage.size());
+		}
+
+		@Test
+		@DisplayName("Rebuilt When Full")
+		void rebuiltWhenFull() {
+			storage.close();
+			storage = new MappedFileStorage(directory.resolve("small.dat"), 4, SyncPolicy.ON_CLOSE);
+			int initialCapacity = storage.capacity();
+			for (int serial = 0; serial < 1000; serial++) {
+				storage.addTool(unit(serial));
+			}
+			assertTrue(storage.capacity() > initialCapacity);
+			assertEquals(1004, storage.size());
+			assertFalse(Files.exists(directory.resolve("small.dat.rebuild")));
+
+			storage.close();
+			storage = new MappedFileStorage(directory.resolve("small.dat"));
+			assertEquals(1004, storage.size());
+			assertEquals(unit(999), storage.getTool(unit(999).getId()));
+		}
+
+		@Test
+		@DisplayName("Already Open File")
+		void alreadyOpenFile() {
+			IllegalStateException e = assertThrows(IllegalStateException.class, () -> new MappedFileStorage(file));
+			assertEquals("The tool file " + file + " is already open.", e.getMessage());
+		}
+	}
+
+	@Nested
+	@DisplayName("Recovery Tests")
+	class RecoveryTests {
+		@Test
+		@DisplayName("Unclosed File Is Recovered")
+		void unclosedFileIsRecovered() throws IOException {
+			storage.addTool(unit(1));
+			storage.checkout(Code.CHNS, 5, 10, LocalDate.of(2015, 9, 3));
+			MappedFileStorage recovered = new MappedFileStorage(crashCopy());
+			try {
+				assertTrue(recovered.wasRecovered());
+				assertEquals(5, recovered.size());
+				assertTrue(recovered.getTool(Code.CHNS).isCheckedOut());
+				assertEquals(unit(1), recovered.getTool(unit(1).getId()));
+			} finally {
+				recovered.close();
+			}
+		}
+
+		@Test
+		@DisplayName("Torn Write Is Replayed From The Journal")
+		void tornWriteIsReplayedFromTheJournal() throws IOException {
+			storage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			Path copy = crashCopy();
+			corrupt(copy, recordOffset(copy, "JAKR") + 4); // the flags, as if the checkout was half-written
+			MappedFileStorage recovered = new MappedFileStorage(copy);
+			try {
+				assertTrue(recovered.getTool(Code.JAKR).isCheckedOut());
+				assertEquals(4, recovered.size());
+				assertEquals("", outputTestStream.toString().trim());
+			} finally {
+				recovered.close();
+			}
+		}
+
+		@Test
+		@DisplayName("Corrupted Record Is Removed")
+		void corruptedRecordIsRemoved() throws IOException {
+			storage.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			Path copy = crashCopy();
+			long offset = recordOffset(copy, "LADW");
+			corrupt(copy, offset + 8); // the daily charge
+			MappedFileStorage recovered = new MappedFileStorage(copy);
+			try {
+				assertNull(recovered.getTool(Code.LADW));
+				assertEquals(3, recovered.size());
+				assertEquals(new Chainsaw(Code.CHNS, Brand.STIHL), recovered.getTool(Code.CHNS));
+				assertEquals(String.format("The record in slot %d of the tool file %s was corrupted and has been removed.\n"
+						+ "No Tool with code LADW was found. Nothing to return.",
+						(offset - MappedFileStorage.DATA_OFFSET) / MappedFileStorage.RECORD_SIZE, copy),
+						outputTestStream.toString().trim().replace("\r", ""));
+
+				// The removed record is a tombstone, so the tool can be added again
+				recovered.addTool(new Ladder(Code.LADW, Brand.WERNER));
+				assertEquals(new Ladder(Code.LADW, Brand.WERNER), recovered.getTool(Code.LADW));
+			} finally {
+				recovered.close();
+			}
+		}
+
+		@Test
+		@DisplayName("Corrupted Header")
+		void corruptedHeader() throws IOException {
+			storage.close();
+			corrupt(file, 16); // the number of tools
+			IllegalStateException e = assertThrows(IllegalStateException.class, () -> new MappedFileStorage(file));
+			assertEquals("The header of the tool file " + file + " is corrupted.", e.getMessage());
+
+			Path notAToolFile = directory.resolve("readme.txt");
+			Files.writeString(notAToolFile, "x".repeat(MappedFileStorage.DATA_OFFSET));
+			e = assertThrows(IllegalStateException.class, () -> new MappedFileStorage(notAToolFile));
+			assertEquals("The file " + notAToolFile + " is not a valid tool file.", e.getMessage());
+		}
+	}
+}
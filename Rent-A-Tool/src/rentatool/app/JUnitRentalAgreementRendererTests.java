@@ -0,0 +1,198 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.RentalAgreementRenderer;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the RentalAgreementRenderer class.
+ * Rendered agreements are compared against the same agreements formatted
+ * field by field with String.format, the way RentalAgreement formatted
+ * them before the renderer was introduced.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("RentalAgreementRenderer Tests")
+class JUnitRentalAgreementRendererTests {
+
+	static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, 9, 3);
+
+	// The passed-in RentalAgreement formatted with one String.format call per field, in the passed-in locale
+	static String formatWithStringFormat(RentalAgreement rentalAgreement, Locale locale) {
+		StringBuilder output = new StringBuilder();
+		output.append(String.format(locale, "Tool code: %s\n", rentalAgreement.getId()));
+		output.append(String.format(locale, "Tool type: %s\n", rentalAgreement.getType()));
+		output.append(String.format(locale, "Tool brand: %s\n", rentalAgreement.getBrand()));
+		output.append(String.format(locale, "Rental days: %d\n", rentalAgreement.getRentalDays()));
+		output.append(String.format(locale, "Check out date: %tD\n", rentalAgreement.getCheckoutDate()));
+		output.append(String.format(locale, "Due date: %tD\n", rentalAgreement.getDueDate()));
+		output.append(String.format(locale, "Daily rental charge: $%,.2f\n", rentalAgreement.getDailyRentalCharge()));
+		output.append(String.format(locale, "Charge days: %d\n", rentalAgreement.getTotalChargeableDays()));
+		output.append(String.format(locale, "Pre-discount charge: $%,.2f\n", rentalAgreement.getPreDiscountCharge()));
+		output.append(String.format(locale, "Discount percent: %d%%\n", rentalAgreement.getDiscountPercent()));
+		output.append(String.format(locale, "Discount amount: $%,.2f\n", rentalAgreement.getDiscountAmount()));
+		output.append(String.format(locale, "Final charge: $%,.2f", rentalAgreement.getFinalCharge()));
+		return output.toString();
+	}
+
+	// A random rental of a ladder with a random daily charge (up to $100,000), 1 to 4000 days, checked out from year 1 to 2999
+	static RentalAgreement randomRentalAgreement(Random random, int unit) {
+		float dailyCharge = (unit % 2 == 0) ? random.nextInt(100000) / 100f : random.nextFloat() * 100000f;
+		Tool tool = new Ladder(ToolId.of(String.format("LADW-%06d", unit)), Brand.WERNER, dailyCharge,
+				random.nextBoolean(), random.nextBoolean(), random.nextBoolean(), false);
+		return new RentalAgreement(tool, 1 + random.nextInt(4000), random.nextInt(101),
+				LocalDate.of(1 + random.nextInt(2999), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+	}
+
+	@Test
+	@DisplayName("Default Tools")
+	void defaultTools() throws IOException {
+		RentalAgreementRenderer renderer = new RentalAgreementRenderer(Locale.US);
+		Tool[] tools = { new Chainsaw(Code.CHNS, Brand.STIHL), new Ladder(Code.LADW, Brand.WERNER),
+				new Jackhammer(Code.JAKD, Brand.DEWALT), new Jackhammer(Code.JAKR, Brand.RIDGID) };
+		for (Tool tool : tools) {
+			RentalAgreement rentalAgreement = new RentalAgreement(tool, 9, 25, LocalDate.of(2015, 7, 2));
+			StringBuilder output = new StringBuilder();
+			renderer.render(rentalAgreement, output);
+			assertEquals(formatWithStringFormat(rentalAgreement, Locale.US), output.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("Random Agreements Match String.format")
+	void randomAgreementsMatchStringFormat() throws IOException {
+		Random random = new Random(21);
+		RentalAgreementRenderer renderer = new RentalAgreementRenderer(Locale.US);
+		StringBuilder output = new StringBuilder();
+		for (int unit = 0; unit < 20000; unit++) {
+			RentalAgreement rentalAgreement = randomRentalAgreement(random, unit);
+			output.setLength(0); // the same buffer is reused for every agreement
+			renderer.render(rentalAgreement, output);
+			assertEquals(formatWithStringFormat(rentalAgreement, Locale.US), output.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("Format Rental Agreement Matches String.format")
+	void formatRentalAgreementMatchesStringFormat() {
+		Random random = new Random(22);
+		for (int unit = 0; unit < 1000; unit++) {
+			RentalAgreement rentalAgreement = randomRentalAgreement(random, unit);
+			assertEquals(formatWithStringFormat(rentalAgreement, Locale.getDefault(Locale.Category.FORMAT)), rentalAgreement.formatRentalAgreement());
+		}
+	}
+
+	@Test
+	@DisplayName("Other Locales")
+	void otherLocales() throws IOException {
+		Random random = new Random(23);
+		for (Locale locale : new Locale[] { Locale.GERMANY, Locale.FRANCE, new Locale("hi", "IN"), Locale.forLanguageTag("ar-EG-u-nu-arab") }) {
+			RentalAgreementRenderer renderer = new RentalAgreementRenderer(locale);
+			assertEquals(locale, renderer.getLocale());
+			for (int unit = 0; unit < 500; unit++) {
+				RentalAgreement rentalAgreement = randomRentalAgreement(random, unit);
+				StringBuilder output = new StringBuilder();
+				renderer.render(rentalAgreement, output);
+				assertEquals(formatWithStringFormat(rentalAgreement, locale), output.toString());
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Amounts Too Large For Cents")
+	void amountsTooLargeForCents() throws IOException {
+		RentalAgreementRenderer renderer = new RentalAgreementRenderer(Locale.US);
+		for (float dailyCharge : new float[] { 1e15f, 1e20f, Float.MAX_VALUE }) {
+			RentalAgreement rentalAgreement = new RentalAgreement(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER, dailyCharge,
+					true, true, true, false), 30, 10, CHECKOUT_DATE);
+			StringBuilder output = new StringBuilder();
+			renderer.render(rentalAgreement, output);
+			assertEquals(formatWithStringFormat(rentalAgreement, Locale.US), output.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("Null Arguments")
+	void nullArguments() {
+		RentalAgreementRenderer renderer = new RentalAgreementRenderer();
+		RentalAgreement rentalAgreement = new RentalAgreement(new Chainsaw(Code.CHNS, Brand.STIHL), 5, 10, CHECKOUT_DATE);
+		assertThrows(IllegalArgumentException.class, () -> renderer.render(null, new StringBuilder()));
+		assertThrows(IllegalArgumentException.class, () -> renderer.render(rentalAgreement, (Appendable) null));
+		assertThrows(IllegalArgumentException.class, () -> renderer.render(rentalAgreement, (ByteBuffer) null));
+		assertThrows(IllegalArgumentException.class, () -> new RentalAgreementRenderer(null));
+	}
+
+	@Nested
+	@DisplayName("Output Tests")
+	class OutputTests {
+
+		@Test
+		@DisplayName("Writer")
+		void writer() throws IOException {
+			RentalAgreementRenderer renderer = new RentalAgreementRenderer();
+			RentalAgreement rentalAgreement = new RentalAgreement(new Jackhammer(Code.JAKR, Brand.RIDGID), 5, 10, CHECKOUT_DATE);
+			StringWriter writer = new StringWriter();
+			renderer.render(rentalAgreement, writer);
+			writer.write("\n\n");
+			renderer.render(rentalAgreement, writer);
+			String formatted = rentalAgreement.formatRentalAgreement();
+			assertEquals(formatted + "\n\n" + formatted, writer.toString());
+		}
+
+		@Test
+		@DisplayName("ByteBuffer")
+		void byteBuffer() {
+			RentalAgreementRenderer renderer = new RentalAgreementRenderer();
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			buffer.put((byte) 'x');
+			for (String name : new String[] { "LADW-000001", "\u00C9CHELLE-\u00E9t\u00E9", "\u68AF\u5B50-\uD834\uDD1E" }) {
+				RentalAgreement rentalAgreement = new RentalAgreement(new Ladder(ToolId.of(name), Brand.WERNER), 3, 0, CHECKOUT_DATE);
+				int start = buffer.position();
+				int written = renderer.render(rentalAgreement, buffer);
+				assertEquals(start + written, buffer.position());
+				assertEquals(rentalAgreement.formatRentalAgreement(), new String(buffer.array(), start, written, StandardCharsets.UTF_8));
+			}
+		}
+
+		@Test
+		@DisplayName("ByteBuffer Overflow")
+		void byteBufferOverflow() {
+			RentalAgreementRenderer renderer = new RentalAgreementRenderer();
+			RentalAgreement rentalAgreement = new RentalAgreement(new Chainsaw(Code.CHNS, Brand.STIHL), 5, 10, CHECKOUT_DATE);
+			ByteBuffer buffer = ByteBuffer.allocate(64);
+			buffer.position(10);
+			assertThrows(BufferOverflowException.class, () -> renderer.render(rentalAgreement, buffer));
+			assertEquals(10, buffer.position());
+
+			// The renderer is still usable afterwards
+			ByteBuffer largeBuffer = ByteBuffer.allocateDirect(1024);
+			int written = renderer.render(rentalAgreement, largeBuffer);
+			byte[] bytes = new byte[written];
+			largeBuffer.flip();
+			largeBuffer.get(bytes);
+			assertEquals(rentalAgreement.formatRentalAgreement(), new String(bytes, StandardCharsets.UTF_8));
+		}
+	}
+}
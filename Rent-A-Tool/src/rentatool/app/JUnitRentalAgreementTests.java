@@ -6,9 +6,11 @@ import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +26,7 @@ import rentatool.rental_items.Chainsaw;
 import rentatool.rental_items.Jackhammer;
 import rentatool.rental_items.Ladder;
 import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.Brand;
 import rentatool.rental_items.ToolEnums.Code;
 
@@ -31,8 +34,9 @@ import rentatool.rental_items.ToolEnums.Code;
  * This TestSuite contains tests for the different methods available
  * on RentalAgreement instances. There will be 1 nested class per
  * calculation method under the nested "Calculation Tests" class, a
- * nested class for constructor tests, and 1 printRentalAgreement()
- * test at the top level class.
+ * nested class for constructor tests, a nested class of differential
+ * tests for the fixed-point (long cents) charges, and 1
+ * printRentalAgreement() test at the top level class.
  * 
  * No StorageSystem instance is needed for testing RentalAgreement
  * instances. However, the TestSuite will use a @BeforeAll hook
@@ -528,6 +532,107 @@ class JUnitRentalAgreementTests {
 		}
 	}
 	
+	@Nested
+	@DisplayName("Fixed-Point Charge Tests")
+	class FixedPointChargeTests {
+		@BeforeEach
+		void initCheckoutDate() {
+			checkoutDate = LocalDate.parse("9/3/15", formatter); // Arbitrary date
+		}
+		
+		// A ladder charged on every day, so that its chargeable days are its rental days
+		Ladder everyDayLadder(float dailyCharge) {
+			return new Ladder(ToolId.of("LADW-000001"), Brand.WERNER, dailyCharge, true, true, true, false);
+		}
+		
+		// The charges of the passed-in agreement calculated with exact BigDecimal arithmetic: { preDiscountCharge, discountAmount, finalCharge }
+		BigDecimal[] exactCharges(RentalAgreement rentalAgreement) {
+			BigDecimal preDiscountCharge = new BigDecimal(rentalAgreement.getDailyRentalCharge())
+					.multiply(BigDecimal.valueOf(rentalAgreement.getTotalChargeableDays())).setScale(2, RoundingMode.HALF_UP);
+			BigDecimal discountAmount = preDiscountCharge.multiply(BigDecimal.valueOf(rentalAgreement.getDiscountPercent(), 2))
+					.setScale(2, RoundingMode.HALF_UP);
+			return new BigDecimal[] { preDiscountCharge, discountAmount, preDiscountCharge.subtract(discountAmount) };
+		}
+		
+		@Test
+		@DisplayName("Matches BigDecimal Charges Across Discounts")
+		void matchesBigDecimalChargesAcrossDiscounts() {
+			// The charges as they were calculated before RentalAgreement used long cents, for every discount
+			// from 0 to 100 percent, on random whole-cent daily charges up to $100 rented for up to 30 days
+			Random random = new Random(22);
+			for (int discountPercent = 0; discountPercent <= 100; discountPercent++) {
+				BigDecimal discountRate = BigDecimal.valueOf(discountPercent / 100f);
+				for (int i = 0; i < 2000; i++) {
+					float dailyCharge = random.nextInt(10001) / 100f;
+					ra = new RentalAgreement(everyDayLadder(dailyCharge), 1 + random.nextInt(30), discountPercent, checkoutDate);
+					
+					BigDecimal preDiscountCharge = BigDecimal.valueOf(dailyCharge)
+							.multiply(BigDecimal.valueOf(ra.getTotalChargeableDays())).setScale(2, RoundingMode.HALF_UP);
+					BigDecimal discountAmount = preDiscountCharge.multiply(discountRate).setScale(2, RoundingMode.HALF_UP);
+					assertEquals(preDiscountCharge, ra.getPreDiscountCharge());
+					
+					// discountPercent / 100f is not exact, so a discount of exactly half a cent could be rounded down before
+					long preDiscountCents = preDiscountCharge.unscaledValue().longValue();
+					if (preDiscountCents * discountPercent % 100 == 50) {
+						assertEquals(BigDecimal.valueOf((preDiscountCents * discountPercent + 50) / 100, 2), ra.getDiscountAmount());
+					} else {
+						assertEquals(discountAmount, ra.getDiscountAmount());
+					}
+					assertEquals(ra.getPreDiscountCharge().subtract(ra.getDiscountAmount()), ra.getFinalCharge());
+				}
+			}
+		}
+		
+		@Test
+		@DisplayName("Matches Exact Charges")
+		void matchesExactCharges() {
+			// Any finite daily charge, including amounts too large to be held in cents as a long
+			Random random = new Random(23);
+			for (int i = 0; i < 200000; i++) {
+				float dailyCharge = (i % 2 == 0) ? random.nextFloat() * 1000f : Float.intBitsToFloat(random.nextInt());
+				if (!Float.isFinite(dailyCharge)) {
+					continue;
+				}
+				ra = new RentalAgreement(everyDayLadder(dailyCharge), 1 + random.nextInt(4000), random.nextInt(101), checkoutDate);
+				
+				BigDecimal[] exactCharges = exactCharges(ra);
+				assertEquals(exactCharges[0], ra.getPreDiscountCharge());
+				assertEquals(exactCharges[1], ra.getDiscountAmount());
+				assertEquals(exactCharges[2], ra.getFinalCharge());
+				assertEquals(exactCharges[0], ra.calculatePreDiscountCharge());
+				assertEquals(exactCharges[1], ra.calculateDiscountAmount());
+				assertEquals(exactCharges[2], ra.calculateFinalCharge());
+			}
+		}
+		
+		@Test
+		@DisplayName("Half Cent Discounts Round Up")
+		void halfCentDiscountsRoundUp() {
+			// 50 cents times an odd percentage always ends in half a cent
+			for (int discountPercent = 1; discountPercent < 100; discountPercent += 2) {
+				ra = new RentalAgreement(everyDayLadder(0.5f), 1, discountPercent, checkoutDate);
+				assertEquals(BigDecimal.valueOf((50 * discountPercent + 50) / 100, 2), ra.getDiscountAmount());
+				assertEquals(BigDecimal.valueOf(50 - (50 * discountPercent + 50) / 100, 2), ra.getFinalCharge());
+			}
+		}
+		
+		@Test
+		@DisplayName("Charges Have Two Decimals")
+		void chargesHaveTwoDecimals() {
+			ra = new RentalAgreement(everyDayLadder(2f), 5, 0, checkoutDate);
+			assertEquals(new BigDecimal("10.00"), ra.getPreDiscountCharge());
+			assertEquals(new BigDecimal("0.00"), ra.getDiscountAmount());
+			assertEquals(new BigDecimal("10.00"), ra.getFinalCharge());
+			assertEquals(2, ra.calculateFinalCharge().scale());
+		}
+		
+		@Test
+		@DisplayName("Not A Number Daily Charge")
+		void notANumberDailyCharge() {
+			assertThrows(NumberFormatException.class, () -> new RentalAgreement(everyDayLadder(Float.NaN), 5, 10, checkoutDate));
+		}
+	}
+	
 	@Test
 	@DisplayName("Print Rental Agreement Test")
 	void printRentalAgreementTest() {
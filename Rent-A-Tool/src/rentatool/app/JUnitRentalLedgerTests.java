@@ -0,0 +1,546 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rentatool.app.RentalLedger.Event;
+import rentatool.app.RentalLedger.EventType;
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+import rentatool.rental_items.ToolEnums.Type;
+
+/**
+ * This TestSuite contains tests for the RentalLedger and LedgerStorage classes:
+ * recording events, reopening a ledger from its log and its snapshot, removing
+ * torn records, and rebuilding StorageSystems from a ledger. A crash is simulated
+ * by copying the files of a ledger that is still open, or by cutting the log short.
+ *
+ * The TestSuite will use a @BeforeEach annotation to open a new ledger in a
+ * temporary directory and reassign standard output to a test output stream, and
+ * an @AfterEach to close the ledger and restore standard output.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("RentalLedger Tests")
+class JUnitRentalLedgerTests {
+
+	static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, 9, 3);
+
+	@TempDir
+	Path directory;
+
+	Path ledgerDirectory;
+	RentalLedger ledger;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepLedgerAndSystemOut() {
+		ledgerDirectory = directory.resolve("ledger");
+		ledger = new RentalLedger(ledgerDirectory);
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void closeLedgerAndRestoreSystemOut() {
+		if (!ledger.isClosed()) {
+			ledger.close();
+		}
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	static Tool unit(int serial) {
+		ToolId id = ToolId.of(String.format("LED-%07d", serial));
+		if (serial % 3 == 0) {
+			return new Chainsaw(id, Brand.STIHL, 1.49f + (serial % 50) / 100f);
+		} else if (serial % 3 == 1) {
+			return new Ladder(id, Brand.WERNER);
+		}
+		return new Jackhammer(id, Brand.values()[serial % Brand.values().length], 2.99f, true, serial % 2 == 0, false, serial % 5 == 0);
+	}
+
+	// Every event of the passed-in ledger, in order
+	static List<Event> events(RentalLedger rentalLedger) {
+		List<Event> events = new ArrayList<Event>();
+		rentalLedger.forEachEvent(events::add);
+		return events;
+	}
+
+	// The tools of the passed-in StorageSystem, in code order
+	static List<Tool> storedTools(StorageSystem storage) {
+		try (Stream<Tool> tools = storage.streamTools()) {
+			return tools.collect(Collectors.toList());
+		}
+	}
+
+	// The tools of the tool table of the passed-in ledger, in code order
+	static List<Tool> ledgerTools(RentalLedger rentalLedger) {
+		HashMapStorage storage = new HashMapStorage();
+		rentalLedger.rebuild(storage);
+		return storedTools(storage);
+	}
+
+	/**
+	 * Runs random writes (checkouts, returns, price and type changes, renames, additions
+	 * and removals of serialized units) through the passed-in StorageSystem.
+	 */
+	static void randomWrites(StorageSystem storage, Random random, int serials, int writes) {
+		for (int i = 0; i < writes; i++) {
+			ToolId id = unit(random.nextInt(serials)).getId();
+			switch (random.nextInt(8)) {
+			case 0:
+			case 1:
+				storage.checkout(id, 1 + random.nextInt(30), random.nextInt(101), CHECKOUT_DATE.plusDays(random.nextInt(365)));
+				break;
+			case 2:
+			case 3:
+				storage.updateTool(id, Attribute.CHECKEDOUT, false);
+				break;
+			case 4:
+				storage.updateTool(id, Attribute.DAILYCHARGE, random.nextInt(1000) / 100f);
+				break;
+			case 5:
+				storage.updateTool(id, Attribute.TYPE, Type.values()[random.nextInt(Type.values().length)]);
+				break;
+			case 6:
+				storage.updateTool(id, Attribute.CODE, unit(random.nextInt(serials)).getId());
+				break;
+			default:
+				if (random.nextBoolean()) {
+					storage.removeTool(id);
+				} else {
+					storage.addTool(unit(random.nextInt(serials)));
+				}
+				break;
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Records Events In Order")
+	void recordsEventsInOrder() {
+		ToolId id = ToolId.of("LADW-000001");
+		ToolId newId = ToolId.of("LADW-000002");
+		assertTrue(ledger.recordNewTool(new Ladder(id, Brand.WERNER)));
+		assertTrue(ledger.recordCheckout(id, 5, 10, CHECKOUT_DATE));
+		assertTrue(ledger.recordReturn(id));
+		assertTrue(ledger.recordPriceChange(id, 2.49f));
+		assertTrue(ledger.recordRename(id, newId));
+		assertTrue(ledger.recordRemoval(newId));
+		assertEquals(6, ledger.getSequence());
+		assertEquals(0, ledger.size());
+
+		List<Event> events = events(ledger);
+		assertEquals(Arrays.asList(EventType.TOOL, EventType.CHECKOUT, EventType.RETURN, EventType.PRICE_CHANGE, EventType.RENAME, EventType.REMOVE),
+				events.stream().map(Event::getType).collect(Collectors.toList()));
+		for (int i = 0; i < events.size(); i++) {
+			assertEquals(i + 1, events.get(i).getSequence());
+		}
+		assertEquals(new Ladder(id, Brand.WERNER), events.get(0).getTool());
+		assertEquals(5, events.get(1).getRentalDays());
+		assertEquals(10, events.get(1).getDiscountPercent());
+		assertEquals(CHECKOUT_DATE, events.get(1).getCheckoutDate());
+		assertEquals(2.49f, events.get(3).getDailyCharge());
+		assertEquals(newId, events.get(4).getNewId());
+		assertEquals("#2 CHECKOUT LADW-000001 5 days 10% 2015-09-03", events.get(1).toString());
+	}
+
+	@Test
+	@DisplayName("Events That Do Not Apply Are Not Recorded")
+	void eventsThatDoNotApplyAreNotRecorded() {
+		ToolId id = ToolId.of("JAKR-000001");
+		assertTrue(ledger.recordNewTool(new Jackhammer(id, Brand.RIDGID)));
+		assertFalse(ledger.recordNewTool(new Jackhammer(id, Brand.RIDGID)));
+		assertFalse(ledger.recordNewTool(null));
+		assertFalse(ledger.recordReturn(id));
+		assertTrue(ledger.recordCheckout(id, 5, 10, CHECKOUT_DATE));
+		assertFalse(ledger.recordCheckout(id, 5, 10, CHECKOUT_DATE));
+		assertFalse(ledger.recordPriceChange(id, 2.99f));
+		assertFalse(ledger.recordRename(id, id));
+		assertFalse(ledger.recordRename(id, null));
+		assertFalse(ledger.recordRemoval(ToolId.of("JAKR-000002")));
+		assertFalse(ledger.recordToolChange(new Jackhammer(ToolId.of("JAKR-000002"), Brand.RIDGID)));
+		assertFalse(ledger.recordCheckout(null, 5, 10, CHECKOUT_DATE));
+		assertFalse(ledger.recordNewTool(new Tool(ToolId.of("JAKR-000003"), Type.JACKHAMMER, Brand.RIDGID, 2.99f, true, false, false, false) {
+		})); // only Chainsaws, Ladders and Jackhammers can be recorded
+		assertEquals(2, ledger.getSequence());
+		assertEquals(2, events(ledger).size());
+		assertTrue(ledger.getTool(id).isCheckedOut());
+		assertNull(ledger.getTool(ToolId.of("JAKR-000002")));
+	}
+
+	@Test
+	@DisplayName("Reopens From The Log")
+	void reopensFromTheLog() {
+		for (int serial = 0; serial < 100; serial++) {
+			ledger.recordNewTool(unit(serial));
+		}
+		ledger.recordCheckout(unit(7).getId(), 5, 10, CHECKOUT_DATE);
+		ledger.recordPriceChange(unit(8).getId(), 9.99f);
+		List<Tool> expected = ledgerTools(ledger);
+		ledger.close();
+
+		ledger = new RentalLedger(ledgerDirectory);
+		assertEquals(102, ledger.getSequence());
+		assertEquals(102, ledger.getReplayedEvents());
+		assertFalse(ledger.wasRecovered());
+		assertEquals(expected, ledgerTools(ledger));
+		assertTrue(ledger.recordReturn(unit(7).getId()));
+		assertEquals(103, ledger.getSequence());
+		assertEquals(103, events(ledger).size());
+	}
+
+	@Test
+	@DisplayName("Reopens From The Snapshot")
+	void reopensFromTheSnapshot() {
+		ledger.close();
+		ledger = new RentalLedger(ledgerDirectory, 16, 1000);
+		HashMapStorage expected = new HashMapStorage();
+		LedgerStorage ledgerStorage = new LedgerStorage(expected, ledger);
+		for (int serial = 0; serial < 2000; serial++) {
+			ledgerStorage.addTool(unit(serial));
+		}
+		randomWrites(ledgerStorage, new Random(24), 2000, 10000);
+		long sequence = ledger.getSequence();
+		ledger.close();
+
+		ledger = new RentalLedger(ledgerDirectory, 16, 1000);
+		assertTrue(Files.exists(ledgerDirectory.resolve(RentalLedger.SNAPSHOT_FILE)));
+		assertEquals(sequence, ledger.getSequence());
+		assertTrue(ledger.getReplayedEvents() < 1000); // only the events after the last snapshot
+		assertEquals(storedTools(expected), ledgerTools(ledger));
+		assertEquals(sequence, events(ledger).size()); // the whole history is kept
+	}
+
+	@Test
+	@DisplayName("Torn Record Is Removed")
+	void tornRecordIsRemoved() throws IOException {
+		for (int serial = 0; serial < 10; serial++) {
+			ledger.recordNewTool(unit(serial));
+		}
+		ledger.recordCheckout(unit(4).getId(), 5, 10, CHECKOUT_DATE);
+		ledger.close();
+
+		// The last record (the checkout) is cut short, as if the machine crashed while writing it
+		Path log = ledgerDirectory.resolve(RentalLedger.LOG_FILE);
+		long length = Files.size(log);
+		try (RandomAccessFile raf = new RandomAccessFile(log.toFile(), "rw")) {
+			raf.setLength(length - 3);
+		}
+
+		ledger = new RentalLedger(ledgerDirectory);
+		assertTrue(ledger.wasRecovered());
+		assertTrue(outputTestStream.toString().contains("were an incomplete event and have been removed."));
+		assertEquals(10, ledger.getSequence());
+		assertFalse(ledger.getTool(unit(4).getId()).isCheckedOut());
+
+		// New events are appended after the last valid record
+		assertTrue(ledger.recordCheckout(unit(4).getId(), 3, 0, CHECKOUT_DATE));
+		ledger.close();
+		ledger = new RentalLedger(ledgerDirectory);
+		assertFalse(ledger.wasRecovered());
+		assertEquals(11, ledger.getSequence());
+		assertEquals(3, events(ledger).get(10).getRentalDays());
+	}
+
+	@Test
+	@DisplayName("Corrupted Record Is Removed")
+	void corruptedRecordIsRemoved() throws IOException {
+		for (int serial = 0; serial < 10; serial++) {
+			ledger.recordNewTool(unit(serial));
+		}
+		ledger.close();
+
+		Path log = ledgerDirectory.resolve(RentalLedger.LOG_FILE);
+		long length = Files.size(log);
+		try (RandomAccessFile raf = new RandomAccessFile(log.toFile(), "rw")) {
+			raf.seek(length - 2);
+			raf.write(raf.read() ^ 0x5A);
+		}
+
+		ledger = new RentalLedger(ledgerDirectory);
+		assertTrue(ledger.wasRecovered());
+		assertEquals(9, ledger.getSequence());
+		assertNull(ledger.getTool(unit(9).getId()));
+	}
+
+	@Test
+	@DisplayName("Corrupted Snapshot Is Ignored")
+	void corruptedSnapshotIsIgnored() throws IOException {
+		for (int serial = 0; serial < 50; serial++) {
+			ledger.recordNewTool(unit(serial));
+		}
+		ledger.snapshot();
+		ledger.recordCheckout(unit(1).getId(), 5, 10, CHECKOUT_DATE);
+		List<Tool> expected = ledgerTools(ledger);
+		ledger.close();
+
+		Path snapshot = ledgerDirectory.resolve(RentalLedger.SNAPSHOT_FILE);
+		try (RandomAccessFile raf = new RandomAccessFile(snapshot.toFile(), "rw")) {
+			raf.seek(RentalLedger.SNAPSHOT_HEADER_SIZE + 3);
+			raf.write(raf.read() ^ 0x5A);
+		}
+
+		ledger = new RentalLedger(ledgerDirectory);
+		assertTrue(outputTestStream.toString().contains("is not valid and was ignored. The whole ledger will be replayed."));
+		assertEquals(51, ledger.getReplayedEvents());
+		assertEquals(expected, ledgerTools(ledger));
+	}
+
+	@Test
+	@DisplayName("Crash Copy Keeps The Synced Events")
+	void crashCopyKeepsTheSyncedEvents() throws IOException {
+		ledger.close();
+		ledger = new RentalLedger(ledgerDirectory, 4, 1000);
+		Path log = ledgerDirectory.resolve(RentalLedger.LOG_FILE);
+		long emptyLength = Files.size(log);
+		for (int serial = 0; serial < 3; serial++) {
+			ledger.recordNewTool(unit(serial));
+		}
+		assertEquals(emptyLength, Files.size(log)); // the events are still buffered
+
+		ledger.recordNewTool(unit(3)); // the fourth event writes and forces the batch
+		long syncedLength = Files.size(log);
+		assertTrue(syncedLength > emptyLength);
+		ledger.recordNewTool(unit(4));
+		assertEquals(syncedLength, Files.size(log));
+
+		// A copy of the files, as they would be found on disk after a crash
+		Path crashed = directory.resolve("crashed");
+		Files.createDirectories(crashed);
+		Files.copy(log, crashed.resolve(RentalLedger.LOG_FILE));
+		try (RentalLedger crashedLedger = new RentalLedger(crashed)) {
+			assertEquals(4, crashedLedger.getSequence());
+		}
+
+		ledger.sync();
+		assertTrue(Files.size(log) > syncedLength);
+	}
+
+	@Test
+	@DisplayName("Every Event Synced")
+	void everyEventSynced() throws IOException {
+		ledger.close();
+		ledger = new RentalLedger(ledgerDirectory, 1, 1000);
+		Path log = ledgerDirectory.resolve(RentalLedger.LOG_FILE);
+		long length = Files.size(log);
+		for (int serial = 0; serial < 5; serial++) {
+			ledger.recordNewTool(unit(serial));
+			assertTrue(Files.size(log) > length);
+			length = Files.size(log);
+		}
+	}
+
+	@Test
+	@DisplayName("Invalid Ledgers")
+	void invalidLedgers() throws IOException {
+		assertThrows(IllegalStateException.class, () -> new RentalLedger(ledgerDirectory));
+		assertThrows(IllegalArgumentException.class, () -> new RentalLedger(directory.resolve("other"), 0, 10));
+
+		Path notALedger = directory.resolve("notALedger");
+		Files.createDirectories(notALedger);
+		Files.write(notALedger.resolve(RentalLedger.LOG_FILE), new byte[64]);
+		assertThrows(IllegalStateException.class, () -> new RentalLedger(notALedger));
+
+		ledger.close();
+		assertFalse(ledger.recordNewTool(unit(1)));
+		ledger.close();
+		assertEquals(String.format("The ledger %s is closed. Please open a new RentalLedger.%n", ledgerDirectory)
+				+ String.format("The ledger %s is already closed!", ledgerDirectory), outputTestStream.toString().trim());
+	}
+
+	@Test
+	@DisplayName("Rebuilds Any StorageSystem")
+	void rebuildsAnyStorageSystem() {
+		HashMapStorage expected = new HashMapStorage();
+		LedgerStorage ledgerStorage = new LedgerStorage(expected, ledger);
+		for (int serial = 0; serial < 1000; serial++) {
+			ledgerStorage.addTool(unit(serial));
+		}
+		randomWrites(ledgerStorage, new Random(25), 1000, 5000);
+
+		MappedFileStorage mappedFileStorage = new MappedFileStorage(directory.resolve("tools.dat"));
+		try {
+			for (StorageSystem storage : new StorageSystem[] { new HashMapStorage(), new ConcurrentHashMapStorage(), new ColumnarStorage(), mappedFileStorage }) {
+				storage.removeTool(Code.CHNS);
+				storage.addTool(unit(1)); // tools that are not in the ledger are removed
+				assertEquals(expected.streamTools().count(), ledger.rebuild(storage));
+				assertEquals(storedTools(expected), storedTools(storage));
+			}
+		} finally {
+			mappedFileStorage.close();
+		}
+	}
+
+	@Nested
+	@DisplayName("LedgerStorage Tests")
+	class LedgerStorageTests {
+
+		@Test
+		@DisplayName("Starts A New Ledger From The Storage")
+		void startsANewLedgerFromTheStorage() {
+			HashMapStorage storage = new HashMapStorage();
+			LedgerStorage ledgerStorage = new LedgerStorage(storage, ledger);
+			assertSame(storage, ledgerStorage.getStorage());
+			assertSame(ledger, ledgerStorage.getLedger());
+			assertEquals(4, ledger.size());
+			assertEquals(4, ledger.getSequence());
+			assertEquals(storedTools(storage), ledgerTools(ledger));
+		}
+
+		@Test
+		@DisplayName("Records Writes")
+		void recordsWrites() {
+			LedgerStorage ledgerStorage = new LedgerStorage(new HashMapStorage(), ledger);
+			RentalAgreement rentalAgreement = ledgerStorage.checkout(Code.JAKR, 5, 10, CHECKOUT_DATE);
+			assertNotNull(rentalAgreement);
+			ledgerStorage.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+			ledgerStorage.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+			ledgerStorage.updateTool(Code.LADW, Attribute.DAILYCHARGE, 3.49f);
+			ledgerStorage.updateTool(Code.CHNS, Attribute.BRAND, Brand.DEWALT);
+			ledgerStorage.updateTool(Code.JAKD, Attribute.CODE, ToolId.of("JAKD-000001"));
+			ledgerStorage.removeTool(ToolId.of("JAKD-000001"));
+			ledgerStorage.addTools(Arrays.asList(unit(1), unit(2)));
+
+			List<Event> events = events(ledger).subList(4, 13);
+			assertEquals(Arrays.asList(EventType.CHECKOUT, EventType.RETURN, EventType.CHECKOUT, EventType.PRICE_CHANGE, EventType.TOOL,
+					EventType.RENAME, EventType.REMOVE, EventType.TOOL, EventType.TOOL), events.stream().map(Event::getType).collect(Collectors.toList()));
+			assertEquals(rentalAgreement.getRentalDays(), events.get(0).getRentalDays());
+			assertEquals(rentalAgreement.getDiscountPercent(), events.get(0).getDiscountPercent());
+			assertEquals(rentalAgreement.getCheckoutDate(), events.get(0).getCheckoutDate());
+			assertNull(events.get(2).getCheckoutDate()); // checked out without a RentalAgreement
+			assertEquals(Brand.DEWALT, events.get(4).getTool().getBrand());
+			assertEquals(storedTools(ledgerStorage), ledgerTools(ledger));
+		}
+
+		@Test
+		@DisplayName("Failed Writes Are Not Recorded")
+		void failedWritesAreNotRecorded() {
+			LedgerStorage ledgerStorage = new LedgerStorage(new HashMapStorage(), ledger);
+			ledgerStorage.checkout(Code.JAKR, 5, 10, CHECKOUT_DATE);
+			long sequence = ledger.getSequence();
+
+			assertNull(ledgerStorage.checkout(Code.JAKR, 5, 10, CHECKOUT_DATE));
+			assertThrows(InvalidCheckoutArgumentException.class, () -> ledgerStorage.checkout(Code.LADW, 0, 10, CHECKOUT_DATE));
+			ledgerStorage.updateTool(Code.LADW, Attribute.CHECKEDOUT, false);
+			ledgerStorage.updateTool(Code.LADW, Attribute.DAILYCHARGE, "3.49");
+			ledgerStorage.updateTool(Code.LADW, Attribute.TYPE, Brand.DEWALT);
+			ledgerStorage.updateTool(Code.LADW, Attribute.CODE, Code.CHNS);
+			ledgerStorage.updateTool(ToolId.of("NONE-000001"), Attribute.CHECKEDOUT, true);
+			ledgerStorage.removeTool(ToolId.of("NONE-000001"));
+			ledgerStorage.addTool(new Chainsaw(Code.CHNS, Brand.STIHL));
+			ledgerStorage.addTool(null);
+			assertEquals(sequence, ledger.getSequence());
+			assertTrue(outputTestStream.toString().contains("The tool with code JAKR is already checked out."));
+			assertTrue(outputTestStream.toString().contains("Invalid Float value passed in. Not updating tool."));
+			assertEquals(storedTools(ledgerStorage), ledgerTools(ledger));
+		}
+
+		@Test
+		@DisplayName("Concurrent Writes Are Recorded In Order")
+		void concurrentWritesAreRecordedInOrder() throws Exception {
+			// Widens the window between a write to the storage and its event being recorded
+			ConcurrentHashMapStorage storage = new ConcurrentHashMapStorage() {
+				@Override
+				public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+					RentalAgreement rentalAgreement = super.checkout(code, rentalDays, discountPercent, checkoutDate);
+					Thread.yield();
+					return rentalAgreement;
+				}
+			};
+			LedgerStorage ledgerStorage = new LedgerStorage(storage, ledger);
+			AtomicInteger checkouts = new AtomicInteger(), returns = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			try {
+				List<Future<?>> writers = new ArrayList<Future<?>>();
+				for (int thread = 0; thread < 8; thread++) {
+					Random random = new Random(thread);
+					writers.add(executor.submit(() -> {
+						for (int i = 0; i < 2000; i++) {
+							Code code = Code.values()[random.nextInt(Code.values().length)];
+							if (random.nextBoolean()) {
+								if (ledgerStorage.checkout(code, 5, 10, CHECKOUT_DATE) != null) {
+									checkouts.incrementAndGet();
+								}
+							} else if (ledgerStorage.returnTool(code)) {
+								returns.incrementAndGet();
+							}
+						}
+					}));
+				}
+				for (Future<?> writer : writers) {
+					writer.get(30, TimeUnit.SECONDS);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+
+			// A return recorded before the checkout it follows would be rejected by the ledger
+			List<EventType> types = events(ledger).stream().map(Event::getType).collect(Collectors.toList());
+			assertEquals(checkouts.get(), types.stream().filter(EventType.CHECKOUT::equals).count());
+			assertEquals(returns.get(), types.stream().filter(EventType.RETURN::equals).count());
+			assertEquals(storedTools(storage), ledgerTools(ledger));
+		}
+
+		@Test
+		@DisplayName("Rebuilds The Storage On Restart")
+		void rebuildsTheStorageOnRestart() {
+			ledger.close();
+			ledger = new RentalLedger(ledgerDirectory, 64, 2000);
+			HashMapStorage storage = new HashMapStorage();
+			LedgerStorage ledgerStorage = new LedgerStorage(storage, ledger);
+			List<Tool> units = new ArrayList<Tool>();
+			for (int serial = 0; serial < 5000; serial++) {
+				units.add(unit(serial));
+			}
+			ledgerStorage.addTools(units);
+			randomWrites(ledgerStorage, new Random(26), 5000, 20000);
+			ledger.close();
+
+			ledger = new RentalLedger(ledgerDirectory, 64, 2000);
+			ColumnarStorage restarted = new ColumnarStorage(); // starts with the four default tools
+			LedgerStorage restartedStorage = new LedgerStorage(restarted, ledger);
+			assertTrue(ledger.getReplayedEvents() < 2000);
+			assertEquals(storedTools(storage), storedTools(restarted));
+
+			// The restarted storage keeps recording
+			ToolId id = storage.findAvailable(null, null).findFirst().get().getId();
+			assertNotNull(restartedStorage.checkout(id, 5, 10, CHECKOUT_DATE));
+			assertTrue(ledger.getTool(id).isCheckedOut());
+		}
+	}
+}
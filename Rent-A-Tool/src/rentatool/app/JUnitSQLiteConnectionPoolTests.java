@@ -0,0 +1,294 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the SQLiteConnectionPool class and for
+ * SQLiteDB instances that use one (created via SQLiteDB(int poolSize)).
+ * The nested "Stress Tests" class shares one pooled SQLiteDB between many
+ * threads and checks that no Tool is ever rented by two threads at once
+ * and that reads keep working while writes are in progress.
+ *
+ * The TestSuite will use a @BeforeEach annotation to reassign standard
+ * output to a test output stream, and an @AfterEach to close the pool
+ * and restore standard output.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("SQLiteConnectionPool Tests")
+class JUnitSQLiteConnectionPoolTests {
+
+	static final int POOL_SIZE = 4;
+	static final int THREADS = 16;
+
+	SQLiteConnectionPool pool; // Pool created by the pool tests
+	SQLiteDB pooledSQLiteDB; // Pooled StorageSystem created by the SQLiteDB tests
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepSystemOut() {
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void closePoolAndRestoreSystemOut() {
+		if (pool != null && !pool.isClosed()) {
+			pool.close();
+		}
+		if (pooledSQLiteDB != null) {
+			pooledSQLiteDB.closeConnection();
+		}
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	// Runs the query on the passed-in connection and returns the first column of its first row
+	static String queryString(SQLiteConnection connection, String sql) throws SQLException {
+		try (Statement statement = connection.getConnection().createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+			assertTrue(resultSet.next());
+			return resultSet.getString(1);
+		}
+	}
+
+	@Nested
+	@DisplayName("Pool Tests")
+	class PoolTests {
+		@BeforeEach
+		void createPool() throws SQLException {
+			pool = new SQLiteConnectionPool(SQLiteDB.DATABASE_URL, POOL_SIZE);
+		}
+
+		@Test
+		@DisplayName("Connections Use WAL And Busy Timeout")
+		void connectionsUseWalAndBusyTimeout() throws SQLException {
+			SQLiteConnection connection = pool.acquire(false);
+			try {
+				assertEquals("wal", queryString(connection, "PRAGMA journal_mode;").toLowerCase());
+				assertEquals(String.valueOf(SQLiteConnectionPool.BUSY_TIMEOUT_MILLIS), queryString(connection, "PRAGMA busy_timeout;"));
+			} finally {
+				pool.release(connection, false);
+			}
+		}
+
+		@Test
+		@DisplayName("Leases Distinct Connections")
+		void leasesDistinctConnections() throws SQLException {
+			assertEquals(POOL_SIZE, pool.getSize());
+			Set<SQLiteConnection> leased = new HashSet<SQLiteConnection>();
+			for (int i = 0; i < POOL_SIZE; i++) {
+				leased.add(pool.acquire(false));
+			}
+			assertEquals(POOL_SIZE, leased.size());
+			for (SQLiteConnection connection : leased) {
+				pool.release(connection, false);
+			}
+		}
+
+		@Test
+		@DisplayName("Single Writer With Parallel Readers")
+		void singleWriterWithParallelReaders() throws Exception {
+			ExecutorService reader = Executors.newSingleThreadExecutor();
+			ExecutorService secondWriter = Executors.newSingleThreadExecutor(); // the write lock must be released by the thread holding it
+			try {
+				SQLiteConnection writerConnection = pool.acquire(true);
+
+				// A reader is not held up by the writer...
+				SQLiteConnection readerConnection = reader.submit(() -> pool.acquire(false)).get(1, TimeUnit.SECONDS);
+				assertNotNull(readerConnection);
+				pool.release(readerConnection, false);
+
+				// ...but a second writer has to wait until the first one is released
+				Future<SQLiteConnection> secondWriterConnection = secondWriter.submit(() -> pool.acquire(true));
+				assertThrows(TimeoutException.class, () -> secondWriterConnection.get(200, TimeUnit.MILLISECONDS));
+				pool.release(writerConnection, true);
+				SQLiteConnection leased = secondWriterConnection.get(1, TimeUnit.SECONDS);
+				assertNotNull(leased);
+				secondWriter.submit(() -> pool.release(leased, true)).get(1, TimeUnit.SECONDS);
+			} finally {
+				reader.shutdownNow();
+				secondWriter.shutdownNow();
+			}
+		}
+
+		@Test
+		@DisplayName("Closed Pool")
+		void closedPool() throws SQLException {
+			SQLiteConnection leased = pool.acquire(false);
+			pool.close();
+			assertTrue(pool.isClosed());
+			assertNull(pool.acquire(false));
+			assertNull(pool.acquire(true));
+
+			// A connection leased before the pool was closed is closed once it is released
+			assertFalse(leased.isClosed());
+			pool.release(leased, false);
+			assertTrue(leased.isClosed());
+		}
+
+		@Test
+		@DisplayName("Invalid Pool Size")
+		void invalidPoolSize() {
+			assertThrows(IllegalArgumentException.class, () -> new SQLiteConnectionPool(SQLiteDB.DATABASE_URL, 0));
+		}
+
+		@Test
+		@DisplayName("Default Pool Size Property")
+		void defaultPoolSizeProperty() {
+			try {
+				System.setProperty(SQLiteConnectionPool.POOL_SIZE_PROPERTY, "3");
+				assertEquals(3, SQLiteConnectionPool.getDefaultPoolSize());
+				System.setProperty(SQLiteConnectionPool.POOL_SIZE_PROPERTY, "-1");
+				assertEquals(Runtime.getRuntime().availableProcessors(), SQLiteConnectionPool.getDefaultPoolSize());
+			} finally {
+				System.clearProperty(SQLiteConnectionPool.POOL_SIZE_PROPERTY);
+			}
+		}
+	}
+
+	@Nested
+	@DisplayName("Pooled SQLiteDB Tests")
+	class PooledSQLiteDBTests {
+		@BeforeEach
+		void createPooledSQLiteDB() {
+			pooledSQLiteDB = new SQLiteDB(POOL_SIZE);
+		}
+
+		@Test
+		@DisplayName("Default Table Created")
+		void defaultTableCreated() {
+			for (Code code : Code.values()) {
+				assertNotNull(pooledSQLiteDB.getTool(code));
+			}
+			assertEquals("", outputTestStream.toString().trim());
+		}
+
+		@Test
+		@DisplayName("Invalid Pool Size")
+		void invalidPoolSize() {
+			SQLiteDB defaultSizedSQLiteDB = new SQLiteDB(0);
+			try {
+				assertEquals(String.format("The connection pool size must be at least 1. Using the default pool size of %d.", SQLiteConnectionPool.getDefaultPoolSize()),
+						outputTestStream.toString().trim());
+				assertNotNull(defaultSizedSQLiteDB.getTool(Code.CHNS));
+			} finally {
+				defaultSizedSQLiteDB.closeConnection();
+			}
+		}
+
+		@Test
+		@DisplayName("Close Connection")
+		void closeConnection() {
+			pooledSQLiteDB.closeConnection();
+			pooledSQLiteDB.getTool(Code.JAKD);
+			assertEquals("There is currently no valid database connection. Could not retrieve tool from the database table.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+
+			pooledSQLiteDB.updateTool(Code.JAKR, Attribute.CHECKEDOUT, true);
+			assertEquals("There is currently no valid database connection. Could not update tool in the database table.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+
+			pooledSQLiteDB.closeConnection();
+			assertEquals("SQLite DB connection is already closed!", outputTestStream.toString().trim());
+		}
+	}
+
+	@Nested
+	@DisplayName("Stress Tests")
+	class StressTests {
+		@BeforeEach
+		void createPooledSQLiteDB() {
+			pooledSQLiteDB = new SQLiteDB(POOL_SIZE);
+		}
+
+		// Runs the task on THREADS threads that all start at the same moment, and returns their results
+		<T> List<T> runConcurrently(Callable<T> task) throws Exception {
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<T>> futures = new ArrayList<Future<T>>();
+				for (int i = 0; i < THREADS; i++) {
+					futures.add(executor.submit(() -> {
+						start.await();
+						return task.call();
+					}));
+				}
+				start.countDown();
+
+				List<T> results = new ArrayList<T>();
+				for (Future<T> future : futures) {
+					results.add(future.get(60, TimeUnit.SECONDS));
+				}
+				return results;
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		@Test
+		@DisplayName("Exactly One Rental Agreement Per Tool")
+		void exactlyOneRentalAgreementPerTool() throws Exception {
+			for (int round = 0; round < 25; round++) {
+				List<RentalAgreement> results = runConcurrently(() -> pooledSQLiteDB.checkout(Code.JAKD, 5, 0, LocalDate.of(2015, 9, 3)));
+				assertEquals(1, results.stream().filter(Objects::nonNull).count());
+				pooledSQLiteDB.updateTool(Code.JAKD, Attribute.CHECKEDOUT, false);
+			}
+			assertFalse(outputTestStream.toString().contains("There was an issue"));
+		}
+
+		@Test
+		@DisplayName("Reads During Writes")
+		void readsDuringWrites() throws Exception {
+			Code[] codes = Code.values();
+			List<Integer> reads = runConcurrently(() -> {
+				int successfulReads = 0;
+				for (int i = 0; i < 200; i++) {
+					Code code = codes[ThreadLocalRandom.current().nextInt(codes.length)];
+					if (ThreadLocalRandom.current().nextInt(10) == 0) {
+						pooledSQLiteDB.updateTool(code, Attribute.DAILYCHARGE, 1.99f);
+					} else if (pooledSQLiteDB.getTool(code) != null) {
+						successfulReads++;
+					}
+				}
+				return successfulReads;
+			});
+
+			assertFalse(outputTestStream.toString().contains("There was an issue"));
+			assertTrue(reads.stream().mapToInt(Integer::intValue).sum() > 0);
+			for (Code code : codes) {
+				assertEquals(1.99f, pooledSQLiteDB.getTool(code).getDailyCharge(), 0.001f);
+			}
+		}
+	}
+}
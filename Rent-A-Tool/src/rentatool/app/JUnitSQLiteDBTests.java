@@ -4,7 +4,22 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +30,9 @@ import org.junit.jupiter.api.Test;
 import rentatool.rental_items.Chainsaw;
 import rentatool.rental_items.Jackhammer;
 import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
 import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.Attribute;
 import rentatool.rental_items.ToolEnums.Brand;
 import rentatool.rental_items.ToolEnums.Code;
@@ -64,6 +81,29 @@ class JUnitSQLiteDBTests {
 		System.setOut(new PrintStream(standardOutStream));
 	}
 	
+	// Runs the passed-in SQL on a separate connection to the database file and returns the first column of its first row
+	static String querySQL(String sql) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(SQLiteDB.DATABASE_URL);
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(sql)) {
+			StringBuilder result = new StringBuilder();
+			while (resultSet.next()) {
+				result.append(resultSet.getString(resultSet.getMetaData().getColumnCount())).append('\n');
+			}
+			return result.toString().trim();
+		}
+	}
+	
+	// Runs the passed-in SQL statements on a separate connection to the database file
+	static void updateSQL(String... sqls) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(SQLiteDB.DATABASE_URL);
+				Statement statement = connection.createStatement()) {
+			for (String sql : sqls) {
+				statement.executeUpdate(sql);
+			}
+		}
+	}
+	
 	@Nested
 	@DisplayName("Database Specific Tests")
 	class DatabaseSpecificTests {
@@ -188,7 +228,7 @@ class JUnitSQLiteDBTests {
 		@Test
 		@DisplayName("Null Tool Code")
 		void getNullTool() {
-			assertNull(mySQLiteDB.getTool(null));
+			assertNull(mySQLiteDB.getTool((Code) null));
 			assertEquals("The passed-in Code was null. No Tool could be retrieved.", outputTestStream.toString().trim());
 		}
 		
@@ -217,6 +257,152 @@ class JUnitSQLiteDBTests {
 		}
 	}
 	
+	@Nested
+	@DisplayName("Checkout Tests")
+	class CheckoutTests {
+		// method signature: checkout(Code code, int rentalDays, int discountPercent, LocalDate checkoutDate)
+		
+		@Test
+		@DisplayName("Null Tool Code")
+		void checkoutNullTool() {
+			assertNull(mySQLiteDB.checkout((Code) null, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("The passed-in Code was null. No tool was checked out.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Non-Existent Tool")
+		void checkoutNonExistentTool() {
+			// Assume that the removal of default Tool with code JAKR was successful. If not, then skip this test.
+			mySQLiteDB.removeTool(Code.JAKR);
+			assumeTrue(mySQLiteDB.getTool(Code.JAKR) == null);
+			outputTestStream.reset();
+			
+			// Run assertions
+			assertNull(mySQLiteDB.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("No available Tool with code JAKR was found. Nothing to check out.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Already Checked Out Tool")
+		void checkoutCheckedOutTool() {
+			// Assume that the Tool with code LADW was checked out. If not, then skip this test.
+			mySQLiteDB.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+			assumeTrue(mySQLiteDB.getTool(Code.LADW).isCheckedOut());
+			
+			// Run assertions
+			assertNull(mySQLiteDB.checkout(Code.LADW, 5, 10, LocalDate.of(2015, 9, 3)));
+			assertEquals("No available Tool with code LADW was found. Nothing to check out.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Invalid Arguments Leave Tool Available")
+		void checkoutInvalidArguments() {
+			assertThrows(InvalidCheckoutArgumentException.class,
+					() -> mySQLiteDB.checkout(Code.JAKR, 5, 101, LocalDate.of(2015, 9, 3)));
+			assertFalse(mySQLiteDB.getTool(Code.JAKR).isCheckedOut());
+		}
+		
+		@Test
+		@DisplayName("Checkout Happy Path")
+		void checkoutHappyPath() {
+			RentalAgreement rentalAgreement = mySQLiteDB.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2));
+			assertNotNull(rentalAgreement);
+			assertEquals(Code.JAKR, rentalAgreement.getCode());
+			assertEquals(5, rentalAgreement.getTotalChargeableDays());
+			assertEquals("14.95", rentalAgreement.getFinalCharge().toString());
+			assertTrue(mySQLiteDB.getTool(Code.JAKR).isCheckedOut());
+			
+			// A second checkout of the same tool must fail until it is returned
+			assertNull(mySQLiteDB.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2)));
+			mySQLiteDB.updateTool(Code.JAKR, Attribute.CHECKEDOUT, false);
+			assertNotNull(mySQLiteDB.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2)));
+		}
+		
+		@Test
+		@DisplayName("Return Tool")
+		void returnTool() {
+			assertNotNull(mySQLiteDB.checkout(Code.JAKR, 9, 0, LocalDate.of(2015, 7, 2)));
+			assertTrue(mySQLiteDB.returnTool(Code.JAKR));
+			assertFalse(mySQLiteDB.getTool(Code.JAKR).isCheckedOut());
+			
+			// Only a checked out tool can be returned, and only once
+			assertFalse(mySQLiteDB.returnTool(Code.JAKR));
+			assertFalse(mySQLiteDB.returnTool(ToolId.of("JAKR-404")));
+			assertFalse(mySQLiteDB.returnTool((ToolId) null));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Bulk Operation Tests")
+	class BulkOperationTests {
+		// method signatures: addTools(Collection<? extends Tool> tools), getToolsById(Collection<ToolId> ids),
+		// updateToolsById(Attribute attribute, Map<ToolId, ?> values), and getTools()/updateTools() keyed by Codes
+		
+		@Test
+		@DisplayName("Null Collections")
+		void nullCollections() {
+			mySQLiteDB.addTools(null);
+			assertEquals("The passed-in collection of Tools was null. No tools were added.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+			
+			assertTrue(mySQLiteDB.getTools(null).isEmpty());
+			assertEquals("The passed-in collection of Codes was null. No Tools could be retrieved.", outputTestStream.toString().trim());
+			outputTestStream.reset();
+			
+			mySQLiteDB.updateTools(Attribute.CHECKEDOUT, null);
+			assertEquals("A passed-in parameter was null. Please pass in non-null parameters.", outputTestStream.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Add Tools")
+		void addTools() {
+			// Assume the removal of the default JAKR and LADW tools was successful. If not, then skip this test.
+			mySQLiteDB.removeTool(Code.JAKR);
+			mySQLiteDB.removeTool(Code.LADW);
+			assumeTrue(mySQLiteDB.getTool(Code.JAKR) == null);
+			assumeTrue(mySQLiteDB.getTool(Code.LADW) == null);
+			outputTestStream.reset();
+			
+			// Run assertions. The existing CHNS tool and the null Tool are skipped, the others are added.
+			mySQLiteDB.addTools(Arrays.asList(new Jackhammer(Code.JAKR, Brand.DEWALT), null, new Chainsaw(Code.CHNS, Brand.WERNER), new Ladder(Code.LADW, Brand.RIDGID)));
+			assertEquals("The passed-in Tool object was null. No tool was added to the database table.\nA tool with code CHNS already exists.",
+					outputTestStream.toString().trim().replace("\r\n", "\n"));
+			assertEquals(Brand.DEWALT, mySQLiteDB.getTool(Code.JAKR).getBrand());
+			assertEquals(Brand.RIDGID, mySQLiteDB.getTool(Code.LADW).getBrand());
+			assertEquals(Brand.STIHL, mySQLiteDB.getTool(Code.CHNS).getBrand());
+		}
+		
+		@Test
+		@DisplayName("Get Tools")
+		void getTools() {
+			// Assume the removal of the default JAKD tool was successful. If not, then skip this test.
+			mySQLiteDB.removeTool(Code.JAKD);
+			assumeTrue(mySQLiteDB.getTool(Code.JAKD) == null);
+			
+			// Run assertions. The tools are returned in the order of the passed-in codes, without the missing JAKD tool.
+			Map<Code, Tool> tools = mySQLiteDB.getTools(Arrays.asList(Code.LADW, Code.JAKD, Code.CHNS));
+			assertEquals(Arrays.asList(Code.LADW, Code.CHNS), new ArrayList<Code>(tools.keySet()));
+			assertEquals(Type.LADDER, tools.get(Code.LADW).getType());
+			assertEquals(Type.CHAINSAW, tools.get(Code.CHNS).getType());
+		}
+		
+		@Test
+		@DisplayName("Update Tools")
+		void updateTools() {
+			Map<Code, Object> dailyCharges = new LinkedHashMap<Code, Object>();
+			dailyCharges.put(Code.CHNS, 1.59f);
+			dailyCharges.put(Code.JAKD, "InvalidFloatTest");
+			dailyCharges.put(Code.JAKR, 3.49f);
+			mySQLiteDB.updateTools(Attribute.DAILYCHARGE, dailyCharges);
+			
+			// Run assertions. The invalid value is skipped, the others are updated.
+			assertEquals("Invalid Float value passed in. Not updating tool.", outputTestStream.toString().trim());
+			assertEquals(1.59f, mySQLiteDB.getTool(Code.CHNS).getDailyCharge());
+			assertEquals(2.99f, mySQLiteDB.getTool(Code.JAKD).getDailyCharge());
+			assertEquals(3.49f, mySQLiteDB.getTool(Code.JAKR).getDailyCharge());
+		}
+	}
+	
 	@Nested
 	@DisplayName("Remove Tool Tests")
 	class RemoveToolTests {
@@ -225,7 +411,7 @@ class JUnitSQLiteDBTests {
 		@Test
 		@DisplayName("Null Tool Code")
 		void removeNullTool() {
-			mySQLiteDB.removeTool(null);
+			mySQLiteDB.removeTool((Code) null);
 			assertEquals("The passed-in Code was null. No tool was removed from the database table.", outputTestStream.toString().trim());
 		}
 		
@@ -264,14 +450,14 @@ class JUnitSQLiteDBTests {
 		@Test
 		@DisplayName("All Null Arguments Update")
 		void updateWithAllNullArgs() {
-			mySQLiteDB.updateTool(null, null, null);
+			mySQLiteDB.updateTool((Code) null, null, null);
 			assertEquals("A passed-in parameter was null. Please pass in non-null parameters.", outputTestStream.toString().trim());
 		}
 		
 		@Test
 		@DisplayName("Some Null Arguments Update")
 		void updateWithSomeNullArgs() {
-			mySQLiteDB.updateTool(null, Attribute.CODE, null);
+			mySQLiteDB.updateTool((Code) null, Attribute.CODE, null);
 			assertEquals("A passed-in parameter was null. Please pass in non-null parameters.", outputTestStream.toString().trim());
 		}
 		
@@ -547,4 +733,258 @@ class JUnitSQLiteDBTests {
 			assertEquals("", outputTestStream.toString().trim());
 		}
 	}
+	
+	@Nested
+	@DisplayName("Persistent Mode Tests")
+	class PersistentModeTests {
+		// constructor signature: SQLiteDB(int poolSize, boolean persistent)
+		
+		@Test
+		@DisplayName("Keeps The Existing Table")
+		void keepsTheExistingTable() {
+			mySQLiteDB.addTool(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER));
+			mySQLiteDB.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			mySQLiteDB.removeTool(Code.LADW);
+			
+			SQLiteDB persistentSQLiteDB = new SQLiteDB(2, true);
+			try {
+				assertTrue(persistentSQLiteDB.getTool(Code.JAKR).isCheckedOut());
+				assertNull(persistentSQLiteDB.getTool(Code.LADW));
+				assertEquals(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER), persistentSQLiteDB.getTool(ToolId.of("LADW-000001")));
+				assertEquals(3, persistentSQLiteDB.countAvailable());
+			} finally {
+				persistentSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Non-Persistent Pool Replaces The Table")
+		void nonPersistentPoolReplacesTheTable() {
+			mySQLiteDB.removeTool(Code.LADW);
+			SQLiteDB pooledSQLiteDB = new SQLiteDB(2, false);
+			try {
+				assertNotNull(pooledSQLiteDB.getTool(Code.LADW));
+				assertEquals(4, pooledSQLiteDB.countAvailable());
+			} finally {
+				pooledSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Migrates An Old Schema")
+		void migratesAnOldSchema() throws SQLException {
+			// A table created before the schema was versioned: no indexes and version 0
+			updateSQL("DROP INDEX tool_type;", "DROP INDEX tool_brand;", "DROP INDEX tool_checkedOut;", "DROP INDEX tool_availability;", "PRAGMA user_version = 0;");
+			mySQLiteDB.removeTool(Code.CHNS);
+			mySQLiteDB.updateTool(Code.JAKD, Attribute.DAILYCHARGE, 3.49f);
+			
+			SQLiteDB persistentSQLiteDB = new SQLiteDB(2, true);
+			try {
+				assertEquals(String.valueOf(SQLiteDB.SCHEMA_VERSION), querySQL("PRAGMA user_version;"));
+				assertEquals("tool_availability\ntool_brand\ntool_checkedOut\ntool_type", querySQL("SELECT name FROM sqlite_master WHERE type = 'index' AND name LIKE 'tool\\_%' ESCAPE '\\' ORDER BY name;"));
+				assertEquals(3.49f, persistentSQLiteDB.getTool(Code.JAKD).getDailyCharge());
+				assertNull(persistentSQLiteDB.getTool(Code.CHNS)); // migrating an existing table does not bring removed default tools back
+			} finally {
+				persistentSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Up To Date Schema Is Not Migrated")
+		void upToDateSchemaIsNotMigrated() throws SQLException {
+			mySQLiteDB.removeTool(Code.CHNS);
+			for (int i = 0; i < 2; i++) {
+				SQLiteDB persistentSQLiteDB = new SQLiteDB(2, true);
+				try {
+					assertNull(persistentSQLiteDB.getTool(Code.CHNS));
+					assertEquals(String.valueOf(SQLiteDB.SCHEMA_VERSION), querySQL("PRAGMA user_version;"));
+				} finally {
+					persistentSQLiteDB.closeConnection();
+				}
+			}
+			assertEquals("No matching Tool found with Code CHNS.\nNo matching Tool found with Code CHNS.", outputTestStream.toString().trim().replace("\r", ""));
+		}
+		
+		@Test
+		@DisplayName("Newer Schema Is Not Migrated")
+		void newerSchemaIsNotMigrated() throws SQLException {
+			updateSQL("PRAGMA user_version = 99;");
+			SQLiteDB persistentSQLiteDB = new SQLiteDB(2, true);
+			try {
+				assertEquals(String.format("The database schema version 99 is newer than the latest known version %d. Not migrating the table.", SQLiteDB.SCHEMA_VERSION),
+						outputTestStream.toString().trim());
+				assertEquals("99", querySQL("PRAGMA user_version;"));
+				assertNotNull(persistentSQLiteDB.getTool(Code.CHNS));
+			} finally {
+				persistentSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Creates A Missing Table")
+		void createsAMissingTable() throws SQLException {
+			mySQLiteDB.deleteTable();
+			SQLiteDB persistentSQLiteDB = new SQLiteDB(2, true);
+			try {
+				for (Code code : Code.values()) {
+					assertNotNull(persistentSQLiteDB.getTool(code));
+				}
+				assertEquals(String.valueOf(SQLiteDB.SCHEMA_VERSION), querySQL("PRAGMA user_version;"));
+			} finally {
+				persistentSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Availability Query Uses The Index")
+		void availabilityQueryUsesTheIndex() throws SQLException {
+			assertTrue(querySQL("EXPLAIN QUERY PLAN " + SQLiteDB.COUNT_AVAILABLE_SQL).contains("INDEX tool_checkedOut"));
+			assertEquals(4, mySQLiteDB.countAvailable());
+			mySQLiteDB.checkout(Code.CHNS, 5, 10, LocalDate.of(2015, 9, 3));
+			assertEquals(3, mySQLiteDB.countAvailable());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Stream Tools Tests")
+	class StreamToolsTests {
+		// method signatures: streamTools(), writeStoredTools(Writer)
+		
+		// The codes of the tools streamed by the passed-in SQLiteDB, in the order they were streamed
+		private List<String> streamedCodes(SQLiteDB sqliteDB) {
+			try (Stream<Tool> tools = sqliteDB.streamTools()) {
+				return tools.map(tool -> tool.getId().getName()).collect(Collectors.toList());
+			}
+		}
+		
+		@Test
+		@DisplayName("Tools In Code Order")
+		void toolsInCodeOrder() {
+			mySQLiteDB.addTools(Arrays.asList(new Ladder(ToolId.of("LADW-000002"), Brand.WERNER),
+					new Ladder(ToolId.of("LADW-000001"), Brand.WERNER), new Chainsaw(ToolId.of("AAAA-000001"), Brand.STIHL)));
+			mySQLiteDB.removeTool(Code.JAKD);
+			
+			assertEquals(Arrays.asList("AAAA-000001", "CHNS", "JAKR", "LADW", "LADW-000001", "LADW-000002"), streamedCodes(mySQLiteDB));
+		}
+		
+		@Test
+		@DisplayName("Listing Query Uses The Primary Key")
+		void listingQueryUsesThePrimaryKey() throws SQLException {
+			assertFalse(querySQL("EXPLAIN QUERY PLAN " + SQLiteDB.SELECT_TOOLS_SQL).contains("TEMP B-TREE"));
+		}
+		
+		@Test
+		@DisplayName("Streams The Stored Tools")
+		void streamsTheStoredTools() {
+			mySQLiteDB.checkout(Code.JAKR, 5, 10, LocalDate.of(2015, 9, 3));
+			try (Stream<Tool> tools = mySQLiteDB.streamTools()) {
+				assertEquals(Arrays.asList(mySQLiteDB.getTool(Code.CHNS), mySQLiteDB.getTool(Code.JAKD), mySQLiteDB.getTool(Code.JAKR), mySQLiteDB.getTool(Code.LADW)),
+						tools.collect(Collectors.toList()));
+			}
+		}
+		
+		@Test
+		@DisplayName("Closing The Stream Releases The Connection")
+		void closingTheStreamReleasesTheConnection() {
+			SQLiteDB pooledSQLiteDB = new SQLiteDB(1);
+			try {
+				for (int i = 0; i < 3; i++) {
+					try (Stream<Tool> tools = pooledSQLiteDB.streamTools()) {
+						assertEquals("CHNS", tools.findFirst().get().getId().getName()); // leaves the cursor open until the stream is closed
+					}
+				}
+				pooledSQLiteDB.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+				assertTrue(pooledSQLiteDB.getTool(Code.LADW).isCheckedOut());
+			} finally {
+				pooledSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Writes The Printed Listing")
+		void writesThePrintedListing() throws IOException {
+			mySQLiteDB.printStoredTools();
+			
+			StringWriter writer = new StringWriter();
+			assertEquals(4, mySQLiteDB.writeStoredTools(writer));
+			assertEquals(outputTestStream.toString().trim(), writer.toString().trim());
+		}
+		
+		@Test
+		@DisplayName("Missing Table")
+		void missingTable() throws IOException {
+			mySQLiteDB.deleteTable();
+			StringWriter writer = new StringWriter();
+			assertEquals(0, mySQLiteDB.writeStoredTools(writer));
+			assertEquals("There was an issue listing the tools of the database table.", outputTestStream.toString().trim());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Find Available Tests")
+	class FindAvailableTests {
+		// method signature: findAvailable(Type type, Brand brand)
+		
+		// The codes of the tools found by the passed-in SQLiteDB, sorted
+		private List<String> availableCodes(SQLiteDB sqliteDB, Type type, Brand brand) {
+			try (Stream<Tool> tools = sqliteDB.findAvailable(type, brand)) {
+				return tools.map(tool -> tool.getId().getName()).sorted().collect(Collectors.toList());
+			}
+		}
+		
+		@Test
+		@DisplayName("Default Tools")
+		void defaultTools() {
+			assertEquals(Arrays.asList("JAKD", "JAKR"), availableCodes(mySQLiteDB, Type.JACKHAMMER, null));
+			assertEquals(Arrays.asList("JAKR"), availableCodes(mySQLiteDB, Type.JACKHAMMER, Brand.RIDGID));
+			assertEquals(Arrays.asList("LADW"), availableCodes(mySQLiteDB, null, Brand.WERNER));
+			assertEquals(Arrays.asList("CHNS", "JAKD", "JAKR", "LADW"), availableCodes(mySQLiteDB, null, null));
+			assertEquals(Arrays.asList(), availableCodes(mySQLiteDB, Type.LADDER, Brand.STIHL));
+		}
+		
+		@Test
+		@DisplayName("Checked Out Tools Are Not Found")
+		void checkedOutToolsAreNotFound() {
+			mySQLiteDB.checkout(Code.JAKD, 5, 10, LocalDate.of(2015, 9, 3));
+			mySQLiteDB.addTool(new Jackhammer(ToolId.of("JAKD-000001"), Brand.DEWALT));
+			assertEquals(Arrays.asList("JAKD-000001"), availableCodes(mySQLiteDB, Type.JACKHAMMER, Brand.DEWALT));
+			
+			mySQLiteDB.updateTool(Code.JAKD, Attribute.CHECKEDOUT, false);
+			mySQLiteDB.updateTool(Code.JAKR, Attribute.BRAND, Brand.DEWALT);
+			assertEquals(Arrays.asList("JAKD", "JAKD-000001", "JAKR"), availableCodes(mySQLiteDB, Type.JACKHAMMER, Brand.DEWALT));
+		}
+		
+		@Test
+		@DisplayName("Availability Queries Use An Index")
+		void availabilityQueriesUseAnIndex() throws SQLException {
+			assertTrue(querySQL("EXPLAIN QUERY PLAN " + SQLiteDB.FIND_AVAILABLE_SQL).contains("INDEX tool_availability"));
+			for (String sql : new String[] { SQLiteDB.FIND_AVAILABLE_BY_TYPE_SQL, SQLiteDB.FIND_AVAILABLE_BY_BRAND_SQL, SQLiteDB.FIND_ALL_AVAILABLE_SQL }) {
+				assertTrue(querySQL("EXPLAIN QUERY PLAN " + sql).contains("INDEX"));
+			}
+		}
+		
+		@Test
+		@DisplayName("Closing The Stream Releases The Connection")
+		void closingTheStreamReleasesTheConnection() {
+			SQLiteDB pooledSQLiteDB = new SQLiteDB(1);
+			try {
+				for (int i = 0; i < 3; i++) {
+					try (Stream<Tool> tools = pooledSQLiteDB.findAvailable(Type.JACKHAMMER, null)) {
+						assertEquals(Type.JACKHAMMER, tools.findFirst().get().getType());
+					}
+				}
+				assertNotNull(pooledSQLiteDB.checkout(Code.LADW, 5, 10, LocalDate.of(2015, 9, 3)));
+			} finally {
+				pooledSQLiteDB.closeConnection();
+			}
+		}
+		
+		@Test
+		@DisplayName("Missing Table")
+		void missingTable() {
+			mySQLiteDB.deleteTable();
+			assertEquals(Arrays.asList(), availableCodes(mySQLiteDB, Type.LADDER, null));
+			assertEquals("There was an issue finding the available tools in the database table.", outputTestStream.toString().trim());
+		}
+	}
 }
@@ -0,0 +1,352 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the SQLiteGroupCommitWriter class and for
+ * pooled SQLiteDB instances with group commit enabled: grouping concurrent
+ * checkedOut updates into fewer transactions, completing every update's future
+ * only once it has been committed, and committing the pending updates on close.
+ *
+ * The TestSuite will use a @BeforeEach annotation to create a pooled SQLiteDB
+ * and reassign standard output to a test output stream, and an @AfterEach to
+ * close the SQLiteDB and restore standard output.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("SQLiteGroupCommitWriter Tests")
+class JUnitSQLiteGroupCommitWriterTests {
+
+	static final int POOL_SIZE = 4;
+	static final int THREADS = 16;
+
+	SQLiteDB pooledSQLiteDB;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepSQLiteDBAndSystemOut() {
+		System.setOut(new PrintStream(outputTestStream));
+		pooledSQLiteDB = new SQLiteDB(POOL_SIZE);
+	}
+
+	@AfterEach
+	void closeSQLiteDBAndRestoreSystemOut() {
+		pooledSQLiteDB.closeConnection();
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	@Nested
+	@DisplayName("Setup Tests")
+	class SetupTests {
+		@Test
+		@DisplayName("Invalid Writer Arguments")
+		void invalidWriterArguments() throws SQLException {
+			SQLiteConnectionPool pool = new SQLiteConnectionPool(SQLiteDB.DATABASE_URL, 1);
+			try {
+				assertThrows(IllegalArgumentException.class, () -> new SQLiteGroupCommitWriter(pool, 0, 0));
+				assertThrows(IllegalArgumentException.class, () -> new SQLiteGroupCommitWriter(pool, 1, -1));
+			} finally {
+				pool.close();
+			}
+		}
+
+		@Test
+		@DisplayName("Invalid Group Commit Arguments")
+		void invalidGroupCommitArguments() {
+			pooledSQLiteDB.enableGroupCommit(0, 1000);
+			assertEquals("The group commit batch size must be at least 1 and its delay at least 0. The updates will be committed one by one.", outputTestStream.toString().trim());
+			assertNull(pooledSQLiteDB.getGroupCommitWriter());
+		}
+
+		@Test
+		@DisplayName("Requires A Pooled SQLiteDB")
+		void requiresAPooledSQLiteDB() {
+			SQLiteDB sqliteDB = new SQLiteDB();
+			try {
+				sqliteDB.enableGroupCommit(64, 0);
+				assertEquals("Group commit requires an open pooled SQLiteDB. The updates will be committed one by one.", outputTestStream.toString().trim());
+				assertNull(sqliteDB.getGroupCommitWriter());
+
+				// Updates are still autocommitted one by one
+				sqliteDB.updateTool(Code.LADW, Attribute.CHECKEDOUT, true);
+				assertTrue(sqliteDB.getTool(Code.LADW).isCheckedOut());
+			} finally {
+				sqliteDB.closeConnection();
+			}
+		}
+
+		@Test
+		@DisplayName("Not Enabled")
+		void notEnabled() {
+			CompletableFuture<Boolean> future = pooledSQLiteDB.setCheckedOutAsync(ToolId.of(Code.CHNS), true);
+			CompletionException e = assertThrows(CompletionException.class, future::join);
+			assertEquals("Group commit is not enabled on this SQLiteDB.", e.getCause().getMessage());
+			assertFalse(pooledSQLiteDB.getTool(Code.CHNS).isCheckedOut());
+		}
+	}
+
+	@Nested
+	@DisplayName("Group Commit Tests")
+	class GroupCommitTests {
+		@Test
+		@DisplayName("Update Is Committed")
+		void updateIsCommitted() {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			pooledSQLiteDB.updateTool(Code.JAKD, Attribute.CHECKEDOUT, true);
+			assertTrue(pooledSQLiteDB.getTool(Code.JAKD).isCheckedOut());
+			pooledSQLiteDB.updateTool(Code.JAKD, Attribute.CHECKEDOUT, false);
+			assertFalse(pooledSQLiteDB.getTool(Code.JAKD).isCheckedOut());
+			assertEquals(2, pooledSQLiteDB.getGroupCommitWriter().getUpdateCount());
+
+			// Other attributes are still autocommitted
+			pooledSQLiteDB.updateTool(Code.JAKD, Attribute.DAILYCHARGE, 3.99f);
+			assertEquals(3.99f, pooledSQLiteDB.getTool(Code.JAKD).getDailyCharge());
+			assertEquals(2, pooledSQLiteDB.getGroupCommitWriter().getUpdateCount());
+			assertEquals("", outputTestStream.toString().trim());
+		}
+
+		@Test
+		@DisplayName("Future Completes After Commit")
+		void futureCompletesAfterCommit() {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			assertTrue(pooledSQLiteDB.setCheckedOutAsync(ToolId.of(Code.LADW), true).join());
+			assertTrue(pooledSQLiteDB.getTool(Code.LADW).isCheckedOut()); // read on another pooled connection
+			assertFalse(pooledSQLiteDB.setCheckedOutAsync(ToolId.of("LADW-404"), true).join());
+		}
+
+		@Test
+		@DisplayName("Updates Report Real Checkouts And Returns")
+		void updatesReportRealCheckoutsAndReturns() {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			ToolId ladw = ToolId.of(Code.LADW);
+			assertFalse(pooledSQLiteDB.setCheckedOutAsync(ladw, false).join()); // not checked out yet
+			assertTrue(pooledSQLiteDB.setCheckedOutAsync(ladw, true).join());
+			assertFalse(pooledSQLiteDB.setCheckedOutAsync(ladw, true).join());
+			assertTrue(pooledSQLiteDB.setCheckedOutAsync(ladw, false).join());
+			assertFalse(pooledSQLiteDB.setCheckedOutAsync(ladw, false).join());
+			assertFalse(pooledSQLiteDB.getTool(Code.LADW).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Checkout Is Group Committed")
+		void checkoutIsGroupCommitted() {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			LocalDate checkoutDate = LocalDate.of(2020, 7, 2);
+			assertThrows(InvalidCheckoutArgumentException.class, () -> pooledSQLiteDB.checkout(Code.JAKR, 0, 0, checkoutDate));
+			assertFalse(pooledSQLiteDB.getTool(Code.JAKR).isCheckedOut());
+			assertEquals(0, pooledSQLiteDB.getGroupCommitWriter().getUpdateCount());
+
+			RentalAgreement rentalAgreement = pooledSQLiteDB.checkout(Code.JAKR, 5, 10, checkoutDate);
+			assertEquals(new HashMapStorage().checkout(Code.JAKR, 5, 10, checkoutDate).formatRentalAgreement(), rentalAgreement.formatRentalAgreement());
+			assertTrue(rentalAgreement.getTool().isCheckedOut());
+			assertTrue(pooledSQLiteDB.getTool(Code.JAKR).isCheckedOut());
+			assertEquals(1, pooledSQLiteDB.getGroupCommitWriter().getUpdateCount());
+
+			assertNull(pooledSQLiteDB.checkout(Code.JAKR, 5, 10, checkoutDate));
+			assertNull(pooledSQLiteDB.checkout(ToolId.of("JAKR-404"), 5, 10, checkoutDate));
+		}
+
+		@Test
+		@DisplayName("Return Is Group Committed")
+		void returnIsGroupCommitted() {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			assertFalse(pooledSQLiteDB.returnTool(Code.LADW));
+			assertNotNull(pooledSQLiteDB.checkout(Code.LADW, 3, 0, LocalDate.of(2020, 7, 2)));
+			assertEquals(2, pooledSQLiteDB.getGroupCommitWriter().getUpdateCount());
+
+			assertTrue(pooledSQLiteDB.returnTool(Code.LADW));
+			assertFalse(pooledSQLiteDB.getTool(Code.LADW).isCheckedOut());
+			assertEquals(3, pooledSQLiteDB.getGroupCommitWriter().getUpdateCount());
+
+			assertFalse(pooledSQLiteDB.returnTool(Code.LADW));
+			assertFalse(pooledSQLiteDB.returnTool(ToolId.of("LADW-404")));
+		}
+
+		@Test
+		@DisplayName("Concurrent Checkouts Of One Tool")
+		void concurrentCheckoutsOfOneTool() throws Exception {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<RentalAgreement>> futures = new ArrayList<Future<RentalAgreement>>();
+				for (int t = 0; t < THREADS; t++) {
+					futures.add(executor.submit(() -> {
+						start.await();
+						return pooledSQLiteDB.checkout(Code.CHNS, 3, 0, LocalDate.of(2020, 7, 2));
+					}));
+				}
+				start.countDown();
+				int checkouts = 0;
+				for (Future<RentalAgreement> future : futures) {
+					checkouts += (future.get(60, TimeUnit.SECONDS) != null) ? 1 : 0;
+				}
+				assertEquals(1, checkouts);
+			} finally {
+				executor.shutdownNow();
+			}
+			assertTrue(pooledSQLiteDB.getTool(Code.CHNS).isCheckedOut());
+		}
+
+		@Test
+		@DisplayName("Updates Are Grouped")
+		void updatesAreGrouped() {
+			pooledSQLiteDB.enableGroupCommit(1000, TimeUnit.MILLISECONDS.toMicros(100));
+			List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(pooledSQLiteDB.setCheckedOutAsync(ToolId.of(Code.values()[i % 4]), i % 8 < 4)); // every update checks out or returns its tool
+			}
+			for (CompletableFuture<Boolean> future : futures) {
+				assertTrue(future.join());
+			}
+
+			SQLiteGroupCommitWriter writer = pooledSQLiteDB.getGroupCommitWriter();
+			assertEquals(100, writer.getUpdateCount());
+			assertTrue(writer.getCommitCount() < 10, () -> writer.getCommitCount() + " commits");
+
+			// The updates were applied in the order they were submitted (the last 4 checked the tools out)
+			for (Code code : Code.values()) {
+				assertTrue(pooledSQLiteDB.getTool(code).isCheckedOut());
+			}
+		}
+
+		@Test
+		@DisplayName("Batch Size Is Respected")
+		void batchSizeIsRespected() {
+			pooledSQLiteDB.enableGroupCommit(10, TimeUnit.MILLISECONDS.toMicros(20));
+			List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(pooledSQLiteDB.setCheckedOutAsync(ToolId.of(Code.CHNS), true));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+			assertTrue(pooledSQLiteDB.getGroupCommitWriter().getCommitCount() >= 10);
+		}
+
+		@Test
+		@DisplayName("Concurrent Updates From Many Threads")
+		void concurrentUpdatesFromManyThreads() throws Exception {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<?>> futures = new ArrayList<Future<?>>();
+				for (int t = 0; t < THREADS; t++) {
+					Code code = Code.values()[t % 4];
+					futures.add(executor.submit(() -> {
+						start.await();
+						for (int i = 0; i < 50; i++) {
+							pooledSQLiteDB.updateTool(code, Attribute.CHECKEDOUT, i % 2 == 0);
+						}
+						return null;
+					}));
+				}
+				start.countDown();
+				for (Future<?> future : futures) {
+					future.get(60, TimeUnit.SECONDS);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+
+			SQLiteGroupCommitWriter writer = pooledSQLiteDB.getGroupCommitWriter();
+			assertEquals(THREADS * 50, writer.getUpdateCount());
+			assertTrue(writer.getCommitCount() <= writer.getUpdateCount());
+			assertFalse(outputTestStream.toString().contains("There was an issue"));
+			for (Code code : Code.values()) {
+				assertFalse(pooledSQLiteDB.getTool(code).isCheckedOut()); // every thread's last update was a return
+			}
+		}
+	}
+
+	@Nested
+	@DisplayName("Close Tests")
+	class CloseTests {
+		@Test
+		@DisplayName("Pending Updates Are Committed On Close")
+		void pendingUpdatesAreCommittedOnClose() {
+			pooledSQLiteDB.enableGroupCommit(1000, TimeUnit.SECONDS.toMicros(1));
+			List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+			for (Code code : Code.values()) {
+				futures.add(pooledSQLiteDB.setCheckedOutAsync(ToolId.of(code), true));
+			}
+			pooledSQLiteDB.disableGroupCommit();
+			assertNull(pooledSQLiteDB.getGroupCommitWriter());
+			for (CompletableFuture<Boolean> future : futures) {
+				assertTrue(future.isDone());
+				assertTrue(future.join());
+			}
+			for (Code code : Code.values()) {
+				assertTrue(pooledSQLiteDB.getTool(code).isCheckedOut());
+			}
+			assertThrows(CompletionException.class, () -> pooledSQLiteDB.setCheckedOutAsync(ToolId.of(Code.CHNS), false).join());
+		}
+
+		@Test
+		@DisplayName("Closed Writer Rejects Updates")
+		void closedWriterRejectsUpdates() throws SQLException {
+			SQLiteConnectionPool pool = new SQLiteConnectionPool(SQLiteDB.DATABASE_URL, 1);
+			SQLiteGroupCommitWriter writer = new SQLiteGroupCommitWriter(pool, 8, 0);
+			writer.close();
+			pool.close();
+			CompletionException e = assertThrows(CompletionException.class, () -> writer.setCheckedOut(ToolId.of(Code.JAKR), true).join());
+			assertEquals("The group commit writer is closed.", e.getCause().getMessage());
+		}
+
+		@Test
+		@DisplayName("Failed Commit Fails The Group")
+		void failedCommitFailsTheGroup() throws SQLException {
+			SQLiteConnectionPool pool = new SQLiteConnectionPool(SQLiteDB.DATABASE_URL, 1);
+			pool.close();
+			SQLiteGroupCommitWriter writer = new SQLiteGroupCommitWriter(pool, 8, 0);
+			try {
+				CompletionException e = assertThrows(CompletionException.class, () -> writer.setCheckedOut(ToolId.of(Code.JAKR), true).join());
+				assertTrue(e.getCause() instanceof SQLException);
+				assertEquals(0, writer.getCommitCount());
+			} finally {
+				writer.close();
+			}
+		}
+
+		@Test
+		@DisplayName("Close Connection Closes The Writer")
+		void closeConnectionClosesTheWriter() {
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			SQLiteGroupCommitWriter writer = pooledSQLiteDB.getGroupCommitWriter();
+			CompletableFuture<Boolean> future = pooledSQLiteDB.setCheckedOutAsync(ToolId.of(Code.JAKD), true);
+			pooledSQLiteDB.closeConnection();
+			assertTrue(future.join());
+			assertThrows(CompletionException.class, () -> writer.setCheckedOut(ToolId.of(Code.JAKD), false).join());
+
+			pooledSQLiteDB.enableGroupCommit(64, 0);
+			assertEquals("Group commit requires an open pooled SQLiteDB. The updates will be committed one by one.", outputTestStream.toString().trim());
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package rentatool.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.Attribute;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * This TestSuite contains tests for the ToolId class, and for storing
+ * serialized rental units (tools identified by a ToolId that is not one
+ * of the Code aliases) in each of the StorageSystems.
+ *
+ * The TestSuite will use a @BeforeEach annotation to reassign standard
+ * output to a test output stream, and an @AfterEach to restore it.
+ *
+ * @author CSGarcia1191
+ *
+ */
+@DisplayName("ToolId Tests")
+class JUnitToolIdTests {
+
+	static final int UNITS = 10000;
+
+	private final PrintStream standardOutStream = System.out;
+	private final ByteArrayOutputStream outputTestStream = new ByteArrayOutputStream();
+
+	@BeforeEach
+	void prepSystemOut() {
+		System.setOut(new PrintStream(outputTestStream));
+	}
+
+	@AfterEach
+	void restoreSystemOut() {
+		System.setOut(new PrintStream(standardOutStream));
+	}
+
+	// UNITS serialized units, cycling through the three Tool classes
+	static List<Tool> serializedUnits() {
+		List<Tool> units = new ArrayList<Tool>(UNITS);
+		for (int i = 0; i < UNITS; i++) {
+			ToolId id = ToolId.of(String.format("UNIT-%06d", i));
+			if (i % 3 == 0) {
+				units.add(new Chainsaw(id, Brand.STIHL));
+			} else if (i % 3 == 1) {
+				units.add(new Ladder(id, Brand.WERNER));
+			} else {
+				units.add(new Jackhammer(id, Brand.RIDGID, 3.49f));
+			}
+		}
+		return units;
+	}
+
+	// Adds the serialized units, then reads, updates, checks out and removes them by ToolId
+	static void assertUnitsStored(StorageSystem storage) {
+		List<Tool> units = serializedUnits();
+		storage.addTools(units);
+
+		for (Tool unit : units) {
+			assertEquals(unit, storage.getTool(unit.getId()));
+		}
+
+		ToolId id = units.get(5).getId();
+		storage.updateTool(id, Attribute.DAILYCHARGE, 4.99f);
+		assertEquals(4.99f, storage.getTool(id).getDailyCharge());
+
+		RentalAgreement rentalAgreement = storage.checkout(id, 3, 0, LocalDate.of(2020, 7, 2));
+		assertSame(id, rentalAgreement.getId());
+		assertNull(rentalAgreement.getCode());
+		assertTrue(rentalAgreement.formatRentalAgreement().startsWith("Tool code: UNIT-000005\n"));
+		assertNull(storage.checkout(id, 3, 0, LocalDate.of(2020, 7, 2)));
+
+		storage.removeTool(id);
+		assertNull(storage.getTool(id));
+
+		// The Code tools are still found through their ToolId aliases
+		assertEquals(storage.getTool(Code.JAKR), storage.getTool(ToolId.of("JAKR")));
+	}
+
+	@Nested
+	@DisplayName("Interning Tests")
+	class InterningTests {
+		@Test
+		@DisplayName("Code Aliases")
+		void codeAliases() {
+			for (Code code : Code.values()) {
+				ToolId id = ToolId.of(code);
+				assertSame(id, ToolId.of(code.name()));
+				assertSame(id, ToolId.of(code.name().toLowerCase() + " "));
+				assertSame(id, ToolId.fromInt(code.ordinal()));
+				assertEquals(code.ordinal(), id.intValue());
+				assertEquals(code, id.getCode());
+				assertEquals(code.name(), id.toString());
+			}
+			assertNull(ToolId.of((Code) null));
+		}
+
+		@Test
+		@DisplayName("One Instance Per Name")
+		void oneInstancePerName() {
+			ToolId id = ToolId.of("JAKR-000123");
+			assertSame(id, ToolId.of(new String("jakr-000123")));
+			assertSame(id, ToolId.fromInt(id.intValue()));
+			assertEquals(id.intValue(), id.hashCode());
+			assertNull(id.getCode());
+			assertNotEquals(ToolId.of("JAKR-000124"), id);
+			assertTrue(id.intValue() >= Code.values().length && id.intValue() < ToolId.count());
+			assertNull(ToolId.fromInt(-1));
+		}
+
+		@Test
+		@DisplayName("Blank Names")
+		void blankNames() {
+			assertThrows(IllegalArgumentException.class, () -> ToolId.of((String) null));
+			assertThrows(IllegalArgumentException.class, () -> ToolId.of(" "));
+		}
+
+		@Test
+		@DisplayName("Find Creates No ToolIds")
+		void findCreatesNoToolIds() {
+			int count = ToolId.count();
+			assertNull(ToolId.find("FIND-000001"));
+			assertNull(ToolId.find(null));
+			assertNull(ToolId.find(" "));
+			assertEquals(count, ToolId.count());
+
+			assertSame(ToolId.of(Code.JAKR), ToolId.find(" jakr "));
+			ToolId id = ToolId.of("FIND-000001");
+			assertSame(id, ToolId.find("find-000001"));
+			assertEquals(count + 1, ToolId.count());
+		}
+
+		@Test
+		@DisplayName("Names Ignore The Default Locale")
+		void namesIgnoreTheDefaultLocale() {
+			Locale defaultLocale = Locale.getDefault();
+			Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+			try {
+				assertEquals("UNIT-I", ToolId.normalize("unit-i"));
+				assertSame(ToolId.of("LIFT-000001"), ToolId.find("lift-000001"));
+				assertEquals("LIFT-000001", ToolId.of("lift-000001").getName());
+			} finally {
+				Locale.setDefault(defaultLocale);
+			}
+		}
+
+		@Test
+		@DisplayName("Tools Keep Their Code Alias")
+		void toolsKeepTheirCodeAlias() {
+			Tool tool = new Ladder(Code.LADW, Brand.WERNER);
+			assertSame(ToolId.of(Code.LADW), tool.getId());
+			assertEquals(Code.LADW, tool.getCode());
+
+			tool.setId(ToolId.of("LADW-000001"));
+			assertNull(tool.getCode());
+			assertEquals(new Ladder(ToolId.of("LADW-000001"), Brand.WERNER), tool);
+		}
+	}
+
+	@Nested
+	@DisplayName("Serialized Unit Storage Tests")
+	class SerializedUnitStorageTests {
+		@Test
+		@DisplayName("HashMapStorage")
+		void hashMapStorage() {
+			assertUnitsStored(new HashMapStorage());
+		}
+
+		@Test
+		@DisplayName("ConcurrentHashMapStorage")
+		void concurrentHashMapStorage() {
+			assertUnitsStored(new ConcurrentHashMapStorage());
+		}
+
+		@Test
+		@DisplayName("SQLiteDB")
+		void sqliteDB() {
+			SQLiteDB storage = new SQLiteDB(2);
+			try {
+				assertUnitsStored(storage);
+			} finally {
+				storage.closeConnection();
+			}
+		}
+
+		@Test
+		@DisplayName("SQLiteDB Finds Codes Not Read Yet")
+		void sqliteDBFindsCodesNotReadYet() throws SQLException {
+			SQLiteDB storage = new SQLiteDB(2);
+			try {
+				// A record stored by an earlier run, whose ToolId has never been created by this one
+				String name = String.format("STORED-%d", System.nanoTime());
+				try (Connection connection = DriverManager.getConnection(SQLiteDB.DATABASE_URL);
+						Statement statement = connection.createStatement()) {
+					statement.executeUpdate(String.format("INSERT INTO tool values('%s', 'Ladder', 'Werner', 1.99, true, true, false, false);", name));
+				}
+				assertNull(ToolId.find(name));
+
+				int count = ToolId.count();
+				assertNull(storage.findToolId("STORED-UNKNOWN"));
+				assertEquals(count, ToolId.count());
+
+				ToolId id = storage.findToolId(name.toLowerCase());
+				assertEquals(name, id.getName());
+				assertSame(id, new CachingStorage(storage).findToolId(name));
+				assertEquals(new Ladder(id, Brand.WERNER), storage.getTool(id));
+			} finally {
+				storage.closeConnection();
+			}
+		}
+
+		@Test
+		@DisplayName("Code Update To A ToolId")
+		void codeUpdateToAToolId() {
+			HashMapStorage storage = new HashMapStorage();
+			ToolId id = ToolId.of("CHNS-000001");
+			storage.updateTool(Code.CHNS, Attribute.CODE, id);
+
+			assertNull(storage.getTool(Code.CHNS));
+			assertSame(id, storage.getTool(id).getId());
+			assertNull(storage.getTool(id).getCode());
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package rentatool.app;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * A StorageSystem that records every change made to the tools of another StorageSystem
+ * in a RentalLedger, so the history of checkouts, returns and price changes survives
+ * and the StorageSystem can be rebuilt from the ledger at any time.
+ *
+ * 1) Every write (addTool, updateTool, removeTool, checkout, returnTool and the bulk operations)
+ *    is passed straight through to the wrapped StorageSystem, which prints its own
+ *    warning messages, and the change is then recorded in the ledger. Both steps are
+ *    taken while holding the ledger's lock, so the events are recorded in the order the
+ *    writes were applied to the wrapped StorageSystem. The ledger only
+ *    records the changes that apply to its tool table, so a write that fails (e.g. the
+ *    checkout of a tool that is already checked out) is not recorded.
+ * 2) checkout() records the rental days, discount percent and checkout date of the
+ *    RentalAgreement. A tool checked out with updateTool() is recorded without them.
+ * 3) Reads are answered by the wrapped StorageSystem and do not go through the ledger.
+ *
+ * When a LedgerStorage is created, a ledger without any event is started from the tools
+ * of the wrapped StorageSystem. Otherwise, the ledger is the source of truth and the
+ * wrapped StorageSystem is rebuilt from it (see RentalLedger.rebuild()).
+ *
+ * Note: Every write must go through the LedgerStorage, and the wrapped StorageSystem
+ * must accept the same writes as a HashMapStorage (the rules of the ledger's tool table).
+ * A LedgerStorage is thread-safe as long as the wrapped StorageSystem is. Its writes
+ * are applied one at a time (reads are not), so it does not speed up concurrent writes.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class LedgerStorage implements StorageSystem {
+
+	private final StorageSystem storage;
+	private final RentalLedger ledger;
+
+	/**
+	 * This constructor records the changes made through it to the passed-in StorageSystem
+	 * in the passed-in RentalLedger. If the ledger has no event yet, every tool of the
+	 * StorageSystem is recorded. Otherwise, the StorageSystem is rebuilt from the ledger.
+	 *
+	 * @param storage The StorageSystem to record the changes of
+	 * @param ledger The RentalLedger to record them in
+	 * @throws IllegalArgumentException if the StorageSystem or the RentalLedger is null
+	 */
+	public LedgerStorage(StorageSystem storage, RentalLedger ledger) {
+		if (storage == null || ledger == null) {
+			throw new IllegalArgumentException("The StorageSystem and the RentalLedger must not be null.");
+		}
+
+		this.storage = storage;
+		this.ledger = ledger;
+		if (ledger.getSequence() == 0) {
+			try (Stream<Tool> tools = storage.streamTools()) {
+				tools.forEach(ledger::recordNewTool);
+			}
+		} else {
+			ledger.rebuild(storage);
+		}
+	}
+
+	// The wrapped StorageSystem
+	public StorageSystem getStorage() {
+		return storage;
+	}
+
+	public RentalLedger getLedger() {
+		return ledger;
+	}
+
+	@Override
+	public void addTool(Tool tool) {
+		synchronized (ledger) {
+			storage.addTool(tool);
+			ledger.recordNewTool(tool);
+		}
+	}
+
+	@Override
+	public void addTools(Collection<? extends Tool> tools) {
+		synchronized (ledger) {
+			storage.addTools(tools);
+			if (tools != null) {
+				for (Tool tool : tools) {
+					ledger.recordNewTool(tool);
+				}
+			}
+		}
+	}
+
+	@Override
+	public ToolId findToolId(String code) {
+		return storage.findToolId(code);
+	}
+
+	@Override
+	public Tool getTool(ToolId code) {
+		return storage.getTool(code);
+	}
+
+	@Override
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
+		synchronized (ledger) {
+			storage.updateTool(code, attribute, value);
+			record(code, attribute, value);
+		}
+	}
+
+	@Override
+	public void updateToolsById(Attribute attribute, Map<ToolId, ?> values) {
+		synchronized (ledger) {
+			storage.updateToolsById(attribute, values);
+			if (values != null) {
+				for (Map.Entry<ToolId, ?> entry : values.entrySet()) {
+					record(entry.getKey(), attribute, entry.getValue());
+				}
+			}
+		}
+	}
+
+	@Override
+	public void removeTool(ToolId code) {
+		synchronized (ledger) {
+			storage.removeTool(code);
+			ledger.recordRemoval(code);
+		}
+	}
+
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		synchronized (ledger) {
+			RentalAgreement rentalAgreement = storage.checkout(code, rentalDays, discountPercent, checkoutDate);
+			if (rentalAgreement != null) {
+				ledger.recordCheckout(code, rentalDays, discountPercent, checkoutDate);
+			}
+			return rentalAgreement;
+		}
+	}
+
+	@Override
+	public boolean returnTool(ToolId code) {
+		synchronized (ledger) {
+			boolean returned = storage.returnTool(code);
+			if (returned) {
+				ledger.recordReturn(code);
+			}
+			return returned;
+		}
+	}
+
+	@Override
+	public void printStoredTools() {
+		storage.printStoredTools();
+	}
+
+	@Override
+	public Stream<Tool> streamTools() {
+		return storage.streamTools();
+	}
+
+	@Override
+	public Stream<Tool> findAvailable(Type type, Brand brand) {
+		return storage.findAvailable(type, brand);
+	}
+
+	// Records the update of the passed-in attribute, if the value is valid for it (see HashMapStorage.updateTool())
+	private void record(ToolId code, Attribute attribute, Object value) {
+		if (code == null || attribute == null || value == null) {
+			return;
+		}
+
+		if (attribute.equals(Attribute.CODE)) {
+			ledger.recordRename(code, HashMapStorage.toolIdOf(value));
+		} else if (attribute.equals(Attribute.CHECKEDOUT)) {
+			if (value instanceof Boolean) {
+				if ((boolean) value) {
+					ledger.recordCheckout(code, 0, 0, null);
+				} else {
+					ledger.recordReturn(code);
+				}
+			}
+		} else if (attribute.equals(Attribute.DAILYCHARGE)) {
+			if (value instanceof Float) {
+				ledger.recordPriceChange(code, (float) value);
+			}
+		} else {
+			Tool tool = ledger.getTool(code);
+			if (tool == null) {
+				return;
+			}
+			if (attribute.equals(Attribute.TYPE) && value instanceof Type) {
+				tool.setType((Type) value);
+			} else if (attribute.equals(Attribute.BRAND) && value instanceof Brand) {
+				tool.setBrand((Brand) value);
+			} else if (attribute.equals(Attribute.CHARGEONWEEKDAYS) && value instanceof Boolean) {
+				tool.setChargeOnWeekdays((boolean) value);
+			} else if (attribute.equals(Attribute.CHARGEONWEEKENDS) && value instanceof Boolean) {
+				tool.setChargeOnWeekends((boolean) value);
+			} else if (attribute.equals(Attribute.CHARGEONHOLIDAYS) && value instanceof Boolean) {
+				tool.setChargeOnHolidays((boolean) value);
+			} else {
+				return;
+			}
+			ledger.recordToolChange(tool);
+		}
+	}
+}
@@ -1,6 +1,10 @@
 package rentatool.app;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -11,14 +15,147 @@ import rentatool.app.Database;
 import rentatool.app.SQLiteDB;
 import rentatool.rental_items.RentalAgreement;
 import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.*;
 
 public class Main {
+	
+	// Group commit of the server modes: up to 256 checkouts and returns share a transaction, which is committed without waiting for more
+	static final int GROUP_COMMIT_BATCH_SIZE = 256;
+	static final long GROUP_COMMIT_DELAY_MICROS = 0;
 
 	public static void main(String[] args) {
+		// "--batch <file> [--output <file>]" runs a file of rental records without any prompts
+		if (args.length > 0 && args[0].equals("--batch")) {
+			if (args.length != 2 && !(args.length == 4 && args[2].equals("--output"))) {
+				System.out.println("Usage: --batch <file> [--output <file>]");
+				return;
+			}
+			Path input = Paths.get(args[1]);
+			Path output = args.length == 4 ? Paths.get(args[3]) : Paths.get(args[1] + ".agreements.txt");
+			runBatchCheckout(input, output, new SQLiteDB());
+			return;
+		}
+		
+		// "--server <port> [--units <count>]" serves the checkout to many terminals over local TCP sockets
+		if (args.length > 0 && args[0].equals("--server")) {
+			int port = -1;
+			int units = 0;
+			try {
+				if (args.length == 2 || (args.length == 4 && args[2].equals("--units"))) {
+					port = Integer.parseInt(args[1]);
+					units = args.length == 4 ? Integer.parseInt(args[3]) : 0;
+				}
+			} catch (NumberFormatException e) {
+				port = -1;
+			}
+			if (port < 0 || units < 0) {
+				System.out.println("Usage: --server <port> [--units <count>]");
+				return;
+			}
+			runCheckoutServer(port, units);
+			return;
+		}
+		
+		// "--http <port>" serves the checkout as an HTTP/JSON service on the loopback address
+		if (args.length > 0 && args[0].equals("--http")) {
+			int port = -1;
+			try {
+				port = (args.length == 2) ? Integer.parseInt(args[1]) : -1;
+			} catch (NumberFormatException e) {
+				port = -1;
+			}
+			if (port < 0) {
+				System.out.println("Usage: --http <port>");
+				return;
+			}
+			runCheckoutHttpService(port);
+			return;
+		}
+		
 		// By default, when the Rent-A-Tool application is ran, it uses System.in as the input stream,
-		// and an SQLiteDB instance as the storage system
-		runRentAToolApp(System.in, new SQLiteDB());
+		// and an SQLiteDB instance as the storage system. The tools the clerk looks up are cached
+		// in memory, since the same few codes are typed over and over again.
+		runRentAToolApp(System.in, new CachingStorage(new SQLiteDB()));
+	}
+	
+	/**
+	 * This method runs the Rent-A-Tool application in batch mode. Every record of the input
+	 * file is checked out (or returned) without prompting the clerk, and the Rental Agreements
+	 * are written to the output file instead of the console. Once the whole file has been
+	 * processed, a single summary line with the number of records per second is printed.
+	 * See BatchCheckout for the format of the input file.
+	 * 
+	 * @param input Path of the CSV or JSON Lines file of rental records
+	 * @param output Path of the file to write the Rental Agreements to
+	 * @param storage The StorageSystem to store tools in during program execution.
+	 * @return the BatchCheckout.Summary of the batch, or null if the files could not be read or written
+	 */
+	public static BatchCheckout.Summary runBatchCheckout(Path input, Path output, StorageSystem storage) {
+		try {
+			BatchCheckout.Summary summary = new BatchCheckout(storage).run(input, output);
+			System.out.println(summary);
+			System.out.println(String.format("The Rental Agreements were written to %s", output));
+			return summary;
+		} catch (IOException e) {
+			System.out.println(String.format("The batch could not be processed: %s", e));
+			return null;
+		} finally {
+			ifDatabaseThenCloseConection(storage);
+		}
+	}
+	
+	/**
+	 * This method runs the Rent-A-Tool application in server mode until the process is stopped.
+	 * Every terminal connecting to the passed-in port runs its own checkout session (see
+	 * CheckoutServer), and every session shares a pooled SQLiteDB whose tools are cached in memory.
+	 * The checkouts and returns of concurrent sessions are group committed (see SQLiteDB.enableGroupCommit()).
+	 * 
+	 * @param port The local TCP port to listen on, or 0 to pick a free port
+	 * @param units The number of serialized Werner ladders (LADW-000001, ...) to add to the
+	 * default tools, e.g. one per clerk simulated by CheckoutLoadGenerator
+	 */
+	public static void runCheckoutServer(int port, int units) {
+		SQLiteDB sqliteDB = new SQLiteDB(SQLiteConnectionPool.getDefaultPoolSize());
+		if (units > 0) {
+			sqliteDB.addTools(CheckoutServer.serializedLadders(units));
+		}
+		sqliteDB.enableGroupCommit(GROUP_COMMIT_BATCH_SIZE, GROUP_COMMIT_DELAY_MICROS);
+		
+		try (CheckoutServer server = new CheckoutServer(new CachingStorage(sqliteDB), port)) {
+			server.start();
+			System.out.println(String.format("The Rent-A-Tool checkout server is listening on port %d.", server.getPort()));
+			Thread.currentThread().join(); // serve terminals until the process is stopped
+		} catch (IOException e) {
+			System.out.println(String.format("The checkout server could not be started: %s", e));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			sqliteDB.closeConnection();
+		}
+	}
+	
+	/**
+	 * This method runs the Rent-A-Tool application as an HTTP/JSON service (see CheckoutHttpService)
+	 * until the process is stopped. The service is backed by a pooled SQLiteDB whose tools are
+	 * cached in memory, and whose checkouts and returns are group committed.
+	 * 
+	 * @param port The local TCP port to listen on, or 0 to pick a free port
+	 */
+	public static void runCheckoutHttpService(int port) {
+		SQLiteDB sqliteDB = new SQLiteDB(SQLiteConnectionPool.getDefaultPoolSize());
+		sqliteDB.enableGroupCommit(GROUP_COMMIT_BATCH_SIZE, GROUP_COMMIT_DELAY_MICROS);
+		try (CheckoutHttpService service = new CheckoutHttpService(new CachingStorage(sqliteDB), port)) {
+			service.start();
+			System.out.println(String.format("The Rent-A-Tool checkout service is listening on http://localhost:%d/", service.getPort()));
+			Thread.currentThread().join(); // serve requests until the process is stopped
+		} catch (IOException e) {
+			System.out.println(String.format("The checkout service could not be started: %s", e));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			sqliteDB.closeConnection();
+		}
 	}
 	
 	/**
@@ -33,22 +170,43 @@ public class Main {
 	 * This can also be a HashMapStorage instance.
 	 */
 	public static void runRentAToolApp(InputStream inputStream, StorageSystem storage) {
-		final StorageSystem toolStorage = storage;
-		
 		// For reference, display the initial tools available for rental to the clerk
 		System.out.println("----------------------------    Available Tools   ------------------------------\n");
-		toolStorage.printStoredTools();
-		
-		System.out.println("----------------------------    Rent-A-Tool Checkout   ------------------------------\n");
-		System.out.println("Welcome, Rent-A-Tool associate!");
+		storage.printStoredTools();
 		
 		Scanner scanner = new Scanner(inputStream);
+		try {
+			runCheckoutSession(scanner, System.out, storage);
+		} finally {
+			scanner.close();
+			ifDatabaseThenCloseConection(storage);
+		}
+		System.out.println("Thank you for using the Rent-A-Tool Checkout application!");
+	}
+	
+	/**
+	 * This method runs the prompts of the Rent-A-Tool checkout for one clerk, until the clerk
+	 * has no more tools to process. It is used by runRentAToolApp() for the console, and by
+	 * CheckoutServer for every terminal connected to it. Neither the scanner nor the
+	 * StorageSystem is closed, so several sessions can share one thread-safe StorageSystem.
+	 * 
+	 * @param scanner The Scanner to read the clerk's input from
+	 * @param out The PrintStream to write the prompts and Rental Agreements to
+	 * @param storage The StorageSystem to store tools in during the session.
+	 * @throws InvalidCheckoutArgumentException if the clerk entered an invalid number of rental days or discount percent
+	 * @throws RuntimeException if the clerk's input could not be read (e.g. the terminal was disconnected)
+	 */
+	public static void runCheckoutSession(Scanner scanner, PrintStream out, StorageSystem storage) {
+		final StorageSystem toolStorage = storage;
+		
+		out.println("----------------------------    Rent-A-Tool Checkout   ------------------------------\n");
+		out.println("Welcome, Rent-A-Tool associate!");
 		
 		StartOfApp:
 		// Run the point-of-sale application until the clerk has no more tools to process through checkout.
 		while (true) {
 			// Object reference variables to be used while running the application
-			Code code;
+			ToolId code;
 			String codeStr;
 			Tool tool;
 			
@@ -57,21 +215,19 @@ public class Main {
 			
 			// First, ask clerk if they'd like to process any tool returns
 			while (true) {
-				System.out.println("Would you like to return a tool? (Yes/No): ");
+				out.println("Would you like to return a tool? (Yes/No): ");
 				try {
 					String answer = scanner.nextLine();
 					if (answer.equalsIgnoreCase("yes") || answer.equalsIgnoreCase("y")) {
 						toolReturnRequested = true; 
 					} else if (answer.equalsIgnoreCase("no") || answer.equalsIgnoreCase("n")) {
-						System.out.println("Okay thank you, continuing on to checkout...");
+						out.println("Okay thank you, continuing on to checkout...");
 					} else if (!answer.equalsIgnoreCase("no") && !answer.equalsIgnoreCase("n")) {
-						System.out.println("Please enter either yes or no.");
+						out.println("Please enter either yes or no.");
 						continue;
 					}
 				} catch (Exception e) { // Handles NoSuchElementExcpetion, IllegalStateException, and any other unexpected Exceptions
-					System.out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
 					throw e;
 				}
 				
@@ -80,32 +236,37 @@ public class Main {
 			
 			// Process clerk's input for Tool code
 			if (!toolReturnRequested) {
-				System.out.println("Please provide the following information to process a tool rental");
+				out.println("Please provide the following information to process a tool rental");
 			}
 			while (true) {
-				System.out.print("Tool code: ");
+				out.print("Tool code: ");
 				codeStr = scanner.nextLine();
 				try {
-					code = Code.valueOf(codeStr.toUpperCase().trim()); // throws IllegalArgumentException if the input doesn't match an existing Code Enum
-					tool = toolStorage.getTool(code);
+					code = toolStorage.findToolId(codeStr); // null if the input is blank or no tool has this code
+					tool = (code == null) ? null : toolStorage.getTool(code);
+					if (tool == null) {
+						throw new IllegalArgumentException(); // No tool is stored under this code
+					}
 					
-					// Process tool return if requested
+					// Process tool return if requested. returnTool() is atomic, so a terminal checking
+					// the same tool out at the same time can never have its reservation cleared.
 					if (toolReturnRequested) {
-						toolStorage.updateTool(code, Attribute.CHECKEDOUT, false);
+						if (!toolStorage.returnTool(code)) {
+							out.println("That tool is not checked out. Please try another code.");
+							continue;
+						}
 						toolReturnRequested = false;
-						System.out.println("Thank you. Tool has been returned!");
+						out.println("Thank you. Tool has been returned!");
 						continue StartOfApp; // jump back to start of program to ask clerk if they want to process another tool return
 					} else if (tool.isCheckedOut()) {
-						System.out.println("Sorry, that tool is currently checked out. Please try another code.");
+						out.println("Sorry, that tool is currently checked out. Please try another code.");
 						continue;
 					}
 				} catch (IllegalArgumentException e) {
-					System.out.println("Could not find tool associated with this code. Please try another code.");
+					out.println("Could not find tool associated with this code. Please try another code.");
 					continue;
 				} catch (Exception e) { // Handles NoSuchElementExcpetion, IllegalStateException, and any other unexpected Exceptions
-					System.out.println("There was an unexpected issue with the system. Please restart the checkout application");
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println("There was an unexpected issue with the system. Please restart the checkout application");
 					throw e;
 				}
 				
@@ -115,7 +276,7 @@ public class Main {
 			// Process clerk's input for Rental day count
 			int rentalDays;
 			while (true) {
-				System.out.print("Rental day count: ");
+				out.print("Rental day count: ");
 				try {
 					rentalDays = scanner.nextInt();
 					scanner.nextLine(); // Consumes the newline character if the input was an integer
@@ -124,18 +285,14 @@ public class Main {
 					}
 				} catch (InputMismatchException e) { // Handles cases where input was not an integer
 					scanner.nextLine(); // Consumes the newline character for InputMismatchException exceptions
-					System.out.println("Number of rental days needs to be a whole number. Please enter a valid number of rental days.");
+					out.println("Number of rental days needs to be a whole number. Please enter a valid number of rental days.");
 					continue;
 				} catch (InvalidCheckoutArgumentException e) { // Handles cases where the input integer was < 1
-					System.out.println(e.getMessage());
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println(e.getMessage());
 					throw e;
 				} catch (Exception e) { // Handles NoSuchElementExcpetion, IllegalStateException, and any other unexpected Exceptions
 					scanner.nextLine(); // Consumes the newline character for the caught Exception
-					System.out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
 					throw e;
 				}
 				
@@ -145,7 +302,7 @@ public class Main {
 			// Process clerk's input for Discount percent
 			int discountPercent;
 			while (true) {
-				System.out.print("Discount percent (do not include '%' symbol): ");
+				out.print("Discount percent (do not include '%' symbol): ");
 				try {
 					discountPercent = scanner.nextInt();
 					scanner.nextLine(); // Consumes the newline character if the input was an integer
@@ -154,18 +311,14 @@ public class Main {
 					}
 				} catch (InputMismatchException e) { // Handles cases where input was not an integer (includes the case when input contains a '%' character)
 					scanner.nextLine(); // Consumes the newline character for InputMismatchException exceptions
-					System.out.println("Discount percent needs to be a whole number and should not include the '%' symbol. Please enter a valid discount percent.");
+					out.println("Discount percent needs to be a whole number and should not include the '%' symbol. Please enter a valid discount percent.");
 					continue;
 				} catch (InvalidCheckoutArgumentException e) { // Handles cases where the input integer was < 0 or > 100
-					System.out.println(e.getMessage());
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println(e.getMessage());
 					throw e;
 				} catch (Exception e) { // Handles NoSuchElementExcpetion, IllegalStateException, and any other unexpected Exceptions
 					scanner.nextLine(); // Consumes the newline character for the caught Exception
-					System.out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
 					throw e;
 				}
 				
@@ -175,48 +328,49 @@ public class Main {
 			// Process clerk's input for Checkout date
 			LocalDate checkoutDate;
 			while (true) {
-				System.out.print("Checkout date (MM/dd/yy): ");
+				out.print("Checkout date (MM/dd/yy): ");
 				try {
 					String checkoutDateStr = scanner.nextLine();
 					// Enforces M/d/yy format (0-padding input not needed by clerk for month or day). Throws DateTimeParseException otherwise
 					DateTimeFormatter formatter = DateTimeFormatter.ofPattern("M/d/yy");
 					checkoutDate = LocalDate.parse(checkoutDateStr, formatter);
 				} catch (DateTimeParseException e) { // Handles cases where input was not in M/d/yy format
-					System.out.println("Please provide a valid date following the format MM/dd/yy.");
+					out.println("Please provide a valid date following the format MM/dd/yy.");
 					continue;
 				} catch (Exception e) { // Handles NoSuchElementExcpetion, IllegalStateException, and any other unexpected Exceptions
-					System.out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
 					throw e;
 				}
 				
-				System.out.println("Tool was successfully checked out! Generating the rental agreement...\n");
-				break; // Valid checkout date processed. Moving on to printing the Rental Agreement
+				break; // Valid checkout date processed. Moving on to checking out the tool
 			}
 			
-			// Generate and print Rental Agreement
-			RentalAgreement rentalAgreement = new RentalAgreement(toolStorage.getTool(code), rentalDays, discountPercent, checkoutDate);
-			rentalAgreement.printRentalAgreement();
+			// Reserve the tool and generate its Rental Agreement in one atomic storage operation.
+			// The tool was available when its code was entered, but another terminal sharing this
+			// storage may have checked it out since then.
+			RentalAgreement rentalAgreement = toolStorage.checkout(code, rentalDays, discountPercent, checkoutDate);
+			if (rentalAgreement == null) {
+				out.println("Sorry, that tool was checked out before this rental could be completed. Please start over with another code.");
+				continue StartOfApp;
+			}
 			
-			// Update tool's checkout status in the database
-			toolStorage.updateTool(code, Attribute.CHECKEDOUT, true);
+			// Print Rental Agreement
+			out.println("Tool was successfully checked out! Generating the rental agreement...\n");
+			out.println(rentalAgreement.formatRentalAgreement());
 			
 			// Ask clerk if they'd like to process another tool through checkout
 			while (true) {
-				System.out.println("Would you like to process another tool? (Yes/No): ");
+				out.println("Would you like to process another tool? (Yes/No): ");
 				try {
 					String answer = scanner.nextLine();
 					if (answer.equalsIgnoreCase("yes") || answer.equalsIgnoreCase("y")) {
 						continue StartOfApp;
 					} else if (!answer.equalsIgnoreCase("no") && !answer.equalsIgnoreCase("n")) {
-						System.out.println("Please enter either yes or no.");
+						out.println("Please enter either yes or no.");
 						continue;
 					}
 				} catch (Exception e) { // Handles NoSuchElementExcpetion, IllegalStateException, and any other unexpected Exceptions
-					System.out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
-					scanner.close();
-					ifDatabaseThenCloseConection(toolStorage);
+					out.println("There was an unexpected issue with the system. Please restart the application or contact Support for further help.");
 					throw e;
 				}
 				
@@ -225,12 +379,9 @@ public class Main {
 			
 			break;
 		}
-		
-		scanner.close();
-		ifDatabaseThenCloseConection(toolStorage);
-		System.out.println("Thank you for using the Rent-A-Tool Checkout application!");
 	}
 	
+	
 	/**
 	 * Helper method for closing connections on StorageSystems that are Database instances.
 	 * 
@@ -238,6 +389,9 @@ public class Main {
 	 * the StorageSystem that is used throughout program execution.
 	 */
 	private static void ifDatabaseThenCloseConection(StorageSystem toolStorage) {
+		if (toolStorage instanceof CachingStorage) {
+			toolStorage = ((CachingStorage) toolStorage).getStorage();
+		}
 		if (toolStorage instanceof Database) {
 			((Database) toolStorage).closeConnection();
 		}
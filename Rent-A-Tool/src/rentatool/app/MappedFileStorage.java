@@ -0,0 +1,845 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import rentatool.rental_items.Chainsaw;
+import rentatool.rental_items.Jackhammer;
+import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * A StorageSystem that keeps its tools in a memory-mapped file (FileChannel.map), so the
+ * tools persist across restarts without any loading step:
+ *
+ * 1) The file is a 64 byte header, a 128 byte journal and an open-addressing hash table of
+ *    fixed-width 64 byte records ("slots"), keyed by the hash of the tool's ToolId name.
+ *    A lookup probes the mapped records in place, and only the record that is found is
+ *    read into a Tool, so no tool is ever deserialized up front.
+ * 2) Every record carries a CRC32 of its own bytes and the header carries a CRC32 of the
+ *    header fields. A removed tool's record is marked as deleted (a "tombstone") instead
+ *    of moving other records, so every change is a write of one record.
+ * 3) Before a record is written in place, its new bytes are written to the journal. With the
+ *    EVERY_WRITE SyncPolicy, the journal and then the record are forced to disk (fsync), so a
+ *    crash in the middle of a record write is repaired by replaying the journal.
+ * 4) The header is marked "dirty" when the file is opened, and forced to disk whatever the
+ *    SyncPolicy, and "clean" by close(). Opening a clean file only maps it and checks the header, whatever the number of tools. Opening a
+ *    dirty file (the previous process crashed) replays the journal and scans every record:
+ *    records with a bad checksum are removed with a warning message on the console.
+ *
+ * When the table gets 3/4 full (tools and tombstones), it is rebuilt into a new file that
+ * replaces the old one with an atomic move, doubling its capacity if needed.
+ *
+ * Note: Tool codes are stored as UTF-8 and may be at most 44 bytes long, and only Chainsaw,
+ * Ladder and Jackhammer instances can be stored. A renamed tool is written under its new code
+ * before its old record is removed, so a crash in between keeps the tool under both codes.
+ * Like HashMapStorage, MappedFileStorage is not thread-safe, and a file can only be opened by
+ * one MappedFileStorage at a time.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class MappedFileStorage implements StorageSystem, AutoCloseable {
+
+	/**
+	 * When the writes to the tool file are forced to disk.
+	 * EVERY_WRITE forces the journal and the record of every change before the method returns.
+	 * ON_CLOSE leaves the writes to the operating system until close() is called, which is
+	 * faster but may lose the latest changes (not the rest of the file) if the machine crashes.
+	 */
+	public enum SyncPolicy {
+		EVERY_WRITE, ON_CLOSE
+	}
+
+	static final int DEFAULT_CAPACITY = 1024;
+	static final int MAGIC = 0x52415446; // "RATF"
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 64;
+	static final int JOURNAL_OFFSET = HEADER_SIZE;
+	static final int JOURNAL_SIZE = 128;
+	static final int DATA_OFFSET = JOURNAL_OFFSET + JOURNAL_SIZE;
+	static final int RECORD_SIZE = 64;
+	static final int MAX_NAME_BYTES = 44;
+
+	// Header fields
+	private static final int H_MAGIC = 0, H_VERSION = 4, H_RECORD_SIZE = 8, H_CAPACITY = 12,
+			H_SIZE = 16, H_TOMBSTONES = 20, H_STATE = 24, H_CRC = 28;
+	private static final int CLEAN = 0, DIRTY = 1;
+
+	// Journal fields: the slot being written, a CRC32 of the slot and record, and the record itself
+	private static final int J_SLOT = 0, J_CRC = 4, J_RECORD = 64;
+
+	// Record fields
+	private static final int R_STATE = 0, R_TOOL_CLASS = 1, R_TYPE = 2, R_BRAND = 3, R_FLAGS = 4,
+			R_NAME_LENGTH = 5, R_DAILY_CHARGE = 8, R_NAME_HASH = 12, R_CRC = 16, R_NAME = 20;
+	static final byte EMPTY = 0, USED = 1, DELETED = 2;
+	private static final int CHECKED_OUT = 1, WEEKDAYS = 2, WEEKENDS = 4, HOLIDAYS = 8;
+
+	private static final Type[] TYPES = Type.values();
+	private static final Brand[] BRANDS = Brand.values();
+
+	private final Path file;
+	private final SyncPolicy syncPolicy;
+	private FileChannel channel;
+	private FileLock lock;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int slotMask;
+	private int slotShift;
+	private int size;
+	private int tombstones;
+	private boolean recovered;
+
+	// Scratch record, built or read before it is written to / after it is read from the file
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * This constructor opens the passed-in tool file with the EVERY_WRITE SyncPolicy.
+	 * If the file does not exist, it is created with the four default tools.
+	 *
+	 * @param file The tool file
+	 * @throws UncheckedIOException if the file can not be opened or created
+	 * @throws IllegalStateException if the file is not a valid tool file or is already open
+	 */
+	public MappedFileStorage(Path file) {
+		this(file, DEFAULT_CAPACITY, SyncPolicy.EVERY_WRITE);
+	}
+
+	/**
+	 * This constructor opens the passed-in tool file. If the file does not exist, it is
+	 * created with the four default tools, presized to hold the passed-in number of tools
+	 * without being rebuilt. The expected number of tools is ignored for existing files.
+	 *
+	 * @param file The tool file
+	 * @param expectedTools The number of tools a new file is expected to hold
+	 * @param syncPolicy When the writes to the file are forced to disk
+	 * @throws UncheckedIOException if the file can not be opened or created
+	 * @throws IllegalStateException if the file is not a valid tool file or is already open
+	 */
+	public MappedFileStorage(Path file, int expectedTools, SyncPolicy syncPolicy) {
+		this.file = file;
+		this.syncPolicy = (syncPolicy == null) ? SyncPolicy.EVERY_WRITE : syncPolicy;
+		try {
+			if (Files.exists(file) && Files.size(file) > 0) {
+				open();
+			} else {
+				create(capacityFor(Math.max(DEFAULT_CAPACITY / 4, expectedTools)));
+				addTool(new Chainsaw(Code.CHNS, Brand.STIHL));
+				addTool(new Ladder(Code.LADW, Brand.WERNER));
+				addTool(new Jackhammer(Code.JAKD, Brand.DEWALT));
+				addTool(new Jackhammer(Code.JAKR, Brand.RIDGID));
+			}
+		} catch (IOException e) {
+			closeChannel();
+			throw new UncheckedIOException(String.format("Could not open the tool file %s.", file), e);
+		} catch (RuntimeException e) {
+			closeChannel();
+			throw e;
+		}
+	}
+
+	/**
+	 * Adds the passed-in Tool object to the tool file. If the Tool is null, the file
+	 * already contains the Tool, the Tool's code is too long, or the Tool is not a
+	 * Chainsaw, Ladder or Jackhammer, a warning message is displayed on the console
+	 * and the method exits.
+	 */
+	@Override
+	public void addTool(Tool tool) {
+		if (!isOpen()) {
+			return;
+		}
+		if (tool == null) {
+			System.out.println("The passed-in Tool object was null. No tool was added to the storage system.");
+			return;
+		}
+
+		byte toolClass = Tool.classCodeOf(tool);
+		if (toolClass < 0) {
+			System.out.println(String.format("A tool of class %s can not be stored. No tool was added to the storage system.", tool.getClass().getSimpleName()));
+			return;
+		}
+
+		byte[] name = nameOf(tool.getId());
+		if (name == null) {
+			return;
+		}
+
+		int hash = tool.getId().getName().hashCode();
+		if (findSlot(name, hash) >= 0) {
+			System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
+			return;
+		}
+
+		// All pre-conditions met, adding Tool to the tool file
+		if (!ensureRoom()) {
+			return;
+		}
+		record.clear();
+		record.put(R_STATE, USED);
+		record.put(R_TOOL_CLASS, toolClass);
+		record.put(R_TYPE, (byte) tool.getType().ordinal());
+		record.put(R_BRAND, (byte) tool.getBrand().ordinal());
+		record.put(R_FLAGS, (byte) ((tool.isCheckedOut() ? CHECKED_OUT : 0)
+				| (tool.isChargeOnWeekdays() ? WEEKDAYS : 0)
+				| (tool.isChargeOnWeekends() ? WEEKENDS : 0)
+				| (tool.isChargeOnHolidays() ? HOLIDAYS : 0)));
+		record.putFloat(R_DAILY_CHARGE, tool.getDailyCharge());
+		setName(name, hash);
+		insert(name, hash);
+	}
+
+	/**
+	 * Reads a new Tool from the record associated with the passed-in code.
+	 * If the code is null or the file does not contain the code, a warning
+	 * message is displayed on the console and the method returns null.
+	 *
+	 * Note: Changes made to the returned Tool are not saved. Use
+	 * updateTool() to change a stored Tool.
+	 */
+	@Override
+	public Tool getTool(ToolId code) {
+		if (!isOpen()) {
+			return null;
+		}
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No Tool could be retrieved.");
+			return null;
+		}
+
+		int slot = findSlot(code);
+		if (slot < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to return.", code));
+			return null;
+		}
+
+		return readTool(slot, code);
+	}
+
+	/**
+	 * Removes the record associated with the passed-in code from the tool file.
+	 * If the code is null or the file does not contain the code, a warning
+	 * message is displayed on the console and the method exits.
+	 */
+	@Override
+	public void removeTool(ToolId code) {
+		if (!isOpen()) {
+			return;
+		}
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was removed from the storage system.");
+			return;
+		}
+
+		int slot = findSlot(code);
+		if (slot < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to remove.", code));
+			return;
+		}
+
+		// All pre-conditions met, removing Tool from the tool file
+		delete(slot);
+	}
+
+	/**
+	 * Update the record in the tool file that matches the passed-in code.
+	 * Follows the same pre-conditions and warning messages as
+	 * HashMapStorage.updateTool(). Every update rewrites the tool's record.
+	 */
+	@Override
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
+		if (!isOpen()) {
+			return;
+		}
+		if (code == null || attribute == null || value == null) {
+			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+			return;
+		}
+
+		int slot = findSlot(code);
+		if (slot < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to update.", code));
+			return;
+		}
+
+		if (attribute.equals(Attribute.CODE)) {
+			ToolId newCode = HashMapStorage.toolIdOf(value);
+			byte[] name = (newCode == null) ? null : newCode.getName().getBytes(StandardCharsets.UTF_8);
+			int hash = (newCode == null) ? 0 : newCode.getName().hashCode();
+			if (name != null && name.length <= MAX_NAME_BYTES && findSlot(name, hash) < 0) {
+				if (!ensureRoom()) {
+					return;
+				}
+				slot = findSlot(code); // the table may have been rebuilt
+				readRecord(slot);
+				setName(name, hash);
+				insert(name, hash);
+				delete(slot);
+			} else {
+				System.out.println("Invalid Code value passed in. Not updating tool.");
+			}
+			return;
+		}
+
+		readRecord(slot);
+		if (attribute.equals(Attribute.TYPE)) {
+			if (value instanceof Type) {
+				record.put(R_TYPE, (byte) ((Type) value).ordinal());
+			} else {
+				System.out.println("Invalid Type value passed in. Not updating tool.");
+				return;
+			}
+		} else if (attribute.equals(Attribute.BRAND)) {
+			if (value instanceof Brand) {
+				record.put(R_BRAND, (byte) ((Brand) value).ordinal());
+			} else {
+				System.out.println("Invalid Brand value passed in. Not updating tool.");
+				return;
+			}
+		} else if (attribute.equals(Attribute.DAILYCHARGE)) {
+			if (value instanceof Float) {
+				record.putFloat(R_DAILY_CHARGE, (float) value);
+			} else {
+				System.out.println("Invalid Float value passed in. Not updating tool.");
+				return;
+			}
+		} else if (attribute.equals(Attribute.CHARGEONWEEKDAYS)) {
+			if (value instanceof Boolean) {
+				setFlag(WEEKDAYS, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				return;
+			}
+		} else if (attribute.equals(Attribute.CHARGEONWEEKENDS)) {
+			if (value instanceof Boolean) {
+				setFlag(WEEKENDS, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				return;
+			}
+		} else if (attribute.equals(Attribute.CHARGEONHOLIDAYS)) {
+			if (value instanceof Boolean) {
+				setFlag(HOLIDAYS, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				return;
+			}
+		} else if (attribute.equals(Attribute.CHECKEDOUT)) {
+			if (value instanceof Boolean) {
+				setFlag(CHECKED_OUT, (boolean) value);
+			} else {
+				System.out.println("Invalid Boolean value passed in. Not updating tool.");
+				return;
+			}
+		} else {
+			System.out.println("Invalid Attribute passed in. Not updating tool.");
+			return;
+		}
+		writeRecord(slot);
+	}
+
+	/**
+	 * Checks out the record associated with the passed-in code and returns its
+	 * RentalAgreement. The RentalAgreement is generated before the record is
+	 * written, so invalid arguments throw an InvalidCheckoutArgumentException
+	 * and leave the Tool available.
+	 *
+	 * If the code is null, the file does not contain the code, or the Tool
+	 * is already checked out, a warning message is displayed on the console
+	 * and the method returns null.
+	 */
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		if (!isOpen()) {
+			return null;
+		}
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was checked out.");
+			return null;
+		}
+
+		int slot = findSlot(code);
+		if (slot < 0) {
+			System.out.println(String.format("No Tool with code %s was found. Nothing to check out.", code));
+			return null;
+		}
+
+		Tool tool = readTool(slot, code);
+		if (tool.isCheckedOut()) {
+			System.out.println(String.format("The tool with code %s is already checked out.", code));
+			return null;
+		}
+
+		RentalAgreement rentalAgreement = new RentalAgreement(tool, rentalDays, discountPercent, checkoutDate);
+		setFlag(CHECKED_OUT, true);
+		writeRecord(slot);
+		return rentalAgreement;
+	}
+
+	// Number of stored tools
+	public int size() {
+		return size;
+	}
+
+	// Number of record slots in the tool file
+	public int capacity() {
+		return capacity;
+	}
+
+	public boolean isClosed() {
+		return channel == null;
+	}
+
+	// Whether the tool file was not closed by its last MappedFileStorage and had to be recovered when it was opened
+	public boolean wasRecovered() {
+		return recovered;
+	}
+
+	/**
+	 * Returns the tools in the tool file in code order. Only the names of the used
+	 * records are read (and sorted) up front. Each Tool is then read from its record
+	 * as the stream reaches it, so tools removed while the stream is being consumed,
+	 * or all of them once the file is closed, are skipped.
+	 */
+	@Override
+	public Stream<Tool> streamTools() {
+		if (!isOpen()) {
+			return Stream.empty();
+		}
+
+		ToolId[] codes = new ToolId[size];
+		int count = 0;
+		for (int slot = 0; slot < capacity && count < codes.length; slot++) {
+			if (buffer.get(offsetOf(slot) + R_STATE) == USED) {
+				codes[count++] = idAt(slot);
+			}
+		}
+		Arrays.sort(codes, 0, count);
+		return Arrays.stream(codes, 0, count).map(this::storedTool).filter(Objects::nonNull);
+	}
+
+	// The ToolId named by the record in the passed-in slot
+	private ToolId idAt(int slot) {
+		int offset = offsetOf(slot);
+		byte[] name = new byte[buffer.get(offset + R_NAME_LENGTH)];
+		buffer.get(offset + R_NAME, name);
+		return ToolId.of(new String(name, StandardCharsets.UTF_8));
+	}
+
+	// Reads the Tool with the passed-in code without any warning message, or returns null if the file is closed or does not contain it
+	private Tool storedTool(ToolId code) {
+		if (channel == null) {
+			return null;
+		}
+		int slot = findSlot(code);
+		return (slot < 0) ? null : readTool(slot, code);
+	}
+
+	/**
+	 * Prints out a String representation of all the tools in the tool file,
+	 * in the same format as HashMapStorage.printStoredTools().
+	 */
+	@Override
+	public void printStoredTools() {
+		if (isOpen() && ToolListing.print(streamTools()) > 0) {
+			System.out.println();
+		} else {
+			System.out.println("There is no valid storage system to print.");
+		}
+	}
+
+	/**
+	 * Forces every write to disk, marks the tool file as clean and closes it. The next
+	 * MappedFileStorage opened on the file will not need to recover it.
+	 */
+	@Override
+	public void close() {
+		if (channel == null) {
+			System.out.println(String.format("The tool file %s is already closed!", file));
+			return;
+		}
+
+		writeHeader(buffer, capacity, size, tombstones, CLEAN);
+		buffer.force();
+		closeChannel();
+	}
+
+	// Maps an existing tool file, and recovers it if it was not closed
+	private void open() throws IOException {
+		openChannel();
+		long length = channel.size();
+		if (length < DATA_OFFSET) {
+			throw new IllegalStateException(String.format("The file %s is not a valid tool file.", file));
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION || header.getInt(H_RECORD_SIZE) != RECORD_SIZE) {
+			throw new IllegalStateException(String.format("The file %s is not a valid tool file.", file));
+		}
+		if (header.getInt(H_CRC) != headerChecksum(header)) {
+			throw new IllegalStateException(String.format("The header of the tool file %s is corrupted.", file));
+		}
+		int fileCapacity = header.getInt(H_CAPACITY);
+		if (Integer.bitCount(fileCapacity) != 1 || length != fileLength(fileCapacity)) {
+			throw new IllegalStateException(String.format("The length of the tool file %s does not match its header.", file));
+		}
+
+		map(fileCapacity);
+		if (header.getInt(H_STATE) == CLEAN) {
+			size = header.getInt(H_SIZE);
+			tombstones = header.getInt(H_TOMBSTONES);
+		} else {
+			recover();
+		}
+		writeHeader(buffer, capacity, size, tombstones, DIRTY);
+		// Forced whatever the SyncPolicy: a crash must never leave the file marked CLEAN over deferred writes
+		buffer.force(0, HEADER_SIZE);
+	}
+
+	// Creates a new, empty tool file with the passed-in number of slots
+	private void create(int newCapacity) throws IOException {
+		openChannel();
+		channel.truncate(0);
+		map(newCapacity);
+		writeHeader(buffer, capacity, 0, 0, DIRTY);
+		buffer.force();
+	}
+
+	/**
+	 * Repairs a tool file that was not closed: the record in the journal is written
+	 * again (it may have been torn by the crash), and every record is checked.
+	 * Records with a bad checksum are turned into tombstones so the other records
+	 * stay reachable.
+	 */
+	private void recover() {
+		recovered = true;
+		ByteBuffer journal = ByteBuffer.allocate(JOURNAL_SIZE);
+		buffer.get(JOURNAL_OFFSET, journal.array());
+		int journalSlot = journal.getInt(J_SLOT);
+		if (journalSlot >= 0 && journalSlot < capacity && journal.getInt(J_CRC) == journalChecksum(journal)) {
+			buffer.put(offsetOf(journalSlot), journal.array(), J_RECORD, RECORD_SIZE);
+		}
+
+		size = 0;
+		tombstones = 0;
+		for (int slot = 0; slot < capacity; slot++) {
+			int offset = offsetOf(slot);
+			byte state = buffer.get(offset + R_STATE);
+			if (state == USED) {
+				readRecord(slot);
+				if (record.getInt(R_CRC) == recordChecksum() && isValidRecord()) {
+					size++;
+					continue;
+				}
+				System.out.println(String.format("The record in slot %d of the tool file %s was corrupted and has been removed.", slot, file));
+				buffer.put(offset + R_STATE, DELETED);
+				tombstones++;
+			} else if (state != EMPTY) {
+				buffer.put(offset + R_STATE, DELETED);
+				tombstones++;
+			}
+		}
+		buffer.force();
+	}
+
+	private boolean isValidRecord() {
+		return record.get(R_TOOL_CLASS) >= Tool.CHAINSAW_CLASS && record.get(R_TOOL_CLASS) <= Tool.JACKHAMMER_CLASS
+				&& record.get(R_TYPE) >= 0 && record.get(R_TYPE) < TYPES.length
+				&& record.get(R_BRAND) >= 0 && record.get(R_BRAND) < BRANDS.length
+				&& record.get(R_NAME_LENGTH) > 0 && record.get(R_NAME_LENGTH) <= MAX_NAME_BYTES;
+	}
+
+	// Makes room for one more record, rebuilding the table if it is 3/4 full
+	private boolean ensureRoom() {
+		if ((long) (size + tombstones + 1) * 4 <= (long) capacity * 3) {
+			return true;
+		}
+		try {
+			rebuild(capacityFor(size + 1));
+			return true;
+		} catch (IOException e) {
+			System.out.println(String.format("The tool file %s could not be rebuilt. Not updating the storage system.", file));
+			return false;
+		}
+	}
+
+	/**
+	 * Copies every tool into a new file with the passed-in number of slots (without
+	 * tombstones), forces it to disk and moves it over the tool file in one atomic step.
+	 * A crash before the move leaves the old file untouched.
+	 */
+	private void rebuild(int newCapacity) throws IOException {
+		Path rebuildFile = file.resolveSibling(file.getFileName() + ".rebuild");
+		try (FileChannel rebuildChannel = FileChannel.open(rebuildFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer rebuilt = rebuildChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileLength(newCapacity));
+			int newShift = Integer.numberOfLeadingZeros(newCapacity - 1);
+			byte[] copy = new byte[RECORD_SIZE];
+			for (int slot = 0; slot < capacity; slot++) {
+				int offset = offsetOf(slot);
+				if (buffer.get(offset + R_STATE) == USED) {
+					buffer.get(offset, copy);
+					int newSlot = homeOf(buffer.getInt(offset + R_NAME_HASH), newShift);
+					while (rebuilt.get(offsetOf(newSlot) + R_STATE) != EMPTY) {
+						newSlot = (newSlot + 1) & (newCapacity - 1);
+					}
+					rebuilt.put(offsetOf(newSlot), copy);
+				}
+			}
+			writeHeader(rebuilt, newCapacity, size, 0, DIRTY);
+			rebuilt.force();
+		}
+
+		closeChannel();
+		Files.move(rebuildFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		DirectorySync.force(file.toAbsolutePath().getParent());
+		openChannel();
+		map(newCapacity);
+		tombstones = 0;
+	}
+
+	// Writes the scratch record into a free slot for the passed-in name
+	private void insert(byte[] name, int hash) {
+		int slot = homeOf(hash, slotShift);
+		int freeSlot = -1;
+		while (true) {
+			byte state = buffer.get(offsetOf(slot) + R_STATE);
+			if (state == EMPTY) {
+				break;
+			}
+			if (state == DELETED && freeSlot < 0) {
+				freeSlot = slot;
+			}
+			slot = (slot + 1) & slotMask;
+		}
+		if (freeSlot >= 0) {
+			slot = freeSlot;
+			tombstones--;
+		}
+		writeRecord(slot);
+		size++;
+	}
+
+	// Turns the passed-in slot into a tombstone
+	private void delete(int slot) {
+		readRecord(slot);
+		record.put(R_STATE, DELETED);
+		writeRecord(slot);
+		size--;
+		tombstones++;
+	}
+
+	private int findSlot(ToolId code) {
+		byte[] name = code.getName().getBytes(StandardCharsets.UTF_8);
+		return (name.length > MAX_NAME_BYTES) ? -1 : findSlot(name, code.getName().hashCode());
+	}
+
+	// The slot of the record with the passed-in name, or -1 if there is none
+	private int findSlot(byte[] name, int hash) {
+		int slot = homeOf(hash, slotShift);
+		while (true) {
+			int offset = offsetOf(slot);
+			byte state = buffer.get(offset + R_STATE);
+			if (state == EMPTY) {
+				return -1;
+			}
+			if (state == USED && buffer.getInt(offset + R_NAME_HASH) == hash && nameEquals(offset, name)) {
+				return slot;
+			}
+			slot = (slot + 1) & slotMask;
+		}
+	}
+
+	private boolean nameEquals(int offset, byte[] name) {
+		if (buffer.get(offset + R_NAME_LENGTH) != name.length) {
+			return false;
+		}
+		for (int i = 0; i < name.length; i++) {
+			if (buffer.get(offset + R_NAME + i) != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Creates a new Tool of the record's class from the record in the passed-in slot
+	private Tool readTool(int slot, ToolId id) {
+		readRecord(slot);
+		if (id == null) {
+			id = ToolId.of(new String(record.array(), R_NAME, record.get(R_NAME_LENGTH), StandardCharsets.UTF_8));
+		}
+		Brand brand = BRANDS[record.get(R_BRAND)];
+		float dailyCharge = record.getFloat(R_DAILY_CHARGE);
+		int flags = record.get(R_FLAGS);
+		boolean weekdays = (flags & WEEKDAYS) != 0;
+		boolean weekends = (flags & WEEKENDS) != 0;
+		boolean holidays = (flags & HOLIDAYS) != 0;
+		boolean isCheckedOut = (flags & CHECKED_OUT) != 0;
+		return Tool.newTool(record.get(R_TOOL_CLASS), id, TYPES[record.get(R_TYPE)], brand, dailyCharge, weekdays, weekends, holidays, isCheckedOut);
+	}
+
+	private void readRecord(int slot) {
+		buffer.get(offsetOf(slot), record.array());
+	}
+
+	/**
+	 * Writes the scratch record into the passed-in slot. The record is written to the
+	 * journal first, and with the EVERY_WRITE SyncPolicy the journal is forced to disk
+	 * before the record is written in place (and forced as well).
+	 */
+	private void writeRecord(int slot) {
+		record.putInt(R_CRC, recordChecksum());
+
+		ByteBuffer journal = ByteBuffer.allocate(JOURNAL_SIZE);
+		journal.putInt(J_SLOT, slot);
+		journal.put(J_RECORD, record.array());
+		journal.putInt(J_CRC, journalChecksum(journal));
+		buffer.put(JOURNAL_OFFSET, journal.array());
+		force(JOURNAL_OFFSET, JOURNAL_SIZE);
+
+		buffer.put(offsetOf(slot), record.array());
+		force(offsetOf(slot), RECORD_SIZE);
+	}
+
+	private void force(int offset, int length) {
+		if (syncPolicy == SyncPolicy.EVERY_WRITE) {
+			buffer.force(offset, length);
+		}
+	}
+
+	private void setName(byte[] name, int hash) {
+		record.putInt(R_NAME_HASH, hash);
+		record.put(R_NAME_LENGTH, (byte) name.length);
+		record.put(R_NAME, name);
+		record.put(R_NAME + name.length, new byte[MAX_NAME_BYTES - name.length]);
+	}
+
+	private void setFlag(int flag, boolean value) {
+		int flags = record.get(R_FLAGS);
+		record.put(R_FLAGS, (byte) (value ? (flags | flag) : (flags & ~flag)));
+	}
+
+	// CRC32 of the scratch record, without its own CRC field
+	private int recordChecksum() {
+		crc.reset();
+		crc.update(record.array(), 0, R_CRC);
+		crc.update(record.array(), R_NAME, RECORD_SIZE - R_NAME);
+		return (int) crc.getValue();
+	}
+
+	private int journalChecksum(ByteBuffer journal) {
+		crc.reset();
+		crc.update(journal.array(), J_SLOT, 4);
+		crc.update(journal.array(), J_RECORD, RECORD_SIZE);
+		return (int) crc.getValue();
+	}
+
+	private static int headerChecksum(ByteBuffer header) {
+		CRC32 headerCrc = new CRC32();
+		headerCrc.update(header.array(), 0, H_CRC);
+		return (int) headerCrc.getValue();
+	}
+
+	private static void writeHeader(MappedByteBuffer target, int capacity, int size, int tombstones, int state) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(H_MAGIC, MAGIC);
+		header.putInt(H_VERSION, VERSION);
+		header.putInt(H_RECORD_SIZE, RECORD_SIZE);
+		header.putInt(H_CAPACITY, capacity);
+		header.putInt(H_SIZE, size);
+		header.putInt(H_TOMBSTONES, tombstones);
+		header.putInt(H_STATE, state);
+		header.putInt(H_CRC, headerChecksum(header));
+		target.put(0, header.array());
+	}
+
+	// The UTF-8 bytes of the passed-in ToolId, or null (with a warning message) if it is too long to be stored
+	private static byte[] nameOf(ToolId id) {
+		byte[] name = id.getName().getBytes(StandardCharsets.UTF_8);
+		if (name.length > MAX_NAME_BYTES) {
+			System.out.println(String.format("The code %s is longer than %d bytes. No tool was added to the storage system.", id, MAX_NAME_BYTES));
+			return null;
+		}
+		return name;
+	}
+
+	private static int homeOf(int hash, int shift) {
+		return (hash * 0x9E3779B9) >>> shift;
+	}
+
+	private static int offsetOf(int slot) {
+		return DATA_OFFSET + slot * RECORD_SIZE;
+	}
+
+	private static long fileLength(int capacity) {
+		return DATA_OFFSET + (long) capacity * RECORD_SIZE;
+	}
+
+	// Smallest power of two number of slots that holds the passed-in number of tools at most 3/8 full
+	private static int capacityFor(int tools) {
+		int needed = (int) Math.min(1 << 30, Math.max(16L, (long) tools * 8 / 3 + 1));
+		return Integer.highestOneBit(needed - 1) << 1;
+	}
+
+	private boolean isOpen() {
+		if (channel == null) {
+			System.out.println(String.format("The tool file %s is closed. Please open a new MappedFileStorage.", file));
+			return false;
+		}
+		return true;
+	}
+
+	private void openChannel() throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			lock = channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			lock = null;
+		}
+		if (lock == null) {
+			throw new IllegalStateException(String.format("The tool file %s is already open.", file));
+		}
+	}
+
+	private void map(int newCapacity) throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileLength(newCapacity));
+		capacity = newCapacity;
+		slotMask = newCapacity - 1;
+		slotShift = Integer.numberOfLeadingZeros(slotMask);
+	}
+
+	private void closeChannel() {
+		try {
+			if (lock != null) {
+				lock.release();
+			}
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			System.out.println(String.format("Could not close the tool file %s.", file));
+		}
+		lock = null;
+		channel = null;
+	}
+}
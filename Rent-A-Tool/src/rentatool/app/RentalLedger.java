@@ -0,0 +1,855 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * An append-only ledger of everything that happened to the tools of a store: tools
+ * added, changed, renamed and removed, checkouts, returns and price changes. The
+ * ledger is the history of the tools, and the current state of every tool can be
+ * rebuilt from it into any StorageSystem (see rebuild()).
+ *
+ * 1) Every event is appended to the binary log file "ledger.log" of the ledger's
+ *    directory as one record: its length, a CRC32 of its bytes and the event itself
+ *    (sequence number, event type, tool code and the fields of that event type).
+ *    Records are encoded into a direct ByteBuffer and written sequentially to the
+ *    file's FileChannel when the buffer is full.
+ * 2) The log is forced to disk (fsync) once every eventsPerSync events, when sync()
+ *    is called and when the ledger is closed, so a crash may lose at most the last
+ *    eventsPerSync - 1 events. With eventsPerSync = 1, every event is on disk before
+ *    the record method returns.
+ * 3) The ledger keeps the current state of every tool (its "tool table") in memory.
+ *    Every snapshotInterval events, the tool table is written to "ledger.snapshot"
+ *    along with the position of the next event in the log. The snapshot is written to
+ *    a temporary file, forced to disk and moved over the previous one in one atomic step.
+ * 4) Opening a ledger loads the snapshot and replays only the events appended after it,
+ *    so the time it takes depends on the number of tools and of events since the last
+ *    snapshot, not on the length of the whole history. A record torn by a crash (an
+ *    incomplete record or a bad checksum at the end of the log) is removed with a
+ *    warning message on the console.
+ *
+ * Every record method checks the event against the tool table first: an event that
+ * does not apply (e.g. returning a tool that is not checked out) is not recorded and
+ * the method returns false. The tool table follows the rules of HashMapStorage.
+ *
+ * Note: Tool codes may be at most 255 bytes long in UTF-8. A RentalLedger is
+ * thread-safe, and a ledger directory can only be opened by one RentalLedger at a time.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class RentalLedger implements AutoCloseable {
+
+	/**
+	 * The types of event recorded in the ledger.
+	 * TOOL adds a tool or replaces every property of a stored tool, REMOVE removes
+	 * a tool, RENAME changes a tool's code, CHECKOUT and RETURN change whether a
+	 * tool is checked out and PRICE_CHANGE changes a tool's daily charge.
+	 */
+	public enum EventType {
+		TOOL, REMOVE, RENAME, CHECKOUT, RETURN, PRICE_CHANGE
+	}
+
+	static final String LOG_FILE = "ledger.log";
+	static final String SNAPSHOT_FILE = "ledger.snapshot";
+	static final int DEFAULT_EVENTS_PER_SYNC = 256;
+	static final int DEFAULT_SNAPSHOT_INTERVAL = 100000;
+
+	static final int LOG_MAGIC = 0x5241544C; // "RATL"
+	static final int SNAPSHOT_MAGIC = 0x52415453; // "RATS"
+	static final int VERSION = 1;
+	static final int LOG_HEADER_SIZE = 16;
+	static final int SNAPSHOT_HEADER_SIZE = 32;
+	static final int MAX_NAME_BYTES = 255;
+
+	// Record fields: the length of the event, a CRC32 of the event, then the event itself
+	static final int RECORD_HEADER_SIZE = 8;
+	private static final int MIN_EVENT_SIZE = 10; // sequence number, event type and code length
+
+	// Encoded tool: class, type, brand, flags and daily charge, after the tool's name
+	private static final int TOOL_SIZE = 8;
+	private static final int MAX_EVENT_SIZE = MIN_EVENT_SIZE + MAX_NAME_BYTES + 1 + MAX_NAME_BYTES + 16;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int CHECKED_OUT = 1, WEEKDAYS = 2, WEEKENDS = 4, HOLIDAYS = 8;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private static final EventType[] EVENT_TYPES = EventType.values();
+	private static final Type[] TYPES = Type.values();
+	private static final Brand[] BRANDS = Brand.values();
+
+	private final Path directory;
+	private final Path logFile;
+	private final Path snapshotFile;
+	private final int eventsPerSync;
+	private final int snapshotInterval;
+	private final HashMap<ToolId, Tool> tools = new HashMap<ToolId, Tool>();
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final CRC32 crc = new CRC32();
+	private FileChannel channel;
+	private FileLock lock;
+	private long sequence;
+	private long position; // Position of the next record in the log, once the buffer is written
+	private int eventsSinceSync;
+	private int eventsSinceSnapshot;
+	private int replayedEvents;
+	private boolean recovered;
+
+	/**
+	 * This constructor opens the ledger in the passed-in directory, forcing the log
+	 * to disk every 256 events and writing a snapshot every 100,000 events. The
+	 * directory and an empty ledger are created if they do not exist.
+	 *
+	 * @param directory The directory of the ledger files
+	 * @throws UncheckedIOException if the ledger can not be opened or created
+	 * @throws IllegalStateException if the log is not a valid ledger log or is already open
+	 */
+	public RentalLedger(Path directory) {
+		this(directory, DEFAULT_EVENTS_PER_SYNC, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * This constructor opens the ledger in the passed-in directory. The directory and
+	 * an empty ledger are created if they do not exist.
+	 *
+	 * @param directory The directory of the ledger files
+	 * @param eventsPerSync The number of events appended between two fsyncs of the log (at least 1)
+	 * @param snapshotInterval The number of events appended between two snapshots (at least 1)
+	 * @throws IllegalArgumentException if eventsPerSync or snapshotInterval is less than 1
+	 * @throws UncheckedIOException if the ledger can not be opened or created
+	 * @throws IllegalStateException if the log is not a valid ledger log or is already open
+	 */
+	public RentalLedger(Path directory, int eventsPerSync, int snapshotInterval) {
+		if (eventsPerSync < 1 || snapshotInterval < 1) {
+			throw new IllegalArgumentException(String.format("eventsPerSync and snapshotInterval must be at least 1, but were %d and %d.",
+					eventsPerSync, snapshotInterval));
+		}
+		this.directory = directory;
+		this.logFile = directory.resolve(LOG_FILE);
+		this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+		this.eventsPerSync = eventsPerSync;
+		this.snapshotInterval = snapshotInterval;
+		try {
+			Files.createDirectories(directory);
+			open();
+		} catch (IOException e) {
+			closeChannel();
+			throw new UncheckedIOException(String.format("Could not open the ledger %s.", directory), e);
+		} catch (RuntimeException e) {
+			closeChannel();
+			throw e;
+		}
+	}
+
+	/**
+	 * Records a tool that is not in the tool table yet.
+	 *
+	 * @return whether the event was recorded (false if the tool is null, already in
+	 * the tool table, not a Chainsaw, Ladder or Jackhammer, or its code is too long)
+	 */
+	public synchronized boolean recordNewTool(Tool tool) {
+		if (tool == null || tools.containsKey(tool.getId()) || !isRecordable(tool)) {
+			return false;
+		}
+		return append(new Event(EventType.TOOL, tool.getId(), Tool.copyOf(tool)));
+	}
+
+	/**
+	 * Records the new properties (other than the code) of a tool of the tool table,
+	 * e.g. after its type or brand was updated.
+	 *
+	 * @return whether the event was recorded (false if the tool is null, not in the tool
+	 * table or not a Chainsaw, Ladder or Jackhammer)
+	 */
+	public synchronized boolean recordToolChange(Tool tool) {
+		if (tool == null || !tools.containsKey(tool.getId()) || !isRecordable(tool)) {
+			return false;
+		}
+		return append(new Event(EventType.TOOL, tool.getId(), Tool.copyOf(tool)));
+	}
+
+	/**
+	 * @return whether the event was recorded (false if the tool is not in the tool table)
+	 */
+	public synchronized boolean recordRemoval(ToolId id) {
+		if (id == null || !tools.containsKey(id)) {
+			return false;
+		}
+		return append(new Event(EventType.REMOVE, id));
+	}
+
+	/**
+	 * @return whether the event was recorded (false if the tool is not in the tool
+	 * table, or a tool with the new code already is)
+	 */
+	public synchronized boolean recordRename(ToolId id, ToolId newId) {
+		if (id == null || newId == null || !tools.containsKey(id) || tools.containsKey(newId)) {
+			return false;
+		}
+		Event event = new Event(EventType.RENAME, id);
+		event.newId = newId;
+		return append(event);
+	}
+
+	/**
+	 * Records the checkout of a tool. The rental days, discount percent and checkout
+	 * date of its RentalAgreement are kept in the history (a tool checked out without
+	 * a RentalAgreement can be recorded with 0 days, 0% and a null date).
+	 *
+	 * @return whether the event was recorded (false if the tool is not in the tool
+	 * table or is already checked out)
+	 */
+	public synchronized boolean recordCheckout(ToolId id, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		Tool tool = (id == null) ? null : tools.get(id);
+		if (tool == null || tool.isCheckedOut()) {
+			return false;
+		}
+		Event event = new Event(EventType.CHECKOUT, id);
+		event.rentalDays = rentalDays;
+		event.discountPercent = discountPercent;
+		event.checkoutDate = checkoutDate;
+		return append(event);
+	}
+
+	/**
+	 * @return whether the event was recorded (false if the tool is not in the tool
+	 * table or is not checked out)
+	 */
+	public synchronized boolean recordReturn(ToolId id) {
+		Tool tool = (id == null) ? null : tools.get(id);
+		if (tool == null || !tool.isCheckedOut()) {
+			return false;
+		}
+		return append(new Event(EventType.RETURN, id));
+	}
+
+	/**
+	 * @return whether the event was recorded (false if the tool is not in the tool
+	 * table or already has the passed-in daily charge)
+	 */
+	public synchronized boolean recordPriceChange(ToolId id, float dailyCharge) {
+		Tool tool = (id == null) ? null : tools.get(id);
+		if (tool == null || Float.compare(tool.getDailyCharge(), dailyCharge) == 0) {
+			return false;
+		}
+		Event event = new Event(EventType.PRICE_CHANGE, id);
+		event.dailyCharge = dailyCharge;
+		return append(event);
+	}
+
+	/**
+	 * @return a copy of the tool with the passed-in code in the tool table, or null
+	 * if there is none. No warning message is displayed.
+	 */
+	public synchronized Tool getTool(ToolId id) {
+		Tool tool = (id == null) ? null : tools.get(id);
+		return (tool == null) ? null : Tool.copyOf(tool);
+	}
+
+	// Number of tools in the tool table
+	public synchronized int size() {
+		return tools.size();
+	}
+
+	// Sequence number of the last recorded event (0 if no event was ever recorded)
+	public synchronized long getSequence() {
+		return sequence;
+	}
+
+	// Number of events replayed from the log when the ledger was opened (the events appended after the snapshot)
+	public int getReplayedEvents() {
+		return replayedEvents;
+	}
+
+	// Whether a torn record had to be removed from the end of the log when the ledger was opened
+	public boolean wasRecovered() {
+		return recovered;
+	}
+
+	public synchronized boolean isClosed() {
+		return channel == null;
+	}
+
+	/**
+	 * Rebuilds the passed-in StorageSystem from the ledger: every tool it holds is
+	 * removed, then every tool of the tool table is added (with one addTools() call).
+	 *
+	 * @param storage The StorageSystem to rebuild
+	 * @return the number of tools added to the StorageSystem
+	 */
+	public int rebuild(StorageSystem storage) {
+		List<ToolId> stored;
+		try (Stream<Tool> storedTools = storage.streamTools()) {
+			stored = storedTools.map(Tool::getId).collect(Collectors.toList());
+		}
+		for (ToolId id : stored) {
+			storage.removeTool(id);
+		}
+
+		List<Tool> copies;
+		synchronized (this) {
+			copies = new ArrayList<Tool>(tools.size());
+			for (Tool tool : tools.values()) {
+				copies.add(Tool.copyOf(tool));
+			}
+		}
+		storage.addTools(copies);
+		return copies.size();
+	}
+
+	/**
+	 * Reads the whole history of the ledger, from its first event to its last one,
+	 * and passes every event to the passed-in action in order.
+	 *
+	 * @return the number of events read
+	 */
+	public synchronized int forEachEvent(Consumer<? super Event> action) {
+		if (!isOpen()) {
+			return 0;
+		}
+		try {
+			flush();
+			int[] count = new int[1];
+			readEvents(LOG_HEADER_SIZE, position, event -> {
+				action.accept(event);
+				count[0]++;
+			});
+			return count[0];
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Could not read the ledger %s.", directory), e);
+		}
+	}
+
+	/**
+	 * Writes the buffered events to the log and forces it to disk.
+	 */
+	public synchronized void sync() {
+		if (!isOpen()) {
+			return;
+		}
+		try {
+			flush();
+			channel.force(false);
+			eventsSinceSync = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Could not write to the ledger %s.", directory), e);
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the tool table now, instead of waiting for snapshotInterval
+	 * events. The log is forced to disk first, so the snapshot never refers to events
+	 * that are not on disk.
+	 */
+	public synchronized void snapshot() {
+		if (!isOpen()) {
+			return;
+		}
+		sync();
+		Path temporaryFile = directory.resolve(SNAPSHOT_FILE + ".tmp");
+		try (FileChannel snapshotChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			CRC32 snapshotCrc = new CRC32();
+			out.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(sequence).putLong(position).putInt(tools.size()).putInt(0);
+			for (Tool tool : tools.values()) {
+				if (out.remaining() < 1 + MAX_NAME_BYTES + TOOL_SIZE + 4) {
+					drain(out, snapshotChannel, snapshotCrc);
+				}
+				putName(out, nameOf(tool.getId()));
+				putTool(out, tool);
+			}
+			drain(out, snapshotChannel, snapshotCrc);
+			out.putInt((int) snapshotCrc.getValue());
+			out.flip();
+			while (out.hasRemaining()) {
+				snapshotChannel.write(out);
+			}
+			snapshotChannel.force(true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Could not write a snapshot of the ledger %s.", directory), e);
+		}
+
+		try {
+			Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Could not write a snapshot of the ledger %s.", directory), e);
+		}
+		DirectorySync.force(directory);
+		eventsSinceSnapshot = 0;
+	}
+
+	/**
+	 * Writes the buffered events, forces the log to disk and closes it.
+	 */
+	@Override
+	public synchronized void close() {
+		if (channel == null) {
+			System.out.println(String.format("The ledger %s is already closed!", directory));
+			return;
+		}
+		sync();
+		closeChannel();
+	}
+
+	// Opens the log, loads the snapshot and replays the events appended after it
+	private void open() throws IOException {
+		channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			lock = channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			lock = null;
+		}
+		if (lock == null) {
+			throw new IllegalStateException(String.format("The ledger %s is already open.", directory));
+		}
+
+		long length = channel.size();
+		if (length == 0) {
+			ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+			header.putInt(LOG_MAGIC).putInt(VERSION);
+			header.clear();
+			channel.write(header, 0);
+			channel.force(true);
+			DirectorySync.force(directory);
+			position = LOG_HEADER_SIZE;
+			return;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+		channel.read(header, 0);
+		if (length < LOG_HEADER_SIZE || header.getInt(0) != LOG_MAGIC || header.getInt(4) != VERSION) {
+			throw new IllegalStateException(String.format("The file %s is not a valid ledger log.", logFile));
+		}
+
+		long replayFrom = loadSnapshot(length);
+		replayedEvents = 0;
+		long end = readEvents(replayFrom, length, event -> {
+			apply(event);
+			sequence = event.sequence;
+			replayedEvents++;
+		});
+		if (end < length) {
+			recovered = true;
+			System.out.println(String.format("The last %d bytes of the ledger %s were an incomplete event and have been removed.", length - end, logFile));
+			channel.truncate(end);
+			channel.force(true);
+		}
+		position = end;
+		eventsSinceSnapshot = replayedEvents;
+	}
+
+	/**
+	 * Loads the tool table and sequence number of a valid snapshot, and returns the
+	 * position of the first event appended after it. Without a valid snapshot, the
+	 * whole log is replayed.
+	 */
+	private long loadSnapshot(long logLength) throws IOException {
+		if (!Files.exists(snapshotFile)) {
+			return LOG_HEADER_SIZE;
+		}
+
+		try (FileChannel snapshotChannel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+			long length = snapshotChannel.size();
+			if (length >= SNAPSHOT_HEADER_SIZE + 4 && length <= Integer.MAX_VALUE) {
+				MappedByteBuffer in = snapshotChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+				CRC32 snapshotCrc = new CRC32();
+				in.limit((int) length - 4);
+				snapshotCrc.update(in);
+				in.limit((int) length);
+				long snapshotPosition = in.getLong(16);
+				if (in.getInt(0) == SNAPSHOT_MAGIC && in.getInt(4) == VERSION && in.getInt((int) length - 4) == (int) snapshotCrc.getValue()
+						&& snapshotPosition >= LOG_HEADER_SIZE && snapshotPosition <= logLength) {
+					int count = in.getInt(24);
+					in.position(SNAPSHOT_HEADER_SIZE);
+					for (int i = 0; i < count; i++) {
+						ToolId id = ToolId.of(getName(in));
+						tools.put(id, getTool(in, id));
+					}
+					sequence = in.getLong(8);
+					return snapshotPosition;
+				}
+			}
+		} catch (RuntimeException e) {
+			tools.clear(); // a snapshot that can not be read is replaced by replaying the whole log
+		}
+		System.out.println(String.format("The snapshot %s is not valid and was ignored. The whole ledger will be replayed.", snapshotFile));
+		return LOG_HEADER_SIZE;
+	}
+
+	/**
+	 * Reads the events of the log from the passed-in position up to the passed-in end,
+	 * stopping at the first incomplete record or record with a bad checksum.
+	 *
+	 * @return the position after the last valid record that was read
+	 */
+	private long readEvents(long from, long to, Consumer<Event> action) throws IOException {
+		ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+		in.limit(0);
+		long readPosition = from; // position in the file of the end of the data in the buffer
+		long valid = from;
+		while (true) {
+			if (in.remaining() < RECORD_HEADER_SIZE + MAX_EVENT_SIZE && readPosition < to) {
+				in.compact();
+				in.limit((int) Math.min(in.capacity(), in.position() + (to - readPosition)));
+				while (in.hasRemaining()) {
+					int read = channel.read(in, readPosition);
+					if (read < 0) {
+						break;
+					}
+					readPosition += read;
+				}
+				in.flip();
+			}
+			if (in.remaining() < RECORD_HEADER_SIZE) {
+				return valid;
+			}
+
+			int start = in.position();
+			int length = in.getInt(start);
+			if (length < MIN_EVENT_SIZE || length > MAX_EVENT_SIZE || in.remaining() < RECORD_HEADER_SIZE + length) {
+				return valid;
+			}
+			crc.reset();
+			ByteBuffer event = in.duplicate();
+			event.position(start + RECORD_HEADER_SIZE).limit(start + RECORD_HEADER_SIZE + length);
+			crc.update(event);
+			if (in.getInt(start + 4) != (int) crc.getValue()) {
+				return valid;
+			}
+
+			event.position(start + RECORD_HEADER_SIZE);
+			Event decoded = decode(event);
+			if (decoded == null) {
+				return valid;
+			}
+			action.accept(decoded);
+			in.position(start + RECORD_HEADER_SIZE + length);
+			valid += RECORD_HEADER_SIZE + length;
+		}
+	}
+
+	// Appends the passed-in event to the log and applies it to the tool table
+	private boolean append(Event event) {
+		if (!isOpen()) {
+			return false;
+		}
+		byte[] name = nameOf(event.id);
+		byte[] newName = (event.newId == null) ? null : nameOf(event.newId);
+		if (name == null || (event.type == EventType.RENAME && newName == null)) {
+			return false;
+		}
+
+		try {
+			if (buffer.remaining() < RECORD_HEADER_SIZE + MAX_EVENT_SIZE) {
+				flush();
+			}
+			event.sequence = sequence + 1;
+			int start = buffer.position();
+			buffer.position(start + RECORD_HEADER_SIZE);
+			buffer.putLong(event.sequence);
+			buffer.put((byte) event.type.ordinal());
+			putName(buffer, name);
+			switch (event.type) {
+			case TOOL:
+				putTool(buffer, event.tool);
+				break;
+			case RENAME:
+				putName(buffer, newName);
+				break;
+			case CHECKOUT:
+				buffer.putInt(event.rentalDays);
+				buffer.putInt(event.discountPercent);
+				buffer.putLong((event.checkoutDate == null) ? NO_DATE : event.checkoutDate.toEpochDay());
+				break;
+			case PRICE_CHANGE:
+				buffer.putFloat(event.dailyCharge);
+				break;
+			default:
+				break;
+			}
+			int end = buffer.position();
+			crc.reset();
+			ByteBuffer body = buffer.duplicate();
+			body.position(start + RECORD_HEADER_SIZE).limit(end);
+			crc.update(body);
+			buffer.putInt(start, end - start - RECORD_HEADER_SIZE);
+			buffer.putInt(start + 4, (int) crc.getValue());
+
+			sequence = event.sequence;
+			apply(event);
+			if (++eventsSinceSync >= eventsPerSync) {
+				sync();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Could not write to the ledger %s.", directory), e);
+		}
+		if (++eventsSinceSnapshot >= snapshotInterval) {
+			snapshot();
+		}
+		return true;
+	}
+
+	// Writes the buffered records to the end of the log (without forcing them to disk)
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+		buffer.clear();
+	}
+
+	// Applies the passed-in event to the tool table
+	private void apply(Event event) {
+		Tool tool = tools.get(event.id);
+		switch (event.type) {
+		case TOOL:
+			tools.put(event.id, event.tool); // the event's tool is a copy that is not shared
+			break;
+		case REMOVE:
+			tools.remove(event.id);
+			break;
+		case RENAME:
+			if (tool != null) {
+				tools.remove(event.id);
+				tool.setId(event.newId);
+				tools.put(event.newId, tool);
+			}
+			break;
+		case CHECKOUT:
+		case RETURN:
+			if (tool != null) {
+				tool.setCheckedOut(event.type == EventType.CHECKOUT);
+			}
+			break;
+		case PRICE_CHANGE:
+			if (tool != null) {
+				tool.setDailyCharge(event.dailyCharge);
+			}
+			break;
+		}
+	}
+
+	// Decodes the event at the position of the passed-in buffer, or returns null if its fields are not valid
+	private static Event decode(ByteBuffer in) {
+		try {
+			long eventSequence = in.getLong();
+			int type = in.get();
+			if (type < 0 || type >= EVENT_TYPES.length) {
+				return null;
+			}
+			Event event = new Event(EVENT_TYPES[type], ToolId.of(getName(in)));
+			event.sequence = eventSequence;
+			switch (event.type) {
+			case TOOL:
+				event.tool = getTool(in, event.id);
+				break;
+			case RENAME:
+				event.newId = ToolId.of(getName(in));
+				break;
+			case CHECKOUT:
+				event.rentalDays = in.getInt();
+				event.discountPercent = in.getInt();
+				long epochDay = in.getLong();
+				event.checkoutDate = (epochDay == NO_DATE) ? null : LocalDate.ofEpochDay(epochDay);
+				break;
+			case PRICE_CHANGE:
+				event.dailyCharge = in.getFloat();
+				break;
+			default:
+				break;
+			}
+			return event;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static void putName(ByteBuffer out, byte[] name) {
+		out.put((byte) name.length);
+		out.put(name);
+	}
+
+	private static String getName(ByteBuffer in) {
+		byte[] name = new byte[in.get() & 0xff];
+		in.get(name);
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	private static void putTool(ByteBuffer out, Tool tool) {
+		out.put(Tool.classCodeOf(tool));
+		out.put((byte) tool.getType().ordinal());
+		out.put((byte) tool.getBrand().ordinal());
+		out.put((byte) ((tool.isCheckedOut() ? CHECKED_OUT : 0)
+				| (tool.isChargeOnWeekdays() ? WEEKDAYS : 0)
+				| (tool.isChargeOnWeekends() ? WEEKENDS : 0)
+				| (tool.isChargeOnHolidays() ? HOLIDAYS : 0)));
+		out.putFloat(tool.getDailyCharge());
+	}
+
+	// Creates a new Tool of the encoded class from the encoded tool at the position of the passed-in buffer
+	private static Tool getTool(ByteBuffer in, ToolId id) {
+		byte toolClass = in.get();
+		Type type = TYPES[in.get()];
+		Brand brand = BRANDS[in.get()];
+		int flags = in.get();
+		float dailyCharge = in.getFloat();
+		boolean weekdays = (flags & WEEKDAYS) != 0;
+		boolean weekends = (flags & WEEKENDS) != 0;
+		boolean holidays = (flags & HOLIDAYS) != 0;
+		boolean isCheckedOut = (flags & CHECKED_OUT) != 0;
+		return Tool.newTool(toolClass, id, type, brand, dailyCharge, weekdays, weekends, holidays, isCheckedOut);
+	}
+
+	// Whether the passed-in Tool has a class code (see Tool.classCodeOf()), otherwise a warning message is displayed
+	private static boolean isRecordable(Tool tool) {
+		if (Tool.classCodeOf(tool) < 0) {
+			System.out.println(String.format("A tool of class %s can not be recorded in the ledger.", tool.getClass().getSimpleName()));
+			return false;
+		}
+		return true;
+	}
+
+	// The UTF-8 bytes of the passed-in ToolId, or null (with a warning message) if it is too long to be recorded
+	private static byte[] nameOf(ToolId id) {
+		byte[] name = id.getName().getBytes(StandardCharsets.UTF_8);
+		if (name.length > MAX_NAME_BYTES) {
+			System.out.println(String.format("The code %s is longer than %d bytes. The event was not recorded in the ledger.", id, MAX_NAME_BYTES));
+			return null;
+		}
+		return name;
+	}
+
+	// Writes the passed-in buffer to the passed-in channel, adding its bytes to the passed-in checksum
+	private static void drain(ByteBuffer out, FileChannel target, CRC32 checksum) throws IOException {
+		out.flip();
+		checksum.update(out.duplicate());
+		while (out.hasRemaining()) {
+			target.write(out);
+		}
+		out.clear();
+	}
+
+	private boolean isOpen() {
+		if (channel == null) {
+			System.out.println(String.format("The ledger %s is closed. Please open a new RentalLedger.", directory));
+			return false;
+		}
+		return true;
+	}
+
+	private void closeChannel() {
+		try {
+			if (lock != null) {
+				lock.release();
+			}
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			System.out.println(String.format("Could not close the ledger %s.", directory));
+		}
+		lock = null;
+		channel = null;
+	}
+
+	/**
+	 * One event of the ledger. Only the fields of the event's type are set: the tool
+	 * of a TOOL event, the new code of a RENAME event, the rental days, discount
+	 * percent and checkout date (null if the tool was checked out without a
+	 * RentalAgreement) of a CHECKOUT event and the daily charge of a PRICE_CHANGE event.
+	 */
+	public static final class Event {
+		private final EventType type;
+		private final ToolId id;
+		private long sequence;
+		private Tool tool;
+		private ToolId newId;
+		private int rentalDays;
+		private int discountPercent;
+		private LocalDate checkoutDate;
+		private float dailyCharge;
+
+		Event(EventType type, ToolId id) {
+			this.type = type;
+			this.id = id;
+		}
+
+		Event(EventType type, ToolId id, Tool tool) {
+			this(type, id);
+			this.tool = tool;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+
+		public EventType getType() {
+			return type;
+		}
+
+		public ToolId getId() {
+			return id;
+		}
+
+		// A copy of the tool of a TOOL event, or null
+		public Tool getTool() {
+			return (tool == null) ? null : Tool.copyOf(tool);
+		}
+
+		public ToolId getNewId() {
+			return newId;
+		}
+
+		public int getRentalDays() {
+			return rentalDays;
+		}
+
+		public int getDiscountPercent() {
+			return discountPercent;
+		}
+
+		public LocalDate getCheckoutDate() {
+			return checkoutDate;
+		}
+
+		public float getDailyCharge() {
+			return dailyCharge;
+		}
+
+		@Override
+		public String toString() {
+			switch (type) {
+			case RENAME:
+				return String.format("#%d %s %s %s", sequence, type, id, newId);
+			case CHECKOUT:
+				return String.format("#%d %s %s %d days %d%% %s", sequence, type, id, rentalDays, discountPercent, checkoutDate);
+			case PRICE_CHANGE:
+				return String.format("#%d %s %s %f", sequence, type, id, dailyCharge);
+			default:
+				return String.format("#%d %s %s", sequence, type, id);
+			}
+		}
+	}
+}
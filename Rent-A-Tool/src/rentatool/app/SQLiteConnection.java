@@ -0,0 +1,71 @@
+package rentatool.app;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps a single JDBC connection to the SQLite database together with the
+ * PreparedStatements that have been compiled on it. Statements are cached
+ * by their SQL and kept open for as long as the connection is, so each
+ * statement is only compiled once per connection.
+ *
+ * An SQLiteConnection is not thread-safe. SQLiteDB either uses one shared
+ * instance from a single thread, or leases instances out of an
+ * SQLiteConnectionPool so that only one thread uses each at a time.
+ *
+ * @author CSGarcia1191
+ *
+ */
+class SQLiteConnection {
+
+	private final Connection connection;
+
+	// PreparedStatements of this connection, keyed by their SQL
+	private final Map<String, PreparedStatement> statementCache = new HashMap<String, PreparedStatement>();
+
+	SQLiteConnection(Connection connection) {
+		this.connection = connection;
+	}
+
+	Connection getConnection() {
+		return connection;
+	}
+
+	boolean isClosed() throws SQLException {
+		return connection.isClosed();
+	}
+
+	/**
+	 * Returns the cached PreparedStatement for the passed-in SQL, preparing
+	 * and caching it the first time it is used. Callers must close any
+	 * ResultSet they open, but must not close the PreparedStatement itself.
+	 *
+	 * @param sql The SQL of the statement
+	 * @return an open PreparedStatement for this connection
+	 * @throws SQLException if the statement can not be prepared
+	 */
+	PreparedStatement prepare(String sql) throws SQLException {
+		PreparedStatement ps = statementCache.get(sql);
+		if (ps == null || ps.isClosed()) {
+			ps = connection.prepareStatement(sql);
+			statementCache.put(sql, ps);
+		}
+		return ps;
+	}
+
+	// Closes every cached PreparedStatement and then the connection itself
+	void close() throws SQLException {
+		for (PreparedStatement ps : statementCache.values()) {
+			try {
+				ps.close();
+			} catch (SQLException e) {
+				// The statement is unusable either way, so it is simply dropped from the cache
+			}
+		}
+		statementCache.clear();
+		connection.close();
+	}
+}
@@ -0,0 +1,184 @@
+package rentatool.app;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A small fixed-size pool of connections to an SQLite database file, used by
+ * pooled SQLiteDB instances so that several threads (checkout terminals) can
+ * share one StorageSystem.
+ *
+ * Every connection is opened up front in WAL journal mode, which lets readers
+ * keep reading the last committed state of the database while a write is in
+ * progress. SQLite still only allows a single writer at a time, so writes are
+ * funneled through a write lock held by the pool instead of letting
+ * connections race for the database lock. The busy_timeout pragma is set as
+ * well so that connections still wait (instead of failing right away) when
+ * the database is locked by another process.
+ *
+ * The pool size can be passed in, or is read from the "rentatool.sqlite.poolSize"
+ * system property (e.g. -Drentatool.sqlite.poolSize=8). If the property is not
+ * set, one connection per available processor is used.
+ *
+ * @author CSGarcia1191
+ *
+ */
+class SQLiteConnectionPool {
+
+	static final String POOL_SIZE_PROPERTY = "rentatool.sqlite.poolSize";
+	static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+	private final int size;
+	private final BlockingQueue<SQLiteConnection> idleConnections;
+	private final ReentrantLock writeLock = new ReentrantLock(true);
+	private volatile boolean closed;
+
+	/**
+	 * Opens a pool with the default number of connections to the passed-in database URL.
+	 *
+	 * @param url JDBC URL of the SQLite database, e.g. "jdbc:sqlite:rentatool.db"
+	 * @throws SQLException if a connection could not be opened or configured
+	 */
+	SQLiteConnectionPool(String url) throws SQLException {
+		this(url, getDefaultPoolSize());
+	}
+
+	/**
+	 * Opens a pool with the passed-in number of connections to the passed-in database URL.
+	 * If any connection can not be opened, the connections opened so far are closed again.
+	 *
+	 * @param url JDBC URL of the SQLite database, e.g. "jdbc:sqlite:rentatool.db"
+	 * @param size Number of connections in the pool (must be at least 1)
+	 * @throws SQLException if a connection could not be opened or configured
+	 */
+	SQLiteConnectionPool(String url, int size) throws SQLException {
+		if (size < 1) {
+			throw new IllegalArgumentException(String.format("The connection pool size must be at least 1, but was %d.", size));
+		}
+
+		this.size = size;
+		idleConnections = new ArrayBlockingQueue<SQLiteConnection>(size);
+		List<SQLiteConnection> openedConnections = new ArrayList<SQLiteConnection>(size);
+		try {
+			for (int i = 0; i < size; i++) {
+				SQLiteConnection connection = new SQLiteConnection(DriverManager.getConnection(url));
+				openedConnections.add(connection);
+				try (Statement statement = connection.getConnection().createStatement()) {
+					statement.execute("PRAGMA journal_mode=WAL;");
+					statement.execute(String.format("PRAGMA busy_timeout=%d;", BUSY_TIMEOUT_MILLIS));
+				}
+				idleConnections.add(connection);
+			}
+		} catch (SQLException e) {
+			closed = true;
+			for (SQLiteConnection connection : openedConnections) {
+				closeQuietly(connection);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the pool size set by the "rentatool.sqlite.poolSize" system property, or the
+	 * number of available processors if the property is not set or is not a positive number
+	 */
+	static int getDefaultPoolSize() {
+		Integer poolSize = Integer.getInteger(POOL_SIZE_PROPERTY);
+		if (poolSize == null || poolSize < 1) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return poolSize;
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Leases an idle connection out of the pool, waiting for one to be released if
+	 * all of them are in use. Write leases also hold the pool's write lock until
+	 * they are released, so only one thread writes to the database at a time.
+	 * Every leased connection must be handed back via release().
+	 *
+	 * @param write Whether the caller is going to write to the database
+	 * @return a connection that only the calling thread is using, or null if the pool is closed
+	 * @throws SQLException if no connection became available within the busy timeout,
+	 * or the calling thread was interrupted while waiting
+	 */
+	SQLiteConnection acquire(boolean write) throws SQLException {
+		if (closed) {
+			return null;
+		}
+
+		if (write) {
+			writeLock.lock();
+		}
+		SQLiteConnection connection = null;
+		try {
+			connection = idleConnections.poll(BUSY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (connection == null && write) {
+				writeLock.unlock();
+			}
+		}
+
+		if (connection == null) {
+			if (closed) {
+				return null;
+			}
+			throw new SQLException("No pooled SQLite connection became available.");
+		}
+		return connection;
+	}
+
+	/**
+	 * Hands a leased connection back to the pool, releasing the write lock if
+	 * it was leased for a write. If the pool was closed while the connection
+	 * was leased, the connection is closed instead.
+	 *
+	 * @param connection Connection returned by acquire()
+	 * @param write Must match the value passed to acquire()
+	 */
+	void release(SQLiteConnection connection, boolean write) {
+		try {
+			idleConnections.add(connection);
+			if (closed) {
+				close(); // the pool was closed while the connection was leased
+			}
+		} finally {
+			if (write) {
+				writeLock.unlock();
+			}
+		}
+	}
+
+	// Closes every idle connection. Leased connections are closed as they are released.
+	void close() {
+		closed = true;
+		SQLiteConnection connection;
+		while ((connection = idleConnections.poll()) != null) {
+			closeQuietly(connection);
+		}
+	}
+
+	private static void closeQuietly(SQLiteConnection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			// Nothing more can be done with a connection that fails to close
+		}
+	}
+}
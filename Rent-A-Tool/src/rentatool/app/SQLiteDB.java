@@ -1,18 +1,30 @@
 package rentatool.app;
 
-import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import rentatool.rental_items.Chainsaw;
 import rentatool.rental_items.Jackhammer;
 import rentatool.rental_items.Ladder;
+import rentatool.rental_items.RentalAgreement;
 import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolId;
 import rentatool.rental_items.ToolEnums.*;
 
 /**
@@ -23,41 +35,193 @@ import rentatool.rental_items.ToolEnums.*;
  * database, it's easy to include with the Rent-A-Tool project to demonstrate the application's
  * SQL capabilities.
  * 
+ * By default, every SQLiteDB instance shares a single static connection, which is only safe
+ * to use from one thread. An instance created with SQLiteDB(int poolSize) instead leases a
+ * connection out of its own SQLiteConnectionPool for every operation, so it can be shared by
+ * several threads: reads run in parallel and writes are applied one at a time.
+ * 
+ * By default, every new connection (or connection pool) deletes the Tool table and creates a fresh
+ * one. A persistent SQLiteDB (created with SQLiteDB(int poolSize, boolean persistent), or with the
+ * "rentatool.sqlite.persistent" system property set to true) keeps the existing table instead. It
+ * only applies the schema migrations the database file has not seen yet (its schema version is
+ * stored in "PRAGMA user_version"), so opening it does not depend on the number of tools stored.
+ * 
+ * A pooled SQLiteDB can also group the checkedOut updates of checkouts and returns (see enableGroupCommit()),
+ * so that the updates submitted by several terminals at the same time share one transaction.
+ * 
+ * Tool listings (streamTools() and printStoredTools()) read the table through a forward-only cursor
+ * ordered by code, which SQLite walks along the primary key index, so no listing is sorted in memory.
+ * findAvailable() reads the available tools of a type and brand through the same kind of cursor, over
+ * an index on the type, brand and checkedOut columns, so it never reads a tool that does not match.
+ * 
  * @author CSGarcia1191
  *
  */
 public class SQLiteDB extends Database {
 
-	// Property that will hold the connection to the SQLite database
-	private static Connection connection;
+	static final String DATABASE_URL = "jdbc:sqlite:rentatool.db";
+	static final String INSERT_TOOL_SQL = "INSERT INTO tool values(?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT(code) DO NOTHING;";
+	static final String SELECT_TOOL_SQL = "SELECT * FROM tool WHERE code = ?;";
+	static final String SELECT_CODE_SQL = "SELECT code FROM tool WHERE code = ?;";
+	static final String DELETE_TOOL_SQL = "DELETE FROM tool WHERE code = ?;";
+	static final String CHECKOUT_TOOL_SQL = "UPDATE tool SET checkedOut = true WHERE code = ? AND checkedOut = false RETURNING *;";
+	static final String RETURN_TOOL_SQL = "UPDATE tool SET checkedOut = false WHERE code = ? AND checkedOut = true;";
+	static final String COUNT_AVAILABLE_SQL = "SELECT count(*) FROM tool WHERE checkedOut = false;";
+	static final String SELECT_TOOLS_SQL = "SELECT * FROM tool ORDER BY code;";
+	static final String FIND_AVAILABLE_SQL = "SELECT * FROM tool WHERE type = ? AND brand = ? AND checkedOut = false;";
+	static final String FIND_AVAILABLE_BY_TYPE_SQL = "SELECT * FROM tool WHERE type = ? AND checkedOut = false;";
+	static final String FIND_AVAILABLE_BY_BRAND_SQL = "SELECT * FROM tool WHERE brand = ? AND checkedOut = false;";
+	static final String FIND_ALL_AVAILABLE_SQL = "SELECT * FROM tool WHERE checkedOut = false;";
+	static final String PERSISTENT_PROPERTY = "rentatool.sqlite.persistent";
+	static final String TABLE_EXISTS_SQL = "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = 'tool';";
+	
+	// Number of records a tool listing asks the driver to read at a time
+	static final int LISTING_FETCH_SIZE = 256;
+	
+	static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS tool("
+			+ "code VARCHAR PRIMARY KEY UNIQUE," // setting this property as UNIQUE allows for use of "OR IGNORE in insert statements"
+			+ "type VARCHAR,"
+			+ "brand VARCHAR,"
+			+ "dailyCharge FLOAT,"
+			+ "chargeOnWeekdays BOOLEAN,"
+			+ "chargeOnWeekends BOOLEAN,"
+			+ "chargeOnHolidays BOOLEAN,"
+			+ "checkedOut BOOLEAN);";
+	static final String[] INSERT_DEFAULT_TOOLS_SQL = {
+			"INSERT OR IGNORE INTO tool values('CHNS', 'Chainsaw', 'Stihl', 1.49, true, false, true, false);",
+			"INSERT OR IGNORE INTO tool values('LADW', 'Ladder', 'Werner', 1.99, true, true, false, false);",
+			"INSERT OR IGNORE INTO tool values('JAKD', 'Jackhammer', 'DeWalt', 2.99, true, false, false, false);",
+			"INSERT OR IGNORE INTO tool values('JAKR', 'Jackhammer', 'Ridgid', 2.99, true, false, false, false);"
+	};
+	// Indexes for queries on the availability, type or brand of the tools (e.g. COUNT_AVAILABLE_SQL)
+	static final String[] CREATE_INDEXES_SQL = {
+			"CREATE INDEX IF NOT EXISTS tool_type ON tool(type);",
+			"CREATE INDEX IF NOT EXISTS tool_brand ON tool(brand);",
+			"CREATE INDEX IF NOT EXISTS tool_checkedOut ON tool(checkedOut);"
+	};
+	// Index answering FIND_AVAILABLE_SQL with a single search (and FIND_AVAILABLE_BY_TYPE_SQL with a range of it)
+	static final String CREATE_AVAILABILITY_INDEX_SQL = "CREATE INDEX IF NOT EXISTS tool_availability ON tool(type, brand, checkedOut);";
+	
+	// Schema migrations of persistent databases: applying MIGRATIONS[i] brings a database
+	// from schema version i to version i + 1. Every statement must be idempotent. Migrations only
+	// change the schema: the default tools are inserted by migrateTable() when it creates the table.
+	static final String[][] MIGRATIONS = {
+			{ CREATE_TABLE_SQL },
+			CREATE_INDEXES_SQL,
+			{ CREATE_AVAILABILITY_INDEX_SQL }
+	};
+	static final int SCHEMA_VERSION = MIGRATIONS.length;
+	
+	// Statements prepared on every connection of a persistent SQLiteDB when it is opened
+	private static final String[] WARM_UP_SQL = { SELECT_TOOL_SQL, SELECT_CODE_SQL, INSERT_TOOL_SQL, DELETE_TOOL_SQL, CHECKOUT_TOOL_SQL, RETURN_TOOL_SQL, COUNT_AVAILABLE_SQL };
+	
+	// Property that will hold the connection shared by every non-pooled SQLiteDB instance
+	private static SQLiteConnection sharedConnection;
+	
+	// Connection pool of a pooled SQLiteDB instance (null for non-pooled instances)
+	private final SQLiteConnectionPool pool;
+	
+	// Writer committing the checkedOut updates of a pooled instance in groups (null unless enableGroupCommit() was called)
+	private volatile SQLiteGroupCommitWriter groupCommitWriter;
 	
 	/**
 	 * Public constructor that enables the application to grab a connection to the SQLite database.
 	 * Once the connection is initialized, it will persist throughout the program's execution.
 	 * The only time a NEW connection is initialized is when there has been no prior connection OR
 	 * the prior connection has been closed. A new connection will delete any Tool table that may
-	 * have previously existed in the database and will create a new one from scratch.
+	 * have previously existed in the database and will create a new one from scratch, unless
+	 * the "rentatool.sqlite.persistent" system property is set to true (see SQLiteDB(int, boolean)).
+	 * 
+	 * The connection is shared by every instance created by this constructor and is not
+	 * thread-safe. Use SQLiteDB(int poolSize) to share an SQLiteDB between threads.
 	 */
 	public SQLiteDB() {
+		pool = null;
 		try {
-			if (connection == null || connection.isClosed()) {
-				connection = DriverManager.getConnection("jdbc:sqlite:rentatool.db");
-				// Since a new connection is initialized, delete existing Tool tables
-				// and create a fresh one.
-				deleteTable();
-				createTable();
+			if (sharedConnection == null || sharedConnection.isClosed()) {
+				sharedConnection = new SQLiteConnection(DriverManager.getConnection(DATABASE_URL));
+				openTable(Boolean.getBoolean(PERSISTENT_PROPERTY));
 			}
 		} catch (SQLException e) {
 			System.out.println("Could not connect to SQLite DB.");
 		}
 	}
 	
-	// Closes the database connection if it exists and is not already closed 
+	/**
+	 * Public constructor for a thread-safe SQLiteDB that can be shared by several checkout terminals.
+	 * The instance gets its own SQLiteConnectionPool with the passed-in number of connections,
+	 * opened in WAL journal mode so that reads run in parallel while a single write is in progress.
+	 * Like the default constructor, any Tool table that may have previously existed in the
+	 * database is deleted and a new one is created from scratch, unless the
+	 * "rentatool.sqlite.persistent" system property is set to true.
+	 * 
+	 * @param poolSize Number of pooled connections. If it is less than 1, a warning message
+	 * is displayed on the console and the default pool size is used (see SQLiteConnectionPool).
+	 */
+	public SQLiteDB(int poolSize) {
+		this(poolSize, Boolean.getBoolean(PERSISTENT_PROPERTY));
+	}
+	
+	/**
+	 * Public constructor for a thread-safe SQLiteDB with its own SQLiteConnectionPool (see
+	 * SQLiteDB(int poolSize)) that can keep the tools stored by a previous run of the application.
+	 * 
+	 * A persistent SQLiteDB keeps the existing Tool table, including the checkout state of every
+	 * tool, and brings it up to date with migrateTable(). Every pooled connection then prepares
+	 * the statements used by the CRUD operations, so the first checkouts do not have to compile
+	 * them. None of these steps reads the stored tools, so opening the database takes the same
+	 * time whatever the size of the table.
+	 * 
+	 * @param poolSize Number of pooled connections. If it is less than 1, a warning message
+	 * is displayed on the console and the default pool size is used (see SQLiteConnectionPool).
+	 * @param persistent Whether to keep the existing Tool table instead of creating a fresh one
+	 */
+	public SQLiteDB(int poolSize, boolean persistent) {
+		if (poolSize < 1) {
+			poolSize = SQLiteConnectionPool.getDefaultPoolSize();
+			System.out.println(String.format("The connection pool size must be at least 1. Using the default pool size of %d.", poolSize));
+		}
+		
+		SQLiteConnectionPool newPool = null;
+		try {
+			newPool = new SQLiteConnectionPool(DATABASE_URL, poolSize);
+		} catch (SQLException e) {
+			System.out.println("Could not connect to SQLite DB.");
+		}
+		pool = newPool;
+		
+		if (pool != null) {
+			openTable(persistent);
+		}
+	}
+	
+	// Migrates and warms up the existing Tool table of a persistent database, or replaces it with a fresh one
+	private void openTable(boolean persistent) {
+		if (persistent) {
+			migrateTable();
+			warmUpConnections();
+		} else {
+			deleteTable();
+			createTable();
+		}
+	}
+	
+	// Closes the database connection (or connection pool) if it exists and is not already closed 
 	@Override
 	void closeConnection() {
+		if (pool != null) {
+			disableGroupCommit();
+			if (!pool.isClosed()) {
+				pool.close();
+			} else {
+				System.out.println("SQLite DB connection is already closed!");
+			}
+			return;
+		}
+		
 		try {
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+			if (sharedConnection != null && !sharedConnection.isClosed()) {
+				sharedConnection.close();
 			} else {
 				System.out.println("SQLite DB connection is already closed!");
 			}
@@ -65,6 +229,101 @@ public class SQLiteDB extends Database {
 			System.out.println("Could not close the SQLite DB connection.");
 		}
 	}
+	
+	/**
+	 * Returns the connection the next database operation should use. Pooled instances
+	 * lease a connection out of their pool (holding the pool's write lock for writes),
+	 * while non-pooled instances use the shared connection.
+	 * Every connection returned must be handed back via release().
+	 * 
+	 * @param write Whether the operation is going to write to the database
+	 * @return an open connection, or null if there is currently no valid database connection
+	 * @throws SQLException if the connection state can not be read or no pooled connection became available
+	 */
+	private SQLiteConnection acquire(boolean write) throws SQLException {
+		if (pool != null) {
+			return pool.acquire(write);
+		}
+		return (sharedConnection != null && !sharedConnection.isClosed()) ? sharedConnection : null;
+	}
+	
+	// Hands a connection returned by acquire() back to the pool (non-pooled instances keep using theirs)
+	private void release(SQLiteConnection connection, boolean write) {
+		if (pool != null) {
+			pool.release(connection, write);
+		}
+	}
+
+	/**
+	 * Makes every update of the checkedOut column (checkout(), updateTool() with Attribute.CHECKEDOUT
+	 * and setCheckedOutAsync()) go through an SQLiteGroupCommitWriter. The updates submitted by
+	 * several threads while a transaction is being committed are committed together in the next
+	 * one, so they share a single fsync. checkout() and updateTool() still return only once their
+	 * update has been committed, so the updates are as durable as autocommitted ones.
+	 * 
+	 * Only pooled instances can group their commits. If the instance is not pooled, or the
+	 * arguments are invalid, a warning message is displayed on the console and the updates
+	 * keep being autocommitted one by one. Calling this method again replaces the writer.
+	 * 
+	 * @param maxBatchSize The maximum number of updates committed in one transaction (at least 1)
+	 * @param maxDelayMicros How long to wait for more updates before committing a group that is
+	 * not full. With 0, a group is committed as soon as the previous commit is done.
+	 */
+	public void enableGroupCommit(int maxBatchSize, long maxDelayMicros) {
+		if (pool == null || pool.isClosed()) {
+			System.out.println("Group commit requires an open pooled SQLiteDB. The updates will be committed one by one.");
+			return;
+		}
+		if (maxBatchSize < 1 || maxDelayMicros < 0) {
+			System.out.println("The group commit batch size must be at least 1 and its delay at least 0. The updates will be committed one by one.");
+			return;
+		}
+		
+		synchronized (this) {
+			disableGroupCommit();
+			groupCommitWriter = new SQLiteGroupCommitWriter(pool, maxBatchSize, maxDelayMicros);
+		}
+	}
+	
+	/**
+	 * Commits the updates already submitted to the group commit writer (if any), then
+	 * goes back to autocommitting every update one by one.
+	 */
+	public void disableGroupCommit() {
+		SQLiteGroupCommitWriter writer;
+		synchronized (this) {
+			writer = groupCommitWriter;
+			groupCommitWriter = null;
+		}
+		if (writer != null) {
+			writer.close();
+		}
+	}
+	
+	// The group commit writer of this instance, or null if group commit is not enabled
+	SQLiteGroupCommitWriter getGroupCommitWriter() {
+		return groupCommitWriter;
+	}
+	
+	/**
+	 * Submits an update of the checkedOut column of the passed-in tool to the group
+	 * commit writer, without waiting for it to be committed (see enableGroupCommit()).
+	 * 
+	 * @return a future completed once the update has been committed, with true if the tool
+	 * was checked out (or returned) by this update, and false if it does not exist or was
+	 * already checked out (or available). It is completed exceptionally if the update could
+	 * not be committed or group commit is not enabled.
+	 */
+	public CompletableFuture<Boolean> setCheckedOutAsync(ToolId code, boolean checkedOut) {
+		SQLiteGroupCommitWriter writer = groupCommitWriter;
+		if (code == null) {
+			return CompletableFuture.failedFuture(new IllegalArgumentException("The passed-in Code was null."));
+		}
+		if (writer == null) {
+			return CompletableFuture.failedFuture(new IllegalStateException("Group commit is not enabled on this SQLiteDB."));
+		}
+		return writer.setCheckedOut(code, checkedOut);
+	}
 
 	/**
 	 * Creates a table named "Tool" with the Tool code as the primary key
@@ -73,27 +332,31 @@ public class SQLiteDB extends Database {
 	 * 2) Code: LADW, Type: Ladder,     Brand: Werner
 	 * 3) Code: JAKD, Type: Jackhammer, Brand: DeWalt
 	 * 4) Code: JAKR, Type: Jackhammer, Brand: Ridgid
-	 * Creates table via a "CREATE TABLE IF NOT EXISTS tool" statement
+	 * Creates table via a "CREATE TABLE IF NOT EXISTS tool" statement, along with the
+	 * indexes on the type, brand and checkedOut columns (each on its own, and all three
+	 * together for availability queries), and sets the schema version of
+	 * the database to the latest one (so a persistent SQLiteDB will not migrate it again)
 	 */
 	@Override
 	void createTable() {
 		try {
-			if (connection != null && !connection.isClosed()) {
-				Statement statement = connection.createStatement();
-				statement.executeUpdate("CREATE TABLE IF NOT EXISTS tool("
-						+ "code VARCHAR PRIMARY KEY UNIQUE," // setting this property as UNIQUE allows for use of "OR IGNORE in insert statements"
-						+ "type VARCHAR,"
-						+ "brand VARCHAR,"
-						+ "dailyCharge FLOAT,"
-						+ "chargeOnWeekdays BOOLEAN,"
-						+ "chargeOnWeekends BOOLEAN,"
-						+ "chargeOnHolidays BOOLEAN,"
-						+ "checkedOut BOOLEAN);");
-				statement.executeUpdate("INSERT OR IGNORE INTO tool values('CHNS', 'Chainsaw', 'Stihl', 1.49, true, false, true, false);");
-				statement.executeUpdate("INSERT OR IGNORE INTO tool values('LADW', 'Ladder', 'Werner', 1.99, true, true, false, false);");
-				statement.executeUpdate("INSERT OR IGNORE INTO tool values('JAKD', 'Jackhammer', 'DeWalt', 2.99, true, false, false, false);");
-				statement.executeUpdate("INSERT OR IGNORE INTO tool values('JAKR', 'Jackhammer', 'Ridgid', 2.99, true, false, false, false);");
-				statement.close();
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					Statement statement = connection.getConnection().createStatement();
+					statement.executeUpdate(CREATE_TABLE_SQL);
+					for (String sql : INSERT_DEFAULT_TOOLS_SQL) {
+						statement.executeUpdate(sql);
+					}
+					for (String sql : CREATE_INDEXES_SQL) {
+						statement.executeUpdate(sql);
+					}
+					statement.executeUpdate(CREATE_AVAILABILITY_INDEX_SQL);
+					statement.executeUpdate(String.format("PRAGMA user_version = %d;", SCHEMA_VERSION));
+					statement.close();
+				} finally {
+					release(connection, true);
+				}
 			} else {
 				System.out.println("There is currently no valid database connection. Could not create table.");
 			}
@@ -103,16 +366,134 @@ public class SQLiteDB extends Database {
 	}
 
 	/**
-	 * Deletes table via a "DROP TABLE IF EXISTS tool" statement
+	 * Brings the Tool table of the database up to the latest schema version by applying, in order,
+	 * every migration in MIGRATIONS that the database has not seen yet. The schema version is read
+	 * from and written to "PRAGMA user_version". Each migration runs in its own transaction together
+	 * with its version update, so a failed migration is rolled back and will be tried again the
+	 * next time the database is opened. A database that is already up to date is not changed.
+	 * 
+	 * The default tools are only inserted when the Tool table does not exist yet, so the tools
+	 * removed from an existing table (of any schema version) are not brought back.
+	 */
+	@Override
+	void migrateTable() {
+		try {
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					Statement statement = connection.getConnection().createStatement();
+					ResultSet resultSet = statement.executeQuery("PRAGMA user_version;");
+					int version = resultSet.getInt(1);
+					resultSet.close();
+					resultSet = statement.executeQuery(TABLE_EXISTS_SQL);
+					boolean newTable = resultSet.getInt(1) == 0;
+					resultSet.close();
+					
+					if (version > SCHEMA_VERSION) {
+						System.out.println(String.format("The database schema version %d is newer than the latest known version %d. Not migrating the table.", version, SCHEMA_VERSION));
+					}
+					for (; version < SCHEMA_VERSION; version++) {
+						connection.getConnection().setAutoCommit(false);
+						try {
+							for (String sql : MIGRATIONS[version]) {
+								statement.executeUpdate(sql);
+							}
+							if (newTable && version == 0) {
+								for (String sql : INSERT_DEFAULT_TOOLS_SQL) {
+									statement.executeUpdate(sql);
+								}
+							}
+							statement.executeUpdate(String.format("PRAGMA user_version = %d;", version + 1));
+							connection.getConnection().commit();
+						} catch (SQLException | RuntimeException e) {
+							connection.getConnection().rollback();
+							throw e;
+						} finally {
+							connection.getConnection().setAutoCommit(true);
+						}
+					}
+					statement.close();
+				} finally {
+					release(connection, true);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not migrate table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue migrating the database table.");
+		}
+	}
+	
+	// Prepares the statements of the CRUD operations on every connection, so they are already cached
+	private void warmUpConnections() {
+		int connectionCount = (pool != null) ? pool.getSize() : 1;
+		List<SQLiteConnection> connections = new ArrayList<SQLiteConnection>(connectionCount);
+		try {
+			for (int i = 0; i < connectionCount; i++) {
+				SQLiteConnection connection = acquire(false);
+				if (connection == null) {
+					return;
+				}
+				connections.add(connection);
+				for (String sql : WARM_UP_SQL) {
+					connection.prepare(sql);
+				}
+			}
+		} catch (SQLException e) {
+			// Statements that could not be prepared now are prepared by their first use instead
+		} finally {
+			for (SQLiteConnection connection : connections) {
+				release(connection, false);
+			}
+		}
+	}
+	
+	/**
+	 * Counts the tools that are not checked out via a
+	 * "SELECT count(*) FROM tool WHERE checkedOut = false" statement,
+	 * which only reads the index on the checkedOut column.
+	 * 
+	 * @return the number of available tools, or -1 if they could not be counted
+	 */
+	public int countAvailable() {
+		int available = -1;
+		try {
+			SQLiteConnection connection = acquire(false);
+			if (connection != null) {
+				try {
+					ResultSet resultSet = connection.prepare(COUNT_AVAILABLE_SQL).executeQuery();
+					available = resultSet.getInt(1);
+					resultSet.close();
+				} finally {
+					release(connection, false);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not count the available tools.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue counting the available tools in the database table.");
+		}
+		return available;
+	}
+
+	/**
+	 * Deletes table via a "DROP TABLE IF EXISTS tool" statement, and resets the
+	 * schema version of the database
 	 */
 	@Override
 	void deleteTable() {
 		try {
-			if (connection != null && !connection.isClosed()) {
-				Statement statement = connection.createStatement();
-				statement.executeUpdate("DROP TABLE IF EXISTS tool;");
-				// Closing the Statement
-				statement.close();
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					Statement statement = connection.getConnection().createStatement();
+					statement.executeUpdate("DROP TABLE IF EXISTS tool;");
+					statement.executeUpdate("PRAGMA user_version = 0;");
+					// Closing the Statement
+					statement.close();
+				} finally {
+					release(connection, true);
+				}
 			} else {
 				System.out.println("There is currently no valid database connection. Could not delete table.");
 			}
@@ -122,9 +503,10 @@ public class SQLiteDB extends Database {
 	}
 
 	/**
-	 * Adds the passed-in Tool to the database by:
-	 * 1) Checks if Tool code already exists via a "SELECT 1 FROM tool WHERE code = ?" statement
-	 * 2) If Tool does not exist, adds Tool via a "INSERT INTO tool" statement
+	 * Adds the passed-in Tool to the database via a single
+	 * "INSERT INTO tool ... ON CONFLICT(code) DO NOTHING" statement.
+	 * If no row was inserted, the Tool code already exists and a
+	 * warning message is printed to the console.
 	 */
 	@Override
 	public void addTool(Tool tool) {
@@ -134,31 +516,17 @@ public class SQLiteDB extends Database {
 		}
 				
 		try {
-			if (connection != null && !connection.isClosed()) {
-				String statementSQL = "SELECT 1 FROM tool WHERE code = ?;";
-				PreparedStatement ps = connection.prepareStatement(statementSQL);
-				ps.setString(1, tool.getCode().toString());
-				ResultSet resultSet = ps.executeQuery();
-				if (resultSet.next()) {
-					System.out.println(String.format("A tool with code %s already exists.", tool.getCode()));
-				} else {
-					statementSQL = "INSERT INTO tool values(?, ?, ?, ?, ?, ?, ?, ?);";
-					ps.close(); // Closing the initial PreparedStatement
-					ps = connection.prepareStatement(statementSQL);
-					ps.setString(1, tool.getCode().toString());
-					ps.setString(2, tool.getType().toString());
-					ps.setString(3, tool.getBrand().toString());
-					ps.setFloat(4, tool.getDailyCharge());
-					ps.setBoolean(5, tool.isChargeOnWeekdays());
-					ps.setBoolean(6, tool.isChargeOnWeekends());
-					ps.setBoolean(7, tool.isChargeOnHolidays());
-					ps.setBoolean(8, tool.isCheckedOut());
-					ps.executeUpdate();
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					PreparedStatement ps = connection.prepare(INSERT_TOOL_SQL);
+					bindTool(ps, tool);
+					if (ps.executeUpdate() == 0) {
+						System.out.println(String.format("A tool with code %s already exists.", tool.getId()));
+					}
+				} finally {
+					release(connection, true);
 				}
-				
-				// Close the ResultSet and PreparedStatement
-				resultSet.close();
-				ps.close();
 			} else {
 				System.out.println("There is currently no valid database connection. Could not add tool to the database table.");
 			}
@@ -167,6 +535,97 @@ public class SQLiteDB extends Database {
 		}
 	}
 
+	/**
+	 * Adds every passed-in Tool to the database as one JDBC batch of
+	 * "INSERT INTO tool ... ON CONFLICT(code) DO NOTHING" statements, executed
+	 * in a single transaction. A warning message is printed to the console
+	 * for every null Tool and for every Tool code that already exists. If
+	 * the batch fails, the transaction is rolled back and no Tool is added.
+	 */
+	@Override
+	public void addTools(Collection<? extends Tool> tools) {
+		if (tools == null) {
+			System.out.println("The passed-in collection of Tools was null. No tools were added.");
+			return;
+		}
+		
+		try {
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				PreparedStatement ps = null;
+				try {
+					ps = connection.prepare(INSERT_TOOL_SQL);
+					List<Tool> batchedTools = new ArrayList<Tool>(tools.size());
+					for (Tool tool : tools) {
+						if (tool == null) {
+							System.out.println("The passed-in Tool object was null. No tool was added to the database table.");
+						} else {
+							bindTool(ps, tool);
+							ps.addBatch();
+							batchedTools.add(tool);
+						}
+					}
+					
+					int[] insertCounts = executeBatchInTransaction(connection, ps, batchedTools.size());
+					for (int i = 0; i < insertCounts.length; i++) {
+						if (insertCounts[i] == 0) {
+							System.out.println(String.format("A tool with code %s already exists.", batchedTools.get(i).getId()));
+						}
+					}
+				} finally {
+					if (ps != null) {
+						ps.clearBatch(); // the statement is cached, so it must not keep a half-built batch
+					}
+					release(connection, true);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not add tools to the database table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue adding the tools to the database table.");
+		}
+	}
+	
+	// Binds every column of the passed-in Tool to a statement prepared from INSERT_TOOL_SQL
+	private static void bindTool(PreparedStatement ps, Tool tool) throws SQLException {
+		ps.setString(1, tool.getId().getName());
+		ps.setString(2, tool.getType().toString());
+		ps.setString(3, tool.getBrand().toString());
+		ps.setFloat(4, tool.getDailyCharge());
+		ps.setBoolean(5, tool.isChargeOnWeekdays());
+		ps.setBoolean(6, tool.isChargeOnWeekends());
+		ps.setBoolean(7, tool.isChargeOnHolidays());
+		ps.setBoolean(8, tool.isCheckedOut());
+	}
+	
+	/**
+	 * Executes the batch of the passed-in statement in a single transaction,
+	 * rolling the transaction back if any statement of the batch fails.
+	 * 
+	 * @param connection Connection the statement was prepared on
+	 * @param ps Statement holding a batch of batchSize statements
+	 * @param batchSize Number of statements in the batch. An empty batch is not executed.
+	 * @return the number of rows changed by each statement of the batch
+	 * @throws SQLException if the batch fails
+	 */
+	private static int[] executeBatchInTransaction(SQLiteConnection connection, PreparedStatement ps, int batchSize) throws SQLException {
+		if (batchSize == 0) {
+			return new int[0];
+		}
+		
+		connection.getConnection().setAutoCommit(false);
+		try {
+			int[] updateCounts = ps.executeBatch();
+			connection.getConnection().commit();
+			return updateCounts;
+		} catch (SQLException | RuntimeException e) {
+			connection.getConnection().rollback();
+			throw e;
+		} finally {
+			connection.getConnection().setAutoCommit(true);
+		}
+	}
+
 	/**
 	 * Returns an instance of the Tool type associated with the passed-in code.
 	 * The database stores all the properties of a tool as a record.
@@ -174,7 +633,7 @@ public class SQLiteDB extends Database {
 	 * A new instance of that Tool type is then created and returned.
 	 */
 	@Override
-	public Tool getTool(Code code) {
+	public Tool getTool(ToolId code) {
 		if (code == null) {
 			System.out.println("The passed-in Code was null. No Tool could be retrieved.");
 			return null;
@@ -183,52 +642,24 @@ public class SQLiteDB extends Database {
 		Tool toolToReturn = null;
 		
 		try {
-			if (connection != null && !connection.isClosed()) {
-				String selectSQL = "SELECT * FROM tool WHERE code = ?;";
-				PreparedStatement ps = connection.prepareStatement(selectSQL);
-				ps.setString(1, code.toString());
-				ResultSet resultSet = ps.executeQuery();
-				
-				if (resultSet.next()) {
-					Type toolType = Type.valueOf(resultSet.getString("type").toUpperCase());
-					if (toolType == Type.CHAINSAW) { // Creating matching Chainsaw instance
-						toolToReturn = new Chainsaw(
-								Code.valueOf(resultSet.getString("code")),
-								Brand.valueOf(resultSet.getString("brand").toUpperCase()),
-								resultSet.getFloat("dailyCharge"),
-								resultSet.getBoolean("chargeOnWeekdays"),
-								resultSet.getBoolean("chargeOnWeekends"),
-								resultSet.getBoolean("chargeOnHolidays"),
-								resultSet.getBoolean("checkedOut"));
-					} else if (toolType == Type.JACKHAMMER) { // Creating matching Jackhammer instance
-						toolToReturn = new Jackhammer(
-								Code.valueOf(resultSet.getString("code")),
-								Brand.valueOf(resultSet.getString("brand").toUpperCase()),
-								resultSet.getFloat("dailyCharge"),
-								resultSet.getBoolean("chargeOnWeekdays"),
-								resultSet.getBoolean("chargeOnWeekends"),
-								resultSet.getBoolean("chargeOnHolidays"),
-								resultSet.getBoolean("checkedOut"));
-					} else if (toolType == Type.LADDER) { // Creating matching Ladder instance
-						toolToReturn = new Ladder(
-								Code.valueOf(resultSet.getString("code")),
-								Brand.valueOf(resultSet.getString("brand").toUpperCase()),
-								resultSet.getFloat("dailyCharge"),
-								resultSet.getBoolean("chargeOnWeekdays"),
-								resultSet.getBoolean("chargeOnWeekends"),
-								resultSet.getBoolean("chargeOnHolidays"),
-								resultSet.getBoolean("checkedOut"));
+			SQLiteConnection connection = acquire(false);
+			if (connection != null) {
+				try {
+					PreparedStatement ps = connection.prepare(SELECT_TOOL_SQL);
+					ps.setString(1, code.getName());
+					ResultSet resultSet = ps.executeQuery();
+					
+					if (resultSet.next()) {
+						toolToReturn = toolFromResultSet(resultSet);
 					} else {
-						System.out.println(String.format("Issue returning tool of type %s.", toolType));
-						System.out.println("The tool was found in the database but there is no instance class that can represent it. Returning a null object.");
+						System.out.println(String.format("No matching Tool found with Code %s.", code));
 					}
-				} else {
-					System.out.println(String.format("No matching Tool found with Code %s.", code));
+					
+					// Close the ResultSet (the PreparedStatement stays cached)
+					resultSet.close();
+				} finally {
+					release(connection, false);
 				}
-				
-				// Close the ResultSet and PreparedStatement
-				resultSet.close();
-				ps.close();
 			} else {
 				System.out.println("There is currently no valid database connection. Could not retrieve tool from the database table.");
 			}
@@ -240,37 +671,168 @@ public class SQLiteDB extends Database {
 	}
 
 	/**
-	 * Removes the Tool record with the matching Tool code from the database.
-	 * First, the method checks if Tool code currently exists in the database
-	 * via a "SELECT 1 FROM tool WHERE code = ?" statement. If it does not,
-	 * then a warning message is printed to the console. Otherwise, the
-	 * removal happens via a "DELETE FROM tool WHERE code = ?" statement.
+	 * Returns the ToolId of the passed-in code. A persistent table can hold tools that
+	 * have not been read since the application started, so their ToolIds may not exist
+	 * yet. If no ToolId exists for the code, the table is queried via a "SELECT code FROM
+	 * tool WHERE code = ?" statement, and a ToolId is only created if a record was found.
+	 */
+	@Override
+	public ToolId findToolId(String code) {
+		ToolId id = ToolId.find(code);
+		String name = ToolId.normalize(code);
+		if (id != null || name == null) {
+			return id;
+		}
+		
+		try {
+			SQLiteConnection connection = acquire(false);
+			if (connection != null) {
+				try {
+					PreparedStatement ps = connection.prepare(SELECT_CODE_SQL);
+					ps.setString(1, name);
+					ResultSet resultSet = ps.executeQuery();
+					if (resultSet.next()) {
+						id = ToolId.of(resultSet.getString("code"));
+					}
+					
+					// Close the ResultSet (the PreparedStatement stays cached)
+					resultSet.close();
+				} finally {
+					release(connection, false);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not look up the tool code in the database table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue looking up the tool code in the database table.");
+		}
+		
+		return id;
+	}
+
+	/**
+	 * Returns the Tools associated with the passed-in codes, in the order the codes
+	 * were passed in. Every record is queried for with the same cached
+	 * "SELECT * FROM tool WHERE code = ?" statement on a single connection.
+	 * Codes with no matching record are left out of the returned map and a
+	 * warning message is printed to the console for each of them.
 	 */
 	@Override
-	public void removeTool(Code code) {
+	public Map<ToolId, Tool> getToolsById(Collection<ToolId> codes) {
+		Map<ToolId, Tool> tools = new LinkedHashMap<ToolId, Tool>();
+		if (codes == null) {
+			System.out.println("The passed-in collection of Codes was null. No Tools could be retrieved.");
+			return tools;
+		}
+		
+		try {
+			SQLiteConnection connection = acquire(false);
+			if (connection != null) {
+				try {
+					PreparedStatement ps = connection.prepare(SELECT_TOOL_SQL);
+					for (ToolId code : codes) {
+						if (code == null) {
+							System.out.println("The passed-in Code was null. No Tool could be retrieved.");
+							continue;
+						}
+						
+						ps.setString(1, code.getName());
+						ResultSet resultSet = ps.executeQuery();
+						if (resultSet.next()) {
+							Tool tool = toolFromResultSet(resultSet);
+							if (tool != null) {
+								tools.put(code, tool);
+							}
+						} else {
+							System.out.println(String.format("No matching Tool found with Code %s.", code));
+						}
+						resultSet.close();
+					}
+				} finally {
+					release(connection, false);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not retrieve tools from the database table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue retrieving the tools from the database table.");
+		}
+		
+		return tools;
+	}
+
+	/**
+	 * Creates a new instance of the Tool type stored in the current record of the passed-in ResultSet.
+	 * 
+	 * @param resultSet ResultSet positioned on a record of the tool table
+	 * @return the matching Chainsaw, Jackhammer or Ladder instance. If there is no instance
+	 * class that can represent the record's type, a warning message is displayed on the
+	 * console and null is returned.
+	 * @throws SQLException if a column cannot be read
+	 */
+	static Tool toolFromResultSet(ResultSet resultSet) throws SQLException {
+		Tool tool = null;
+		Type toolType = Type.valueOf(resultSet.getString("type").toUpperCase());
+		if (toolType == Type.CHAINSAW) { // Creating matching Chainsaw instance
+			tool = new Chainsaw(
+					ToolId.of(resultSet.getString("code")),
+					Brand.valueOf(resultSet.getString("brand").toUpperCase()),
+					resultSet.getFloat("dailyCharge"),
+					resultSet.getBoolean("chargeOnWeekdays"),
+					resultSet.getBoolean("chargeOnWeekends"),
+					resultSet.getBoolean("chargeOnHolidays"),
+					resultSet.getBoolean("checkedOut"));
+		} else if (toolType == Type.JACKHAMMER) { // Creating matching Jackhammer instance
+			tool = new Jackhammer(
+					ToolId.of(resultSet.getString("code")),
+					Brand.valueOf(resultSet.getString("brand").toUpperCase()),
+					resultSet.getFloat("dailyCharge"),
+					resultSet.getBoolean("chargeOnWeekdays"),
+					resultSet.getBoolean("chargeOnWeekends"),
+					resultSet.getBoolean("chargeOnHolidays"),
+					resultSet.getBoolean("checkedOut"));
+		} else if (toolType == Type.LADDER) { // Creating matching Ladder instance
+			tool = new Ladder(
+					ToolId.of(resultSet.getString("code")),
+					Brand.valueOf(resultSet.getString("brand").toUpperCase()),
+					resultSet.getFloat("dailyCharge"),
+					resultSet.getBoolean("chargeOnWeekdays"),
+					resultSet.getBoolean("chargeOnWeekends"),
+					resultSet.getBoolean("chargeOnHolidays"),
+					resultSet.getBoolean("checkedOut"));
+		} else {
+			System.out.println(String.format("Issue returning tool of type %s.", toolType));
+			System.out.println("The tool was found in the database but there is no instance class that can represent it. Returning a null object.");
+		}
+		
+		return tool;
+	}
+
+	/**
+	 * Removes the Tool record with the matching Tool code from the database
+	 * via a "DELETE FROM tool WHERE code = ?" statement. If no row was
+	 * deleted, the Tool code does not exist and a warning message is
+	 * printed to the console.
+	 */
+	@Override
+	public void removeTool(ToolId code) {
 		if (code == null) {
 			System.out.println("The passed-in Code was null. No tool was removed from the database table.");
 			return;
 		}
 		
 		try {
-			if (connection != null && !connection.isClosed()) {
-				String statementSQL = "SELECT 1 FROM tool WHERE code = ?;";
-				PreparedStatement ps = connection.prepareStatement(statementSQL);
-				ps.setString(1, code.toString());
-				ResultSet resultSet = ps.executeQuery();
-				if (!resultSet.next()) {
-					System.out.println(String.format("No Tool with code %s was found. Nothing to remove.", code));
-				} else {
-					statementSQL = "DELETE FROM tool WHERE code = ?;";
-					ps = connection.prepareStatement(statementSQL);
-					ps.setString(1, code.toString());
-					ps.executeUpdate();
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					PreparedStatement ps = connection.prepare(DELETE_TOOL_SQL);
+					ps.setString(1, code.getName());
+					if (ps.executeUpdate() == 0) {
+						System.out.println(String.format("No Tool with code %s was found. Nothing to remove.", code));
+					}
+				} finally {
+					release(connection, true);
 				}
-				
-				// Close the ResultSet and PreparedStatement
-				resultSet.close();
-				ps.close();
 			} else {
 				System.out.println("There is currently no valid database connection. Could not remove tool from the database table.");
 			}
@@ -289,16 +851,56 @@ public class SQLiteDB extends Database {
 	 * then no update occurs and a warning message is displayed in the console.
 	 */
 	@Override
-	public void updateTool(Code code, Attribute attribute, Object value) {
+	public void updateTool(ToolId code, Attribute attribute, Object value) {
 		if (code == null || attribute == null || value == null) {
 			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
 			return;
 		}
 		
+		String updateSQL = updateSQLFor(attribute, value); // null unless a valid Enums combination was found
+		
+		// checkedOut updates share a transaction with concurrent ones when group commit is enabled
+		SQLiteGroupCommitWriter writer = groupCommitWriter;
+		if (updateSQL != null && writer != null && attribute.equals(Attribute.CHECKEDOUT)) {
+			try {
+				writer.setCheckedOut(code, (boolean) value).join();
+			} catch (CompletionException e) {
+				System.out.println("There was an issue updating the tool in the database table.");
+			}
+			return;
+		}
+		
+		// Only prepare statement if a valid attribute instance was passed-in
+		if (updateSQL != null) {
+			try {
+				SQLiteConnection connection = acquire(true);
+				if (connection != null) {
+					try {
+						PreparedStatement ps = connection.prepare(updateSQL);
+						bindUpdate(ps, code, value);
+						ps.executeUpdate();
+					} finally {
+						release(connection, true);
+					}
+				} else {
+					System.out.println("There is currently no valid database connection. Could not update tool in the database table.");
+				}
+			} catch (SQLException e) {
+				System.out.println("There was an issue updating the tool in the database table.");
+			}
+		}
+	}
+
+	/**
+	 * Returns the "UPDATE tool SET <attribute> = ? WHERE code = ?" statement for the
+	 * passed-in attribute. If the passed-in value is not an instance of the passed-in
+	 * attribute, a warning message is displayed in the console and null is returned.
+	 */
+	private static String updateSQLFor(Attribute attribute, Object value) {
 		String updateSQL = null; // Will be updated if valid Enums combinations are found
 				
 		if (attribute.equals(Attribute.CODE)) {
-			if (value instanceof Code) {
+			if (value instanceof Code || value instanceof ToolId) {
 				updateSQL = "UPDATE tool SET code = ? WHERE code = ?;";
 			} else {
 				System.out.println("Invalid Code value passed in. Not updating tool.");
@@ -349,64 +951,382 @@ public class SQLiteDB extends Database {
 			System.out.println("Invalid Attribute passed in. Not updating tool.");
 		}
 		
-		// Only prepare statement if a valid attribute instance was passed-in
-		if (updateSQL != null) {
+		return updateSQL;
+	}
+	
+	// Binds the new value and the Tool code to a statement returned by updateSQLFor()
+	private static void bindUpdate(PreparedStatement ps, ToolId code, Object value) throws SQLException {
+		if (value instanceof Boolean) {
+			ps.setBoolean(1, (boolean) value);
+		} else if (value instanceof Float) {
+			ps.setFloat(1, (float) value);
+		} else {
+			ps.setString(1, value.toString());
+		}
+		ps.setString(2, code.getName());
+	}
+
+	/**
+	 * Updates the passed-in attribute of every Tool record whose code is in the passed-in map
+	 * to the mapped value. All updates run as one JDBC batch of "UPDATE tool SET <attribute> = ?
+	 * WHERE code = ?" statements in a single transaction. Entries with a null code or value, or
+	 * a value that is not an instance of the attribute, are skipped with a warning message.
+	 * If the batch fails, the transaction is rolled back and no Tool is updated.
+	 */
+	@Override
+	public void updateToolsById(Attribute attribute, Map<ToolId, ?> values) {
+		if (attribute == null || values == null) {
+			System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+			return;
+		}
+		
+		try {
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				PreparedStatement ps = null;
+				try {
+					int batchSize = 0;
+					for (Map.Entry<ToolId, ?> entry : values.entrySet()) {
+						if (entry.getKey() == null || entry.getValue() == null) {
+							System.out.println("A passed-in parameter was null. Please pass in non-null parameters.");
+							continue;
+						}
+						
+						// Every valid value of the attribute maps to the same statement
+						String updateSQL = updateSQLFor(attribute, entry.getValue());
+						if (updateSQL != null) {
+							if (ps == null) {
+								ps = connection.prepare(updateSQL);
+							}
+							bindUpdate(ps, entry.getKey(), entry.getValue());
+							ps.addBatch();
+							batchSize++;
+						}
+					}
+					
+					executeBatchInTransaction(connection, ps, batchSize);
+				} finally {
+					if (ps != null) {
+						ps.clearBatch(); // the statement is cached, so it must not keep a half-built batch
+					}
+					release(connection, true);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not update tools in the database table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue updating the tools in the database table.");
+		}
+	}
+
+	/**
+	 * Checks out the Tool record with the matching Tool code and returns its RentalAgreement
+	 * in a single round trip to the database. Within one transaction:
+	 * 1) The record is reserved and read back via a
+	 *    "UPDATE tool SET checkedOut = true WHERE code = ? AND checkedOut = false RETURNING *" statement
+	 * 2) If a record was returned, the RentalAgreement is generated from it and the transaction is committed
+	 * Since the UPDATE only matches available tools, two connections can never both reserve the
+	 * same tool. If no record was returned (unknown code or tool already checked out), or the
+	 * RentalAgreement arguments are invalid, the transaction is rolled back. Invalid arguments
+	 * are rethrown as an InvalidCheckoutArgumentException.
+	 * 
+	 * When group commit is enabled, the checkout is committed together with the concurrent
+	 * checkouts and returns instead (see checkoutThroughWriter()).
+	 */
+	@Override
+	public RentalAgreement checkout(ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		if (code == null) {
+			System.out.println("The passed-in Code was null. No tool was checked out.");
+			return null;
+		}
+		
+		SQLiteGroupCommitWriter writer = groupCommitWriter;
+		if (writer != null) {
+			return checkoutThroughWriter(writer, code, rentalDays, discountPercent, checkoutDate);
+		}
+		
+		RentalAgreement rentalAgreement = null;
+		
+		try {
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					connection.getConnection().setAutoCommit(false);
+					try {
+						PreparedStatement ps = connection.prepare(CHECKOUT_TOOL_SQL);
+						ps.setString(1, code.getName());
+						ResultSet resultSet = ps.executeQuery();
+						Tool tool = resultSet.next() ? toolFromResultSet(resultSet) : null;
+						
+						// Close the ResultSet (the PreparedStatement stays cached)
+						resultSet.close();
+						
+						if (tool != null) {
+							rentalAgreement = new RentalAgreement(tool, rentalDays, discountPercent, checkoutDate);
+							connection.getConnection().commit();
+						} else {
+							connection.getConnection().rollback();
+							System.out.println(String.format("No available Tool with code %s was found. Nothing to check out.", code));
+						}
+					} catch (SQLException | RuntimeException e) {
+						connection.getConnection().rollback();
+						throw e;
+					} finally {
+						connection.getConnection().setAutoCommit(true);
+					}
+				} finally {
+					release(connection, true);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not check out tool from the database table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue checking out the tool from the database table.");
+		}
+		
+		return rentalAgreement;
+	}
+
+	/**
+	 * Checks out a Tool through the group commit writer:
+	 * 1) The record is read via a "SELECT * FROM tool WHERE code = ?" statement, and the
+	 *    RentalAgreement is generated from it, so invalid arguments are rethrown as an
+	 *    InvalidCheckoutArgumentException before anything is written
+	 * 2) The writer then reserves the tool with an update that only matches it while it is
+	 *    available, and the RentalAgreement is returned once that update has been committed
+	 * If another terminal reserved the tool in between, the update matches nothing and null
+	 * is returned, so two terminals can still never both check out the same tool.
+	 */
+	private RentalAgreement checkoutThroughWriter(SQLiteGroupCommitWriter writer, ToolId code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		Tool tool = null;
+		
+		try {
+			SQLiteConnection connection = acquire(false);
+			if (connection == null) {
+				System.out.println("There is currently no valid database connection. Could not check out tool from the database table.");
+				return null;
+			}
 			try {
-				if (connection != null && !connection.isClosed()) {
-					PreparedStatement ps = connection.prepareStatement(updateSQL);
-					if (value instanceof Boolean) {
-						ps.setBoolean(1, (boolean) value);
-					} else if (value instanceof Float) {
-						ps.setFloat(1, (float) value);
-					} else {
-						ps.setString(1, value.toString());
+				PreparedStatement ps = connection.prepare(SELECT_TOOL_SQL);
+				ps.setString(1, code.getName());
+				ResultSet resultSet = ps.executeQuery();
+				tool = resultSet.next() ? toolFromResultSet(resultSet) : null;
+				
+				// Close the ResultSet (the PreparedStatement stays cached)
+				resultSet.close();
+			} finally {
+				release(connection, false);
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue checking out the tool from the database table.");
+			return null;
+		}
+		
+		if (tool != null && !tool.isCheckedOut()) {
+			RentalAgreement rentalAgreement = new RentalAgreement(tool, rentalDays, discountPercent, checkoutDate);
+			try {
+				if (writer.setCheckedOut(code, true).join()) {
+					tool.setCheckedOut(true);
+					return rentalAgreement;
+				}
+			} catch (CompletionException e) {
+				System.out.println("There was an issue checking out the tool from the database table.");
+				return null;
+			}
+		}
+		
+		System.out.println(String.format("No available Tool with code %s was found. Nothing to check out.", code));
+		return null;
+	}
+
+	/**
+	 * Returns the Tool record with the matching Tool code via a single
+	 * "UPDATE tool SET checkedOut = false WHERE code = ? AND checkedOut = true" statement.
+	 * Since the UPDATE only matches checked out tools, two connections can never both
+	 * return the same tool.
+	 * 
+	 * When group commit is enabled, the same conditional update is submitted to the writer
+	 * instead, and committed together with the concurrent checkouts and returns.
+	 */
+	@Override
+	public boolean returnTool(ToolId code) {
+		if (code == null) {
+			return false;
+		}
+		
+		SQLiteGroupCommitWriter writer = groupCommitWriter;
+		if (writer != null) {
+			try {
+				return writer.setCheckedOut(code, false).join();
+			} catch (CompletionException e) {
+				System.out.println("There was an issue returning the tool to the database table.");
+				return false;
+			}
+		}
+		
+		try {
+			SQLiteConnection connection = acquire(true);
+			if (connection != null) {
+				try {
+					PreparedStatement ps = connection.prepare(RETURN_TOOL_SQL);
+					ps.setString(1, code.getName());
+					return ps.executeUpdate() == 1;
+				} finally {
+					release(connection, true);
+				}
+			} else {
+				System.out.println("There is currently no valid database connection. Could not return tool to the database table.");
+			}
+		} catch (SQLException e) {
+			System.out.println("There was an issue returning the tool to the database table.");
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the Tools of the table in code order, read one record at a time through
+	 * a forward-only "SELECT * FROM tool ORDER BY code" cursor (the primary key index
+	 * already holds the codes in order, so SQLite does not sort them). The cursor keeps
+	 * a connection leased until the stream is closed, so the stream must be closed once
+	 * it has been used (e.g. in a try-with-resources statement).
+	 * 
+	 * If the table can not be read, a warning message is printed to the console and
+	 * the stream ends.
+	 */
+	@Override
+	public Stream<Tool> streamTools() {
+		try {
+			return openToolStream(SELECT_TOOLS_SQL);
+		} catch (SQLException e) {
+			System.out.println("There was an issue listing the tools of the database table.");
+			return Stream.empty();
+		}
+	}
+	
+	/**
+	 * Returns the available tools of the passed-in type and brand (null matches every
+	 * type or brand) through a forward-only cursor, like streamTools(). Each combination
+	 * has its own statement with only equality conditions (e.g. "SELECT * FROM tool
+	 * WHERE type = ? AND brand = ? AND checkedOut = false"), so SQLite can answer it from
+	 * the tool_availability index (or the brand or checkedOut index) instead of a scan.
+	 * The cursor keeps a connection leased until the stream is closed.
+	 * 
+	 * If the table can not be read, a warning message is printed to the console and
+	 * the stream ends.
+	 */
+	@Override
+	public Stream<Tool> findAvailable(Type type, Brand brand) {
+		try {
+			if (type != null && brand != null) {
+				return openToolStream(FIND_AVAILABLE_SQL, type.toString(), brand.toString());
+			} else if (type != null) {
+				return openToolStream(FIND_AVAILABLE_BY_TYPE_SQL, type.toString());
+			} else if (brand != null) {
+				return openToolStream(FIND_AVAILABLE_BY_BRAND_SQL, brand.toString());
+			}
+			return openToolStream(FIND_ALL_AVAILABLE_SQL);
+		} catch (SQLException e) {
+			System.out.println("There was an issue finding the available tools in the database table.");
+			return Stream.empty();
+		}
+	}
+	
+	// Opens a cursor over the records of the passed-in query, holding a read connection until the returned stream is closed
+	private Stream<Tool> openToolStream(String sql, String... parameters) throws SQLException {
+		SQLiteConnection connection = acquire(false);
+		if (connection == null) {
+			throw new SQLException("There is currently no valid database connection.");
+		}
+		
+		PreparedStatement ps = null;
+		try {
+			ps = connection.getConnection().prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			for (int i = 0; i < parameters.length; i++) {
+				ps.setString(i + 1, parameters[i]);
+			}
+			ps.setFetchSize(LISTING_FETCH_SIZE);
+			ToolCursor cursor = new ToolCursor(connection, ps, ps.executeQuery());
+			return StreamSupport.stream(cursor, false).onClose(cursor::close);
+		} catch (SQLException | RuntimeException e) {
+			if (ps != null) {
+				ps.close();
+			}
+			release(connection, false);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Spliterator over the records of an open tool table cursor. Every record is turned
+	 * into a Tool as it is reached, and the statement is closed (and its connection
+	 * released) once the cursor is closed.
+	 */
+	private final class ToolCursor extends Spliterators.AbstractSpliterator<Tool> {
+		
+		private final SQLiteConnection connection;
+		private final PreparedStatement ps;
+		private final ResultSet resultSet;
+		private boolean closed;
+		
+		private ToolCursor(SQLiteConnection connection, PreparedStatement ps, ResultSet resultSet) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.connection = connection;
+			this.ps = ps;
+			this.resultSet = resultSet;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super Tool> action) {
+			if (closed) {
+				return false;
+			}
+			try {
+				while (resultSet.next()) {
+					Tool tool = toolFromResultSet(resultSet);
+					if (tool != null) {
+						action.accept(tool);
+						return true;
 					}
-					ps.setString(2, code.toString());
-					ps.executeUpdate();
-					// Close the PreparedStatment
-					ps.close();
-				} else {
-					System.out.println("There is currently no valid database connection. Could not update tool in the database table.");
 				}
 			} catch (SQLException e) {
-				System.out.println("There was an issue updating the tool in the database table.");
+				System.out.println("There was an issue listing the tools of the database table.");
+			}
+			close();
+			return false;
+		}
+		
+		private void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				resultSet.close();
+				ps.close();
+			} catch (SQLException e) {
+				System.out.println("There was an issue closing the tool listing of the database table.");
+			} finally {
+				release(connection, false);
 			}
 		}
 	}
 
 	/**
-	 * Prints out a String representation of all the records in the table.
-	 * Retrieves the records to print via a "SELECT * FROM tool" statement
-	 * The records are looped through and printed out one by one.
+	 * Prints out a String representation of all the records in the table, in code order.
+	 * The records are streamed through the same cursor as streamTools() and printed
+	 * out one by one.
 	 */
 	@Override
 	public void printStoredTools() {
-		Statement statement;
+		Stream<Tool> tools;
 		try {
-			ArrayList<String> toolsList = new ArrayList<String>();
-			statement = connection.createStatement();
-			ResultSet resultSet = statement.executeQuery("SELECT * FROM tool;");
-			
-			while (resultSet.next()) {
-				toolsList.add(String.format("Code: %s, Type: %s, Brand: %s\nDaily Charge: $%,.2f\nCharge On Weekdays: %s\nCharge on Weekends: %s\nCharge on Holidays: %s\nChecked Out: %s\n\n",
-						resultSet.getString("code"),
-						resultSet.getString("type"),
-						resultSet.getString("brand"),
-						resultSet.getFloat("dailyCharge"),
-						resultSet.getBoolean("chargeOnWeekdays") ? "Yes" : "No",
-						resultSet.getBoolean("chargeOnWeekends") ? "Yes" : "No",
-						resultSet.getBoolean("chargeOnHolidays") ? "Yes" : "No",
-						resultSet.getBoolean("checkedOut") ? "Yes" : "No"));
-			}
-			
-			// Close the ResultSet and PreparedStatment
-			resultSet.close();
-			statement.close();
-			
-			Collections.sort(toolsList);
-			System.out.println(String.join("", toolsList));
+			tools = openToolStream(SELECT_TOOLS_SQL);
 		} catch (SQLException e) {
 			System.out.println("There was an issue printing the database table.");
+			return;
 		}
+		
+		ToolListing.print(tools);
+		System.out.println();
 	}
 }
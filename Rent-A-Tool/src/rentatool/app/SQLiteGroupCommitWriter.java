@@ -0,0 +1,215 @@
+package rentatool.app;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import rentatool.rental_items.ToolId;
+
+/**
+ * Applies the checkedOut updates (checkouts and returns) of a pooled SQLiteDB in
+ * groups: every update that is submitted while a transaction is being committed is
+ * collected by a single writer thread and committed together in the next transaction.
+ * SQLite forces every commit to disk, so a group of updates pays for one fsync instead
+ * of one fsync each.
+ *
+ * 1) A group holds at most maxBatchSize updates. With a maxDelay of 0, a group is
+ *    committed as soon as the writer thread takes it, so an update submitted while
+ *    the database is idle is not delayed. A positive maxDelay makes the writer wait up
+ *    to that long for more updates before committing a group that is not full.
+ * 2) The updates of a group are applied in the order they were submitted, in one
+ *    transaction on a connection leased from the SQLiteDB's pool for writing. If any
+ *    update fails, the whole transaction is rolled back and every update of the
+ *    group fails.
+ * 3) The future returned for an update is only completed once its transaction has
+ *    been committed, so an update is as durable when its future completes as an
+ *    autocommitted update is when executeUpdate() returns.
+ * 4) An update only changes a tool whose checkedOut flag has the opposite value, and
+ *    its future tells whether it did. A checkout (or return) therefore completes with
+ *    true only if it actually checked the tool out (or returned it), so when several
+ *    terminals check out the same tool in one group, only the first one succeeds.
+ *
+ * @author CSGarcia1191
+ *
+ */
+class SQLiteGroupCommitWriter {
+
+	static final String SET_CHECKED_OUT_SQL = "UPDATE tool SET checkedOut = ? WHERE code = ? AND checkedOut = ?;";
+
+	// How often the writer thread checks whether it was closed while no updates are submitted
+	private static final long IDLE_POLL_MILLIS = 50;
+
+	private static final class Update {
+		final ToolId code;
+		final boolean checkedOut;
+		final CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
+
+		Update(ToolId code, boolean checkedOut) {
+			this.code = code;
+			this.checkedOut = checkedOut;
+		}
+	}
+
+	private final SQLiteConnectionPool pool;
+	private final int maxBatchSize;
+	private final long maxDelayNanos;
+	private final LinkedBlockingQueue<Update> queue = new LinkedBlockingQueue<Update>();
+	private final Thread writerThread;
+
+	// Guarded by this
+	private boolean closed;
+
+	// Only written by the writer thread
+	private volatile long commits, updates;
+
+	/**
+	 * Starts a writer thread that commits the submitted updates in groups.
+	 *
+	 * @param pool The connection pool of the SQLiteDB to update
+	 * @param maxBatchSize The maximum number of updates committed in one transaction (at least 1)
+	 * @param maxDelayMicros How long to wait for more updates before committing a group that is not full (0 to never wait)
+	 */
+	SQLiteGroupCommitWriter(SQLiteConnectionPool pool, int maxBatchSize, long maxDelayMicros) {
+		if (maxBatchSize < 1 || maxDelayMicros < 0) {
+			throw new IllegalArgumentException(String.format("The group commit batch size must be at least 1 and its delay at least 0, but were %d and %d.", maxBatchSize, maxDelayMicros));
+		}
+
+		this.pool = pool;
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+		writerThread = new Thread(this::run, "rentatool-sqlite-group-commit");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Submits an update of the checkedOut column of the passed-in tool.
+	 *
+	 * @return a future completed once the update has been committed, with true if the tool was
+	 * checked out (or returned) by this update, and false if it does not exist or its checkedOut
+	 * flag already had that value. It is completed exceptionally if the update could not be
+	 * committed or the writer is closed.
+	 */
+	CompletableFuture<Boolean> setCheckedOut(ToolId code, boolean checkedOut) {
+		Update update = new Update(code, checkedOut);
+		synchronized (this) {
+			if (closed) {
+				update.future.completeExceptionally(new IllegalStateException("The group commit writer is closed."));
+			} else {
+				queue.add(update);
+			}
+		}
+		return update.future;
+	}
+
+	// Number of transactions committed so far
+	long getCommitCount() {
+		return commits;
+	}
+
+	// Number of updates committed so far
+	long getUpdateCount() {
+		return updates;
+	}
+
+	/**
+	 * Stops accepting updates, and waits for the writer thread to commit the
+	 * updates that were already submitted.
+	 */
+	void close() {
+		synchronized (this) {
+			closed = true;
+		}
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		List<Update> batch = new ArrayList<Update>(maxBatchSize);
+		try {
+			while (true) {
+				Update first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					synchronized (this) {
+						if (closed && queue.isEmpty()) {
+							return;
+						}
+					}
+					continue;
+				}
+
+				batch.add(first);
+				queue.drainTo(batch, maxBatchSize - 1);
+				if (maxDelayNanos > 0) {
+					long deadline = System.nanoTime() + maxDelayNanos;
+					while (batch.size() < maxBatchSize) {
+						Update next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+						if (next == null) {
+							break;
+						}
+						batch.add(next);
+						queue.drainTo(batch, maxBatchSize - batch.size());
+					}
+				}
+
+				commit(batch);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			IllegalStateException interrupted = new IllegalStateException("The group commit writer was interrupted.");
+			batch.addAll(queue);
+			for (Update update : batch) {
+				update.future.completeExceptionally(interrupted);
+			}
+		}
+	}
+
+	// Applies the passed-in updates in one transaction, then completes their futures
+	private void commit(List<Update> batch) {
+		boolean[] updated = new boolean[batch.size()];
+		try {
+			SQLiteConnection connection = pool.acquire(true);
+			if (connection == null) {
+				throw new SQLException("There is currently no valid database connection.");
+			}
+			try {
+				connection.getConnection().setAutoCommit(false);
+				try {
+					PreparedStatement ps = connection.prepare(SET_CHECKED_OUT_SQL);
+					for (int i = 0; i < batch.size(); i++) {
+						ps.setBoolean(1, batch.get(i).checkedOut);
+						ps.setString(2, batch.get(i).code.getName());
+						ps.setBoolean(3, !batch.get(i).checkedOut);
+						updated[i] = ps.executeUpdate() > 0;
+					}
+					connection.getConnection().commit();
+				} catch (SQLException | RuntimeException e) {
+					connection.getConnection().rollback();
+					throw e;
+				} finally {
+					connection.getConnection().setAutoCommit(true);
+				}
+			} finally {
+				pool.release(connection, true);
+			}
+		} catch (SQLException | RuntimeException e) {
+			for (Update update : batch) {
+				update.future.completeExceptionally(e);
+			}
+			return;
+		}
+
+		commits++;
+		updates += batch.size();
+		for (int i = 0; i < batch.size(); i++) {
+			batch.get(i).future.complete(updated[i]);
+		}
+	}
+}
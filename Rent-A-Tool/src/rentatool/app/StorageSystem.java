@@ -1,5 +1,13 @@
 package rentatool.app;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.Tool;
+import rentatool.rental_items.ToolEnums.Brand;
+import rentatool.rental_items.ToolEnums.Type;
+
 /**
  * Making this class an interface, as opposed to abstract, lets the
  * application instantiate reference variables of StorageSystem
@@ -7,13 +15,63 @@ package rentatool.app;
  * a child instance class (HashMapStorage, SQLiteDB). This
  * interface also extends the CrudOps operations to allow for
  * CRUD operations on StorageSystem child class instances.
- * 
+ *
+ * Besides printing the whole storage system, a StorageSystem can list
+ * its tools one at a time, sorted by code (see streamTools()), so that
+ * large inventories can be listed without building the whole listing
+ * in memory first. findAvailable() answers "which tools of this type and
+ * brand are available right now?" the same way.
+ *
  * @author CSGarcia1191
  *
  */
 public interface StorageSystem extends CrudOps {
-	
+
 	// print whole storage system
 	public void printStoredTools();
-	
+
+	/**
+	 * Returns the stored tools sorted by code (ToolId name order). The stream
+	 * may hold resources of the storage system (e.g. an SQLiteDB cursor) until
+	 * it is closed, so it should be used in a try-with-resources statement.
+	 *
+	 * @return a stream of the stored tools, in code order
+	 */
+	public Stream<Tool> streamTools();
+
+	/**
+	 * Writes every stored tool, in code order and in the same format as
+	 * printStoredTools(), to the passed-in Writer. The tools are written
+	 * one by one as they are streamed, so the listing is never held in
+	 * memory as a whole. The Writer is neither flushed nor closed.
+	 *
+	 * @param writer Writer the listing is written to
+	 * @return the number of tools written
+	 * @throws IOException if the Writer fails
+	 */
+	public default int writeStoredTools(Writer writer) throws IOException {
+		try (Stream<Tool> tools = streamTools()) {
+			return ToolListing.write(tools, writer);
+		}
+	}
+
+	/**
+	 * Returns the stored tools that are not checked out, of the passed-in type and
+	 * brand, in no particular order. A null type or brand matches every type or
+	 * brand. Like the stream of streamTools(), the stream should be closed.
+	 *
+	 * By default every stored tool is streamed and filtered. Storage systems with
+	 * indexes on the type, brand and checkedOut status of their tools override it
+	 * to only read the tools that match (e.g. HashMapStorage, SQLiteDB).
+	 *
+	 * @param type Type of the tools to find, or null for any type
+	 * @param brand Brand of the tools to find, or null for any brand
+	 * @return a stream of the matching available tools
+	 */
+	public default Stream<Tool> findAvailable(Type type, Brand brand) {
+		return streamTools().filter(tool -> !tool.isCheckedOut()
+				&& (type == null || tool.getType() == type)
+				&& (brand == null || tool.getBrand() == brand));
+	}
+
 }
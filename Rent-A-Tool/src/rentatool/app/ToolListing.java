@@ -0,0 +1,79 @@
+package rentatool.app;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Formatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import rentatool.rental_items.Tool;
+
+/**
+ * Writes streams of Tools in the listing format of printStoredTools(). Every
+ * Tool is formatted straight into the destination Writer (through a single
+ * Formatter), so no String is built per Tool and the listing as a whole is
+ * never held in memory. The memory used is the same whatever the number of
+ * Tools listed.
+ *
+ * @author CSGarcia1191
+ *
+ */
+final class ToolListing {
+
+	static final String TOOL_FORMAT = "Code: %s, Type: %s, Brand: %s\nDaily Charge: $%,.2f\nCharge On Weekdays: %s\nCharge on Weekends: %s\nCharge on Holidays: %s\nChecked Out: %s\n\n";
+
+	private ToolListing() {
+	}
+
+	/**
+	 * Writes every Tool of the passed-in stream to the passed-in Writer, in the
+	 * order of the stream. The Writer is neither flushed nor closed.
+	 *
+	 * @param tools Tools to write
+	 * @param writer Writer the Tools are written to
+	 * @return the number of Tools written
+	 * @throws IOException if the Writer fails
+	 */
+	static int write(Stream<Tool> tools, Writer writer) throws IOException {
+		Formatter formatter = new Formatter(writer);
+		int written = 0;
+		Iterator<Tool> iterator = tools.iterator();
+		while (iterator.hasNext()) {
+			Tool tool = iterator.next();
+			formatter.format(TOOL_FORMAT,
+					tool.getId(),
+					tool.getType(),
+					tool.getBrand(),
+					tool.getDailyCharge(),
+					tool.isChargeOnWeekdays() ? "Yes" : "No",
+					tool.isChargeOnWeekends() ? "Yes" : "No",
+					tool.isChargeOnHolidays() ? "Yes" : "No",
+					tool.isCheckedOut() ? "Yes" : "No");
+			if (formatter.ioException() != null) {
+				throw formatter.ioException();
+			}
+			written++;
+		}
+		return written;
+	}
+
+	/**
+	 * Writes every Tool of the passed-in stream to the console through a buffered
+	 * PrintWriter, which is flushed (but System.out is not closed) once the stream
+	 * has been written. The stream is closed.
+	 *
+	 * @param tools Tools to print
+	 * @return the number of Tools printed
+	 */
+	static int print(Stream<Tool> tools) {
+		PrintWriter writer = new PrintWriter(System.out);
+		try (tools) {
+			return write(tools, writer);
+		} catch (IOException e) {
+			return 0; // a PrintWriter never throws
+		} finally {
+			writer.flush();
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package rentatool.rental_items;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import rentatool.app.InvalidCheckoutArgumentException;
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * Prices batches of RentalRequests (e.g. nightly re-quotes or what-if pricing)
+ * in parallel on a ForkJoinPool, without checking any tool out.
+ *
+ * A BatchRentalPricer is created from the tools to price against, typically
+ * the values of StorageSystem.getToolsById(). Each tool is copied once into a
+ * snapshot keyed by its ToolId that the pricer never changes, and every
+ * RentalAgreement for the same ToolId shares that snapshot. Later changes to
+ * the passed-in tools are not seen by the pricer.
+ *
+ * The requests are split into ranges that are priced by separate ForkJoin
+ * tasks, and every RentalAgreement is stored at the index of its request,
+ * so the results are always in the same order as the requests. A request
+ * that can not be priced (null request, unknown code, invalid argument, or
+ * any other exception thrown while pricing it, e.g. for a tool whose daily
+ * charge is not a number) gets a null result and a warning message is
+ * printed to the console. The rest of the batch is still priced.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class BatchRentalPricer {
+
+	// Number of requests a ForkJoin task prices by itself instead of splitting its range in two
+	static final int SEQUENTIAL_THRESHOLD = 1024;
+
+	private final Map<ToolId, Tool> snapshots;
+	private final ChargeableDaysCalculator chargeableDaysCalculator;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a pricer that uses the default ChargeableDaysCalculator and
+	 * the common ForkJoinPool.
+	 *
+	 * @param tools The tools to price against. Each one is priced under its own ToolId.
+	 */
+	public BatchRentalPricer(Collection<? extends Tool> tools) {
+		this(tools, RentalAgreement.DEFAULT_CHARGEABLE_DAYS_CALCULATOR, ForkJoinPool.commonPool());
+	}
+
+	// Same as BatchRentalPricer(Collection), for tools keyed by their Codes (e.g. the result of StorageSystem.getTools())
+	public BatchRentalPricer(Map<Code, ? extends Tool> tools) {
+		this((tools == null) ? null : tools.values());
+	}
+
+	// Same as BatchRentalPricer(Collection, ChargeableDaysCalculator, ForkJoinPool), for tools keyed by their Codes
+	public BatchRentalPricer(Map<Code, ? extends Tool> tools, ChargeableDaysCalculator chargeableDaysCalculator, ForkJoinPool pool)
+			throws InvalidCheckoutArgumentException {
+		this((tools == null) ? null : tools.values(), chargeableDaysCalculator, pool);
+	}
+
+	/**
+	 * @param tools The tools to price against. Each one is priced under its own ToolId.
+	 * @param chargeableDaysCalculator The strategy used to calculate the chargeable days
+	 * @param pool The ForkJoinPool the batches are priced on
+	 * @throws InvalidCheckoutArgumentException if the calculator or the pool is null
+	 */
+	public BatchRentalPricer(Collection<? extends Tool> tools, ChargeableDaysCalculator chargeableDaysCalculator, ForkJoinPool pool)
+			throws InvalidCheckoutArgumentException {
+		if (chargeableDaysCalculator == null || pool == null) {
+			throw new InvalidCheckoutArgumentException("An invalid argument was passed into the BatchRentalPricer constructor.");
+		}
+
+		this.chargeableDaysCalculator = chargeableDaysCalculator;
+		this.pool = pool;
+		this.snapshots = new HashMap<ToolId, Tool>();
+		if (tools == null) {
+			System.out.println("The passed-in collection of Tools was null. There are no tools to price.");
+			return;
+		}
+
+		for (Tool tool : tools) {
+			if (tool != null && tool.getId() != null) {
+				snapshots.put(tool.getId(), Tool.copyOf(tool));
+			}
+		}
+	}
+
+	/**
+	 * Prices every passed-in request in parallel.
+	 *
+	 * @param requests The requests to price
+	 * @return the RentalAgreement of every request, in the same order as the requests.
+	 * Requests that could not be priced have a null RentalAgreement.
+	 */
+	public List<RentalAgreement> priceAll(List<RentalRequest> requests) {
+		if (requests == null) {
+			System.out.println("The passed-in RentalRequests were null. Nothing to price.");
+			return new ArrayList<RentalAgreement>();
+		}
+
+		RentalRequest[] input = requests.toArray(new RentalRequest[0]);
+		RentalAgreement[] output = new RentalAgreement[input.length];
+		pool.invoke(new PricingTask(input, output, 0, input.length));
+		return Arrays.asList(output);
+	}
+
+	/**
+	 * Collects the passed-in stream of requests and prices them in parallel.
+	 *
+	 * @param requests The requests to price
+	 * @return the RentalAgreement of every request, in the same order as the stream.
+	 * Requests that could not be priced have a null RentalAgreement.
+	 */
+	public List<RentalAgreement> priceAll(Stream<RentalRequest> requests) {
+		if (requests == null) {
+			System.out.println("The passed-in RentalRequests were null. Nothing to price.");
+			return new ArrayList<RentalAgreement>();
+		}
+
+		return priceAll(requests.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Prices a single request.
+	 *
+	 * @param index Position of the request in its batch (used in warning messages)
+	 * @param request The request to price
+	 * @return the RentalAgreement, or null if the request could not be priced
+	 */
+	private RentalAgreement price(int index, RentalRequest request) {
+		if (request == null) {
+			System.out.println(String.format("Rental request %d was null. It was not priced.", index));
+			return null;
+		}
+
+		Tool snapshot = snapshots.get(request.getId());
+		if (snapshot == null) {
+			System.out.println(String.format("No Tool with code %s was found for rental request %d. It was not priced.", request.getId(), index));
+			return null;
+		}
+
+		try {
+			return new RentalAgreement(snapshot, request.getRentalDays(), request.getDiscountPercent(),
+					request.getCheckoutDate(), chargeableDaysCalculator);
+		} catch (InvalidCheckoutArgumentException e) {
+			System.out.println(String.format("Rental request %d (%s) has an invalid argument. It was not priced.", index, request));
+			return null;
+		} catch (RuntimeException e) {
+			// Caught per request, so that one tool that can not be priced does not abort the whole batch in pool.invoke()
+			System.out.println(String.format("Rental request %d (%s) failed with %s. It was not priced.", index, request, e));
+			return null;
+		}
+	}
+
+	// Prices the requests in [start, end), splitting the range in two while it is larger than SEQUENTIAL_THRESHOLD
+	private final class PricingTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final RentalRequest[] input;
+		private final RentalAgreement[] output;
+		private final int start, end;
+
+		PricingTask(RentalRequest[] input, RentalAgreement[] output, int start, int end) {
+			this.input = input;
+			this.output = output;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= SEQUENTIAL_THRESHOLD) {
+				for (int i = start; i < end; i++) {
+					output[i] = price(i, input[i]);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new PricingTask(input, output, start, middle), new PricingTask(input, output, middle, end));
+			}
+		}
+	}
+}
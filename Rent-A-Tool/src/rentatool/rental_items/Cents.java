@@ -0,0 +1,95 @@
+package rentatool.rental_items;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a long number of cents,
+ * used by RentalAgreement so that pricing an agreement does not create any
+ * BigDecimal. Every result is rounded half up (away from zero on a tie),
+ * exactly as BigDecimal.setScale(2, RoundingMode.HALF_UP) would round the
+ * exact result, and is RentalAgreement.NO_CENTS if it does not fit in a long.
+ *
+ * @author CSGarcia1191
+ *
+ */
+final class Cents {
+
+	private static final int SIGNIFICAND_BITS = 23;
+	private static final int EXPONENT_BIAS = 127;
+
+	private Cents() {
+	}
+
+	/**
+	 * @param amount A dollar amount
+	 * @return the cents of the exact value of the passed-in float, or NO_CENTS if it
+	 * is not finite or too large
+	 */
+	static long of(float amount) {
+		return times(amount, 1);
+	}
+
+	/**
+	 * Multiplies a dollar amount by a count (e.g. a daily charge by a number of days).
+	 * The float is decomposed into its significand and exponent, so the product is
+	 * computed from the exact value of the float (not its nearest decimal) with no
+	 * rounding before the final one.
+	 *
+	 * @param amount A dollar amount
+	 * @param count A non-negative count
+	 * @return the cents of amount * count, or NO_CENTS if amount is not finite or the
+	 * product is too large
+	 */
+	static long times(float amount, int count) {
+		if (!Float.isFinite(amount)) {
+			return RentalAgreement.NO_CENTS;
+		}
+
+		int bits = Float.floatToRawIntBits(amount);
+		int exponent = (bits >>> SIGNIFICAND_BITS) & 0xff;
+		long significand = bits & ((1 << SIGNIFICAND_BITS) - 1);
+		if (exponent == 0) {
+			exponent = 1; // subnormal float, which has no implicit leading bit
+		} else {
+			significand |= 1 << SIGNIFICAND_BITS;
+		}
+		int shift = exponent - EXPONENT_BIAS - SIGNIFICAND_BITS; // |amount| == significand * 2^shift
+
+		long scaled = significand * 100 * count; // below 2^24 * 2^7 * 2^31, so it never overflows
+		long cents;
+		if (shift >= 0) {
+			if (scaled != 0 && Long.numberOfLeadingZeros(scaled) <= shift) {
+				return RentalAgreement.NO_CENTS;
+			}
+			cents = scaled << shift;
+		} else if (shift > -Long.SIZE + 1) {
+			cents = (scaled + (1L << (-shift - 1))) >> -shift; // adding half of the divisor rounds half up
+		} else {
+			cents = 0; // scaled is below 2^62, so the quotient is always below half a cent
+		}
+		return (bits < 0) ? -cents : cents;
+	}
+
+	/**
+	 * @param cents An amount in cents
+	 * @param percent A whole percentage from 0 to 100
+	 * @return the cents of percent% of the passed-in amount, or NO_CENTS if the amount
+	 * is NO_CENTS or too large
+	 */
+	static long percentOf(long cents, int percent) {
+		if (cents == RentalAgreement.NO_CENTS || Math.abs(cents) > (Long.MAX_VALUE - 50) / 100) {
+			return RentalAgreement.NO_CENTS;
+		}
+
+		long result = (Math.abs(cents) * percent + 50) / 100;
+		return (cents < 0) ? -result : result;
+	}
+
+	/**
+	 * @param cents An amount in cents (not NO_CENTS)
+	 * @return the amount as a BigDecimal with a scale of 2
+	 */
+	static BigDecimal toBigDecimal(long cents) {
+		return BigDecimal.valueOf(cents, 2);
+	}
+}
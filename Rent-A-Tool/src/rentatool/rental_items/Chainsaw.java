@@ -6,7 +6,7 @@ import rentatool.rental_items.ToolEnums.Type;
 
 public class Chainsaw extends Tool{
 	/*
-	 *  At a minimum, to create a Chainsaw tool the system will need a Code and a Brand.
+	 *  At a minimum, to create a Chainsaw tool the system will need a Code (or ToolId) and a Brand.
 	 *  Remaining default values:
 		// type = Type.CHAINSAW
 		// dailyCharge = 1.49f
@@ -16,17 +16,31 @@ public class Chainsaw extends Tool{
 		// checkedOut = false
 	 */
 	public Chainsaw(Code code, Brand brand) {
-		this(code, brand, 1.49f, true, false, true, false);
+		this(ToolId.of(code), brand);
 	}
 	
 	// The system can create a Chainsaw with a custom dailyCharge
 	public Chainsaw(Code code, Brand brand, float dailyCharge) {
-		this(code, brand, dailyCharge, true, false, true, false);
+		this(ToolId.of(code), brand, dailyCharge);
 	}
 	
 	// The system can create a Chainsaw with a custom dailyCharge and customized chargeable days
 	public Chainsaw(Code code, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
 			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
-		super(code, Type.CHAINSAW, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+		this(ToolId.of(code), brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+	}
+	
+	// The same constructors for a Chainsaw identified by a ToolId (e.g. a serialized unit)
+	public Chainsaw(ToolId id, Brand brand) {
+		this(id, brand, 1.49f, true, false, true, false);
+	}
+	
+	public Chainsaw(ToolId id, Brand brand, float dailyCharge) {
+		this(id, brand, dailyCharge, true, false, true, false);
+	}
+	
+	public Chainsaw(ToolId id, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
+			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
+		super(id, Type.CHAINSAW, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
 	}
 }
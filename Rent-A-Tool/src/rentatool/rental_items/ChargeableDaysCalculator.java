@@ -0,0 +1,29 @@
+package rentatool.rental_items;
+
+import java.time.LocalDate;
+
+/**
+ * Strategy used by RentalAgreement instances to determine how many days of
+ * a rental period are chargeable for a given Tool. A rental period starts
+ * the day after the checkout date and ends on (and includes) the due date.
+ *
+ * Implementations must be stateless (or at least thread-safe) since a single
+ * instance is shared by every RentalAgreement that does not provide its own.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public interface ChargeableDaysCalculator {
+
+	/**
+	 * Calculates the total number of chargeable days for a tool's rental period
+	 *
+	 * @param tool The Tool being rented. Its chargeOnWeekdays, chargeOnWeekends and
+	 * chargeOnHolidays flags decide which days are chargeable.
+	 * @param checkoutDate The date the Tool is checked out
+	 * @param rentalDays The number of days the tool is being rented for
+	 * @return int number of days that are chargeable for the Tool instance
+	 */
+	public int calculateChargeableDays(Tool tool, LocalDate checkoutDate, int rentalDays);
+
+}
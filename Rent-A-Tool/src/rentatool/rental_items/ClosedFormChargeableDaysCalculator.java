@@ -0,0 +1,71 @@
+package rentatool.rental_items;
+
+import java.time.LocalDate;
+
+/**
+ * Default chargeable day algorithm used by RentalAgreement. The rental period is
+ * converted to a pair of epoch-day integers. Weekend days and weekdays are derived
+ * from day-of-week arithmetic on those integers, and observed holidays are looked
+ * up in a HolidayCalendar. No LocalDate instances are created and the cost of a
+ * calculation does not depend on the length of the rental period.
+ *
+ * Weekend days are expressed as the difference of a running total "up to and
+ * including day x", i.e. count(start, end] = total(end) - total(start).
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class ClosedFormChargeableDaysCalculator implements ChargeableDaysCalculator {
+
+	// 1970-01-01 (epoch day 0) was a Thursday. Shifting by 3 lines day 0 of each 7 day block up with a Monday.
+	private static final int MONDAY_OFFSET = 3;
+
+	private final HolidayCalendar holidayCalendar;
+
+	// Uses the default HolidayCalendar (July 4th and Labor Day, plus any configured holidays)
+	public ClosedFormChargeableDaysCalculator() {
+		this(HolidayCalendar.getDefault());
+	}
+
+	public ClosedFormChargeableDaysCalculator(HolidayCalendar holidayCalendar) {
+		this.holidayCalendar = holidayCalendar;
+	}
+
+	@Override
+	public int calculateChargeableDays(Tool tool, LocalDate checkoutDate, int rentalDays) {
+		long start = checkoutDate.toEpochDay();
+		long end = start + rentalDays;
+
+		int totalWeekends = (int) (weekendDaysUpTo(end) - weekendDaysUpTo(start));
+		int totalWeekdays = rentalDays - totalWeekends;
+		int totalHolidays = holidayCalendar.countHolidays(start, end);
+		int chargeableDays = 0;
+
+		if (tool.isChargeOnWeekends()) {
+			chargeableDays += totalWeekends;
+		}
+
+		// Observed holidays always land on a weekday, so they are already part of totalWeekdays
+		if (tool.isChargeOnWeekdays()) {
+			chargeableDays += totalWeekdays;
+			if (!tool.isChargeOnHolidays()) {
+				chargeableDays -= totalHolidays;
+			}
+		} else if (tool.isChargeOnHolidays()) {
+			chargeableDays += totalHolidays;
+		}
+
+		return chargeableDays;
+	}
+
+	/**
+	 * @param epochDay Any epoch day
+	 * @return The number of Saturdays and Sundays from the Monday-aligned
+	 * epoch origin up to and including epochDay.
+	 */
+	static long weekendDaysUpTo(long epochDay) {
+		long aligned = epochDay + MONDAY_OFFSET;
+		long dayOfWeek = Math.floorMod(aligned, 7); // 0 = Monday ... 6 = Sunday
+		return (2 * Math.floorDiv(aligned, 7)) + Math.max(0, dayOfWeek - 4);
+	}
+}
@@ -0,0 +1,290 @@
+package rentatool.rental_items;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the observed holidays used by Rent-A-Tool when pricing rentals.
+ * By default, the calendar holds July 4th and Labor Day. Extra holidays
+ * can be loaded from a config file (see load(Path)).
+ *
+ * Observed holidays are precomputed per year as epoch days and kept in one
+ * sorted array covering a contiguous range of years. Counting the holidays
+ * of a rental period is then two binary searches on that array, no matter
+ * how many holidays or years the period spans. When a rental period falls
+ * outside of the years that have been computed so far, the covered range is
+ * grown and the array is rebuilt once for the new range.
+ *
+ * Every observed holiday falls on a weekday. Holidays landing on a Saturday are
+ * observed on the Friday before, and holidays landing on a Sunday are observed
+ * on the Monday after. Pricing relies on this, since holidays are subtracted
+ * from the number of weekdays in a rental period.
+ *
+ * Instances are immutable apart from the year cache and are safe to share
+ * between threads.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class HolidayCalendar {
+
+	// Name of the system property that points the default calendar at a holiday config file
+	public static final String CONFIG_FILE_PROPERTY = "rentatool.holidays.file";
+
+	// Number of years computed around the first requested year
+	private static final int INITIAL_YEAR_SPAN = 32;
+
+	private static volatile HolidayCalendar defaultCalendar;
+
+	private final MonthDay[] annualHolidays; // fixed-date holidays repeated every year, e.g. July 4th
+	private final long[] oneTimeHolidays; // sorted epoch days of observed single-year holidays
+
+	// Sorted observed holidays for every year in [firstYear, lastYear]. Replaced as a whole when the range grows.
+	private volatile YearIndex index;
+
+	/**
+	 * Creates a calendar containing only Rent-A-Tool's standard holidays:
+	 * Independence Day (July 4th) and Labor Day (first Monday in September).
+	 */
+	public HolidayCalendar() {
+		this(new MonthDay[] { MonthDay.of(Month.JULY, 4) }, new long[0]);
+	}
+
+	private HolidayCalendar(MonthDay[] annualHolidays, long[] oneTimeHolidays) {
+		this.annualHolidays = annualHolidays;
+		this.oneTimeHolidays = oneTimeHolidays;
+	}
+
+	/**
+	 * Returns the calendar used by RentalAgreement instances that are not given
+	 * their own. If the "rentatool.holidays.file" system property is set, the
+	 * default calendar also contains the holidays listed in that file.
+	 *
+	 * @return the shared default HolidayCalendar
+	 */
+	public static HolidayCalendar getDefault() {
+		HolidayCalendar calendar = defaultCalendar;
+		if (calendar == null) {
+			synchronized (HolidayCalendar.class) {
+				calendar = defaultCalendar;
+				if (calendar == null) {
+					calendar = new HolidayCalendar();
+					String configFile = System.getProperty(CONFIG_FILE_PROPERTY);
+					if (configFile != null) {
+						try {
+							calendar = load(Paths.get(configFile));
+						} catch (IOException e) {
+							System.out.println(String.format("Could not read holiday config file %s. Using the standard holidays only.", configFile));
+						}
+					}
+					defaultCalendar = calendar;
+				}
+			}
+		}
+
+		return calendar;
+	}
+
+	/**
+	 * Creates a calendar with the standard holidays plus every holiday listed
+	 * in the given config file. The file is read line by line:
+	 * 1) "MM-dd" adds a holiday observed on that date every year, e.g. "12-25"
+	 * 2) "yyyy-MM-dd" adds a holiday for that single date, e.g. "2024-11-28"
+	 * 3) Blank lines and lines starting with '#' are ignored
+	 * Lines that cannot be parsed are skipped and a warning message is displayed on the console.
+	 *
+	 * @param configFile Path to the holiday config file
+	 * @return a new HolidayCalendar
+	 * @throws IOException if the file cannot be read
+	 */
+	public static HolidayCalendar load(Path configFile) throws IOException {
+		List<MonthDay> annual = new ArrayList<MonthDay>();
+		annual.add(MonthDay.of(Month.JULY, 4));
+		List<Long> oneTime = new ArrayList<Long>();
+
+		try (BufferedReader reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+
+				try {
+					if (line.length() == 5) { // MM-dd
+						MonthDay monthDay = MonthDay.parse("--" + line);
+						if (!annual.contains(monthDay)) {
+							annual.add(monthDay);
+						}
+					} else { // yyyy-MM-dd
+						oneTime.add(observedDate(LocalDate.parse(line)).toEpochDay());
+					}
+				} catch (DateTimeException e) {
+					System.out.println(String.format("Could not parse holiday \"%s\" on line %d. Skipping it.", line, lineNumber));
+				}
+			}
+		}
+
+		long[] oneTimeHolidays = new long[oneTime.size()];
+		for (int i = 0; i < oneTimeHolidays.length; i++) {
+			oneTimeHolidays[i] = oneTime.get(i);
+		}
+		Arrays.sort(oneTimeHolidays);
+
+		return new HolidayCalendar(annual.toArray(new MonthDay[0]), oneTimeHolidays);
+	}
+
+	/**
+	 * Counts the observed holidays after startEpochDay, up to and including
+	 * endEpochDay. This matches a rental period, which starts the day after
+	 * checkout and includes the due date.
+	 *
+	 * @param startEpochDay Exclusive start of the period, as an epoch day
+	 * @param endEpochDay Inclusive end of the period, as an epoch day
+	 * @return the number of observed holidays in (startEpochDay, endEpochDay]
+	 */
+	public int countHolidays(long startEpochDay, long endEpochDay) {
+		if (endEpochDay <= startEpochDay) {
+			return 0;
+		}
+
+		YearIndex current = index;
+		if (current == null || startEpochDay < current.firstDay || endEpochDay > current.lastDay) {
+			current = cover(startEpochDay, endEpochDay);
+		}
+
+		return upperBound(current.holidays, endEpochDay) - upperBound(current.holidays, startEpochDay);
+	}
+
+	/**
+	 * Returns the observed holidays of a single year, sorted by date.
+	 *
+	 * @param year The year to list the holidays for
+	 * @return a copy of the year's observed holidays as epoch days
+	 */
+	public long[] getObservedHolidays(int year) {
+		long firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+		long lastDay = LocalDate.of(year, 12, 31).toEpochDay();
+		YearIndex current = cover(firstDay, lastDay);
+		int from = upperBound(current.holidays, firstDay - 1);
+		int to = upperBound(current.holidays, lastDay);
+		return Arrays.copyOfRange(current.holidays, from, to);
+	}
+
+	// Grows the cached range of years so that it includes both epoch days
+	private synchronized YearIndex cover(long startEpochDay, long endEpochDay) {
+		YearIndex current = index;
+		if (current != null && startEpochDay >= current.firstDay && endEpochDay <= current.lastDay) {
+			return current; // another thread already grew the range
+		}
+
+		int startYear = LocalDate.ofEpochDay(startEpochDay).getYear();
+		int endYear = LocalDate.ofEpochDay(endEpochDay).getYear();
+		int firstYear, lastYear;
+		if (current == null) {
+			// Center the first range on the requested period
+			int padding = Math.max(0, (INITIAL_YEAR_SPAN - (endYear - startYear)) / 2);
+			firstYear = startYear - padding;
+			lastYear = endYear + padding;
+		} else {
+			// Double the covered range in the direction(s) it needs to grow so rebuilds stay rare
+			int span = current.lastYear - current.firstYear + 1;
+			firstYear = (startYear < current.firstYear) ? Math.min(startYear, current.firstYear - span) : current.firstYear;
+			lastYear = (endYear > current.lastYear) ? Math.max(endYear, current.lastYear + span) : current.lastYear;
+		}
+
+		current = buildIndex(Math.max(firstYear, LocalDate.MIN.getYear() + 1), Math.min(lastYear, LocalDate.MAX.getYear() - 1));
+		index = current;
+		return current;
+	}
+
+	private YearIndex buildIndex(int firstYear, int lastYear) {
+		long firstDay = LocalDate.of(firstYear, 1, 1).toEpochDay();
+		long lastDay = LocalDate.of(lastYear, 12, 31).toEpochDay();
+		int perYear = annualHolidays.length + 1; // the annual holidays plus Labor Day
+		long[] holidays = new long[((lastYear - firstYear + 3) * perYear) + oneTimeHolidays.length];
+		int size = 0;
+
+		// Neighbouring years are included since an observed date can move across New Year's
+		for (int year = firstYear - 1; year <= lastYear + 1; year++) {
+			for (MonthDay monthDay : annualHolidays) {
+				holidays[size++] = observedDate(monthDay.atYear(year)).toEpochDay();
+			}
+			holidays[size++] = LocalDate.of(year, 9, 1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)).toEpochDay();
+		}
+		for (long oneTimeHoliday : oneTimeHolidays) {
+			holidays[size++] = oneTimeHoliday;
+		}
+
+		Arrays.sort(holidays, 0, size);
+
+		// Keep the distinct holidays inside of [firstDay, lastDay]
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			long day = holidays[i];
+			if (day >= firstDay && day <= lastDay && (kept == 0 || holidays[kept - 1] != day)) {
+				holidays[kept++] = day;
+			}
+		}
+
+		return new YearIndex(firstYear, lastYear, firstDay, lastDay, Arrays.copyOf(holidays, kept));
+	}
+
+	/**
+	 * Moves a holiday that falls on a weekend to the nearest weekday:
+	 * Saturday holidays are observed on Friday and Sunday holidays on Monday.
+	 */
+	static LocalDate observedDate(LocalDate date) {
+		if (date.getDayOfWeek() == DayOfWeek.SATURDAY) {
+			return date.minusDays(1);
+		} else if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+			return date.plusDays(1);
+		}
+
+		return date;
+	}
+
+	// Index of the first element greater than key
+	private static int upperBound(long[] sorted, long key) {
+		int low = 0, high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] <= key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	private static final class YearIndex {
+		final int firstYear, lastYear;
+		final long firstDay, lastDay;
+		final long[] holidays;
+
+		YearIndex(int firstYear, int lastYear, long firstDay, long lastDay, long[] holidays) {
+			this.firstYear = firstYear;
+			this.lastYear = lastYear;
+			this.firstDay = firstDay;
+			this.lastDay = lastDay;
+			this.holidays = holidays;
+		}
+	}
+}
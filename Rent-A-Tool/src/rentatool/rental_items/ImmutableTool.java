@@ -0,0 +1,188 @@
+package rentatool.rental_items;
+
+import rentatool.rental_items.ToolEnums.*;
+
+/**
+ * An immutable, compact counterpart of a Tool. Every property is final, so an
+ * ImmutableTool can be shared between threads and handed out by a storage system
+ * without a defensive copy: it never changes after it was published. Changing a
+ * property creates a new ImmutableTool through one of the withX() methods (or
+ * returns the same one if the property already has that value).
+ *
+ * The class of the Tool (Chainsaw, Ladder or Jackhammer), its Type, its Brand and
+ * its four flags are packed into a single short next to the ToolId and the daily
+ * charge, so an ImmutableTool takes 24 bytes of heap instead of the 32 bytes of
+ * a Tool.
+ *
+ * Tools are created with the Chainsaw, Ladder and Jackhammer constructors as
+ * before, and converted with ImmutableTool.of(tool) and toTool().
+ *
+ * @author CSGarcia1191
+ *
+ */
+public final class ImmutableTool {
+
+	private static final Type[] TYPES = Type.values();
+	private static final Brand[] BRANDS = Brand.values();
+
+	// Packed properties: 2 bits of class code (see Tool.classCodeOf()), 2 bits of Type ordinal, 2 bits of Brand ordinal, then the flags
+	private static final int CLASS_SHIFT = 0, TYPE_SHIFT = 2, BRAND_SHIFT = 4, FIELD_MASK = 3;
+	private static final int CHECKED_OUT = 1 << 6, WEEKDAYS = 1 << 7, WEEKENDS = 1 << 8, HOLIDAYS = 1 << 9;
+
+	static {
+		if (TYPES.length > FIELD_MASK + 1 || BRANDS.length > FIELD_MASK + 1) {
+			throw new ExceptionInInitializerError("ImmutableTool packs the Type and Brand ordinals into 2 bits each, which no longer fit every value.");
+		}
+	}
+
+	private final ToolId id;
+	private final float dailyCharge;
+	private final short bits;
+
+	private ImmutableTool(ToolId id, float dailyCharge, int bits) {
+		this.id = id;
+		this.dailyCharge = dailyCharge;
+		this.bits = (short) bits;
+	}
+
+	/**
+	 * @param tool A Chainsaw, Ladder or Jackhammer (not null)
+	 * @return an ImmutableTool with the same properties as the passed-in Tool
+	 * @throws IllegalArgumentException if the Tool is of a class defined outside of the
+	 * rental_items package (see Tool.classCodeOf())
+	 */
+	public static ImmutableTool of(Tool tool) {
+		int toolClass = Tool.classCodeOf(tool);
+		if (toolClass < 0) {
+			throw new IllegalArgumentException(String.format("A tool of class %s can not be made immutable.", tool.getClass().getSimpleName()));
+		}
+		int bits = (toolClass << CLASS_SHIFT)
+				| (tool.getType().ordinal() << TYPE_SHIFT)
+				| (tool.getBrand().ordinal() << BRAND_SHIFT)
+				| (tool.isCheckedOut() ? CHECKED_OUT : 0)
+				| (tool.isChargeOnWeekdays() ? WEEKDAYS : 0)
+				| (tool.isChargeOnWeekends() ? WEEKENDS : 0)
+				| (tool.isChargeOnHolidays() ? HOLIDAYS : 0);
+		return new ImmutableTool(tool.getId(), tool.getDailyCharge(), bits);
+	}
+
+	/**
+	 * @return a new Chainsaw, Ladder or Jackhammer with the same properties as this
+	 * ImmutableTool. Changes made to the returned Tool do not change this ImmutableTool.
+	 */
+	public Tool toTool() {
+		return Tool.newTool((byte) ((bits >>> CLASS_SHIFT) & FIELD_MASK), id, getType(), getBrand(), dailyCharge,
+				isChargeOnWeekdays(), isChargeOnWeekends(), isChargeOnHolidays(), isCheckedOut());
+	}
+
+	public ToolId getId() {
+		return id;
+	}
+
+	// The Code this tool's ToolId is an alias of, or null for tools that are not one of the Code aliases
+	public Code getCode() {
+		return (id == null) ? null : id.getCode();
+	}
+
+	public Type getType() {
+		return TYPES[(bits >>> TYPE_SHIFT) & FIELD_MASK];
+	}
+
+	public Brand getBrand() {
+		return BRANDS[(bits >>> BRAND_SHIFT) & FIELD_MASK];
+	}
+
+	public float getDailyCharge() {
+		return dailyCharge;
+	}
+
+	public boolean isChargeOnWeekdays() {
+		return (bits & WEEKDAYS) != 0;
+	}
+
+	public boolean isChargeOnWeekends() {
+		return (bits & WEEKENDS) != 0;
+	}
+
+	public boolean isChargeOnHolidays() {
+		return (bits & HOLIDAYS) != 0;
+	}
+
+	public boolean isCheckedOut() {
+		return (bits & CHECKED_OUT) != 0;
+	}
+
+	public ImmutableTool withId(ToolId id) {
+		return (this.id == id) ? this : new ImmutableTool(id, dailyCharge, bits);
+	}
+
+	public ImmutableTool withType(Type type) {
+		return withField(TYPE_SHIFT, type.ordinal());
+	}
+
+	public ImmutableTool withBrand(Brand brand) {
+		return withField(BRAND_SHIFT, brand.ordinal());
+	}
+
+	public ImmutableTool withDailyCharge(float dailyCharge) {
+		return (Float.floatToIntBits(this.dailyCharge) == Float.floatToIntBits(dailyCharge)) ? this : new ImmutableTool(id, dailyCharge, bits);
+	}
+
+	public ImmutableTool withChargeOnWeekdays(boolean chargeOnWeekdays) {
+		return withFlag(WEEKDAYS, chargeOnWeekdays);
+	}
+
+	public ImmutableTool withChargeOnWeekends(boolean chargeOnWeekends) {
+		return withFlag(WEEKENDS, chargeOnWeekends);
+	}
+
+	public ImmutableTool withChargeOnHolidays(boolean chargeOnHolidays) {
+		return withFlag(HOLIDAYS, chargeOnHolidays);
+	}
+
+	public ImmutableTool withCheckedOut(boolean checkedOut) {
+		return withFlag(CHECKED_OUT, checkedOut);
+	}
+
+	private ImmutableTool withField(int shift, int value) {
+		int newBits = (bits & ~(FIELD_MASK << shift)) | (value << shift);
+		return (newBits == bits) ? this : new ImmutableTool(id, dailyCharge, newBits);
+	}
+
+	private ImmutableTool withFlag(int flag, boolean value) {
+		int newBits = value ? (bits | flag) : (bits & ~flag);
+		return (newBits == bits) ? this : new ImmutableTool(id, dailyCharge, newBits);
+	}
+
+	// Same format as Tool.toString()
+	@Override
+	public String toString() {
+		return String.format(
+				"Code: %s\nType: %s\nBrand: %s\nDaily Charge: %f\nCharge On Weekdays: %s\nCharge on Weekends: %s\nCharge on Holidays: %s\n",
+				id, getType(), getBrand(),
+				dailyCharge,
+				isChargeOnWeekdays() ? "Yes" : "No",
+				isChargeOnWeekends() ? "Yes" : "No",
+				isChargeOnHolidays() ? "Yes" : "No");
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + Float.floatToIntBits(dailyCharge);
+		result = prime * result + bits;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ImmutableTool))
+			return false;
+		ImmutableTool other = (ImmutableTool) obj;
+		return id == other.id && Float.floatToIntBits(dailyCharge) == Float.floatToIntBits(other.dailyCharge) && bits == other.bits;
+	}
+}
@@ -0,0 +1,151 @@
+package rentatool.rental_items;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The original chargeable day algorithm used by RentalAgreement. Holidays are
+ * rebuilt as LocalDate instances for the first and last year of the rental
+ * period, and the trailing partial week is walked one day at a time.
+ *
+ * This implementation is kept as the reference the ClosedFormChargeableDaysCalculator
+ * is tested against.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public class IterativeChargeableDaysCalculator implements ChargeableDaysCalculator {
+
+	/**
+	 * Note: LocalDate instances are immutable according to the javadocs. This means LocalDate instance methods that
+	 * modify the instance actually return a new copy of the instance after the modification has been applied
+	 */
+	@Override
+	public int calculateChargeableDays(Tool tool, LocalDate checkoutDate, int rentalDays) {
+		LocalDate dueDate = checkoutDate.plusDays(rentalDays);
+
+		// Holiday dates can vary throughout the years and thus are calculated below as needed.
+		LocalDate july4thDate;
+		LocalDate laborDayDate;
+		int calendarYearDifference = dueDate.getYear() - checkoutDate.getYear();
+		int totalHolidays = 0, totalWeekdays = 0, chargeableDays = 0;
+
+		// First calculate chargeable holidays
+		// Calculate number of holidays in 1st year
+		july4thDate = calculateObservedHolidayDate(Month.JULY, checkoutDate.getYear()); // July 4th of checkout year
+		totalHolidays += dateExistsInRange(july4thDate, checkoutDate, dueDate) ? 1 : 0;
+		laborDayDate = calculateObservedHolidayDate(Month.SEPTEMBER, checkoutDate.getYear()); // Labor Day of checkout year
+		totalHolidays += dateExistsInRange(laborDayDate, checkoutDate, dueDate) ? 1 : 0;
+
+		// Calculate number of holidays in remaining years
+		if (calendarYearDifference > 0) {
+			// in middle years
+			if (calendarYearDifference > 1) {
+				totalHolidays += (2 * (calendarYearDifference - 1));
+			}
+
+			// in final year
+			july4thDate = calculateObservedHolidayDate(Month.JULY, dueDate.getYear()); // July 4th of due date year
+			totalHolidays += dueDate.isBefore(july4thDate) ? 0 : 1;
+			laborDayDate = calculateObservedHolidayDate(Month.SEPTEMBER, dueDate.getYear()); // Labor Day of due date year
+			totalHolidays += dueDate.isBefore(laborDayDate) ? 0 : 1;
+		}
+
+		// Calculate chargeable weekdays and weekends
+		LocalDate finalWeekDate;
+		for (int remaining = (rentalDays % 7) - 1; remaining >= 0; remaining--) {
+			finalWeekDate = dueDate.minusDays(remaining);
+			if ((finalWeekDate.getDayOfWeek() == DayOfWeek.SATURDAY || finalWeekDate.getDayOfWeek() == DayOfWeek.SUNDAY)) {
+				// add chargeable weekend day directly to chargeableDays if weekends are chargeable
+				if (tool.isChargeOnWeekends()) {
+					chargeableDays++;
+				}
+			} else {
+				totalWeekdays++;
+			}
+		}
+
+		// For weekdays, add 5 * (# of total full weeks)
+		totalWeekdays += (5 * (rentalDays / 7));
+
+		// For weekends (if chargeable), add 2 * (# of total full weeks) directly to chargeableDays
+		if (tool.isChargeOnWeekends()) {
+			chargeableDays += (2 * (rentalDays / 7));
+		}
+
+		// Determine how totalHolidays and totalWeekdays should be added to chargeableDays,
+		// especially since totalWeekdays may potentially include holidays
+		if (tool.isChargeOnWeekdays()) {
+			chargeableDays += totalWeekdays;
+			if (!tool.isChargeOnHolidays()) {
+				chargeableDays -= totalHolidays;
+			}
+		} else if (tool.isChargeOnHolidays()) {
+			chargeableDays += totalHolidays;
+		}
+
+		return chargeableDays;
+	}
+
+	/**
+	 * This is a helper method to determine if the given targetDate is between
+	 * the given startDate and endDate. If the target date is after the
+	 * startDate and is equal to the endDate, then this evaluates to true.
+	 *
+	 * Note: If the startDate and endDate are not at least 1 day apart,
+	 * the method will return false.
+	 *
+	 * @param targetDate The target date to check.
+	 * @param startDate The start of the time period to check
+	 * @param endDate The end of the time period to check
+	 * @return true if the targetDate is within range, false otherwise
+	 */
+	private static boolean dateExistsInRange(LocalDate targetDate, LocalDate startDate, LocalDate endDate) {
+		if (startDate.isBefore(targetDate) && (targetDate.isBefore(endDate) || targetDate.isEqual(endDate))) {
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Calculates what the observed date is for a holiday (July 4th and Labor Day)
+	 * for a given holiday's month and year. Only the months JULY and SEPTEMEBER
+	 * are considered valid holiday months for Rent-A-Tool's calendar year.
+	 *
+	 * @param holidayMonth The Month enum of the holiday (either JULY or SEPTEMBER)
+	 * @param holidayYear The year to calculate the observed holiday date for.
+	 * @return LocalDate representing the observed date for a given Month and year.
+	 * If an invalid Month enum is passed in, the method returns null.
+	 */
+	public static LocalDate calculateObservedHolidayDate(Month holidayMonth, int holidayYear) {
+		LocalDate observedDate = null;
+
+		switch (holidayMonth) {
+			case JULY : // July 4th
+				observedDate = LocalDate.of(holidayYear, 7, 4);
+
+				// Adjusting when the 4th falls on a weekend
+				if (observedDate.getDayOfWeek() == DayOfWeek.SATURDAY) {
+					observedDate = observedDate.minusDays(1);
+				} else if (observedDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
+					observedDate = observedDate.plusDays(1);
+				}
+
+				break;
+
+			case SEPTEMBER : // Labor Day
+				observedDate = LocalDate.of(holidayYear, 9, 1)
+								.with(TemporalAdjusters.dayOfWeekInMonth(1, DayOfWeek.MONDAY));
+
+				break;
+
+			default :
+				System.out.println("The method calculateObservedHolidayDate was called with a value other than JULY or SEPTEMBER. Returning a null LocalDate");
+		}
+
+		return observedDate;
+	}
+}
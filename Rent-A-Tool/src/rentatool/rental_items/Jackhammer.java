@@ -7,7 +7,7 @@ import rentatool.rental_items.ToolEnums.Type;
 public class Jackhammer extends Tool {
 	
 	/*
-	 *  At a minimum, to create a Jackhammer tool the system will need a Code and a Brand.
+	 *  At a minimum, to create a Jackhammer tool the system will need a Code (or ToolId) and a Brand.
 	 *  Remaining default values:
 		// type = Type.JACKHAMMER
 		// dailyCharge = 2.99f
@@ -17,17 +17,31 @@ public class Jackhammer extends Tool {
 		// checkedOut = false
 	 */
 	public Jackhammer(Code code, Brand brand) {
-		this(code, brand, 2.99f, true, false, false, false);
+		this(ToolId.of(code), brand);
 	}
 	
 	// The system can create a Jackhammer with a custom dailyCharge
 	public Jackhammer(Code code, Brand brand, float dailyCharge) {
-		this(code, brand, dailyCharge, true, false, false, false);
+		this(ToolId.of(code), brand, dailyCharge);
 	}
 	
 	// The system can create a Jackhammer with a custom dailyCharge and customized chargeable days
 	public Jackhammer(Code code, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
 			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
-		super(code, Type.JACKHAMMER, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+		this(ToolId.of(code), brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+	}
+	
+	// The same constructors for a Jackhammer identified by a ToolId (e.g. a serialized unit)
+	public Jackhammer(ToolId id, Brand brand) {
+		this(id, brand, 2.99f, true, false, false, false);
+	}
+	
+	public Jackhammer(ToolId id, Brand brand, float dailyCharge) {
+		this(id, brand, dailyCharge, true, false, false, false);
+	}
+	
+	public Jackhammer(ToolId id, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
+			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
+		super(id, Type.JACKHAMMER, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
 	}
 }
@@ -6,7 +6,7 @@ import rentatool.rental_items.ToolEnums.Type;
 
 public class Ladder extends Tool {
 	/*
-	 *  At a minimum, to create a Ladder tool the system will need a Code and a Brand.
+	 *  At a minimum, to create a Ladder tool the system will need a Code (or ToolId) and a Brand.
 	 *  Remaining default values:
 		// type = Type.LADDER
 		// dailyCharge = 1.99f
@@ -16,17 +16,31 @@ public class Ladder extends Tool {
 		// checkedOut = false
 	 */
 	public Ladder(Code code, Brand brand) {
-		this(code, brand, 1.99f, true, true, false, false);
+		this(ToolId.of(code), brand);
 	}
 	
 	// The system can create a Ladder with a custom dailyCharge
 	public Ladder(Code code, Brand brand, float dailyCharge) {
-		this(code, brand, dailyCharge, true, true, false, false);
+		this(ToolId.of(code), brand, dailyCharge);
 	}
 	
 	// The system can create a Ladder with a custom dailyCharge and customized chargeable days
 	public Ladder(Code code, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
 			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
-		super(code, Type.LADDER, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+		this(ToolId.of(code), brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+	}
+	
+	// The same constructors for a Ladder identified by a ToolId (e.g. a serialized unit)
+	public Ladder(ToolId id, Brand brand) {
+		this(id, brand, 1.99f, true, true, false, false);
+	}
+	
+	public Ladder(ToolId id, Brand brand, float dailyCharge) {
+		this(id, brand, dailyCharge, true, true, false, false);
+	}
+	
+	public Ladder(ToolId id, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
+			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
+		super(id, Type.LADDER, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
 	}
 }
@@ -1,11 +1,11 @@
 package rentatool.rental_items;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
-import java.time.temporal.TemporalAdjusters;
 
 import rentatool.app.InvalidCheckoutArgumentException;
 import rentatool.rental_items.ToolEnums.Brand;
@@ -13,13 +13,27 @@ import rentatool.rental_items.ToolEnums.Code;
 import rentatool.rental_items.ToolEnums.Type;
 
 public class RentalAgreement {
+	
+	// Cents of an amount that is too large to be held in cents as a long
+	static final long NO_CENTS = Long.MIN_VALUE;
+	
+	// Initial capacity of the StringBuilder of formatRentalAgreement(), enough for the agreement of a Code tool
+	private static final int FORMATTED_CAPACITY = 320;
+	
+	// Shared by every RentalAgreement that is not given its own ChargeableDaysCalculator
+	static final ChargeableDaysCalculator DEFAULT_CHARGEABLE_DAYS_CALCULATOR = new ClosedFormChargeableDaysCalculator();
 		
 	private Tool tool;
+	private ChargeableDaysCalculator chargeableDaysCalculator;
+	private ToolId id;
 	private Code code;
 	private Type type;
 	private Brand brand;
-	private BigDecimal discountAmount, finalCharge, preDiscountCharge;
 	private float dailyRentalCharge;
+	// The amounts of the agreement in cents, calculated without any BigDecimal (see Cents)
+	private long dailyRentalChargeCents, discountAmountCents, finalChargeCents, preDiscountChargeCents;
+	// Only set (and the cents above set to NO_CENTS) when the charges are too large to be held in cents as a long
+	private BigDecimal discountAmount, finalCharge, preDiscountCharge;
 	private int totalChargeableDays, discountPercent, rentalDays;
 	private LocalDate checkoutDate, dueDate;
 	
@@ -35,12 +49,31 @@ public class RentalAgreement {
 	 * @throws InvalidCheckoutArgumentException if any arguments are invalid
 	 */
 	public RentalAgreement(Tool tool, int rentalDays, int discountPercent, LocalDate checkoutDate) throws InvalidCheckoutArgumentException {
+		this(tool, rentalDays, discountPercent, checkoutDate, DEFAULT_CHARGEABLE_DAYS_CALCULATOR);
+	}
+	
+	/**
+	 * Same as the 4 argument constructor, but lets the caller choose the
+	 * ChargeableDaysCalculator used to determine the totalChargeableDays.
+	 * 
+	 * @param tool The Tool instance this RentalAgreement is being generated for
+	 * @param rentalDays The number of days the tool is being rented for
+	 * @param discountPercent Whole number representing discount percentage
+	 * @param checkoutDate The date the Tool is checked out
+	 * @param chargeableDaysCalculator The strategy used to calculate the chargeable days
+	 * @throws InvalidCheckoutArgumentException if any arguments are invalid
+	 */
+	public RentalAgreement(Tool tool, int rentalDays, int discountPercent, LocalDate checkoutDate,
+			ChargeableDaysCalculator chargeableDaysCalculator) throws InvalidCheckoutArgumentException {
 		// Ensures valid values are passed into the constructor
-		if (tool == null || rentalDays < 1 || discountPercent < 0 || discountPercent > 100 || checkoutDate == null) {
+		if (tool == null || rentalDays < 1 || discountPercent < 0 || discountPercent > 100 || checkoutDate == null
+				|| chargeableDaysCalculator == null) {
 			throw new InvalidCheckoutArgumentException("An invalid argument was passed into the RentalAgreement constructor.");
 		}
 		
 		this.tool = tool;
+		this.chargeableDaysCalculator = chargeableDaysCalculator;
+		this.id = tool.getId();
 		this.code = tool.getCode();
 		this.type = tool.getType();
 		this.brand = tool.getBrand();
@@ -50,102 +83,29 @@ public class RentalAgreement {
 		this.checkoutDate = checkoutDate;
 		this.dueDate = checkoutDate.plusDays(rentalDays);
 		this.totalChargeableDays = calculateChargeableDays();
-		this.preDiscountCharge = calculatePreDiscountCharge();
-		this.discountAmount = calculateDiscountAmount();
-		this.finalCharge = calculateFinalCharge();
+		this.dailyRentalChargeCents = Cents.of(dailyRentalCharge);
+		this.preDiscountChargeCents = Cents.times(dailyRentalCharge, totalChargeableDays);
+		this.discountAmountCents = Cents.percentOf(preDiscountChargeCents, discountPercent);
+		if (discountAmountCents != NO_CENTS) {
+			this.finalChargeCents = preDiscountChargeCents - discountAmountCents;
+		} else {
+			// Too large (or not a number), so every charge is calculated with BigDecimals instead
+			this.preDiscountChargeCents = NO_CENTS;
+			this.finalChargeCents = NO_CENTS;
+			this.preDiscountCharge = calculatePreDiscountCharge();
+			this.discountAmount = calculateDiscountAmount();
+			this.finalCharge = calculateFinalCharge();
+		}
 	}
 	
 	/**
 	 * Calculates the total number of chargeable days for a tool's rental period
-	 * 
-	 * Note: LocalDate instances are immutable according to the javadocs. This means LocalDate instance methods that
-	 * modify the instance actually return a new copy of the instance after the modification has been applied
+	 * using this instance's ChargeableDaysCalculator.
 	 * 
 	 * @return int number of days that are chargeable for the Tool instance
 	 */
 	public int calculateChargeableDays() {
-		// Holiday dates can vary throughout the years and thus are calculated below as needed. 
-		LocalDate july4thDate;
-		LocalDate laborDayDate;
-		int calendarYearDifference = dueDate.getYear() - checkoutDate.getYear();
-		int totalHolidays = 0, totalWeekdays = 0, chargeableDays = 0;
-		
-		// First calculate chargeable holidays
-		// Calculate number of holidays in 1st year
-		july4thDate = calculateObservedHolidayDate(Month.JULY, checkoutDate.getYear()); // July 4th of checkout year
-		totalHolidays += dateExistsInRange(july4thDate, checkoutDate, dueDate) ? 1 : 0;
-		laborDayDate = calculateObservedHolidayDate(Month.SEPTEMBER, checkoutDate.getYear()); // Labor Day of checkout year
-		totalHolidays += dateExistsInRange(laborDayDate, checkoutDate, dueDate) ? 1 : 0;
-
-		// Calculate number of holidays in remaining years 
-		if (calendarYearDifference > 0) {
-			// in middle years
-			if (calendarYearDifference > 1) {
-				totalHolidays += (2 * (calendarYearDifference - 1));
-			}
-			
-			// in final year
-			july4thDate = calculateObservedHolidayDate(Month.JULY, dueDate.getYear()); // July 4th of due date year
-			totalHolidays += dueDate.isBefore(july4thDate) ? 0 : 1;
-			laborDayDate = calculateObservedHolidayDate(Month.SEPTEMBER, dueDate.getYear()); // Labor Day of due date year
-			totalHolidays += dueDate.isBefore(laborDayDate) ? 0 : 1;
-		}
-		
-		// Calculate chargeable weekdays and weekends
-		LocalDate finalWeekDate;
-		for (int remaining = (rentalDays % 7) - 1; remaining >= 0; remaining--) {
-			finalWeekDate = dueDate.minusDays(remaining);
-			if ((finalWeekDate.getDayOfWeek() == DayOfWeek.SATURDAY || finalWeekDate.getDayOfWeek() == DayOfWeek.SUNDAY)) {
-				// add chargeable weekend day directly to chargeableDays if weekends are chargeable
-				if (tool.isChargeOnWeekends()) {
-					chargeableDays++;
-				}
-			} else {
-				totalWeekdays++; 
-			}
-		}
-		
-		// For weekdays, add 5 * (# of total full weeks)
-		totalWeekdays += (5 * (rentalDays / 7));
-		
-		// For weekends (if chargeable), add 2 * (# of total full weeks) directly to chargeableDays
-		if (tool.isChargeOnWeekends()) {
-			chargeableDays += (2 * (rentalDays / 7));
-		}
-		
-		// Determine how totalHolidays and totalWeekdays should be added to chargeableDays,
-		// especially since totalWeekdays may potentially include holidays
-		if (tool.isChargeOnWeekdays()) {
-			chargeableDays += totalWeekdays;
-			if (!tool.isChargeOnHolidays()) {
-				chargeableDays -= totalHolidays;
-			}
-		} else if (tool.isChargeOnHolidays()) {
-			chargeableDays += totalHolidays;
-		}
-		
-		return chargeableDays;
-	}
-	
-	/**
-	 * This is a helper method to determine if the given targetDate is between
-	 * the given startDate and endDate. If the target date is after the
-	 * startDate and is equal to the endDate, then this evaluates to true.
-	 * 
-	 * Note: If the startDate and endDate are not at least 1 day apart,
-	 * the method will return false.
-	 * 
-	 * @param targetDate The target date to check.
-	 * @param startDate The start of the time period to check
-	 * @param endDate The end of the time period to check
-	 * @return true if the targetDate is within range, false otherwise
-	 */
-	private static boolean dateExistsInRange(LocalDate targetDate, LocalDate startDate, LocalDate endDate) {
-		if (startDate.isBefore(targetDate) && (targetDate.isBefore(endDate) || targetDate.isEqual(endDate))) {
-			return true;
-		}
-		
-		return false;
+		return chargeableDaysCalculator.calculateChargeableDays(tool, checkoutDate, rentalDays);
 	}
 	
 	/**
@@ -159,65 +119,42 @@ public class RentalAgreement {
 	 * If an invalid Month enum is passed in, the method returns null.
 	 */
 	public LocalDate calculateObservedHolidayDate(Month holidayMonth, int holidayYear) {
-		LocalDate observedDate = null;
-		
-		switch (holidayMonth) {
-			case JULY : // July 4th
-				observedDate = checkoutDate.withYear(holidayYear).withMonth(7).withDayOfMonth(4);
-				
-				// Adjusting when the 4th falls on a weekend
-				if (observedDate.getDayOfWeek() == DayOfWeek.SATURDAY) {
-					observedDate = observedDate.minusDays(1);
-				} else if (observedDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-					observedDate = observedDate.plusDays(1);
-				}
-				
-				break;
-				
-			case SEPTEMBER : // Labor Day
-				observedDate = checkoutDate
-								.withYear(holidayYear)
-								.withMonth(9)
-								.with(TemporalAdjusters.dayOfWeekInMonth(1, DayOfWeek.MONDAY));
-				
-				break;
-				
-			default :
-				System.out.println("The method calculateObservedHolidayDate was called with a value other than JULY or SEPTEMBER. Returning a null LocalDate");
-		}
-		
-		return observedDate;
+		return IterativeChargeableDaysCalculator.calculateObservedHolidayDate(holidayMonth, holidayYear);
 	}
 	
 	/**
 	 * Calculates the discountAmount using the instance's discountPercent and preDiscountCharge
-	 * properties.
+	 * properties. The preDiscountCharge is multiplied by exactly discountPercent / 100.
 	 * 
 	 * @return BigDecimal representing the discountAmount with cents rounded half up.
 	 */
 	public BigDecimal calculateDiscountAmount() {
-		// Step 1: convert "discountPercent" to float
-		// Step 2: multiply preDiscountCharge * step 1 float for a new double value
-		// Step 3: round step2 double to nearest half_up cent and return new BigDecimal
-		
-		float discountPercentAsFloat = discountPercent / 100f;
-		BigDecimal calculatedDiscountAmount = preDiscountCharge.multiply(BigDecimal.valueOf(discountPercentAsFloat));
+		long calculatedDiscountAmountCents = Cents.percentOf(preDiscountChargeCents, discountPercent);
+		if (calculatedDiscountAmountCents != NO_CENTS) {
+			return Cents.toBigDecimal(calculatedDiscountAmountCents);
+		}
 		
+		BigDecimal calculatedDiscountAmount = getPreDiscountCharge().multiply(BigDecimal.valueOf(discountPercent, 2));
 		return calculatedDiscountAmount.setScale(2, RoundingMode.HALF_UP);
 	}
 	
 	/**
 	 * Calculates the preDiscountCharge using the instance's dailyRentalCharge and
-	 * totalChargeableDays properties. The dailyRentalCharge is multiplied by
-	 * totalChargeableDays.
+	 * totalChargeableDays properties. The exact value of the dailyRentalCharge float
+	 * is multiplied by totalChargeableDays.
 	 * 
 	 * @return BigDecimal representing the preDiscountCharge with cents rounded half up.
 	 */
 	public BigDecimal calculatePreDiscountCharge() {
-		BigDecimal dailyRentalChargeBD = BigDecimal.valueOf(dailyRentalCharge);
+		long calculatedPreDiscountChargeCents = Cents.times(dailyRentalCharge, totalChargeableDays);
+		if (calculatedPreDiscountChargeCents != NO_CENTS) {
+			return Cents.toBigDecimal(calculatedPreDiscountChargeCents);
+		}
+		
+		// new BigDecimal(double) holds the exact value of the float, like Cents.times()
 		BigDecimal totalChargeableDaysBD = BigDecimal.valueOf(totalChargeableDays);
-		BigDecimal preDiscountCharge = dailyRentalChargeBD.multiply(totalChargeableDaysBD);
-		return preDiscountCharge.setScale(2, RoundingMode.HALF_UP);
+		BigDecimal calculatedPreDiscountCharge = new BigDecimal(dailyRentalCharge).multiply(totalChargeableDaysBD);
+		return calculatedPreDiscountCharge.setScale(2, RoundingMode.HALF_UP);
 	}
 	
 	/**
@@ -228,33 +165,43 @@ public class RentalAgreement {
 	 * @return BigDecimal representing the finalCharge.
 	 */
 	public BigDecimal calculateFinalCharge() {
-		return preDiscountCharge.subtract(discountAmount);
+		if (preDiscountChargeCents != NO_CENTS && discountAmountCents != NO_CENTS) {
+			return Cents.toBigDecimal(preDiscountChargeCents - discountAmountCents);
+		}
+		
+		return getPreDiscountCharge().subtract(getDiscountAmount());
 	}
 	
 	/**
 	 * Formats all of the instance's properties into a String
 	 * and prints the result to System.out.
-	 * The string is formatted using String.format and is built
-	 * using StringBuilder.
 	 * 
 	 * @return formatted String value representing this RentalAgreement.
 	 */
 	public String printRentalAgreement() {
-		StringBuilder output = new StringBuilder();
-		output.append(String.format("Tool code: %s\n", code.toString()));
-		output.append(String.format("Tool type: %s\n", type.toString()));
-		output.append(String.format("Tool brand: %s\n", brand.toString()));
-		output.append(String.format("Rental days: %d\n", rentalDays));
-		output.append(String.format("Check out date: %tD\n", checkoutDate));
-		output.append(String.format("Due date: %tD\n", dueDate));
-		output.append(String.format("Daily rental charge: $%,.2f\n", dailyRentalCharge));
-		output.append(String.format("Charge days: %d\n", totalChargeableDays));
-		output.append(String.format("Pre-discount charge: $%,.2f\n", preDiscountCharge));
-		output.append(String.format("Discount percent: %d%%\n", discountPercent));
-		output.append(String.format("Discount amount: $%,.2f\n", discountAmount));
-		output.append(String.format("Final charge: $%,.2f", finalCharge));
+		String output = formatRentalAgreement();
 		
-		System.out.println(output.toString());
+		System.out.println(output);
+		
+		return output;
+	}
+	
+	/**
+	 * Formats all of the instance's properties into a String without printing it.
+	 * The string is rendered by the calling thread's RentalAgreementRenderer for
+	 * the default locale into a StringBuilder sized for a typical agreement. Use a
+	 * RentalAgreementRenderer directly to render agreements into an existing
+	 * buffer or Writer instead.
+	 * 
+	 * @return formatted String value representing this RentalAgreement.
+	 */
+	public String formatRentalAgreement() {
+		StringBuilder output = new StringBuilder(FORMATTED_CAPACITY);
+		try {
+			RentalAgreementRenderer.ofDefaultLocale().render(this, output);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // a StringBuilder never throws an IOException
+		}
 		
 		return output.toString();
 	}
@@ -265,6 +212,11 @@ public class RentalAgreement {
 		return tool;
 	}
 
+	public ToolId getId() {
+		return id;
+	}
+
+	// The Code alias of the rented tool, or null if its ToolId is not one of the Code aliases
 	public Code getCode() {
 		return code;
 	}
@@ -277,22 +229,43 @@ public class RentalAgreement {
 		return brand;
 	}
 
+	// The charges are only converted to BigDecimals when they are asked for
+	
 	public BigDecimal getDiscountAmount() {
-		return discountAmount;
+		return (discountAmountCents != NO_CENTS) ? Cents.toBigDecimal(discountAmountCents) : discountAmount;
 	}
 
 	public BigDecimal getFinalCharge() {
-		return finalCharge;
+		return (finalChargeCents != NO_CENTS) ? Cents.toBigDecimal(finalChargeCents) : finalCharge;
 	}
 
 	public BigDecimal getPreDiscountCharge() {
-		return preDiscountCharge;
+		return (preDiscountChargeCents != NO_CENTS) ? Cents.toBigDecimal(preDiscountChargeCents) : preDiscountCharge;
 	}
 
 	public float getDailyRentalCharge() {
 		return dailyRentalCharge;
 	}
 
+	// The amounts in cents, as displayed on the agreement. NO_CENTS if the amount does not fit in a long
+	// (the amount is then returned by the BigDecimal getter).
+	
+	long getDailyRentalChargeCents() {
+		return dailyRentalChargeCents;
+	}
+
+	long getPreDiscountChargeCents() {
+		return preDiscountChargeCents;
+	}
+
+	long getDiscountAmountCents() {
+		return discountAmountCents;
+	}
+
+	long getFinalChargeCents() {
+		return finalChargeCents;
+	}
+
 	public int getTotalChargeableDays() {
 		return totalChargeableDays;
 	}
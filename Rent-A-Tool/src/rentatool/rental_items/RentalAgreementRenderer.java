@@ -0,0 +1,326 @@
+package rentatool.rental_items;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.util.Locale;
+
+/**
+ * Renders RentalAgreements, in the same format as RentalAgreement.formatRentalAgreement(),
+ * straight into a caller-supplied Appendable (e.g. a StringBuilder, a Writer or a PrintStream)
+ * or ByteBuffer (UTF-8 encoded). Nothing is printed to the console.
+ *
+ * The text between the fields of an agreement is a precompiled template (LABELS), and the
+ * fields are written with hand-rolled formatting instead of String.format:
+ * 1) Whole numbers are written digit by digit.
+ * 2) Dates are written as MM/dd/yy, like the %tD conversion.
+ * 3) Dollar amounts are written from the agreement's amounts in cents, with a grouping
+ *    separator every three digits and two decimals, like the %,.2f conversion.
+ * The digits and separators are those of the renderer's locale (the default format locale
+ * unless another one is passed in), so the output is the same as String.format's.
+ *
+ * Rendering an agreement does not create any object, unless one of its amounts is too large
+ * to be held in cents as a long (it is then formatted from its BigDecimal instead). The only
+ * state is the adapter writing into ByteBuffers, so a renderer must not be shared between
+ * threads. Each terminal or batch should use its own renderer, the same way it uses its own
+ * output buffers.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public final class RentalAgreementRenderer {
+
+	// The text before each field of a rental agreement, in the order the fields are rendered
+	private static final String[] LABELS = {
+			"Tool code: ",
+			"\nTool type: ",
+			"\nTool brand: ",
+			"\nRental days: ",
+			"\nCheck out date: ",
+			"\nDue date: ",
+			"\nDaily rental charge: $",
+			"\nCharge days: ",
+			"\nPre-discount charge: $",
+			"\nDiscount percent: ",
+			"%\nDiscount amount: $",
+			"\nFinal charge: $"
+	};
+
+	// POWERS_OF_TEN[i] is 10^i, for every power of ten a long can hold
+	private static final long[] POWERS_OF_TEN = new long[19];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	// Renderer of formatRentalAgreement(), per thread since renderers can not be shared
+	private static final ThreadLocal<RentalAgreementRenderer> DEFAULT_RENDERERS = new ThreadLocal<RentalAgreementRenderer>();
+
+	private final Locale locale;
+	private final char zeroDigit;
+	private final char groupingSeparator;
+	private final char decimalSeparator;
+	private final ByteBufferAppendable byteBufferAppendable = new ByteBufferAppendable();
+
+	/**
+	 * Creates a renderer that writes the digits and separators of the default format locale.
+	 */
+	public RentalAgreementRenderer() {
+		this(Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	/**
+	 * Creates a renderer that writes the digits and separators of the passed-in locale.
+	 *
+	 * @param locale The locale whose zero digit, grouping separator and decimal separator are used
+	 * @throws IllegalArgumentException if the locale is null
+	 */
+	public RentalAgreementRenderer(Locale locale) {
+		if (locale == null) {
+			throw new IllegalArgumentException("The locale of a RentalAgreementRenderer can not be null.");
+		}
+
+		DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+		this.locale = locale;
+		this.zeroDigit = symbols.getZeroDigit();
+		this.groupingSeparator = symbols.getGroupingSeparator();
+		this.decimalSeparator = symbols.getDecimalSeparator();
+	}
+
+	// The renderer of the calling thread for the current default format locale
+	static RentalAgreementRenderer ofDefaultLocale() {
+		RentalAgreementRenderer renderer = DEFAULT_RENDERERS.get();
+		if (renderer == null || !renderer.locale.equals(Locale.getDefault(Locale.Category.FORMAT))) {
+			renderer = new RentalAgreementRenderer();
+			DEFAULT_RENDERERS.set(renderer);
+		}
+		return renderer;
+	}
+
+	public Locale getLocale() {
+		return locale;
+	}
+
+	/**
+	 * Appends the passed-in RentalAgreement to the passed-in Appendable, without a
+	 * line separator at the end. The Appendable is neither flushed nor closed.
+	 *
+	 * @param rentalAgreement The RentalAgreement to render
+	 * @param out Where the RentalAgreement is appended
+	 * @throws IOException if the Appendable fails
+	 * @throws IllegalArgumentException if an argument is null
+	 */
+	public void render(RentalAgreement rentalAgreement, Appendable out) throws IOException {
+		if (rentalAgreement == null || out == null) {
+			throw new IllegalArgumentException("A passed-in parameter was null. Please pass in non-null parameters.");
+		}
+
+		out.append(LABELS[0]).append(rentalAgreement.getId().getName());
+		out.append(LABELS[1]).append(rentalAgreement.getType().toString());
+		out.append(LABELS[2]).append(rentalAgreement.getBrand().toString());
+		out.append(LABELS[3]);
+		appendDigits(out, rentalAgreement.getRentalDays(), 1, false);
+		out.append(LABELS[4]);
+		appendDate(out, rentalAgreement.getCheckoutDate());
+		out.append(LABELS[5]);
+		appendDate(out, rentalAgreement.getDueDate());
+		out.append(LABELS[6]);
+		if (!appendDollars(out, rentalAgreement.getDailyRentalChargeCents())) {
+			appendDollars(out, BigDecimal.valueOf(rentalAgreement.getDailyRentalCharge()));
+		}
+		out.append(LABELS[7]);
+		appendDigits(out, rentalAgreement.getTotalChargeableDays(), 1, false);
+		out.append(LABELS[8]);
+		if (!appendDollars(out, rentalAgreement.getPreDiscountChargeCents())) {
+			appendDollars(out, rentalAgreement.getPreDiscountCharge());
+		}
+		out.append(LABELS[9]);
+		appendDigits(out, rentalAgreement.getDiscountPercent(), 1, false);
+		out.append(LABELS[10]);
+		if (!appendDollars(out, rentalAgreement.getDiscountAmountCents())) {
+			appendDollars(out, rentalAgreement.getDiscountAmount());
+		}
+		out.append(LABELS[11]);
+		if (!appendDollars(out, rentalAgreement.getFinalChargeCents())) {
+			appendDollars(out, rentalAgreement.getFinalCharge());
+		}
+	}
+
+	/**
+	 * Writes the passed-in RentalAgreement to the passed-in ByteBuffer as UTF-8, starting
+	 * at the buffer's position, without a line separator at the end. The position is
+	 * moved past the written bytes.
+	 *
+	 * @param rentalAgreement The RentalAgreement to render
+	 * @param out Where the RentalAgreement is written
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException if the RentalAgreement does not fit in the remaining
+	 * bytes of the buffer. The buffer's position is then left where it was.
+	 * @throws IllegalArgumentException if an argument is null
+	 */
+	public int render(RentalAgreement rentalAgreement, ByteBuffer out) {
+		if (rentalAgreement == null || out == null) {
+			throw new IllegalArgumentException("A passed-in parameter was null. Please pass in non-null parameters.");
+		}
+
+		int start = out.position();
+		byteBufferAppendable.target = out;
+		try {
+			render(rentalAgreement, byteBufferAppendable);
+			byteBufferAppendable.flushSurrogate();
+		} catch (BufferOverflowException e) {
+			out.position(start);
+			throw e;
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // a ByteBufferAppendable never throws an IOException
+		} finally {
+			byteBufferAppendable.target = null;
+			byteBufferAppendable.highSurrogate = 0;
+		}
+		return out.position() - start;
+	}
+
+	// Appends a date as MM/dd/yy (two digit month, day of month and year of era)
+	private void appendDate(Appendable out, LocalDate date) throws IOException {
+		appendDigits(out, date.getMonthValue(), 2, false);
+		out.append('/');
+		appendDigits(out, date.getDayOfMonth(), 2, false);
+		out.append('/');
+		appendDigits(out, date.get(ChronoField.YEAR_OF_ERA) % 100, 2, false);
+	}
+
+	/**
+	 * Appends a dollar amount with two decimals and grouped whole dollars, from its cents.
+	 * Nothing is appended if the cents are RentalAgreement.NO_CENTS, in which case false is
+	 * returned and the caller appends the amount from its BigDecimal instead.
+	 */
+	private boolean appendDollars(Appendable out, long cents) throws IOException {
+		if (cents == RentalAgreement.NO_CENTS) {
+			return false;
+		}
+
+		if (cents < 0) {
+			out.append('-');
+			cents = -cents;
+		}
+		appendDigits(out, cents / 100, 1, true);
+		out.append(decimalSeparator);
+		appendDigits(out, cents % 100, 2, false);
+		return true;
+	}
+
+	// Appends a dollar amount that does not fit in a long number of cents
+	private void appendDollars(Appendable out, BigDecimal amount) throws IOException {
+		String digits = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().abs().toString();
+		if (amount.signum() < 0) {
+			out.append('-');
+		}
+		int wholeDigits = digits.length() - 2;
+		for (int i = 0; i < wholeDigits; i++) {
+			out.append((char) (zeroDigit + (digits.charAt(i) - '0')));
+			if (i < wholeDigits - 1 && (wholeDigits - 1 - i) % 3 == 0) {
+				out.append(groupingSeparator);
+			}
+		}
+		out.append(decimalSeparator);
+		out.append((char) (zeroDigit + (digits.charAt(wholeDigits) - '0')));
+		out.append((char) (zeroDigit + (digits.charAt(wholeDigits + 1) - '0')));
+	}
+
+	/**
+	 * Appends the digits of a non-negative number, most significant first, padded
+	 * with zeros to minDigits digits. Grouped numbers get a grouping separator
+	 * before every group of three digits but the first.
+	 */
+	private void appendDigits(Appendable out, long value, int minDigits, boolean grouped) throws IOException {
+		int length = 1;
+		while (length < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[length]) {
+			length++;
+		}
+		for (int i = length; i < minDigits; i++) {
+			out.append(zeroDigit);
+		}
+
+		for (int remaining = length; remaining > 0; remaining--) {
+			long divisor = POWERS_OF_TEN[remaining - 1];
+			int digit = (int) (value / divisor);
+			value -= digit * divisor;
+			out.append((char) (zeroDigit + digit));
+			if (grouped && remaining > 1 && (remaining - 1) % 3 == 0) {
+				out.append(groupingSeparator);
+			}
+		}
+	}
+
+	/**
+	 * Appendable that encodes the appended characters as UTF-8 into its target ByteBuffer.
+	 * A high surrogate is held until the low surrogate that follows it has been appended.
+	 * Unpaired surrogates are written as '?', like String.getBytes() does.
+	 */
+	private static final class ByteBufferAppendable implements Appendable {
+
+		private ByteBuffer target;
+		private char highSurrogate;
+
+		@Override
+		public Appendable append(CharSequence csq) {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) {
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) {
+			if (highSurrogate != 0) {
+				char high = highSurrogate;
+				highSurrogate = 0;
+				if (Character.isLowSurrogate(c)) {
+					int codePoint = Character.toCodePoint(high, c);
+					target.put((byte) (0xF0 | (codePoint >> 18)));
+					target.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+					target.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+					target.put((byte) (0x80 | (codePoint & 0x3F)));
+					return this;
+				}
+				target.put((byte) '?');
+			}
+
+			if (c < 0x80) {
+				target.put((byte) c);
+			} else if (c < 0x800) {
+				target.put((byte) (0xC0 | (c >> 6)));
+				target.put((byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c)) {
+				highSurrogate = c;
+			} else if (Character.isLowSurrogate(c)) {
+				target.put((byte) '?');
+			} else {
+				target.put((byte) (0xE0 | (c >> 12)));
+				target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				target.put((byte) (0x80 | (c & 0x3F)));
+			}
+			return this;
+		}
+
+		// Writes a high surrogate that was not followed by a low surrogate
+		void flushSurrogate() {
+			if (highSurrogate != 0) {
+				highSurrogate = 0;
+				target.put((byte) '?');
+			}
+		}
+	}
+}
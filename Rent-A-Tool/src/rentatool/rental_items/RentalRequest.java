@@ -0,0 +1,71 @@
+package rentatool.rental_items;
+
+import java.time.LocalDate;
+
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * An immutable request to price the rental of the Tool with the given code,
+ * holding the same arguments a clerk enters at checkout. RentalRequests are
+ * priced in bulk by a BatchRentalPricer. The arguments are not validated
+ * until the request is priced, so an invalid request only fails on its own.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public final class RentalRequest {
+
+	private final ToolId id;
+	private final int rentalDays;
+	private final int discountPercent;
+	private final LocalDate checkoutDate;
+
+	/**
+	 * @param code The code of the Tool being rented
+	 * @param rentalDays The number of days the tool is being rented for
+	 * @param discountPercent Whole number representing discount percentage
+	 * @param checkoutDate The date the Tool is checked out
+	 */
+	public RentalRequest(Code code, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		this(ToolId.of(code), rentalDays, discountPercent, checkoutDate);
+	}
+
+	/**
+	 * @param id The ToolId of the Tool being rented
+	 * @param rentalDays The number of days the tool is being rented for
+	 * @param discountPercent Whole number representing discount percentage
+	 * @param checkoutDate The date the Tool is checked out
+	 */
+	public RentalRequest(ToolId id, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+		this.id = id;
+		this.rentalDays = rentalDays;
+		this.discountPercent = discountPercent;
+		this.checkoutDate = checkoutDate;
+	}
+
+	public ToolId getId() {
+		return id;
+	}
+
+	// The Code alias of the Tool being rented, or null if its ToolId is not one of the Code aliases
+	public Code getCode() {
+		return (id == null) ? null : id.getCode();
+	}
+
+	public int getRentalDays() {
+		return rentalDays;
+	}
+
+	public int getDiscountPercent() {
+		return discountPercent;
+	}
+
+	public LocalDate getCheckoutDate() {
+		return checkoutDate;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s for %d days at %d%% off on %s", id, rentalDays, discountPercent, checkoutDate);
+	}
+}
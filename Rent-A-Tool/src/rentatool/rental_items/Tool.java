@@ -15,7 +15,10 @@ import rentatool.rental_items.ToolEnums.*;
  */
 public abstract class Tool {
 
-	private Code code;
+	// Class codes of the Tool classes, for storage systems that store a Tool's class as a number
+	public static final byte CHAINSAW_CLASS = 0, LADDER_CLASS = 1, JACKHAMMER_CLASS = 2;
+
+	private ToolId id;
 	private Type type;
 	private Brand brand;
 	private float dailyCharge;
@@ -26,7 +29,12 @@ public abstract class Tool {
 	
 	public Tool(Code code, Type type, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
 			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
-		this.code = code;
+		this(ToolId.of(code), type, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+	}
+	
+	public Tool(ToolId id, Type type, Brand brand, float dailyCharge, boolean chargeOnWeekdays,
+			boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
+		this.id = id;
 		this.type = type;
 		this.brand = brand;
 		this.dailyCharge = dailyCharge;
@@ -36,12 +44,21 @@ public abstract class Tool {
 		this.checkedOut = checkedOut;
 	}
 
+	public ToolId getId() {
+		return id;
+	}
+
+	public void setId(ToolId id) {
+		this.id = id;
+	}
+
+	// The Code this Tool's ToolId is an alias of, or null for tools that are not one of the Code aliases
 	public Code getCode() {
-		return code;
+		return (id == null) ? null : id.getCode();
 	}
 
 	public void setCode(Code code) {
-		this.code = code;
+		this.id = ToolId.of(code);
 	}
 
 	public Type getType() {
@@ -92,10 +109,71 @@ public abstract class Tool {
 		this.chargeOnHolidays = chargeOnHolidays;
 	}
 
+	/**
+	 * Creates a copy of the passed-in Tool of the same class.
+	 * Tool classes defined outside of the rental_items package cannot be copied
+	 * and are returned as-is.
+	 * 
+	 * @param tool The Tool to copy
+	 * @return a new Chainsaw, Jackhammer or Ladder with the same properties as the passed-in Tool
+	 */
+	public static Tool copyOf(Tool tool) {
+		byte classCode = classCodeOf(tool);
+		if (classCode < 0) {
+			return tool;
+		}
+		return newTool(classCode, tool.getId(), tool.getType(), tool.getBrand(), tool.getDailyCharge(),
+				tool.isChargeOnWeekdays(), tool.isChargeOnWeekends(), tool.isChargeOnHolidays(), tool.isCheckedOut());
+	}
+
+	/**
+	 * Returns the class code that storage systems which store a Tool's class as a
+	 * number use for the passed-in Tool. Tool classes defined outside of the
+	 * rental_items package have no class code and cannot be stored that way.
+	 * 
+	 * @param tool The Tool whose class code is returned
+	 * @return CHAINSAW_CLASS, LADDER_CLASS or JACKHAMMER_CLASS, or -1 for any other class
+	 */
+	public static byte classCodeOf(Tool tool) {
+		if (tool.getClass() == Chainsaw.class) {
+			return CHAINSAW_CLASS;
+		} else if (tool.getClass() == Ladder.class) {
+			return LADDER_CLASS;
+		} else if (tool.getClass() == Jackhammer.class) {
+			return JACKHAMMER_CLASS;
+		}
+		return -1;
+	}
+
+	/**
+	 * Creates a new Chainsaw, Ladder or Jackhammer from its class code and properties.
+	 * The Type is set separately since it may have been updated to differ from the
+	 * Tool's class.
+	 * 
+	 * @param classCode The class code returned by classCodeOf() for the stored Tool
+	 * @return a new Tool of the class with the passed-in class code
+	 * @throws IllegalArgumentException if the class code is not one returned by classCodeOf()
+	 */
+	public static Tool newTool(byte classCode, ToolId id, Type type, Brand brand, float dailyCharge,
+			boolean chargeOnWeekdays, boolean chargeOnWeekends, boolean chargeOnHolidays, boolean checkedOut) {
+		Tool tool;
+		if (classCode == CHAINSAW_CLASS) {
+			tool = new Chainsaw(id, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+		} else if (classCode == LADDER_CLASS) {
+			tool = new Ladder(id, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+		} else if (classCode == JACKHAMMER_CLASS) {
+			tool = new Jackhammer(id, brand, dailyCharge, chargeOnWeekdays, chargeOnWeekends, chargeOnHolidays, checkedOut);
+		} else {
+			throw new IllegalArgumentException(String.format("Unknown tool class %d.", classCode));
+		}
+		tool.setType(type);
+		return tool;
+	}
+
 	public String toString() {
 		return String.format(
 				"Code: %s\nType: %s\nBrand: %s\nDaily Charge: %f\nCharge On Weekdays: %s\nCharge on Weekends: %s\nCharge on Holidays: %s\n",
-				code, type, brand,
+				id, type, brand,
 				dailyCharge,
 				chargeOnWeekdays ? "Yes" : "No",
 				chargeOnWeekends ? "Yes" : "No",
@@ -122,7 +200,7 @@ public abstract class Tool {
 		result = prime * result + (chargeOnWeekdays ? 1231 : 1237);
 		result = prime * result + (chargeOnWeekends ? 1231 : 1237);
 		result = prime * result + (checkedOut ? 1231 : 1237);
-		result = prime * result + ((code == null) ? 0 : code.hashCode());
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
 		result = prime * result + Float.floatToIntBits(dailyCharge);
 		result = prime * result + ((type == null) ? 0 : type.hashCode());
 		return result;
@@ -147,7 +225,7 @@ public abstract class Tool {
 			return false;
 		if (checkedOut != other.checkedOut)
 			return false;
-		if (code != other.code)
+		if (id != other.id)
 			return false;
 		if (Float.floatToIntBits(dailyCharge) != Float.floatToIntBits(other.dailyCharge))
 			return false;
@@ -0,0 +1,191 @@
+package rentatool.rental_items;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rentatool.rental_items.ToolEnums.Code;
+
+/**
+ * The identifier of a single rental unit (e.g. the serial number "JAKR-000123").
+ * ToolIds are interned: there is only ever one ToolId instance per name, so two
+ * ToolIds are equal only if they are the same instance. Every ToolId is also
+ * dictionary-encoded as a small int (see intValue()), handed out in the order the
+ * names are first seen. Storage systems keyed by ToolId therefore never hash or
+ * compare Strings on a lookup; the name is only hashed once, when it is turned
+ * into a ToolId by ToolId.of(String).
+ *
+ * A ToolId is never freed once it has been created, so ToolId.of(String) is only
+ * used for the names of tools that are actually added to or read from a storage
+ * system. Codes typed by a clerk or sent by a remote client are looked up with
+ * ToolId.find(String) instead, which never creates a ToolId (see also
+ * CrudOps.findToolId()), so random codes can not grow the heap.
+ *
+ * The four ToolEnums.Code values are aliases of the first four ToolIds: the ToolId
+ * of a Code has the Code's name and the Code's ordinal as its int value, and
+ * ToolId.of(Code) is a plain array lookup. Everything that is keyed by a Code
+ * (e.g. the CrudOps methods that take a Code) simply works on the Code's ToolId.
+ *
+ * ToolIds are ordered by name (see compareTo()), which is the order tool listings use.
+ *
+ * Note: int values are only unique within a running application. Anything that
+ * is persisted (e.g. the SQLiteDB tool table) stores the ToolId's name instead.
+ *
+ * @author CSGarcia1191
+ *
+ */
+public final class ToolId implements Comparable<ToolId> {
+
+	// Every ToolId, by name
+	private static final ConcurrentHashMap<String, ToolId> BY_NAME = new ConcurrentHashMap<String, ToolId>();
+
+	// Every ToolId, by int value. Only grown (replaced by a larger copy) while holding the ToolId class lock.
+	private static volatile ToolId[] byValue = new ToolId[64];
+	private static int count;
+
+	// ToolIds of the Code aliases, by Code ordinal
+	private static final ToolId[] ALIASES;
+	static {
+		Code[] codes = Code.values();
+		ALIASES = new ToolId[codes.length];
+		for (Code code : codes) {
+			ALIASES[code.ordinal()] = intern(code.name(), code);
+		}
+	}
+
+	private final int value;
+	private final String name;
+	private final Code code;
+
+	private ToolId(int value, String name, Code code) {
+		this.value = value;
+		this.name = name;
+		this.code = code;
+	}
+
+	/**
+	 * Returns the ToolId with the passed-in name, creating it the first time the name is seen.
+	 * Names are trimmed and upper-cased, so "jakr " is the same ToolId as "JAKR" (and Code.JAKR).
+	 *
+	 * @param name The name of the tool, e.g. its Code or serial number
+	 * @return the one ToolId instance with that name
+	 * @throws IllegalArgumentException if the name is null or blank
+	 */
+	public static ToolId of(String name) {
+		String normalizedName = normalize(name);
+		if (normalizedName == null) {
+			throw new IllegalArgumentException("A tool name can not be null or blank.");
+		}
+
+		ToolId id = BY_NAME.get(normalizedName);
+		return (id != null) ? id : intern(normalizedName, null);
+	}
+
+	/**
+	 * Returns the ToolId with the passed-in name if it has already been created,
+	 * without creating one for a name that has never been seen. Names are trimmed
+	 * and upper-cased the same way ToolId.of(String) does.
+	 *
+	 * @param name The name of the tool, e.g. a code typed by a clerk
+	 * @return the ToolId with that name, or null if the name is null, blank or unknown
+	 */
+	public static ToolId find(String name) {
+		String normalizedName = normalize(name);
+		return (normalizedName == null) ? null : BY_NAME.get(normalizedName);
+	}
+
+	/**
+	 * Trims and upper-cases a tool name. The root locale is used, so the names do not
+	 * depend on the default locale (e.g. a Turkish locale would upper-case every "i" in
+	 * a name to a dotted capital I, which would then miss the ToolId spelled with an "I").
+	 *
+	 * @param name The name to normalize
+	 * @return the normalized name, or null if the name is null or blank
+	 */
+	public static String normalize(String name) {
+		if (name == null) {
+			return null;
+		}
+		String trimmedName = name.trim();
+		return trimmedName.isEmpty() ? null : trimmedName.toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * Returns the ToolId alias of the passed-in Code.
+	 *
+	 * @param code The Code to look up
+	 * @return the ToolId whose name is the Code's name, or null if the Code is null
+	 */
+	public static ToolId of(Code code) {
+		return (code == null) ? null : ALIASES[code.ordinal()];
+	}
+
+	/**
+	 * Returns the ToolId with the passed-in int value.
+	 *
+	 * @param value An int value returned by intValue()
+	 * @return the matching ToolId, or null if no ToolId has that value
+	 */
+	public static ToolId fromInt(int value) {
+		ToolId[] ids = byValue;
+		return (value >= 0 && value < ids.length) ? ids[value] : null;
+	}
+
+	// Number of ToolIds created so far. Every int value is in the range [0, count).
+	public static synchronized int count() {
+		return count;
+	}
+
+	private static synchronized ToolId intern(String name, Code code) {
+		ToolId id = BY_NAME.get(name);
+		if (id != null) {
+			return id;
+		}
+
+		id = new ToolId(count, name, code);
+		ToolId[] ids = byValue;
+		if (count == ids.length) {
+			ids = Arrays.copyOf(ids, ids.length * 2);
+		}
+		ids[count++] = id;
+		byValue = ids;
+		BY_NAME.put(name, id);
+		return id;
+	}
+
+	// Dense int value of this ToolId, usable as an array index
+	public int intValue() {
+		return value;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	// The Code this ToolId is an alias of, or null if it is not one of the Code aliases
+	public Code getCode() {
+		return code;
+	}
+
+	// Orders ToolIds by name, the same order as an "ORDER BY code" on the SQLiteDB tool table
+	@Override
+	public int compareTo(ToolId other) {
+		return name.compareTo(other.name);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	@Override
+	public int hashCode() {
+		return value;
+	}
+
+	// ToolIds are interned, so equal ToolIds are always the same instance
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj;
+	}
+}